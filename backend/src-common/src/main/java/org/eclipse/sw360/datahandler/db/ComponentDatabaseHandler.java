@@ -12,6 +12,7 @@
 package org.eclipse.sw360.datahandler.db;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
@@ -23,6 +24,7 @@ import org.eclipse.sw360.datahandler.common.SW360Constants;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DocumentIterable;
 import org.eclipse.sw360.datahandler.entitlement.ComponentModerator;
 import org.eclipse.sw360.datahandler.entitlement.ReleaseModerator;
 import org.eclipse.sw360.datahandler.permissions.DocumentPermissions;
@@ -73,6 +75,8 @@ import static org.eclipse.sw360.datahandler.thrift.ThriftValidate.prepareRelease
 public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
 
     private static final Logger log = Logger.getLogger(ComponentDatabaseHandler.class);
+    private static final List<String> NAME_FIELDS = ImmutableList.of("name", "version");
+    private static final List<String> NAME_AND_ATTACHMENT_FIELDS = ImmutableList.of("name", "version", "attachments");
 
     /**
      * Connection to the couchDB database
@@ -145,6 +149,10 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return componentRepository.getComponentSummary(user);
     }
 
+    public ComponentSummaryPage getComponentSummaryPage(User user, PaginationData pagination) {
+        return componentRepository.getComponentSummaryPage(user, pagination);
+    }
+
     public List<Component> getComponentSummaryForExport() {
         return componentRepository.getSummaryForExport();
     }
@@ -190,6 +198,10 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return releaseRepository.getReleasesFromVendorIds(ids);
     }
 
+    public List<Release> getReleasesByExternalIds(Map<String, Set<String>> externalIds) {
+        return releaseRepository.getReleasesByExternalIds(externalIds);
+    }
+
     public List<Release> getReleasesFromComponentId(String id, User user) throws TException {
         return releaseRepository.getReleasesFromComponentId(id, user);
     }
@@ -245,6 +257,55 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return release;
     }
 
+    /**
+     * Components as {@link #getComponent(String, User)} returns them, read with one request for all components and
+     * one for all their releases. Ids which are not found are left out.
+     */
+    public List<Component> getComponentsByIds(Collection<String> ids, User user) {
+        List<Component> components = componentRepository.get(ids, true);
+
+        Set<String> releaseIds = components.stream()
+                .map(Component::getReleaseIds)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        Map<String, Release> releasesById = ThriftUtils.getIdMap(
+                releaseRepository.makeSummaryWithPermissions(SummaryType.SUMMARY, releaseIds, user));
+
+        for (Component component : components) {
+            component.setReleases(nullToEmptySet(component.getReleaseIds())
+                    .stream()
+                    .map(releasesById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            component.unsetReleaseIds();
+
+            setMainLicenses(component);
+
+            makePermission(component, user).fillPermissions();
+        }
+
+        return components;
+    }
+
+    /**
+     * Releases as {@link #getRelease(String, User)} returns them, read with one request for all releases and one for
+     * all their vendors. Ids which are not found are left out.
+     */
+    public List<Release> getReleasesWithVendorsByIds(Collection<String> ids, User user) {
+        List<Release> releases = releaseRepository.get(ids, true);
+
+        vendorRepository.fillVendors(releases);
+        for (Release release : releases) {
+            if (user != null) {
+                makePermission(release, user).fillPermissions();
+            }
+            ensureEccInformationIsSet(release);
+        }
+
+        return releases;
+    }
+
     private void setMainLicenses(Component component) {
         if (!component.isSetMainLicenseIds() && component.isSetReleases()) {
             Set<String> licenseIds = new HashSet<>();
@@ -333,6 +394,32 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
                 .setId(id);
     }
 
+    public List<AddDocumentRequestSummary> addComponents(List<Component> components, String user) {
+        List<AddDocumentRequestSummary> summaries = new ArrayList<>(components.size());
+        for (Component component : components) {
+            try {
+                summaries.add(addComponent(component, user));
+            } catch (SW360Exception e) {
+                log.error("Could not add component " + component.getName(), e);
+                summaries.add(new AddDocumentRequestSummary().setRequestStatus(AddDocumentRequestStatus.FAILURE));
+            }
+        }
+        return summaries;
+    }
+
+    public List<AddDocumentRequestSummary> addReleases(List<Release> releases, String user) {
+        List<AddDocumentRequestSummary> summaries = new ArrayList<>(releases.size());
+        for (Release release : releases) {
+            try {
+                summaries.add(addRelease(release, user));
+            } catch (SW360Exception e) {
+                log.error("Could not add release " + SW360Utils.printName(release), e);
+                summaries.add(new AddDocumentRequestSummary().setRequestStatus(AddDocumentRequestStatus.FAILURE));
+            }
+        }
+        return summaries;
+    }
+
     private boolean isDuplicate(Component component){
         Set<String> duplicates = componentRepository.getComponentIdsByName(component.getName());
         return duplicates.size()>0;
@@ -395,6 +482,32 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         Component actual = componentRepository.get(component.getId());
         assertNotNull(actual, "Could not find component to update!");
 
+        return updateComponent(component, actual, user);
+    }
+
+    /**
+     * Updates the components as {@link #updateComponent(Component, User)} does, but reads them with one request
+     */
+    public List<RequestStatus> updateComponentsIndividually(List<Component> components, User user) {
+        Set<String> ids = components.stream().map(Component::getId).collect(Collectors.toSet());
+        Map<String, Component> actualById = ThriftUtils.getIdMap(componentRepository.get(ids, true));
+
+        List<RequestStatus> statuses = new ArrayList<>(components.size());
+        for (Component component : components) {
+            try {
+                prepareComponent(component);
+                Component actual = actualById.get(component.getId());
+                assertNotNull(actual, "Could not find component to update! id=" + component.getId());
+                statuses.add(updateComponent(component, actual, user));
+            } catch (SW360Exception e) {
+                log.error("Could not update component " + component.getName(), e);
+                statuses.add(RequestStatus.FAILURE);
+            }
+        }
+        return statuses;
+    }
+
+    private RequestStatus updateComponent(Component component, Component actual, User user) {
         if (makePermission(actual, user).isActionAllowed(RequestedAction.WRITE)) {
             // Nested releases and attachments should not be updated by this method
             if (actual.isSetReleaseIds()) {
@@ -602,6 +715,32 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         Release actual = releaseRepository.get(release.getId());
         assertNotNull(actual, "Could not find release to update");
 
+        return updateRelease(release, actual, user, immutableFields);
+    }
+
+    /**
+     * Updates the releases as {@link #updateRelease(Release, User, Iterable)} does, but reads them with one request
+     */
+    public List<RequestStatus> updateReleasesIndividually(List<Release> releases, User user, Iterable<Release._Fields> immutableFields) {
+        Set<String> ids = releases.stream().map(Release::getId).collect(Collectors.toSet());
+        Map<String, Release> actualById = ThriftUtils.getIdMap(releaseRepository.get(ids, true));
+
+        List<RequestStatus> statuses = new ArrayList<>(releases.size());
+        for (Release release : releases) {
+            try {
+                prepareRelease(release);
+                Release actual = actualById.get(release.getId());
+                assertNotNull(actual, "Could not find release to update! id=" + release.getId());
+                statuses.add(updateRelease(release, actual, user, immutableFields));
+            } catch (SW360Exception e) {
+                log.error("Could not update release " + SW360Utils.printName(release), e);
+                statuses.add(RequestStatus.FAILURE);
+            }
+        }
+        return statuses;
+    }
+
+    private RequestStatus updateRelease(Release release, Release actual, User user, Iterable<Release._Fields> immutableFields) {
         if (actual.equals(release)) {
             return RequestStatus.SUCCESS;
         }
@@ -1105,10 +1244,14 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return componentRepository.getUsedAttachmentContents();
     }
 
+    public Set<Source> getAttachmentOwners(String attachmentContentId) {
+        return componentRepository.getAttachmentOwners(attachmentContentId);
+    }
+
     public Map<String, List<String>> getDuplicateComponents() {
         ListMultimap<String, String> componentIdentifierToComponentId = ArrayListMultimap.create();
 
-        for (Component component : componentRepository.getAll()) {
+        for (Component component : componentRepository.iterateAll(DocumentIterable.DEFAULT_PAGE_SIZE, NAME_FIELDS)) {
             componentIdentifierToComponentId.put(SW360Utils.printName(component), component.getId());
         }
         return CommonUtils.getIdentifierToListOfDuplicates(componentIdentifierToComponentId);
@@ -1117,7 +1260,7 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
     public Map<String, List<String>> getDuplicateReleases() {
         ListMultimap<String, String> releaseIdentifierToReleaseId = ArrayListMultimap.create();
 
-        for (Release release : getAllReleases()) {
+        for (Release release : releaseRepository.iterateAll(DocumentIterable.DEFAULT_PAGE_SIZE, NAME_FIELDS)) {
             releaseIdentifierToReleaseId.put(SW360Utils.printName(release), release.getId());
         }
 
@@ -1137,7 +1280,7 @@ public class ComponentDatabaseHandler extends AttachmentAwareDatabaseHandler {
     public Map<String,List<String>> getDuplicateReleaseSources() {
         ListMultimap<String, String> releaseIdentifierToReleaseId = ArrayListMultimap.create();
 
-        for (Release release : getAllReleases()) {
+        for (Release release : releaseRepository.iterateAll(DocumentIterable.DEFAULT_PAGE_SIZE, NAME_AND_ATTACHMENT_FIELDS)) {
 
             if(release.isSetAttachments()) {
                 for (Attachment attachment : release.getAttachments()) {
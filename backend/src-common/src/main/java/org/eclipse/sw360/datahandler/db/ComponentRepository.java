@@ -13,11 +13,17 @@ package org.eclipse.sw360.datahandler.db;
 import org.eclipse.sw360.components.summary.ComponentSummary;
 import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
+import org.eclipse.sw360.datahandler.common.SummaryPaginator;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DocumentCache;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.ViewQuery;
+import org.ektorp.ViewResult;
 import org.ektorp.support.View;
 import org.ektorp.support.Views;
 
@@ -45,6 +51,14 @@ import java.util.Set;
                     "        }" +
                     "    }" +
                     "}"),
+        @View(name = "attachmentOwners",
+                map = "function(doc) { " +
+                    "    if(doc.type == 'release' || doc.type == 'component' || doc.type == 'project') {" +
+                    "        for(var i in doc.attachments){" +
+                    "            emit(doc.attachments[i].attachmentContentId, doc.type);" +
+                    "        }" +
+                    "    }" +
+                    "}"),
         @View(name = "mycomponents",
                 map = "function(doc) {" +
                     "  if (doc.type == 'component') {" +
@@ -90,10 +104,15 @@ import java.util.Set;
 })
 public class ComponentRepository extends SummaryAwareRepository<Component> {
 
+    private static final SummaryPaginator<Component> SUMMARY_PAGINATOR = SummaryPaginator.forComponents();
+
+    private final DocumentCache<Component> summaryCache;
+
     public ComponentRepository(DatabaseConnector db, ReleaseRepository releaseRepository, VendorRepository vendorRepository) {
         super(Component.class, db, new ComponentSummary(releaseRepository, vendorRepository));
 
         initStandardDesignDocument();
+        summaryCache = new DocumentCache<>(Component.class, "component", db, this::getAll);
     }
 
     public List<Component> getRecentComponentsSummary(int limit, User user) {
@@ -110,6 +129,24 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
         return queryForIdsAsValue(createQuery("usedAttachmentContents"));
     }
 
+    public Set<Source> getAttachmentOwners(String attachmentContentId) {
+        ViewResult rows = db.queryView(createQuery("attachmentOwners").key(attachmentContentId).includeDocs(false));
+        Set<Source> owners = new HashSet<>();
+        for (ViewResult.Row row : rows.getRows()) {
+            switch (row.getValue()) {
+                case "project":
+                    owners.add(Source.projectId(row.getId()));
+                    break;
+                case "component":
+                    owners.add(Source.componentId(row.getId()));
+                    break;
+                default:
+                    owners.add(Source.releaseId(row.getId()));
+            }
+        }
+        return owners;
+    }
+
     public Collection<Component> getMyComponents(String user) {
         return queryByPrefix("mycomponents", user);
     }
@@ -130,10 +167,16 @@ public class ComponentRepository extends SummaryAwareRepository<Component> {
     }
 
     public List<Component> getComponentSummary(User user) {
-        final List<Component> componentList = getAll();
+        final List<Component> componentList = summaryCache.getAll();
         return makeSummaryWithPermissionsFromFullDocs(SummaryType.SUMMARY, componentList, user);
     }
 
+    public ComponentSummaryPage getComponentSummaryPage(User user, PaginationData pagination) {
+        SummaryPaginator.Page<Component> page = summaryCache.paginate(SUMMARY_PAGINATOR, pagination);
+        return new ComponentSummaryPage(makeSummaryWithPermissionsFromFullDocs(SummaryType.SUMMARY, page.getRows(), user),
+                page.getTotalCount(), page.getFilteredCount());
+    }
+
     public Set<String> getComponentIdsByName(String name) {
         return queryForIdsAsValue("byname", name);
     }
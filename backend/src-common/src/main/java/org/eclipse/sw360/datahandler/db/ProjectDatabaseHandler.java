@@ -18,6 +18,7 @@ import org.eclipse.sw360.datahandler.businessrules.ReleaseClearingStateSummaryCo
 import org.eclipse.sw360.datahandler.common.*;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DocumentIterable;
 import org.eclipse.sw360.datahandler.entitlement.ProjectModerator;
 import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.components.*;
@@ -25,6 +26,7 @@ import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectLink;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectRelationship;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectWithReleaseRelationTuple;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -59,6 +61,7 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
     private static final Logger log = Logger.getLogger(ProjectDatabaseHandler.class);
     private static final int DELETION_SANITY_CHECK_THRESHOLD = 5;
     private static final String DUMMY_NEW_PROJECT_ID = "newproject";
+    private static final List<String> NAME_FIELDS = ImmutableList.of("name", "version");
 
     private final ProjectRepository repository;
     private final ProjectVulnerabilityRatingRepository pvrRepository;
@@ -121,6 +124,10 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return repository.getAccessibleProjectsSummary(user);
     }
 
+    public ProjectSummaryPage getAccessibleProjectsSummaryPage(User user, PaginationData pagination) {
+        return repository.getAccessibleProjectsSummaryPage(user, pagination);
+    }
+
     public List<Project> searchByName(String name, User user) {
         return repository.searchByName(name, user);
     }
@@ -163,6 +170,19 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
         return new AddDocumentRequestSummary().setId(project.getId()).setRequestStatus(AddDocumentRequestStatus.SUCCESS);
     }
 
+    public List<AddDocumentRequestSummary> addProjects(List<Project> projects, User user) {
+        List<AddDocumentRequestSummary> summaries = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            try {
+                summaries.add(addProject(project, user));
+            } catch (SW360Exception e) {
+                log.error("Could not add project " + printName(project), e);
+                summaries.add(new AddDocumentRequestSummary().setRequestStatus(AddDocumentRequestStatus.FAILURE));
+            }
+        }
+        return summaries;
+    }
+
     private boolean isDuplicate(Project project){
         List<Project> duplicates = repository.searchByNameAndVersion(project.getName(), project.getVersion());
         return duplicates.size()>0;
@@ -179,6 +199,32 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
 
         assertNotNull(project);
 
+        return updateProject(project, actual, user);
+    }
+
+    /**
+     * Updates the projects as {@link #updateProject(Project, User)} does, but reads them with one request
+     */
+    public List<RequestStatus> updateProjects(List<Project> projects, User user) {
+        Set<String> ids = projects.stream().map(Project::getId).collect(Collectors.toSet());
+        Map<String, Project> actualById = ThriftUtils.getIdMap(repository.get(ids, true));
+
+        List<RequestStatus> statuses = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            try {
+                prepareProject(project);
+                Project actual = actualById.get(project.getId());
+                assertNotNull(actual, "Could not find project to update! id=" + project.getId());
+                statuses.add(updateProject(project, actual, user));
+            } catch (SW360Exception e) {
+                log.error("Could not update project " + printName(project), e);
+                statuses.add(RequestStatus.FAILURE);
+            }
+        }
+        return statuses;
+    }
+
+    private RequestStatus updateProject(Project project, Project actual, User user) throws SW360Exception {
         if (!changePassesSanityCheck(project, actual)){
             return RequestStatus.FAILED_SANITY_CHECK;
         } else if (makePermission(actual, user).isActionAllowed(RequestedAction.WRITE)) {
@@ -437,7 +483,7 @@ public class ProjectDatabaseHandler extends AttachmentAwareDatabaseHandler {
     public Map<String, List<String>> getDuplicateProjects() {
         ListMultimap<String, String> projectIdentifierToReleaseId = ArrayListMultimap.create();
 
-        for (Project project : repository.getAll()) {
+        for (Project project : repository.iterateAll(DocumentIterable.DEFAULT_PAGE_SIZE, NAME_FIELDS)) {
             projectIdentifierToReleaseId.put(SW360Utils.printName(project), project.getId());
         }
 
@@ -13,10 +13,13 @@ package org.eclipse.sw360.datahandler.db;
 import com.google.common.collect.Sets;
 import org.eclipse.sw360.components.summary.ProjectSummary;
 import org.eclipse.sw360.components.summary.SummaryType;
+import org.eclipse.sw360.datahandler.common.SummaryPaginator;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
 import org.eclipse.sw360.datahandler.permissions.ProjectPermissions;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.support.View;
 import org.jetbrains.annotations.NotNull;
@@ -134,6 +137,8 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
                     "  }" +
                     "}";
 
+    private static final SummaryPaginator<Project> SUMMARY_PAGINATOR = SummaryPaginator.forProjects();
+
     public ProjectRepository(DatabaseConnector db) {
         super(Project.class, db, new ProjectSummary());
         initStandardDesignDocument();
@@ -234,6 +239,12 @@ public class ProjectRepository extends SummaryAwareRepository<Project> {
         return makeSummaryFromFullDocs(SummaryType.SUMMARY, getAccessibleProjects(user));
     }
 
+    public ProjectSummaryPage getAccessibleProjectsSummaryPage(User user, PaginationData pagination) {
+        SummaryPaginator.Page<Project> page = SUMMARY_PAGINATOR.paginate(getAccessibleProjects(user), pagination);
+        return new ProjectSummaryPage(makeSummaryFromFullDocs(SummaryType.SUMMARY, page.getRows()),
+                page.getTotalCount(), page.getFilteredCount());
+    }
+
     @NotNull
     public Set<Project> getAccessibleProjects(User user) {
         /** This implementation requires multiple DB requests and has its logic distributed in multiple places **/
@@ -15,15 +15,16 @@ import com.google.common.collect.ImmutableListMultimap;
 import org.eclipse.sw360.components.summary.ReleaseSummary;
 import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DocumentCache;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.ektorp.ComplexKey;
 import org.ektorp.ViewQuery;
 import org.ektorp.support.View;
 import org.ektorp.support.Views;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -68,14 +69,25 @@ import static com.google.common.base.Strings.isNullOrEmpty;
                       "      emit(doc.mainLicenseIds[i], doc);" +
                       "    }" +
                       "  }" +
+                      "}"),
+        @View(name = "byExternalIds",
+                map = "function(doc) {" +
+                      "  if (doc.type == 'release'){" +
+                      "    for(var externalId in doc.externalIds) {" +
+                      "      emit([externalId, doc.externalIds[externalId]], doc._id);" +
+                      "    }" +
+                      "  }" +
                       "}")
 })
 public class ReleaseRepository extends SummaryAwareRepository<Release> {
 
+    private final DocumentCache<Release> summaryCache;
+
     public ReleaseRepository(DatabaseConnector db, VendorRepository vendorRepository) {
         super(Release.class, db, new ReleaseSummary(vendorRepository));
 
         initStandardDesignDocument();
+        summaryCache = new DocumentCache<>(Release.class, "release", db, this::getAll);
     }
 
     public List<Release> searchByNamePrefix(String name) {
@@ -91,7 +103,7 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
     }
 
     public List<Release> getReleaseSummary() {
-        return makeSummary(SummaryType.SUMMARY, getAllIds());
+        return makeSummaryFromFullDocs(SummaryType.SUMMARY, summaryCache.getAll());
     }
 
     public List<Release> getRecentReleases() {
@@ -127,4 +139,22 @@ public class ReleaseRepository extends SummaryAwareRepository<Release> {
 
         return queryView("releaseIdsByLicenseId", licenseId);
     }
+
+    /**
+     * Returns the releases having one of the given values for one of the given
+     * external id keys. Only the referenced releases are loaded from the database.
+     */
+    public List<Release> getReleasesByExternalIds(Map<String, Set<String>> externalIds) {
+        List<ComplexKey> keys = new ArrayList<>();
+        externalIds.forEach((externalIdKey, values) -> values.forEach(value -> keys.add(ComplexKey.of(externalIdKey, value))));
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ViewQuery query = createQuery("byExternalIds").includeDocs(true).keys(keys);
+        Map<String, Release> releasesById = new LinkedHashMap<>();
+        for (Release release : queryView(query)) {
+            releasesById.putIfAbsent(release.getId(), release);
+        }
+        return new ArrayList<>(releasesById.values());
+    }
 }
@@ -13,11 +13,16 @@ package org.eclipse.sw360.datahandler.db;
 import org.eclipse.sw360.components.summary.UserSummary;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
+import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.ektorp.ComplexKey;
 import org.ektorp.support.View;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * CRUD access for the User class
@@ -28,13 +33,35 @@ import java.util.List;
 
 @View(name = "all", map = "function(doc) { if (doc.type == 'user') emit(null, doc._id) }")
 public class UserRepository extends SummaryAwareRepository<User> {
+
+    // every user is found under its group alone and under its group together with its department
+    private static final String BY_GROUP_AND_DEPARTMENT_VIEW =
+            "function(doc) {" +
+                    "  if (doc.type == 'user' && doc.userGroup) {" +
+                    "    emit([doc.userGroup], doc.email);" +
+                    "    emit([doc.userGroup, doc.department], doc.email);" +
+                    "  } " +
+                    "}";
+
     public UserRepository(DatabaseConnector databaseConnector) {
         super(User.class, databaseConnector, new UserSummary());
         initStandardDesignDocument();
+        enableReadCache(User::deepCopy);
     }
 
     @Override
     public List<User> get(Collection<String> ids) {
-        return getConnector().get(User.class, ids, true);
+        return get(ids, true);
+    }
+
+    /**
+     * @return the emails of the users which are at least in the group, only of the department if it is not null
+     */
+    @View(name = "byGroupAndDepartment", map = BY_GROUP_AND_DEPARTMENT_VIEW)
+    public Set<String> getEmailsAtLeast(UserGroup userGroup, String department) {
+        List<ComplexKey> keys = PermissionUtils.getGroupsAtLeast(userGroup).stream()
+                .map(group -> department == null ? ComplexKey.of(group.toString()) : ComplexKey.of(group.toString(), department))
+                .collect(Collectors.toList());
+        return queryForIdsAsValue(createQuery("byGroupAndDepartment").keys(keys));
     }
 }
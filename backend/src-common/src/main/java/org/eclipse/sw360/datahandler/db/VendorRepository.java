@@ -15,12 +15,18 @@ import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
 import org.ektorp.support.View;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
 import static org.eclipse.sw360.datahandler.permissions.PermissionUtils.makePermission;
@@ -38,6 +44,7 @@ public class VendorRepository extends DatabaseRepository<Vendor> {
         super(Vendor.class, db);
 
         initStandardDesignDocument();
+        enableReadCache(Vendor::deepCopy);
     }
 
     public void fillVendor(Release release) {
@@ -51,4 +58,24 @@ public class VendorRepository extends DatabaseRepository<Vendor> {
             release.unsetVendorId();
         }
     }
+
+    /**
+     * Fills the vendors of all releases, reading them with one request
+     */
+    public void fillVendors(Collection<Release> releases) {
+        Set<String> vendorIds = releases.stream()
+                .map(Release::getVendorId)
+                .filter(vendorId -> !isNullOrEmpty(vendorId))
+                .collect(Collectors.toSet());
+        Map<String, Vendor> vendorsById = ThriftUtils.getIdMap(get(vendorIds, true));
+
+        for (Release release : releases) {
+            if (release.isSetVendorId()) {
+                Vendor vendor = vendorsById.get(release.getVendorId());
+                if (vendor != null)
+                    release.setVendor(vendor);
+                release.unsetVendorId();
+            }
+        }
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.projects;
+
+import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.protocol.*;
+import org.eclipse.sw360.datahandler.common.CommonUtils;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRequestStatistics;
+
+import java.util.Properties;
+
+import static org.apache.log4j.Logger.getLogger;
+
+/**
+ * Processor which records the calls of the decorated processor in {@link ThriftMetrics} and logs the calls which take
+ * longer than a threshold. The arguments of slow calls are logged without their values, only their types and the
+ * sizes of containers are shown.
+ *
+ * The CouchDB requests of each call are recorded with {@link DatabaseRequestStatistics}, their totals are logged on
+ * debug level.
+ */
+public class MeteredProcessor implements TProcessor {
+
+    private static final Logger log = getLogger(MeteredProcessor.class);
+
+    public static final String PROPERTIES_FILE_PATH = "/sw360.properties";
+
+    /**
+     * Calls which take at least this many milliseconds are logged, a negative value turns the logging off
+     */
+    public static final long SLOW_CALL_THRESHOLD;
+
+    static {
+        Properties props = CommonUtils.loadProperties(MeteredProcessor.class, PROPERTIES_FILE_PATH);
+
+        SLOW_CALL_THRESHOLD = Long.parseLong(props.getProperty("thrift.slow.call.threshold", "1000"));
+    }
+
+    private final TProcessor processor;
+    private final ThriftMetrics metrics;
+    private final long slowCallThreshold;
+
+    public MeteredProcessor(TProcessor processor, ThriftMetrics metrics, long slowCallThreshold) {
+        this.processor = processor;
+        this.metrics = metrics;
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    @Override
+    public boolean process(TProtocol in, TProtocol out) throws TException {
+        TMessage message = in.readMessageBegin();
+        ArgumentRecordingProtocol recordingIn = new ArgumentRecordingProtocol(in, message);
+        ReplyRecordingProtocol recordingOut = new ReplyRecordingProtocol(out);
+
+        DatabaseRequestStatistics databaseRequests = DatabaseRequestStatistics.start();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean processed = processor.process(recordingIn, recordingOut);
+            failed = recordingOut.isException();
+            return processed;
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            databaseRequests.close();
+            boolean slow = slowCallThreshold >= 0 && millis >= slowCallThreshold;
+            ThriftMetrics.MethodMetrics methodMetrics = metrics.forMethod(message.name);
+            methodMetrics.recordCall(millis, failed, slow);
+            methodMetrics.recordDatabaseRequests(databaseRequests.getCount(), databaseRequests.getMillis());
+            if (slow) {
+                log.warn("Slow Thrift call " + message.name + "(" + recordingIn.getArguments() + ") took " + millis + " ms"
+                        + (failed ? " and failed" : "") + ", database: " + databaseRequests);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Thrift call " + message.name + " took " + millis + " ms, database: " + databaseRequests);
+            }
+        }
+    }
+
+    /**
+     * Returns the message which was already read and notes the shape of the arguments read by the processor
+     */
+    private static class ArgumentRecordingProtocol extends TProtocolDecorator {
+        private final TMessage message;
+        private final StringBuilder arguments = new StringBuilder();
+        private int depth = 0;
+        private boolean sizeRecorded = true;
+
+        private ArgumentRecordingProtocol(TProtocol protocol, TMessage message) {
+            super(protocol);
+            this.message = message;
+        }
+
+        @Override
+        public TMessage readMessageBegin() {
+            return message;
+        }
+
+        @Override
+        public TStruct readStructBegin() throws TException {
+            depth++;
+            return super.readStructBegin();
+        }
+
+        @Override
+        public void readStructEnd() throws TException {
+            depth--;
+            super.readStructEnd();
+        }
+
+        @Override
+        public TField readFieldBegin() throws TException {
+            TField field = super.readFieldBegin();
+            if (depth == 1 && field.type != TType.STOP) {
+                if (arguments.length() > 0) {
+                    arguments.append(", ");
+                }
+                arguments.append(field.id).append(": ").append(typeName(field.type));
+                sizeRecorded = false;
+            }
+            return field;
+        }
+
+        @Override
+        public TList readListBegin() throws TException {
+            TList list = super.readListBegin();
+            recordSize(list.size);
+            return list;
+        }
+
+        @Override
+        public TSet readSetBegin() throws TException {
+            TSet set = super.readSetBegin();
+            recordSize(set.size);
+            return set;
+        }
+
+        @Override
+        public TMap readMapBegin() throws TException {
+            TMap map = super.readMapBegin();
+            recordSize(map.size);
+            return map;
+        }
+
+        private void recordSize(int size) {
+            if (depth == 1 && !sizeRecorded) {
+                arguments.append('[').append(size).append(']');
+                sizeRecorded = true;
+            }
+        }
+
+        private String getArguments() {
+            return arguments.toString();
+        }
+
+        private static String typeName(byte type) {
+            switch (type) {
+                case TType.BOOL:
+                    return "bool";
+                case TType.BYTE:
+                    return "byte";
+                case TType.DOUBLE:
+                    return "double";
+                case TType.I16:
+                    return "i16";
+                case TType.I32:
+                    return "i32";
+                case TType.I64:
+                    return "i64";
+                case TType.STRING:
+                    return "string";
+                case TType.STRUCT:
+                    return "struct";
+                case TType.MAP:
+                    return "map";
+                case TType.SET:
+                    return "set";
+                case TType.LIST:
+                    return "list";
+                case TType.ENUM:
+                    return "enum";
+                default:
+                    return "type " + type;
+            }
+        }
+    }
+
+    /**
+     * Notes whether the processor answered with an exception
+     */
+    private static class ReplyRecordingProtocol extends TProtocolDecorator {
+        private boolean exception = false;
+
+        private ReplyRecordingProtocol(TProtocol protocol) {
+            super(protocol);
+        }
+
+        @Override
+        public void writeMessageBegin(TMessage message) throws TException {
+            exception = message.type == TMessageType.EXCEPTION;
+            super.writeMessageBegin(message);
+        }
+
+        private boolean isException() {
+            return exception;
+        }
+    }
+}
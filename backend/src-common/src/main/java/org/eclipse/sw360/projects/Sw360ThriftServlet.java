@@ -10,36 +10,101 @@
  */
 package org.eclipse.sw360.projects;
 
+import com.google.common.io.ByteStreams;
 import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
 import org.apache.thrift.TProcessor;
 import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServlet;
+import org.apache.thrift.transport.TMemoryInputTransport;
+import org.eclipse.sw360.datahandler.thrift.CompressionStatistics;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
+import org.eclipse.sw360.datahandler.thrift.ThriftCompression;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 import static org.apache.log4j.Logger.getLogger;
 
 /**
+ * Thrift servlet which compresses the messages as described in {@link ThriftCompression}: compressed requests are
+ * accepted and responses are compressed for clients which ask for it.
+ *
+ * The calls are recorded in {@link ThriftMetrics}, which are shown to local clients on {@code GET <servlet>?metrics}.
+ *
  * @author Andreas.Reichel@tngtech.com
  */
 public class Sw360ThriftServlet extends TServlet {
     private static final Logger log = getLogger(Sw360ThriftServlet.class);
 
+    public static final String METRICS_PARAMETER = "metrics";
+
+    private static final String UNKNOWN_METHOD = "unknown";
+
+    private final TProtocolFactory inProtocolFactory;
+    private final int compressionThreshold;
+    private final CompressionStatistics compressionStatistics = new CompressionStatistics();
+    private final ThriftMetrics metrics;
+
     public Sw360ThriftServlet(TProcessor processor, TProtocolFactory protocolFactory) {
-        super(processor, protocolFactory);
+        this(processor, protocolFactory, protocolFactory);
     }
 
     public Sw360ThriftServlet(TProcessor processor, TProtocolFactory inProtocolFactory, TProtocolFactory outProtocolFactory) {
-        super(processor, inProtocolFactory, outProtocolFactory);
+        this(processor, inProtocolFactory, outProtocolFactory, ThriftCompression.THRESHOLD);
+    }
+
+    public Sw360ThriftServlet(TProcessor processor, TProtocolFactory inProtocolFactory, TProtocolFactory outProtocolFactory,
+                              int compressionThreshold) {
+        this(processor, inProtocolFactory, outProtocolFactory, compressionThreshold, MeteredProcessor.SLOW_CALL_THRESHOLD, new ThriftMetrics());
+    }
+
+    public Sw360ThriftServlet(TProcessor processor, TProtocolFactory inProtocolFactory, TProtocolFactory outProtocolFactory,
+                              int compressionThreshold, long slowCallThreshold) {
+        this(processor, inProtocolFactory, outProtocolFactory, compressionThreshold, slowCallThreshold, new ThriftMetrics());
+    }
+
+    private Sw360ThriftServlet(TProcessor processor, TProtocolFactory inProtocolFactory, TProtocolFactory outProtocolFactory,
+                               int compressionThreshold, long slowCallThreshold, ThriftMetrics metrics) {
+        super(new MeteredProcessor(processor, metrics, slowCallThreshold), inProtocolFactory, outProtocolFactory);
+        this.inProtocolFactory = inProtocolFactory;
+        this.compressionThreshold = compressionThreshold;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Statistics of the messages received and sent by this servlet
+     */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    public ThriftMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         try {
-            super.doPost(request, response);
+            BufferedRequest bufferedRequest = readRequest(request);
+            BufferedResponse bufferedResponse = new BufferedResponse(response);
+            super.doPost(bufferedRequest, bufferedResponse);
+            byte[] responseMessage = bufferedResponse.getBody();
+            metrics.forMethod(readMethodName(bufferedRequest.getMessage()))
+                    .recordPayload(bufferedRequest.getContentLength(), responseMessage.length);
+            writeResponse(request, response, responseMessage);
         } catch (Exception e) {
             log.error("uncaught", e);
             throw e;
@@ -49,10 +114,144 @@ public class Sw360ThriftServlet extends TServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         try {
-            super.doGet(request, response);
+            if (request.getParameter(METRICS_PARAMETER) != null) {
+                writeMetrics(request, response);
+            } else {
+                super.doGet(request, response);
+            }
         } catch (Exception e) {
             log.error("uncaught", e);
             throw e;
         }
     }
+
+    private BufferedRequest readRequest(HttpServletRequest request) throws IOException {
+        byte[] body = ByteStreams.toByteArray(request.getInputStream());
+        boolean compressed = ThriftCompression.isCompressed(request.getHeader(ThriftCompression.CONTENT_ENCODING));
+        byte[] message = compressed ? ThriftCompression.decompress(body) : body;
+        compressionStatistics.record(message.length, body.length, compressed);
+        return new BufferedRequest(request, message);
+    }
+
+    private String readMethodName(byte[] message) {
+        try {
+            return inProtocolFactory.getProtocol(new TMemoryInputTransport(message)).readMessageBegin().name;
+        } catch (TException e) {
+            return UNKNOWN_METHOD;
+        }
+    }
+
+    private void writeMetrics(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!isLocal(request.getRemoteAddr())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        response.setContentType("text/plain; version=0.0.4");
+        PrintWriter writer = response.getWriter();
+        metrics.writeTo(writer);
+        writeCompressionStatistics(writer, "sw360_thrift", compressionStatistics);
+        // the messages of the Thrift clients this backend uses to call the other services
+        writeCompressionStatistics(writer, "sw360_thrift_client", ThriftClients.getCompressionStatistics());
+        writer.flush();
+    }
+
+    private static void writeCompressionStatistics(PrintWriter writer, String prefix, CompressionStatistics statistics) {
+        writer.println("# TYPE " + prefix + "_messages_total counter");
+        writer.println(prefix + "_messages_total " + statistics.getMessages());
+        writer.println("# TYPE " + prefix + "_compressed_messages_total counter");
+        writer.println(prefix + "_compressed_messages_total " + statistics.getCompressedMessages());
+        writer.println("# TYPE " + prefix + "_transferred_bytes_total counter");
+        writer.println(prefix + "_transferred_bytes_total " + statistics.getTransferredBytes());
+        writer.println("# TYPE " + prefix + "_uncompressed_bytes_total counter");
+        writer.println(prefix + "_uncompressed_bytes_total " + statistics.getUncompressedBytes());
+    }
+
+    private static boolean isLocal(String address) {
+        try {
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private void writeResponse(HttpServletRequest request, HttpServletResponse response, byte[] message) throws IOException {
+        boolean compress = ThriftCompression.shouldCompress(message.length, compressionThreshold,
+                ThriftCompression.acceptsCompression(request.getHeader(ThriftCompression.ACCEPT_ENCODING)));
+        byte[] body = compress ? ThriftCompression.compress(message) : message;
+        compressionStatistics.record(message.length, body.length, compress);
+
+        if (ThriftCompression.isEnabled(compressionThreshold)) {
+            // tells the client that it may send compressed requests
+            response.setHeader(ThriftCompression.ACCEPT_ENCODING, ThriftCompression.GZIP);
+        }
+        if (compress) {
+            response.setHeader(ThriftCompression.CONTENT_ENCODING, ThriftCompression.GZIP);
+        }
+        response.setContentLength(body.length);
+        OutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    private static class BufferedRequest extends HttpServletRequestWrapper {
+        private final byte[] message;
+        private final ByteArrayInputStream body;
+
+        private BufferedRequest(HttpServletRequest request, byte[] message) {
+            super(request);
+            this.message = message;
+            this.body = new ByteArrayInputStream(message);
+        }
+
+        private byte[] getMessage() {
+            return message;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return body.read();
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) {
+                    return body.read(buf, off, len);
+                }
+            };
+        }
+
+        @Override
+        public int getContentLength() {
+            return message.length;
+        }
+    }
+
+    private static class BufferedResponse extends HttpServletResponseWrapper {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private BufferedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] buf, int off, int len) {
+                    body.write(buf, off, len);
+                }
+            };
+        }
+
+        private byte[] getBody() {
+            return body.toByteArray();
+        }
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.projects;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Calls, errors, latencies, payload sizes and database requests of the methods of one Thrift service
+ */
+public class ThriftMetrics {
+
+    /**
+     * Upper bounds of the latency histogram buckets in milliseconds, the last bucket takes all slower calls
+     */
+    static final long[] LATENCY_BUCKETS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    public MethodMetrics forMethod(String method) {
+        return methods.computeIfAbsent(method, name -> new MethodMetrics());
+    }
+
+    public Map<String, MethodMetrics> getMethods() {
+        return new TreeMap<>(methods);
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format
+     */
+    public void writeTo(PrintWriter writer) {
+        Map<String, MethodMetrics> sortedMethods = getMethods();
+
+        writer.println("# TYPE sw360_thrift_calls_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_calls_total", method, metrics.getCalls()));
+        writer.println("# TYPE sw360_thrift_errors_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_errors_total", method, metrics.getErrors()));
+        writer.println("# TYPE sw360_thrift_slow_calls_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_slow_calls_total", method, metrics.getSlowCalls()));
+        writer.println("# TYPE sw360_thrift_request_bytes_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_request_bytes_total", method, metrics.getRequestBytes()));
+        writer.println("# TYPE sw360_thrift_response_bytes_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_response_bytes_total", method, metrics.getResponseBytes()));
+        writer.println("# TYPE sw360_thrift_database_requests_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_database_requests_total", method, metrics.getDatabaseRequests()));
+        writer.println("# TYPE sw360_thrift_database_milliseconds_total counter");
+        sortedMethods.forEach((method, metrics) -> writeLine(writer, "sw360_thrift_database_milliseconds_total", method, metrics.getDatabaseMillis()));
+
+        writer.println("# TYPE sw360_thrift_call_duration_milliseconds histogram");
+        sortedMethods.forEach((method, metrics) -> {
+            long cumulative = 0;
+            for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+                cumulative += metrics.getLatencyBucket(i);
+                writer.println("sw360_thrift_call_duration_milliseconds_bucket{method=\"" + method + "\",le=\"" + LATENCY_BUCKETS[i] + "\"} " + cumulative);
+            }
+            writer.println("sw360_thrift_call_duration_milliseconds_bucket{method=\"" + method + "\",le=\"+Inf\"} " + metrics.getCalls());
+            writeLine(writer, "sw360_thrift_call_duration_milliseconds_sum", method, metrics.getTotalMillis());
+            writeLine(writer, "sw360_thrift_call_duration_milliseconds_count", method, metrics.getCalls());
+        });
+    }
+
+    private static void writeLine(PrintWriter writer, String name, String method, long value) {
+        writer.println(name + "{method=\"" + method + "\"} " + value);
+    }
+
+    public static class MethodMetrics {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong slowCalls = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+        private final AtomicLong databaseRequests = new AtomicLong();
+        private final AtomicLong databaseMillis = new AtomicLong();
+        // one more than the buckets for the calls slower than the last bucket
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+
+        public void recordCall(long millis, boolean failed, boolean slow) {
+            calls.incrementAndGet();
+            if (failed) {
+                errors.incrementAndGet();
+            }
+            if (slow) {
+                slowCalls.incrementAndGet();
+            }
+            totalMillis.addAndGet(millis);
+            latencies.incrementAndGet(bucketOf(millis));
+        }
+
+        public void recordPayload(int requestSize, int responseSize) {
+            requestBytes.addAndGet(requestSize);
+            responseBytes.addAndGet(responseSize);
+        }
+
+        public void recordDatabaseRequests(long requests, long millis) {
+            databaseRequests.addAndGet(requests);
+            databaseMillis.addAndGet(millis);
+        }
+
+        private static int bucketOf(long millis) {
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS.length && millis > LATENCY_BUCKETS[bucket]) {
+                bucket++;
+            }
+            return bucket;
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getSlowCalls() {
+            return slowCalls.get();
+        }
+
+        public long getTotalMillis() {
+            return totalMillis.get();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+
+        public long getDatabaseRequests() {
+            return databaseRequests.get();
+        }
+
+        public long getDatabaseMillis() {
+            return databaseMillis.get();
+        }
+
+        /**
+         * @return calls which took at most {@code LATENCY_BUCKETS[bucket]} milliseconds, but longer than the bucket
+         * before
+         */
+        public long getLatencyBucket(int bucket) {
+            return latencies.get(bucket);
+        }
+    }
+}
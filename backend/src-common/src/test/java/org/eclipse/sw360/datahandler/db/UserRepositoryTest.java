@@ -0,0 +1,113 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserRepositoryTest {
+
+    private static final int USER_COUNT = 50000;
+    private static final int DEPARTMENT_COUNT = 200;
+    private static final int BULK_SIZE = 5000;
+
+    private InMemoryCouchDb couchDb;
+    private DatabaseConnector connector;
+    private UserRepository repository;
+    private List<User> users;
+
+    @Before
+    public void setUp() throws Exception {
+        couchDb = new InMemoryCouchDb();
+        connector = new DatabaseConnector(couchDb.asSupplier(), "users");
+        repository = new UserRepository(connector);
+
+        users = new ArrayList<>(USER_COUNT);
+        UserGroup[] groups = UserGroup.values();
+        for (int i = 0; i < USER_COUNT; i++) {
+            String email = "user" + i + "@sw360.org";
+            users.add(new User().setId(email).setEmail(email)
+                    .setDepartment("DEPARTMENT " + (i % DEPARTMENT_COUNT))
+                    // mostly normal users, as in a real user base
+                    .setUserGroup(i % 10 == 0 ? groups[(i / 10) % groups.length] : UserGroup.USER));
+        }
+        for (int i = 0; i < USER_COUNT; i += BULK_SIZE) {
+            repository.executeBulk(users.subList(i, i + BULK_SIZE));
+        }
+        // build the index before counting
+        repository.getEmailsAtLeast(UserGroup.ADMIN, null);
+        couchDb.resetRequestCounts();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connector.getChangesListener().close();
+    }
+
+    @Test
+    public void testModeratorsOfDepartmentAreFoundWithOneViewQuery() throws Exception {
+        Set<String> clearingAdmins = repository.getEmailsAtLeast(UserGroup.CLEARING_ADMIN, "DEPARTMENT 40");
+
+        assertThat(clearingAdmins, is(expectedEmails(UserGroup.CLEARING_ADMIN, "DEPARTMENT 40")));
+        assertThat(clearingAdmins, is(not(empty())));
+        assertThat(couchDb.getRequestCount(VIEW), is(1L));
+        assertThat(couchDb.getRequestCount(ALL_DOCS), is(0L));
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(0L));
+    }
+
+    @Test
+    public void testModeratorsOfAllDepartmentsAreFoundWithOneViewQuery() throws Exception {
+        for (UserGroup group : UserGroup.values()) {
+            assertThat(repository.getEmailsAtLeast(group, null), is(expectedEmails(group, null)));
+        }
+        assertThat(couchDb.getRequestCount(VIEW), is((long) UserGroup.values().length));
+        assertThat(couchDb.getRequestCount(ALL_DOCS), is(0L));
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(0L));
+    }
+
+    @Test
+    public void testUnknownDepartmentHasNoModerators() throws Exception {
+        assertThat(repository.getEmailsAtLeast(UserGroup.ADMIN, "UNKNOWN"), is(empty()));
+    }
+
+    @Test
+    public void testChangedGroupIsFound() throws Exception {
+        User user = repository.get("user1@sw360.org");
+        assertThat(repository.getEmailsAtLeast(UserGroup.ECC_ADMIN, user.getDepartment()), not(hasItem(user.getEmail())));
+
+        repository.update(user.setUserGroup(UserGroup.ECC_ADMIN));
+
+        assertThat(repository.getEmailsAtLeast(UserGroup.ECC_ADMIN, user.getDepartment()), hasItem(user.getEmail()));
+    }
+
+    private Set<String> expectedEmails(UserGroup group, String department) {
+        return users.stream()
+                .filter(user -> PermissionUtils.isUserAtLeast(group, user))
+                .filter(user -> department == null || department.equals(user.getDepartment()))
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.db;
+
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseOperation;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRequestStatistics;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.eclipse.sw360.datahandler.couchdb.DocumentReadCache.DEFAULT_MAXIMUM_STALENESS_MILLIS;
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.GET_DOCUMENT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class VendorRepositoryTest {
+
+    private InMemoryCouchDb couchDb;
+    private DatabaseConnector connector;
+    private VendorRepository repository;
+    private Vendor vendor;
+
+    @Before
+    public void setUp() throws Exception {
+        couchDb = new InMemoryCouchDb();
+        connector = new DatabaseConnector(couchDb.asSupplier(), "vendors");
+        repository = new VendorRepository(connector);
+
+        vendor = new Vendor().setId("V1").setShortname("Acme").setFullname("Acme Corporation").setUrl("http://acme.example");
+        connector.add(vendor);
+        awaitCurrentReadCache();
+        couchDb.resetRequestCounts();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connector.getChangesListener().close();
+    }
+
+    @Test
+    public void testVendorOfManyReleasesIsReadOnce() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Release release = new Release().setName("release " + i).setVendorId("V1");
+
+            repository.fillVendor(release);
+
+            assertThat(release.getVendor().getShortname(), is("Acme"));
+        }
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(1L));
+    }
+
+    @Test
+    public void testUpdatedVendorIsReadAgain() throws Exception {
+        repository.fillVendor(new Release().setVendorId("V1"));
+        vendor.setShortname("Acme Inc");
+        connector.update(vendor);
+
+        Release release = new Release().setVendorId("V1");
+        repository.fillVendor(release);
+
+        assertThat(release.getVendor().getShortname(), is("Acme Inc"));
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(2L));
+    }
+
+    @Test
+    public void testVendorsOfManyReleasesAreReadWithOneRequest() throws Exception {
+        List<Release> releases = new ArrayList<>();
+        for (int i = 2; i <= 5; i++) {
+            connector.add(new Vendor().setId("V" + i).setShortname("Vendor " + i).setFullname("Vendor " + i).setUrl("http://vendor.example"));
+            releases.add(new Release().setName("release " + i).setVendorId("V" + i));
+            releases.add(new Release().setName("release " + i + " again").setVendorId("V" + i));
+        }
+
+        try (DatabaseRequestStatistics requests = DatabaseRequestStatistics.start()) {
+            repository.fillVendors(releases);
+
+            assertThat(requests.getCount(), is(1L));
+            assertThat(requests.getCount(DatabaseOperation.MULTI_GET, "vendors"), is(1L));
+        }
+        for (Release release : releases) {
+            assertThat(release.getVendor().getShortname(), is("Vendor " + release.getName().charAt("release ".length())));
+        }
+    }
+
+    private void awaitCurrentReadCache() throws InterruptedException {
+        for (int i = 0; i < 500 && connector.getChangesListener().getStalenessMillis() > DEFAULT_MAXIMUM_STALENESS_MILLIS; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(connector.getChangesListener().getStalenessMillis(), lessThanOrEqualTo(DEFAULT_MAXIMUM_STALENESS_MILLIS));
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.projects;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.thrift.TApplicationException;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.server.TServlet;
+import org.apache.thrift.transport.THttpClient;
+import org.apache.thrift.transport.TTransport;
+import org.eclipse.sw360.datahandler.thrift.CompressingHttpClient;
+import org.eclipse.sw360.datahandler.thrift.CompressionStatistics;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
+import org.eclipse.sw360.datahandler.thrift.vendors.VendorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.*;
+
+public class Sw360ThriftServletTest {
+
+    private static final int THRESHOLD = 1024;
+
+    private VendorService.Iface vendorService;
+    private List<Vendor> vendors;
+    private HttpServer server;
+    private CompressionStatistics clientStatistics;
+
+    @Before
+    public void setUp() throws Exception {
+        vendors = IntStream.range(0, 200)
+                .mapToObj(i -> new Vendor().setId("vendor" + i).setShortname("Vendor " + i).setFullname("The Vendor " + i)
+                        .setUrl("http://www.vendor" + i + ".org"))
+                .collect(Collectors.toList());
+        vendorService = mock(VendorService.Iface.class);
+        when(vendorService.getAllVendors()).thenReturn(vendors);
+        when(vendorService.getByID("vendor1")).thenReturn(vendors.get(1));
+        when(vendorService.getVendorsByIds(anySetOf(String.class))).thenReturn(vendors.subList(0, 1));
+
+        clientStatistics = new CompressionStatistics();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testLargeResponsesAreCompressed() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+
+        assertThat(compressingClient(THRESHOLD).getAllVendors(), is(vendors));
+
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(1L));
+        assertThat(clientStatistics.getCompressedMessages(), is(1L));
+        assertThat(clientStatistics.getTransferredBytes(), is(lessThan(clientStatistics.getUncompressedBytes() / 2)));
+    }
+
+    @Test
+    public void testSmallMessagesAreNotCompressed() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+
+        assertThat(compressingClient(THRESHOLD).getByID("vendor1"), is(vendors.get(1)));
+
+        assertThat(servlet.getCompressionStatistics().getMessages(), is(2L));
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(0L));
+        assertThat(clientStatistics.getSavedBytes(), is(0L));
+    }
+
+    @Test
+    public void testLargeRequestsAreCompressedOnceTheServerAnnouncedIt() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+        VendorService.Iface client = compressingClient(THRESHOLD);
+
+        client.getVendorsByIds(manyIds());
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(0L));
+
+        assertThat(client.getVendorsByIds(manyIds()), is(vendors.subList(0, 1)));
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(1L));
+        verify(vendorService, times(2)).getVendorsByIds(manyIds());
+    }
+
+    @Test
+    public void testUncompressedClientWorksWithCompressingServer() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+        VendorService.Iface client = new VendorService.Client(new TCompactProtocol(new THttpClient(url())));
+
+        assertThat(client.getAllVendors(), is(vendors));
+        client.getVendorsByIds(manyIds());
+
+        assertThat(servlet.getCompressionStatistics().getMessages(), is(4L));
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(0L));
+    }
+
+    @Test
+    public void testCompressingClientWorksWithUncompressedServer() throws Exception {
+        start(new TServlet(new VendorService.Processor<>(vendorService), new TCompactProtocol.Factory()));
+        VendorService.Iface client = compressingClient(THRESHOLD);
+
+        assertThat(client.getAllVendors(), is(vendors));
+        client.getVendorsByIds(manyIds());
+        client.getVendorsByIds(manyIds());
+
+        assertThat(clientStatistics.getMessages(), is(6L));
+        assertThat(clientStatistics.getCompressedMessages(), is(0L));
+    }
+
+    @Test
+    public void testRequestsAreNotCompressedAnyMoreOnceTheServerStopsAnnouncingIt() throws Exception {
+        HttpServlet[] current = {new Sw360ThriftServlet(new VendorService.Processor<>(vendorService),
+                new TCompactProtocol.Factory(), new TCompactProtocol.Factory(), THRESHOLD, -1)};
+        start(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+                current[0].service((ServletRequest) request, (ServletResponse) response);
+            }
+        });
+        VendorService.Iface client = compressingClient(THRESHOLD);
+        client.getVendorsByIds(manyIds());
+        client.getVendorsByIds(manyIds());
+        assertThat(clientStatistics.getCompressedMessages(), is(1L));
+
+        // replaced by a server without compression
+        current[0] = new TServlet(new VendorService.Processor<>(vendorService), new TCompactProtocol.Factory());
+        try {
+            client.getVendorsByIds(manyIds());
+            fail("the compressed request should have been rejected");
+        } catch (TException expected) {
+        }
+
+        assertThat(client.getVendorsByIds(manyIds()), is(vendors.subList(0, 1)));
+        assertThat(clientStatistics.getCompressedMessages(), is(2L));
+    }
+
+    @Test
+    public void testClientWithCompressionTurnedOffGetsUncompressedResponses() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+
+        assertThat(compressingClient(-1).getAllVendors(), is(vendors));
+
+        assertThat(servlet.getCompressionStatistics().getCompressedMessages(), is(0L));
+        assertThat(clientStatistics.getCompressedMessages(), is(0L));
+    }
+
+    @Test
+    public void testCallsAreRecordedPerMethod() throws Exception {
+        Sw360ThriftServlet servlet = startCompressingServer();
+        VendorService.Iface client = compressingClient(THRESHOLD);
+
+        client.getAllVendors();
+        client.getAllVendors();
+        client.getByID("vendor1");
+
+        ThriftMetrics.MethodMetrics getAllVendors = servlet.getMetrics().forMethod("getAllVendors");
+        ThriftMetrics.MethodMetrics getByID = servlet.getMetrics().forMethod("getByID");
+        assertThat(servlet.getMetrics().getMethods().keySet(), contains("getAllVendors", "getByID"));
+        assertThat(getAllVendors.getCalls(), is(2L));
+        assertThat(getAllVendors.getErrors(), is(0L));
+        assertThat(getByID.getCalls(), is(1L));
+        // the sizes are counted before compression
+        assertThat(getAllVendors.getResponseBytes(), is(greaterThan(100 * getByID.getResponseBytes())));
+        assertThat(getByID.getRequestBytes(), is(greaterThan(0L)));
+        long histogramCalls = 0;
+        for (int i = 0; i <= ThriftMetrics.LATENCY_BUCKETS.length; i++) {
+            histogramCalls += getAllVendors.getLatencyBucket(i);
+        }
+        assertThat(histogramCalls, is(2L));
+    }
+
+    @Test
+    public void testFailedCallsAreCountedAsErrors() throws Exception {
+        when(vendorService.getByID("unknown")).thenThrow(new SW360Exception("not found"));
+        Sw360ThriftServlet servlet = startCompressingServer();
+
+        try {
+            compressingClient(THRESHOLD).getByID("unknown");
+            fail("expected the call to fail");
+        } catch (TApplicationException expected) {
+        }
+
+        assertThat(servlet.getMetrics().forMethod("getByID").getCalls(), is(1L));
+        assertThat(servlet.getMetrics().forMethod("getByID").getErrors(), is(1L));
+    }
+
+    @Test
+    public void testSlowCallsAreLoggedWithoutArgumentValues() throws Exception {
+        List<String> messages = new ArrayList<>();
+        AppenderSkeleton appender = new AppenderSkeleton() {
+            @Override
+            protected void append(LoggingEvent event) {
+                messages.add(event.getRenderedMessage());
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public boolean requiresLayout() {
+                return false;
+            }
+        };
+        Logger.getLogger(MeteredProcessor.class).addAppender(appender);
+        try {
+            Sw360ThriftServlet servlet = start(THRESHOLD, 0);
+            compressingClient(THRESHOLD).getVendorsByIds(manyIds());
+
+            assertThat(servlet.getMetrics().forMethod("getVendorsByIds").getSlowCalls(), is(1L));
+            assertThat(messages, contains(startsWith("Slow Thrift call getVendorsByIds(1: set[500]) took ")));
+        } finally {
+            Logger.getLogger(MeteredProcessor.class).removeAppender(appender);
+        }
+    }
+
+    @Test
+    public void testMetricsAreShownToLocalClients() throws Exception {
+        startCompressingServer();
+        compressingClient(THRESHOLD).getAllVendors();
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url() + "?" + Sw360ThriftServlet.METRICS_PARAMETER).openConnection();
+        assertThat(connection.getResponseCode(), is(200));
+        String metrics = new String(ByteStreams.toByteArray(connection.getInputStream()), StandardCharsets.UTF_8);
+
+        assertThat(metrics, containsString("sw360_thrift_calls_total{method=\"getAllVendors\"} 1\n"));
+        assertThat(metrics, containsString("sw360_thrift_errors_total{method=\"getAllVendors\"} 0\n"));
+        assertThat(metrics, containsString("sw360_thrift_call_duration_milliseconds_bucket{method=\"getAllVendors\",le=\"+Inf\"} 1\n"));
+        assertThat(metrics, containsString("sw360_thrift_compressed_messages_total 1\n"));
+        assertThat(metrics, containsString("# TYPE sw360_thrift_client_compressed_messages_total counter\n"));
+    }
+
+    private Sw360ThriftServlet startCompressingServer() throws IOException {
+        return start(THRESHOLD, -1);
+    }
+
+    private Sw360ThriftServlet start(int compressionThreshold, long slowCallThreshold) throws IOException {
+        Sw360ThriftServlet servlet = new Sw360ThriftServlet(new VendorService.Processor<>(vendorService),
+                new TCompactProtocol.Factory(), new TCompactProtocol.Factory(), compressionThreshold, slowCallThreshold);
+        start(servlet);
+        return servlet;
+    }
+
+    private VendorService.Iface compressingClient(int threshold) throws Exception {
+        TTransport transport = new CompressingHttpClient(url(), threshold, clientStatistics);
+        return new VendorService.Client(new TCompactProtocol(transport));
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/thrift";
+    }
+
+    private static Set<String> manyIds() {
+        return IntStream.range(0, 500).mapToObj(i -> "vendor" + i).collect(Collectors.toSet());
+    }
+
+    /**
+     * Serves the servlet on a local HTTP server, in place of a servlet container
+     */
+    private void start(HttpServlet servlet) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/thrift", exchange -> {
+            try {
+                serve(servlet, exchange);
+            } catch (ServletException | RuntimeException e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    private static void serve(HttpServlet servlet, HttpExchange exchange) throws IOException, ServletException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(exchange.getRequestMethod());
+        when(request.getRemoteAddr()).thenReturn(exchange.getRemoteAddress().getAddress().getHostAddress());
+        String query = exchange.getRequestURI().getQuery();
+        when(request.getParameter(anyString()))
+                .thenAnswer(invocation -> query != null && query.equals(invocation.getArguments()[0]) ? "" : null);
+        when(request.getHeader(anyString()))
+                .thenAnswer(invocation -> exchange.getRequestHeaders().getFirst((String) invocation.getArguments()[0]));
+        InputStream requestBody = exchange.getRequestBody();
+        when(request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return requestBody.read();
+            }
+        });
+
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        doAnswer(invocation -> {
+            exchange.getResponseHeaders().set((String) invocation.getArguments()[0], (String) invocation.getArguments()[1]);
+            return null;
+        }).when(response).setHeader(anyString(), anyString());
+        doAnswer(invocation -> {
+            exchange.getResponseHeaders().add((String) invocation.getArguments()[0], (String) invocation.getArguments()[1]);
+            return null;
+        }).when(response).addHeader(anyString(), anyString());
+        doAnswer(invocation -> {
+            exchange.getResponseHeaders().set("Content-Type", (String) invocation.getArguments()[0]);
+            return null;
+        }).when(response).setContentType(anyString());
+        ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                responseBody.write(b);
+            }
+        });
+        when(response.getWriter()).thenReturn(new PrintWriter(new OutputStreamWriter(responseBody, StandardCharsets.UTF_8)));
+        int[] status = {200};
+        doAnswer(invocation -> status[0] = (Integer) invocation.getArguments()[0]).when(response).sendError(anyInt());
+
+        servlet.service(request, response);
+
+        exchange.sendResponseHeaders(status[0], responseBody.size() == 0 ? -1 : responseBody.size());
+        responseBody.writeTo(exchange.getResponseBody());
+    }
+}
@@ -19,10 +19,13 @@ import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 import org.eclipse.sw360.attachments.db.AttachmentRepository;
 import org.eclipse.sw360.attachments.db.AttachmentUsageRepository;
+import org.eclipse.sw360.attachments.db.RemoteAttachmentDownloadReport;
+import org.eclipse.sw360.attachments.db.RemoteAttachmentDownloader;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
@@ -106,6 +109,18 @@ public class AttachmentHandler implements AttachmentService.Iface {
         return attachment;
     }
 
+    @Override
+    public List<AttachmentContent> getAttachmentContents(Set<String> ids) throws TException {
+        assertNotNull(ids);
+
+        List<AttachmentContent> attachments = attachmentRepository.get(ids, true);
+        for (AttachmentContent attachment : attachments) {
+            validateAttachment(attachment);
+        }
+
+        return attachments;
+    }
+
     @Override
     public void updateAttachmentContent(AttachmentContent attachment) throws TException {
         validateAttachment(attachment);
@@ -132,6 +147,26 @@ public class AttachmentHandler implements AttachmentService.Iface {
         return attachmentRepository.vacuumAttachmentDB(user, usedIds);
     }
 
+    @Override
+    public RequestSummary downloadRemoteAttachments(User user) throws TException {
+        assertUser(user);
+        if (!PermissionUtils.isAdmin(user)) {
+            return new RequestSummary(RequestStatus.FAILURE);
+        }
+        RemoteAttachmentDownloadReport report;
+        try {
+            report = RemoteAttachmentDownloader.retrieveRemoteAttachments(DatabaseSettings.getConfiguredHttpClient(),
+                    DatabaseSettings.COUCH_DB_ATTACHMENTS, durationOf(30, TimeUnit.SECONDS),
+                    RemoteAttachmentDownloader.DEFAULT_PARALLEL_DOWNLOADS, RemoteAttachmentDownloader.DEFAULT_DOWNLOADS_PER_HOST);
+        } catch (MalformedURLException e) {
+            throw fail(e, "Could not connect to the attachment database");
+        }
+        return new RequestSummary(report.getFailed() == 0 ? RequestStatus.SUCCESS : RequestStatus.FAILURE)
+                .setTotalElements(report.getTotal())
+                .setTotalAffectedElements(report.getSucceeded())
+                .setMessage(report.toString());
+    }
+
     @Override
     public String getSha1FromAttachmentContentId(String attachmentContentId){
         return attachmentConnector.getSha1FromAttachmentContentId(attachmentContentId);
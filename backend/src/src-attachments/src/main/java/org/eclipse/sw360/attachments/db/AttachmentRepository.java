@@ -11,6 +11,8 @@
 
 package org.eclipse.sw360.attachments.db;
 
+import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlobStore;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
@@ -18,13 +20,18 @@ import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.ektorp.BulkDeleteDocument;
 import org.ektorp.DocumentOperationResult;
 import org.ektorp.ViewQuery;
+import org.ektorp.ViewResult;
 import org.ektorp.support.View;
 import org.ektorp.support.Views;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -36,12 +43,20 @@ import java.util.stream.Collectors;
  */
 @Views({
         @View(name = "all", map = "function(doc) { if (doc.type == 'attachment') emit(null, doc._id) }"),
-        @View(name = "onlyRemotes", map = "function(doc) { if(doc.type == 'attachment' && doc.onlyRemote) { emit(null, doc) } }")
+        @View(name = "onlyRemotes", map = "function(doc) { if(doc.type == 'attachment' && doc.onlyRemote) { emit(null, doc) } }"),
+        @View(name = "revisionsById", map = "function(doc) { if (doc.type == 'attachment') emit(doc._id, doc._rev) }")
 })
 public class AttachmentRepository extends DatabaseRepository<AttachmentContent> {
 
+    private static final Logger log = Logger.getLogger(AttachmentRepository.class);
+
+    static final int VACUUM_PAGE_SIZE = 1000;
+
+    private final AttachmentBlobStore blobStore;
+
     public AttachmentRepository(DatabaseConnector db) {
         super(AttachmentContent.class, db);
+        blobStore = new AttachmentBlobStore(db);
 
         initStandardDesignDocument();
     }
@@ -52,25 +67,142 @@ public class AttachmentRepository extends DatabaseRepository<AttachmentContent>
         return queryView(query);
     }
 
+    /**
+     * Deletes all attachment contents whose ids are not in {@code usedIds} and
+     * afterwards the attachment blobs no longer referenced. Both are walked in pages
+     * of {@link #VACUUM_PAGE_SIZE} documents, see {@link #vacuum(Set, String, int, Consumer)}.
+     */
     public RequestSummary vacuumAttachmentDB(User user, final Set<String> usedIds) {
+        return vacuumAttachmentDB(user, usedIds, VACUUM_PAGE_SIZE, blobs -> {});
+    }
+
+    RequestSummary vacuumAttachmentDB(User user, final Set<String> usedIds, int pageSize, IntConsumer blobPageListener) {
         final RequestSummary requestSummary = new RequestSummary();
         if (!PermissionUtils.isAdmin(user))
             return requestSummary.setRequestStatus(RequestStatus.FAILURE);
 
-        final List<AttachmentContent> allAttachmentContents = getAll();
-        final Set<AttachmentContent> unusedAttachmentContents = allAttachmentContents.stream()
-                .filter(input -> !usedIds.contains(input.getId()))
-                .collect(Collectors.toSet());
+        final VacuumProgress progress = vacuum(usedIds, null, pageSize,
+                current -> log.info("Attachment vacuum: " + current));
 
-        requestSummary.setTotalElements(allAttachmentContents.size());
-        requestSummary.setTotalAffectedElements(unusedAttachmentContents.size());
+        requestSummary.setTotalElements(progress.getScanned());
+        requestSummary.setTotalAffectedElements(progress.getUnused());
 
-        final List<DocumentOperationResult> documentOperationResults = deleteBulk(unusedAttachmentContents);
-        if (documentOperationResults.isEmpty()) {
+        if (progress.isCompleted()) {
+            // blobs are only removed once no remaining attachment content refers to them
+            final int removedBlobs = blobStore.removeUnreferencedBlobs(pageSize, blobPageListener);
+            log.info("Removed " + removedBlobs + " unreferenced attachment blobs");
+        }
+
+        if (progress.isCompleted() && progress.getFailed() == 0) {
             requestSummary.setRequestStatus(RequestStatus.SUCCESS);
-        }else{
+        } else {
+            requestSummary.setMessage("Vacuum stopped before " + progress.getNextStartId());
             requestSummary.setRequestStatus(RequestStatus.FAILURE);
         }
         return requestSummary;
     }
+
+    /**
+     * Walks the attachment contents ordered by id, {@code pageSize} ids at a time,
+     * and deletes those of each page which are not in {@code usedIds} with one bulk
+     * request. Only ids and revisions are loaded, so memory does not depend on the
+     * size of the database.
+     *
+     * The vacuum stops after the current page if the thread is interrupted. It can
+     * be resumed by passing {@link VacuumProgress#getNextStartId()} of the returned
+     * progress as {@code startId}, {@code null} starts at the beginning.
+     *
+     * @param progressListener called after each page
+     */
+    public VacuumProgress vacuum(Set<String> usedIds, String startId, int pageSize, Consumer<VacuumProgress> progressListener) {
+        final VacuumProgress progress = new VacuumProgress(startId);
+        while (!progress.isCompleted()) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Attachment vacuum interrupted, it can be resumed at " + progress.getNextStartId());
+                break;
+            }
+
+            // one row more than processed: its id is where the next page starts
+            ViewQuery query = createQuery("revisionsById").includeDocs(false).limit(pageSize + 1);
+            if (progress.getNextStartId() != null) {
+                query.startKey(progress.getNextStartId());
+            }
+            final List<ViewResult.Row> rows = getConnector().queryView(query).getRows();
+            final List<ViewResult.Row> page = rows.subList(0, Math.min(pageSize, rows.size()));
+
+            final List<BulkDeleteDocument> deletions = page.stream()
+                    .filter(row -> !usedIds.contains(row.getId()))
+                    .map(row -> new BulkDeleteDocument(row.getId(), row.getValue()))
+                    .collect(Collectors.toList());
+            final List<DocumentOperationResult> failures = deletions.isEmpty()
+                    ? Collections.emptyList()
+                    : getConnector().executeBulk(deletions);
+
+            progress.pageDone(page.size(), deletions.size(), failures.size(),
+                    rows.size() > pageSize ? rows.get(pageSize).getId() : null);
+            progressListener.accept(progress);
+        }
+        return progress;
+    }
+
+    public static class VacuumProgress {
+        private String nextStartId;
+        private boolean completed = false;
+        private int pages = 0;
+        private int lastPageSize = 0;
+        private int scanned = 0;
+        private int unused = 0;
+        private int failed = 0;
+
+        VacuumProgress(String startId) {
+            this.nextStartId = startId;
+        }
+
+        void pageDone(int pageSize, int unusedInPage, int failedInPage, String nextStartId) {
+            pages++;
+            lastPageSize = pageSize;
+            scanned += pageSize;
+            unused += unusedInPage;
+            failed += failedInPage;
+            this.nextStartId = nextStartId;
+            completed = nextStartId == null;
+        }
+
+        /**
+         * @return id of the first attachment content not processed yet, {@code null} if completed
+         */
+        public String getNextStartId() {
+            return nextStartId;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public int getLastPageSize() {
+            return lastPageSize;
+        }
+
+        public int getScanned() {
+            return scanned;
+        }
+
+        public int getUnused() {
+            return unused;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return pages + " pages, " + scanned + " attachment contents scanned, " + unused + " unused, "
+                    + failed + " could not be deleted" + (completed ? ", completed" : ", next start id " + nextStartId);
+        }
+    }
 }
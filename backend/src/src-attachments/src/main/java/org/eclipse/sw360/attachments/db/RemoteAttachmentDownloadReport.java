@@ -0,0 +1,117 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.sw360.attachments.db;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * Progress and metrics of a run of the {@link RemoteAttachmentDownloader}.
+ * Updated concurrently by the download tasks.
+ */
+public class RemoteAttachmentDownloadReport {
+    private final int total;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+    private final ConcurrentMap<String, AtomicInteger> succeededByHost = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> failedByHost = new ConcurrentHashMap<>();
+
+    public RemoteAttachmentDownloadReport(int total) {
+        this.total = total;
+    }
+
+    void downloadSucceeded(String host) {
+        succeeded.incrementAndGet();
+        succeededByHost.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void downloadFailed(String host) {
+        failed.incrementAndGet();
+        failedByHost.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void downloadSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    void bytesReceived(long count) {
+        bytes.add(count);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getCompleted() {
+        return getSucceeded() + getFailed() + getSkipped();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public Map<String, Integer> getSucceededByHost() {
+        return snapshot(succeededByHost);
+    }
+
+    public Map<String, Integer> getFailedByHost() {
+        return snapshot(failedByHost);
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public double getBytesPerSecond() {
+        long elapsedMillis = Math.max(1, getElapsedMillis());
+        return getBytes() * 1000.0 / elapsedMillis;
+    }
+
+    public String getProgress() {
+        return format("%d of %d remote attachments done (%d failed, %d skipped), %d bytes in %d s, %.1f KiB/s",
+                getCompleted(), total, getFailed(), getSkipped(), getBytes(),
+                TimeUnit.MILLISECONDS.toSeconds(getElapsedMillis()), getBytesPerSecond() / 1024);
+    }
+
+    @Override
+    public String toString() {
+        return getProgress() + ", succeeded by host: " + getSucceededByHost() + ", failed by host: " + getFailedByHost();
+    }
+
+    private static Map<String, Integer> snapshot(Map<String, AtomicInteger> counts) {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        counts.forEach((host, count) -> snapshot.put(host, count.get()));
+        return snapshot;
+    }
+}
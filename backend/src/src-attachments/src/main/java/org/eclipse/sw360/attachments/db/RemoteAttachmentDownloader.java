@@ -0,0 +1,246 @@
+/*
+ * Copyright Siemens AG, 2013-2016. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.sw360.attachments.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.common.Duration;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentContentDownloader;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentStreamConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.apache.log4j.Logger;
+import org.ektorp.http.HttpClient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
+import static java.lang.String.format;
+import static org.apache.log4j.Logger.getLogger;
+
+/**
+ * Utility to retrieve remote attachments
+ *
+ * Up to {@code parallelDownloads} attachments are downloaded at the same time,
+ * but at most {@code downloadsPerHost} from the same host. Broken off http
+ * downloads are resumed by the {@link AttachmentContentDownloader} and the
+ * digests are computed while the content is stored.
+ *
+ * @author daniele.fognini@tngtech.com
+ */
+public class RemoteAttachmentDownloader {
+    private static final Logger log = getLogger(RemoteAttachmentDownloader.class);
+
+    public static final int DEFAULT_PARALLEL_DOWNLOADS = 8;
+    public static final int DEFAULT_DOWNLOADS_PER_HOST = 2;
+    private static final long PROGRESS_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final AttachmentStreamConnector attachmentConnector;
+    private final int parallelDownloads;
+    private final int downloadsPerHost;
+
+    public RemoteAttachmentDownloader(AttachmentStreamConnector attachmentConnector, int parallelDownloads, int downloadsPerHost) {
+        this.attachmentConnector = attachmentConnector;
+        this.parallelDownloads = Math.max(1, parallelDownloads);
+        this.downloadsPerHost = Math.max(1, downloadsPerHost);
+    }
+
+    public static void main(String[] args) throws MalformedURLException {
+        Duration downloadTimeout = durationOf(30, TimeUnit.SECONDS);
+        retrieveRemoteAttachments(DatabaseSettings.getConfiguredHttpClient(), DatabaseSettings.COUCH_DB_ATTACHMENTS, downloadTimeout);
+    }
+
+    public static int retrieveRemoteAttachments(Supplier<HttpClient> httpClient, String dbAttachments, Duration downloadTimeout) throws MalformedURLException {
+        return retrieveRemoteAttachments(httpClient, dbAttachments, downloadTimeout, DEFAULT_PARALLEL_DOWNLOADS, DEFAULT_DOWNLOADS_PER_HOST)
+                .getSucceeded();
+    }
+
+    public static RemoteAttachmentDownloadReport retrieveRemoteAttachments(Supplier<HttpClient> httpClient, String dbAttachments, Duration downloadTimeout,
+                                                                           int parallelDownloads, int downloadsPerHost) throws MalformedURLException {
+        DatabaseConnector databaseConnector = new DatabaseConnector(httpClient, dbAttachments);
+        AttachmentRepository attachmentRepository = new AttachmentRepository(databaseConnector);
+
+        List<AttachmentContent> remoteAttachments = attachmentRepository.getOnlyRemoteAttachments();
+        log.info(format("we have %d remote attachments to retrieve", remoteAttachments.size()));
+
+        RemoteAttachmentDownloadReport report = new RemoteAttachmentDownloadReport(remoteAttachments.size());
+        AttachmentStreamConnector attachmentConnector = new AttachmentStreamConnector(databaseConnector,
+                new CountingAttachmentContentDownloader(report), downloadTimeout);
+        new RemoteAttachmentDownloader(attachmentConnector, parallelDownloads, downloadsPerHost)
+                .retrieve(remoteAttachments, report);
+
+        log.info("finished retrieving remote attachments: " + report);
+        return report;
+    }
+
+    /**
+     * Downloads the given attachments, blocking until all of them are done or the
+     * thread is interrupted. Downloads of different hosts are interleaved.
+     */
+    public void retrieve(Collection<AttachmentContent> remoteAttachments, RemoteAttachmentDownloadReport report) {
+        Map<String, Deque<AttachmentContent>> queuedByHost = new LinkedHashMap<>();
+        for (AttachmentContent attachmentContent : remoteAttachments) {
+            if (!attachmentContent.isOnlyRemote()) {
+                log.info(format("skipping attachment (%s), which should already be available", attachmentContent.getId()));
+                report.downloadSkipped();
+                continue;
+            }
+            queuedByHost.computeIfAbsent(getHost(attachmentContent), host -> new ArrayDeque<>()).add(attachmentContent);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelDownloads, new ThreadFactoryBuilder()
+                .setNameFormat("remote-attachment-download-%d")
+                .setDaemon(true)
+                .build());
+        CompletionService<String> downloads = new ExecutorCompletionService<>(executor);
+        Map<String, Integer> runningByHost = new HashMap<>();
+        int running = 0;
+        long lastProgress = System.currentTimeMillis();
+        try {
+            while (true) {
+                running += submitDownloads(queuedByHost, runningByHost, running, downloads, report);
+                if (running == 0) {
+                    break;
+                }
+                String host = downloads.take().get();
+                runningByHost.merge(host, -1, Integer::sum);
+                running--;
+
+                if (System.currentTimeMillis() - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = System.currentTimeMillis();
+                    log.info(report.getProgress());
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("interrupted while retrieving remote attachments, " + report.getProgress());
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // download tasks handle their failures themselves
+            log.error("unexpected failure while retrieving remote attachments", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits one queued download per host in turn, until all downloads are
+     * running or the limits are reached.
+     *
+     * @return the number of submitted downloads
+     */
+    private int submitDownloads(Map<String, Deque<AttachmentContent>> queuedByHost, Map<String, Integer> runningByHost, int running,
+                                CompletionService<String> downloads, RemoteAttachmentDownloadReport report) {
+        int submitted = 0;
+        boolean submittedInRound = true;
+        while (submittedInRound && running + submitted < parallelDownloads) {
+            submittedInRound = false;
+            Iterator<Map.Entry<String, Deque<AttachmentContent>>> hosts = queuedByHost.entrySet().iterator();
+            while (hosts.hasNext() && running + submitted < parallelDownloads) {
+                Map.Entry<String, Deque<AttachmentContent>> queued = hosts.next();
+                String host = queued.getKey();
+                if (runningByHost.getOrDefault(host, 0) >= downloadsPerHost) {
+                    continue;
+                }
+                AttachmentContent attachmentContent = queued.getValue().poll();
+                if (queued.getValue().isEmpty()) {
+                    hosts.remove();
+                }
+                runningByHost.merge(host, 1, Integer::sum);
+                downloads.submit(() -> download(attachmentContent, host, report));
+                submitted++;
+                submittedInRound = true;
+            }
+        }
+        return submitted;
+    }
+
+    private String download(AttachmentContent attachmentContent, String host, RemoteAttachmentDownloadReport report) {
+        String attachmentContentId = attachmentContent.getId();
+        log.info(format("retrieving attachment (%s) {filename=%s}", attachmentContentId, attachmentContent.getFilename()));
+        log.debug("url is " + attachmentContent.getRemoteUrl());
+
+        try {
+            AttachmentContent stored = attachmentConnector.downloadRemoteAttachment(attachmentContent);
+            log.info(format("retrieved attachment (%s), its sha1 is %s", attachmentContentId, stored.getSha1()));
+            report.downloadSucceeded(host);
+        } catch (SW360Exception | RuntimeException e) {
+            log.error("cannot retrieve attachment " + attachmentContentId, e);
+            report.downloadFailed(host);
+        }
+        return host;
+    }
+
+    private static String getHost(AttachmentContent attachmentContent) {
+        try {
+            return new URL(attachmentContent.getRemoteUrl()).getHost().toLowerCase(Locale.ROOT);
+        } catch (MalformedURLException e) {
+            // fails fast on download, so it does not matter which downloads it is limited with
+            return "";
+        }
+    }
+
+    protected static long length(InputStream stream) throws IOException {
+        long length = 0;
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                length += read;
+            }
+        } finally {
+            stream.close();
+        }
+        return length;
+    }
+
+    /**
+     * Adds the bytes received from the remote hosts to the report.
+     */
+    private static class CountingAttachmentContentDownloader extends AttachmentContentDownloader {
+        private final RemoteAttachmentDownloadReport report;
+
+        CountingAttachmentContentDownloader(RemoteAttachmentDownloadReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public InputStream download(AttachmentContent attachmentContent, Duration timeout) throws IOException {
+            return new FilterInputStream(super.download(attachmentContent, timeout)) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) {
+                        report.bytesReceived(1);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    if (read > 0) {
+                        report.bytesReceived(read);
+                    }
+                    return read;
+                }
+            };
+        }
+    }
+}
@@ -81,6 +81,15 @@ public class AttachmentHandlerTest {
         assertEquals("text", attachment.contentType);
     }
 
+    @Test
+    public void testGetAttachmentContentsMatchesGetAttachmentContent() throws Exception {
+        assertThat(handler.getAttachmentContents(ImmutableSet.of("A1", "A2")),
+                Matchers.containsInAnyOrder(handler.getAttachmentContent("A1"), handler.getAttachmentContent("A2")));
+        // missing contents are left out instead of failing the whole batch
+        assertThat(handler.getAttachmentContents(ImmutableSet.of("A1", "A3")),
+                Matchers.contains(handler.getAttachmentContent("A1")));
+    }
+
     @Test
     public void testVacuum_OnlyAdminCanRun() throws Exception {
         final RequestSummary requestSummary = handler.vacuumAttachmentDB(new User("a", "a", "a").setUserGroup(UserGroup.USER), ImmutableSet.of("A1", "A2"));
@@ -0,0 +1,180 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.sw360.attachments.db;
+
+import org.eclipse.sw360.datahandler.TestUtils;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlob;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentBlobStore;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.RequestSummary;
+import org.eclipse.sw360.datahandler.thrift.Source;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentUsage;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class AttachmentRepositoryTest {
+
+    private static final String dbName = DatabaseSettings.COUCH_DB_ATTACHMENTS;
+    private static final int ATTACHMENT_COUNT = 257;
+    private static final int PAGE_SIZE = 20;
+    private static final int BLOB_COUNT = 45;
+
+    private DatabaseConnector databaseConnector;
+    private AttachmentRepository repository;
+    private Set<String> usedIds;
+
+    @Before
+    public void setUp() throws Exception {
+        TestUtils.createDatabase(DatabaseSettings.getConfiguredHttpClient(), dbName);
+        databaseConnector = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), dbName);
+
+        List<Object> documents = new ArrayList<>();
+        usedIds = new HashSet<>();
+        for (int i = 0; i < ATTACHMENT_COUNT; i++) {
+            String id = String.format("attachment%04d", i);
+            documents.add(new AttachmentContent().setId(id).setFilename(id + ".txt").setContentType("text"));
+            if (i % 3 == 0) {
+                usedIds.add(id);
+            }
+        }
+        // other documents in the same database must not be touched
+        documents.add(new AttachmentUsage(Source.releaseId("r1"), "attachment0001", Source.projectId("p1")).setId("usage1"));
+        databaseConnector.executeBulk(documents);
+
+        repository = new AttachmentRepository(databaseConnector);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.deleteDatabase(DatabaseSettings.getConfiguredHttpClient(), dbName);
+    }
+
+    @Test
+    public void testVacuumDeletesTheSameAttachmentsAsLoadingAll() throws Exception {
+        Set<String> expectedRemaining = repository.getAll().stream()
+                .map(AttachmentContent::getId)
+                .filter(usedIds::contains)
+                .collect(Collectors.toSet());
+
+        RequestSummary requestSummary = repository.vacuumAttachmentDB(admin(), usedIds);
+
+        assertThat(requestSummary.getRequestStatus(), is(RequestStatus.SUCCESS));
+        assertThat(requestSummary.getTotalElements(), is(ATTACHMENT_COUNT));
+        assertThat(requestSummary.getTotalAffectedElements(), is(ATTACHMENT_COUNT - expectedRemaining.size()));
+        assertThat(remainingIds(), is(expectedRemaining));
+        assertThat(databaseConnector.contains("usage1"), is(true));
+    }
+
+    @Test
+    public void testVacuumOnlyHoldsOnePageAtATime() throws Exception {
+        List<Integer> pageSizes = new ArrayList<>();
+
+        AttachmentRepository.VacuumProgress progress = repository.vacuum(usedIds, null, PAGE_SIZE,
+                current -> pageSizes.add(current.getLastPageSize()));
+
+        assertThat(progress.isCompleted(), is(true));
+        assertThat(progress.getScanned(), is(ATTACHMENT_COUNT));
+        assertThat(progress.getFailed(), is(0));
+        assertThat(pageSizes, hasSize((ATTACHMENT_COUNT + PAGE_SIZE - 1) / PAGE_SIZE));
+        assertThat(pageSizes, everyItem(lessThanOrEqualTo(PAGE_SIZE)));
+        assertThat(remainingIds(), is(usedIds));
+    }
+
+    @Test
+    public void testVacuumSweepsBlobsPageByPage() throws Exception {
+        List<AttachmentBlob> blobs = new ArrayList<>();
+        Set<String> expectedBlobIds = new HashSet<>();
+        for (int i = 0; i < BLOB_COUNT; i++) {
+            String referencedId = String.format("attachment%04d", i * 5);
+            AttachmentBlob blob = new AttachmentBlob();
+            blob.setId(AttachmentBlobStore.getBlobId(String.format("%040x", i)));
+            blob.setType(AttachmentBlob.TYPE);
+            blob.getReferences().add(referencedId);
+            blobs.add(blob);
+            if (usedIds.contains(referencedId)) {
+                expectedBlobIds.add(blob.getId());
+            }
+        }
+        databaseConnector.executeBulk(blobs);
+        List<Integer> blobPageSizes = new ArrayList<>();
+
+        RequestSummary requestSummary = repository.vacuumAttachmentDB(admin(), usedIds, PAGE_SIZE, blobPageSizes::add);
+
+        assertThat(requestSummary.getRequestStatus(), is(RequestStatus.SUCCESS));
+        assertThat(blobPageSizes, hasSize((BLOB_COUNT + PAGE_SIZE - 1) / PAGE_SIZE));
+        assertThat(blobPageSizes, everyItem(lessThanOrEqualTo(PAGE_SIZE)));
+        assertThat(remainingBlobIds(), is(expectedBlobIds));
+        assertThat(remainingIds(), is(usedIds));
+    }
+
+    @Test
+    public void testInterruptedVacuumCanBeResumed() throws Exception {
+        AttachmentRepository.VacuumProgress interrupted;
+        try {
+            interrupted = repository.vacuum(usedIds, null, PAGE_SIZE, current -> {
+                if (current.getPages() == 3) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(interrupted.isCompleted(), is(false));
+        assertThat(interrupted.getScanned(), is(3 * PAGE_SIZE));
+        assertThat(interrupted.getNextStartId(), is(String.format("attachment%04d", 3 * PAGE_SIZE)));
+        assertThat(remainingIds().size(), greaterThan(usedIds.size()));
+
+        AttachmentRepository.VacuumProgress resumed = repository.vacuum(usedIds, interrupted.getNextStartId(), PAGE_SIZE, current -> {});
+
+        assertThat(resumed.isCompleted(), is(true));
+        assertThat(interrupted.getScanned() + resumed.getScanned(), is(ATTACHMENT_COUNT));
+        assertThat(remainingIds(), is(usedIds));
+    }
+
+    @Test
+    public void testVacuumOfEmptyDatabaseCompletes() throws Exception {
+        repository.vacuum(Collections.emptySet(), null, PAGE_SIZE, current -> {});
+
+        AttachmentRepository.VacuumProgress progress = repository.vacuum(Collections.emptySet(), null, PAGE_SIZE, current -> {});
+
+        assertThat(progress.isCompleted(), is(true));
+        assertThat(progress.getScanned(), is(0));
+        assertThat(repository.getDocumentCount(), is(0));
+    }
+
+    private Set<String> remainingIds() {
+        return repository.getAllIds();
+    }
+
+    private Set<String> remainingBlobIds() {
+        return new AttachmentBlobStore(databaseConnector).iterateAllBlobs(PAGE_SIZE).stream()
+                .map(AttachmentBlob::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static User admin() {
+        return new User("admin", "admin", "admin").setUserGroup(UserGroup.ADMIN);
+    }
+}
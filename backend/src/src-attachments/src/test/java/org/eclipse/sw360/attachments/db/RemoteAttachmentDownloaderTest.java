@@ -15,6 +15,7 @@ import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.common.Duration;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.test.RemoteFileStub;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.Visibility;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
@@ -31,11 +32,10 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.eclipse.sw360.attachments.db.RemoteAttachmentDownloader.length;
 import static org.eclipse.sw360.attachments.db.RemoteAttachmentDownloader.retrieveRemoteAttachments;
 import static org.eclipse.sw360.datahandler.TestUtils.*;
@@ -44,6 +44,7 @@ import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeThat;
@@ -167,6 +168,47 @@ public class RemoteAttachmentDownloaderTest {
         }
     }
 
+    @Test
+    public void testParallelDownloadsFromStub() throws Exception {
+        int[] sizes = {0, 1, 1000, 64 * 1024 + 1, 300 * 1024, 1024 * 1024 + 7};
+        Map<String, byte[]> contentById = new HashMap<>();
+        long totalBytes = 0;
+        Random random = new Random(7);
+
+        try (RemoteFileStub remoteFiles = new RemoteFileStub()) {
+            remoteFiles.setLatencyMillis(100);
+            for (String host : Arrays.asList("localhost", "127.0.0.1")) {
+                for (int size : sizes) {
+                    byte[] content = new byte[size];
+                    random.nextBytes(content);
+                    String path = "/" + host + "/file" + size;
+                    remoteFiles.addFile(path, content);
+                    contentById.put(saveRemoteAttachment(remoteFiles.getUrl(host, path)).getId(), content);
+                    totalBytes += size;
+                }
+            }
+            remoteFiles.breakNextResponseAfter("/localhost/file" + 300 * 1024, 1000);
+
+            RemoteAttachmentDownloadReport report = retrieveRemoteAttachments(DatabaseSettings.getConfiguredHttpClient(), dbName, downloadTimeout, 3, 2);
+
+            assertThat(report.getSucceeded(), is(contentById.size()));
+            assertThat(report.getFailed(), is(0));
+            // the resumed download only requests the bytes missing after the break
+            assertThat(report.getBytes(), is(totalBytes));
+            assertThat(remoteFiles.getRangeRequests(), is(1));
+            assertThat(remoteFiles.getMaxConcurrentRequests("localhost"), lessThanOrEqualTo(2));
+            assertThat(remoteFiles.getMaxConcurrentRequests("127.0.0.1"), lessThanOrEqualTo(2));
+            assertThat(remoteFiles.getMaxConcurrentRequests("localhost") + remoteFiles.getMaxConcurrentRequests("127.0.0.1"), greaterThan(2));
+        }
+
+        assertThat(repository.getOnlyRemoteAttachments(), hasSize(0));
+        for (Map.Entry<String, byte[]> expected : contentById.entrySet()) {
+            AttachmentContent stored = repository.get(expected.getKey());
+            assertThat(stored.getSha1(), is(sha1Hex(expected.getValue())));
+            assertThat(length(attachmentConnector.unsafeGetAttachmentStream(stored)), is((long) expected.getValue().length));
+        }
+    }
+
     private AttachmentContent saveRemoteAttachment(String remoteUrl) {
         AttachmentContent attachmentContent = new AttachmentContent()
                 .setFilename("testfile")
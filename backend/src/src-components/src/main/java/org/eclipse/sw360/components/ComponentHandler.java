@@ -18,6 +18,7 @@ import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.components.ReleaseLink;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -79,6 +80,13 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getComponentSummary(user);
     }
 
+    @Override
+    public ComponentSummaryPage getComponentSummaryPage(User user, PaginationData pagination) throws TException {
+        assertUser(user);
+
+        return handler.getComponentSummaryPage(user, pagination);
+    }
+
     @Override
     public List<Component> getRecentComponentsSummary(int limit, User user) throws TException {
         assertUser(user);
@@ -156,6 +164,14 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getComponentForEdit(id, user);
     }
 
+    @Override
+    public List<Component> getComponentsByIds(Set<String> ids, User user) throws TException {
+        assertNotNull(ids);
+        assertUser(user);
+
+        return handler.getComponentsByIds(ids, user);
+    }
+
     @Override
     public Release getReleaseById(String id, User user) throws TException {
         assertId(id);
@@ -172,6 +188,14 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getReleaseForEdit(id, user);
     }
 
+    @Override
+    public List<Release> getReleasesWithVendorsByIds(Set<String> ids, User user) throws TException {
+        assertNotNull(ids);
+        assertUser(user);
+
+        return handler.getReleasesWithVendorsByIds(ids, user);
+    }
+
     @Override
     public List<Release> getReleasesByIdsForExport(Set<String> ids) throws TException {
         assertNotNull(ids);
@@ -211,6 +235,12 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getReleasesFromVendorIds(ids);
     }
 
+    @Override
+    public List<Release> getReleasesByExternalIds(Map<String, Set<String>> externalIds) throws TException {
+        assertNotNull(externalIds);
+        return handler.getReleasesByExternalIds(externalIds);
+    }
+
     ////////////////////////////
     // ADD INDIVIDUAL OBJECTS //
     ////////////////////////////
@@ -233,6 +263,30 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.addRelease(release, user.getEmail());
     }
 
+    @Override
+    public List<AddDocumentRequestSummary> addComponents(List<Component> components, User user) throws TException {
+        assertNotNull(components);
+        for (Component component : components) {
+            assertNotNull(component);
+            assertIdUnset(component.getId());
+        }
+        assertUser(user);
+
+        return handler.addComponents(components, user.getEmail());
+    }
+
+    @Override
+    public List<AddDocumentRequestSummary> addReleases(List<Release> releases, User user) throws TException {
+        assertNotNull(releases);
+        for (Release release : releases) {
+            assertNotNull(release);
+            assertIdUnset(release.getId());
+        }
+        assertUser(user);
+
+        return handler.addReleases(releases, user.getEmail());
+    }
+
     ///////////////////////////////
     // UPDATE INDIVIDUAL OBJECTS //
     ///////////////////////////////
@@ -246,6 +300,18 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.updateComponent(component, user);
     }
 
+    @Override
+    public List<RequestStatus> updateComponentsIndividually(List<Component> components, User user) throws TException {
+        assertNotNull(components);
+        for (Component component : components) {
+            assertNotNull(component);
+            assertId(component.getId());
+        }
+        assertUser(user);
+
+        return handler.updateComponentsIndividually(components, user);
+    }
+
     @Override
     public RequestSummary updateComponents(Set<Component> components, User user) throws TException {
         assertUser(user);
@@ -272,6 +338,18 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.updateRelease(release, user, ThriftUtils.IMMUTABLE_OF_RELEASE);
     }
 
+    @Override
+    public List<RequestStatus> updateReleasesIndividually(List<Release> releases, User user) throws TException {
+        assertNotNull(releases);
+        for (Release release : releases) {
+            assertNotNull(release);
+            assertId(release.getId());
+        }
+        assertUser(user);
+
+        return handler.updateReleasesIndividually(releases, user, ThriftUtils.IMMUTABLE_OF_RELEASE);
+    }
+
     @Override
     public RequestStatus updateReleaseFossology(Release release, User user) throws TException {
         assertNotNull(release);
@@ -420,6 +498,12 @@ public class ComponentHandler implements ComponentService.Iface {
         return handler.getusedAttachmentContentIds();
     }
 
+    @Override
+    public Set<Source> getAttachmentOwners(String attachmentContentId) throws TException {
+        assertId(attachmentContentId);
+        return handler.getAttachmentOwners(attachmentContentId);
+    }
+
     @Override
     public Map<String, List<String>> getDuplicateComponents() throws TException {
         return handler.getDuplicateComponents();
@@ -13,16 +13,22 @@ package org.eclipse.sw360.components.db;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
 import org.eclipse.sw360.datahandler.TestUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.db.ComponentDatabaseHandler;
 import org.eclipse.sw360.datahandler.entitlement.ComponentModerator;
 import org.eclipse.sw360.datahandler.entitlement.ReleaseModerator;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.ReleaseRelationship;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
+import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.*;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -244,6 +250,93 @@ public class ComponentDatabaseHandlerTest {
         assertEquals(3, summary.size());
     }
 
+    @Test
+    public void testComponentSummaryIsCurrentAfterWrites() throws Exception {
+        assertEquals(3, handler.getComponentSummary(user1).size());
+
+        handler.addComponent(new Component().setId("C4").setName("component4").setDescription("d4").setCreatedBy(email1), email1);
+        Component c1 = handler.getComponent("C1", user1);
+        c1.setName("UPDATED");
+        assertEquals(RequestStatus.SUCCESS, handler.updateComponent(c1, user1));
+        assertEquals(RequestStatus.SUCCESS, handler.deleteComponent("C3", user1));
+
+        List<Component> summary = handler.getComponentSummary(user1);
+        assertEquals(3, summary.size());
+        assertTrue(componentsContain(summary, "C4"));
+        assertFalse(componentsContain(summary, "C3"));
+        assertEquals("UPDATED", getComponent(summary, "C1").getName());
+
+        ComponentSummaryPage page = handler.getComponentSummaryPage(user1, new PaginationData().setSearchText("updated"));
+        assertEquals(3, page.getTotalCount());
+        assertEquals(1, page.getFilteredCount());
+        assertEquals("C1", page.getComponents().get(0).getId());
+    }
+
+    @Test
+    public void testReleaseSummaryIsCurrentAfterWrites() throws Exception {
+        assertEquals(5, handler.getReleaseSummary().size());
+
+        String id = handler.addRelease(new Release().setComponentId("C3").setName("component3").setVersion("releaseA")
+                .setCreatedBy(email1).setVendorId("V1"), email1).getId();
+        Release r1A = handler.getRelease("R1A", user1);
+        r1A.setVersion("UPDATED");
+        assertEquals(RequestStatus.SUCCESS, handler.updateRelease(r1A, user1, ThriftUtils.IMMUTABLE_OF_RELEASE));
+        assertEquals(RequestStatus.SUCCESS, handler.deleteRelease("R1B", user2));
+
+        List<Release> summary = handler.getReleaseSummary();
+        assertEquals(5, summary.size());
+        assertTrue(releasesContain(summary, id));
+        assertFalse(releasesContain(summary, "R1B"));
+        assertThat(summary.stream().filter(release -> "R1A".equals(release.getId())).findFirst().get().getVersion(), is("UPDATED"));
+    }
+
+    @Test
+    public void testComponentSummaryPagesCoverAllComponents() throws Exception {
+        List<String> expectedIds = new ArrayList<>(Arrays.asList("C1", "C2", "C3"));
+        expectedIds.addAll(addPagedComponents(20));
+
+        List<String> pagedIds = new ArrayList<>();
+        PaginationData pagination = new PaginationData().setRowsPerPage(4).setSortColumn("name");
+        ComponentSummaryPage page;
+        do {
+            page = handler.getComponentSummaryPage(user1, pagination);
+            assertThat(page.getComponents().size(), is(lessThanOrEqualTo(4)));
+            assertEquals(23, page.getTotalCount());
+            page.getComponents().forEach(component -> pagedIds.add(component.getId()));
+            pagination.setDisplayStart(pagination.getDisplayStart() + 4);
+        } while (!page.getComponents().isEmpty());
+
+        assertThat(pagedIds, is(expectedIds));
+    }
+
+    @Test
+    public void testComponentSummaryPageIsSmallerThanAllSummaries() throws Exception {
+        addPagedComponents(20);
+
+        ComponentSummaryPage all = handler.getComponentSummaryPage(user1, new PaginationData());
+        ComponentSummaryPage page = handler.getComponentSummaryPage(user1, new PaginationData().setRowsPerPage(5));
+
+        assertEquals(23, all.getComponents().size());
+        assertEquals(5, page.getComponents().size());
+        assertThat(serializedSize(page) * 3, is(lessThan(serializedSize(all))));
+    }
+
+    private List<String> addPagedComponents(int count) throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), dbName);
+        List<String> ids = new ArrayList<>();
+        for (int i = 10; i < 10 + count; i++) {
+            Component component = new Component().setId("C" + i).setName("paged component " + i).setDescription("d" + i)
+                    .setCreatedBy(email1).setMainLicenseIds(ImmutableSet.of("lic" + i)).setCreatedOn("2017-08-" + i);
+            databaseConnector.add(component);
+            ids.add(component.getId());
+        }
+        return ids;
+    }
+
+    private static int serializedSize(ComponentSummaryPage page) throws TException {
+        return new TSerializer(new TCompactProtocol.Factory()).serialize(page).length;
+    }
+
     @Test
     public void testGetRecentComponents() throws Exception {
         List<Component> recentComponents = handler.getRecentComponentsSummary(5, user1);
@@ -280,6 +373,28 @@ public class ComponentDatabaseHandlerTest {
 
     }
 
+    @Test
+    public void testGetReleasesByExternalIds() throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), dbName);
+        databaseConnector.add(new Release().setId("RE1").setComponentId("C1").setName("component1").setVersion("releaseE1")
+                .setCreatedBy(email1).setVendorId("V1").setExternalIds(ImmutableMap.of("mainframe-id", "1234", "purl", "pkg:maven/a/b@1")));
+        databaseConnector.add(new Release().setId("RE2").setComponentId("C1").setName("component1").setVersion("releaseE2")
+                .setCreatedBy(email1).setVendorId("V1").setExternalIds(ImmutableMap.of("mainframe-id", "4321")));
+        databaseConnector.add(new Release().setId("RE3").setComponentId("C2").setName("component2").setVersion("releaseE3")
+                .setCreatedBy(email1).setVendorId("V2").setExternalIds(ImmutableMap.of("purl", "1234")));
+
+        List<Release> byMainframeId = handler.getReleasesByExternalIds(ImmutableMap.of("mainframe-id", ImmutableSet.of("1234", "9999")));
+        assertThat(getReleaseIds(byMainframeId), containsInAnyOrder("RE1"));
+
+        List<Release> byBothKeys = handler.getReleasesByExternalIds(ImmutableMap.of(
+                "mainframe-id", ImmutableSet.of("1234", "4321"),
+                "purl", ImmutableSet.of("pkg:maven/a/b@1", "1234")));
+        assertThat(getReleaseIds(byBothKeys), containsInAnyOrder("RE1", "RE2", "RE3"));
+
+        assertThat(handler.getReleasesByExternalIds(ImmutableMap.of("unknown-key", ImmutableSet.of("1234"))), is(empty()));
+        assertThat(handler.getReleasesByExternalIds(ImmutableMap.of()), is(empty()));
+    }
+
     @Test
     public void testSearchReleaseByNamePrefix() throws Exception {
         List<Release> releases = handler.searchReleaseByNamePrefix("component1");
@@ -570,6 +685,60 @@ public class ComponentDatabaseHandlerTest {
         assertTrue(actual.getSubscribers().contains(email1));
     }
 
+    @Test
+    public void testGetComponentsByIdsMatchesGetComponent() throws Exception {
+        List<Component> actual = handler.getComponentsByIds(ImmutableSet.of("C1", "C2", "unknown"), user1);
+
+        assertThat(actual, hasSize(2));
+        for (Component component : actual) {
+            Component single = handler.getComponent(component.getId(), user1);
+            assertEquals(single.getName(), component.getName());
+            assertEquals(single.getReleasesSize(), component.getReleasesSize());
+            assertEquals(0, component.getReleaseIdsSize());
+            assertEquals(single.getPermissions(), component.getPermissions());
+        }
+    }
+
+    @Test
+    public void testGetReleasesWithVendorsByIdsMatchesGetRelease() throws Exception {
+        List<Release> actual = handler.getReleasesWithVendorsByIds(ImmutableSet.of("R1A", "R1B", "R2A", "unknown"), user1);
+
+        assertThat(actual, hasSize(3));
+        for (Release release : actual) {
+            Release single = handler.getRelease(release.getId(), user1);
+            assertEquals(single.getVersion(), release.getVersion());
+            assertEquals(single.getVendor(), release.getVendor());
+            assertEquals(single.getPermissions(), release.getPermissions());
+        }
+    }
+
+    @Test
+    public void testGetAttachmentOwners() throws Exception {
+        DatabaseConnector databaseConnector = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), dbName);
+        databaseConnector.add(new Release().setId("R4A").setComponentId("C4").setName("component4").setVersion("releaseA")
+                .setAttachments(ImmutableSet.of(new Attachment().setAttachmentContentId("A1").setFilename("sources.zip"))));
+        databaseConnector.add(new Component().setId("C4").setName("component4")
+                .setAttachments(ImmutableSet.of(new Attachment().setAttachmentContentId("A2").setFilename("readme.txt"))));
+
+        assertThat(handler.getAttachmentOwners("A1"), contains(Source.releaseId("R4A")));
+        assertThat(handler.getAttachmentOwners("A2"), contains(Source.componentId("C4")));
+        assertThat(handler.getAttachmentOwners("unknown"), is(empty()));
+    }
+
+    @Test
+    public void testUpdateReleasesIndividually() throws Exception {
+        Release r1A = handler.getRelease("R1A", user1);
+        Release r2A = handler.getRelease("R2A", user1);
+        r1A.setVersion("UPDATE1");
+        r2A.setVersion("UPDATE2");
+
+        List<RequestStatus> statuses = handler.updateReleasesIndividually(Arrays.asList(r1A, r2A), user1, ThriftUtils.IMMUTABLE_OF_RELEASE);
+
+        assertThat(statuses, contains(RequestStatus.SUCCESS, RequestStatus.SUCCESS));
+        assertEquals("UPDATE1", handler.getRelease("R1A", user1).getVersion());
+        assertEquals("UPDATE2", handler.getRelease("R2A", user1).getVersion());
+    }
+
     @Test
     public void testAddComponent() throws Exception {
         Component expected = new Component().setName("NEW_CLEARING");
@@ -16,7 +16,7 @@ import org.eclipse.sw360.datahandler.thrift.fossology.FossologyHostFingerPrint;
 import org.eclipse.sw360.datahandler.thrift.fossology.FossologyService;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.fossology.config.FossologySettings;
-import org.eclipse.sw360.fossology.handler.FossologyFileHandler;
+import org.eclipse.sw360.fossology.handler.FossologyJobQueue;
 import org.eclipse.sw360.fossology.handler.FossologyHostKeyHandler;
 import org.eclipse.sw360.fossology.handler.FossologyScriptsHandler;
 import org.eclipse.sw360.fossology.ssh.FossologySshConnector;
@@ -26,6 +26,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyList;
+
 /**
  * Implementation of the Thrift service
  *
@@ -35,15 +37,15 @@ import java.util.List;
  */
 @Component
 public class FossologyHandler implements FossologyService.Iface {
-    private final FossologyFileHandler fossologyFileHandler;
+    private final FossologyJobQueue fossologyJobQueue;
     private final FossologyHostKeyHandler fossologyHostKeyHandler;
     private final FossologySshConnector fossologySshConnector;
     private final FossologyScriptsHandler fossologyScriptsHandler;
     private final byte[] fossologyPubKey;
 
     @Autowired
-    public FossologyHandler(FossologyFileHandler fossologyFileHandler, FossologyHostKeyHandler fossologyHostKeyHandler, FossologySshConnector fossologySshConnector, FossologyScriptsHandler fossologyScriptsHandler, FossologySettings fossologySettings) {
-        this.fossologyFileHandler = fossologyFileHandler;
+    public FossologyHandler(FossologyJobQueue fossologyJobQueue, FossologyHostKeyHandler fossologyHostKeyHandler, FossologySshConnector fossologySshConnector, FossologyScriptsHandler fossologyScriptsHandler, FossologySettings fossologySettings) {
+        this.fossologyJobQueue = fossologyJobQueue;
         this.fossologyHostKeyHandler = fossologyHostKeyHandler;
         this.fossologySshConnector = fossologySshConnector;
         this.fossologyScriptsHandler = fossologyScriptsHandler;
@@ -52,21 +54,18 @@ public class FossologyHandler implements FossologyService.Iface {
 
     @Override
     public RequestStatus sendToFossology(String releaseId, User user, String clearingTeam) throws TException {
-        return fossologyFileHandler.sendToFossology(releaseId, user, clearingTeam);
+        return FossologyJobQueue.await(fossologyJobQueue.upload(releaseId, user, clearingTeam));
     }
 
     @Override
     public RequestStatus sendReleasesToFossology(List<String> releaseIds, User user, String clearingTeam) throws TException {
-        for (String releaseId : releaseIds) {
-            RequestStatus requestStatus = sendToFossology(releaseId, user, clearingTeam);
-            if (requestStatus != RequestStatus.SUCCESS) return requestStatus;
-        }
+        fossologyJobQueue.uploadAll(nullToEmptyList(releaseIds), user, clearingTeam);
         return RequestStatus.SUCCESS;
     }
 
     @Override
     public Release getStatusInFossology(String releaseId, User user, String clearingTeam) throws TException {
-        return fossologyFileHandler.getStatusInFossology(releaseId, user, clearingTeam);
+        return FossologyJobQueue.await(fossologyJobQueue.checkStatus(releaseId, user, clearingTeam));
     }
 
     @Override
@@ -40,6 +40,9 @@ public class FossologySettings {
     private static final String FOSSOLOGY_SSH_USERNAME;
     private static final byte[] FOSSOLOGY_PRIVATE_KEY;
     private static final byte[] FOSSOLOGY_PUBLIC_KEY;
+    private static final int FOSSOLOGY_SSH_MAX_SESSIONS;
+    private static final int FOSSOLOGY_SSH_CHANNELS_PER_SESSION;
+    private static final int FOSSOLOGY_PARALLEL_JOBS;
 
     private static final Logger log = getLogger(FossologySettings.class);
 
@@ -56,6 +59,11 @@ public class FossologySettings {
 
         FOSSOLOGY_PRIVATE_KEY = loadKeyFile(keyFilePath);
         FOSSOLOGY_PUBLIC_KEY = loadKeyFile(pubKeyFilePath);
+
+        FOSSOLOGY_SSH_MAX_SESSIONS = Integer.parseInt(props.getProperty("fossology.ssh.sessions", "4"));
+        // OpenSSH allows 10 channels per connection by default (MaxSessions in sshd_config)
+        FOSSOLOGY_SSH_CHANNELS_PER_SESSION = Integer.parseInt(props.getProperty("fossology.ssh.channels.per.session", "4"));
+        FOSSOLOGY_PARALLEL_JOBS = Integer.parseInt(props.getProperty("fossology.parallel.jobs", "4"));
     }
 
     private static byte[] loadKeyFile(String keyFilePath) {
@@ -90,4 +98,16 @@ public class FossologySettings {
     public byte[] getFossologyPublicKey() {
         return FOSSOLOGY_PUBLIC_KEY;
     }
+
+    public int getFossologySshMaxSessions() {
+        return FOSSOLOGY_SSH_MAX_SESSIONS;
+    }
+
+    public int getFossologySshChannelsPerSession() {
+        return FOSSOLOGY_SSH_CHANNELS_PER_SESSION;
+    }
+
+    public int getFossologyParallelJobs() {
+        return FOSSOLOGY_PARALLEL_JOBS;
+    }
 }
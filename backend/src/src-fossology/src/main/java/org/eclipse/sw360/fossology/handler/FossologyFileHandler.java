@@ -89,6 +89,25 @@ public class FossologyFileHandler {
         }
     }
 
+    /**
+     * Stores status for clearingTeam on the release, for uploads which did not make it to Fossology. Problems are only
+     * logged, as the caller is already handling a failure.
+     */
+    public void markUploadFailed(String releaseId, User user, String clearingTeam, FossologyStatus status) {
+        try {
+            final ComponentService.Iface componentClient = thriftClients.makeComponentClient();
+            final Release release = componentClient.getReleaseById(releaseId, user);
+            if (release == null) {
+                log.error("cannot mark the upload of release " + releaseId + " as " + status + ", the release does not exist");
+                return;
+            }
+            setFossologyStatus(release, clearingTeam, status);
+            updateRelease(release, user, componentClient);
+        } catch (TException e) {
+            log.error("cannot mark the upload of release " + releaseId + " as " + status, e);
+        }
+    }
+
     protected boolean checkSourceAttachment(Release release, FilledAttachment filledAttachment) {
         boolean check = true;
         if (!Objects.equals(filledAttachment.getAttachmentContent().getId(), release.getAttachmentInFossology())) {
@@ -0,0 +1,193 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.fossology.handler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.components.FossologyStatus;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.fossology.config.FossologySettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.apache.log4j.Logger.getLogger;
+import static org.eclipse.sw360.datahandler.common.SW360Assert.fail;
+
+/**
+ * Runs uploads to and status checks in Fossology in the background, at most
+ * {@link FossologySettings#getFossologyParallelJobs()} at a time on the configured Fossology host. Jobs of the same
+ * release run one after the other, as each of them updates the release. A job which is queued again before it ran
+ * is only run once.
+ *
+ * The results, also those of failed uploads, are stored on the releases, so they can be read from there later on.
+ * Callers who need them right away get them from the returned futures, which can also be used to be called back when
+ * the jobs are done.
+ */
+@Component
+public class FossologyJobQueue implements DisposableBean {
+
+    private static final Logger log = getLogger(FossologyJobQueue.class);
+
+    private static final CompletableFuture<Void> NO_JOB = CompletableFuture.completedFuture(null);
+
+    private final FossologyFileHandler fossologyFileHandler;
+    private final ExecutorService executor;
+
+    // guarded by this
+    private final Map<String, CompletableFuture<?>> queuedJobs = new HashMap<>();
+    private final Map<String, CompletableFuture<?>> lastJobOfRelease = new HashMap<>();
+
+    @Autowired
+    public FossologyJobQueue(FossologyFileHandler fossologyFileHandler, FossologySettings fossologySettings) {
+        this(fossologyFileHandler, Executors.newFixedThreadPool(Math.max(1, fossologySettings.getFossologyParallelJobs()),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("fossology-" + fossologySettings.getFossologyHost() + "-%d")
+                        .setDaemon(true)
+                        .build()));
+    }
+
+    public FossologyJobQueue(FossologyFileHandler fossologyFileHandler, ExecutorService executor) {
+        this.fossologyFileHandler = fossologyFileHandler;
+        this.executor = executor;
+    }
+
+    /**
+     * Stops the running jobs, the jobs which did not start yet are cancelled and logged, so they can be queued again
+     */
+    @Override
+    public void destroy() throws Exception {
+        executor.shutdownNow();
+
+        Map<String, CompletableFuture<?>> dropped;
+        synchronized (this) {
+            dropped = new HashMap<>(queuedJobs);
+        }
+        dropped.forEach((jobName, future) -> {
+            log.warn("Fossology job " + jobName + " was dropped at shutdown, it has to be queued again");
+            future.cancel(false);
+        });
+    }
+
+    /**
+     * The upload runs in the background, when it fails the status of clearingTeam on the release is set to ERROR, or
+     * to CONNECTION_FAILED when it threw
+     */
+    public CompletableFuture<RequestStatus> upload(String releaseId, User user, String clearingTeam) {
+        return submit(releaseId, "upload " + releaseId + " " + clearingTeam, () -> {
+            RequestStatus status;
+            try {
+                status = fossologyFileHandler.sendToFossology(releaseId, user, clearingTeam);
+            } catch (TException | RuntimeException e) {
+                fossologyFileHandler.markUploadFailed(releaseId, user, clearingTeam, FossologyStatus.CONNECTION_FAILED);
+                throw e;
+            }
+            if (status != RequestStatus.SUCCESS) {
+                fossologyFileHandler.markUploadFailed(releaseId, user, clearingTeam, FossologyStatus.ERROR);
+            }
+            return status;
+        });
+    }
+
+    /**
+     * @return SUCCESS when all uploads succeeded, otherwise the first status which was not SUCCESS
+     */
+    public CompletableFuture<RequestStatus> uploadAll(List<String> releaseIds, User user, String clearingTeam) {
+        List<CompletableFuture<RequestStatus>> uploads = releaseIds.stream()
+                .map(releaseId -> upload(releaseId, user, clearingTeam))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(uploads.toArray(new CompletableFuture[uploads.size()]))
+                .thenApply(done -> uploads.stream()
+                        .map(CompletableFuture::join)
+                        .filter(status -> status != RequestStatus.SUCCESS)
+                        .findFirst()
+                        .orElse(RequestStatus.SUCCESS));
+    }
+
+    public CompletableFuture<Release> checkStatus(String releaseId, User user, String clearingTeam) {
+        return submit(releaseId, "status " + releaseId + " " + clearingTeam,
+                () -> fossologyFileHandler.getStatusInFossology(releaseId, user, clearingTeam));
+    }
+
+    /**
+     * Waits for the job, the exceptions thrown by the job are thrown again
+     */
+    public static <T> T await(CompletableFuture<T> job) throws TException {
+        try {
+            return job.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(e, "interrupted while waiting for Fossology");
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof TException) {
+                throw (TException) cause;
+            }
+            throw fail(cause, "Fossology job failed");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> CompletableFuture<T> submit(String releaseId, String jobName, Job<T> job) {
+        CompletableFuture<?> queued = queuedJobs.get(jobName);
+        if (queued != null) {
+            return (CompletableFuture<T>) queued;
+        }
+
+        CompletableFuture<?> previous = lastJobOfRelease.getOrDefault(releaseId, NO_JOB);
+        CompletableFuture<T> future = previous
+                .handle((result, failure) -> null)
+                .thenApplyAsync(ignored -> run(jobName, job), executor);
+        queuedJobs.put(jobName, future);
+        lastJobOfRelease.put(releaseId, future);
+
+        future.whenComplete((result, failure) -> forget(releaseId, jobName, future));
+        return future;
+    }
+
+    private <T> T run(String jobName, Job<T> job) {
+        synchronized (this) {
+            // from now on the job is not queued any more but running, so it is queued again when asked for
+            queuedJobs.remove(jobName);
+        }
+        try {
+            T result = job.run();
+            log.debug("Fossology job " + jobName + " done: " + result);
+            return result;
+        } catch (TException | RuntimeException e) {
+            log.error("Fossology job " + jobName + " failed", e);
+            throw new CompletionException(e);
+        }
+    }
+
+    private synchronized void forget(String releaseId, String jobName, CompletableFuture<?> future) {
+        queuedJobs.remove(jobName, future);
+        lastJobOfRelease.remove(releaseId, future);
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    @FunctionalInterface
+    private interface Job<T> {
+        T run() throws TException;
+    }
+}
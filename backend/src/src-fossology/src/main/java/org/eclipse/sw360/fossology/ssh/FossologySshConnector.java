@@ -20,12 +20,14 @@ import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.sw360.datahandler.common.SW360Assert.fail;
-import static java.lang.System.currentTimeMillis;
 import static org.apache.log4j.Logger.getLogger;
 
 /**
@@ -58,14 +60,16 @@ public class FossologySshConnector {
         connectionTimeout = fossologySettings.getFossologyConnectionTimeout();
     }
 
-    protected void waitCompletion(Channel channel, long timeout) throws SW360Exception {
-        long startTime = currentTimeMillis();
-        while (!channel.isClosed() && (currentTimeMillis() - startTime < timeout)) {
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                throw fail(e, "interrupted connection to Fossology");
-            }
+    /**
+     * JSch closes the input stream of a channel when the channel is closed, which happens after the exit status
+     * arrived. Waiting for that is cheaper than asking the channel whether it is closed every now and then.
+     */
+    protected void waitCompletion(Channel channel, CompletionSignal completion, long timeout) throws SW360Exception {
+        try {
+            completion.await(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(e, "interrupted connection to Fossology");
         }
         if (!channel.isClosed()) {
             throw fail("timeout while waiting for completion of connection to Fossology");
@@ -93,13 +97,14 @@ public class FossologySshConnector {
 
             channel = (ChannelExec) session.openChannel("exec");
 
+            CompletionSignal completion = new CompletionSignal(stdin);
             channel.setOutputStream(stdout);
-            channel.setInputStream(stdin);
+            channel.setInputStream(completion);
 
             channel.setCommand(command);
 
             channel.connect(connectionTimeout);
-            waitCompletion(channel, executionTimeout);
+            waitCompletion(channel, completion, executionTimeout);
             channel.disconnect();
 
             exitCode = channel.getExitStatus();
@@ -114,4 +119,27 @@ public class FossologySshConnector {
         return exitCode;
     }
 
+    /**
+     * Input stream of a channel which tells when JSch closes it
+     */
+    protected static class CompletionSignal extends FilterInputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        protected CompletionSignal(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                closed.countDown();
+            }
+        }
+
+        protected void await(long timeout) throws InterruptedException {
+            closed.await(timeout, TimeUnit.MILLISECONDS);
+        }
+    }
 }
@@ -22,15 +22,30 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.log4j.Logger.getLogger;
+import static org.eclipse.sw360.datahandler.common.SW360Assert.fail;
 
+/**
+ * Bounded pool of authenticated SSH sessions to the Fossology server. When all sessions are busy, a session is
+ * shared by up to {@link FossologySettings#getFossologySshChannelsPerSession()} callers, each of which runs its own
+ * channel on it. Callers wait for a free channel when there is none. Sessions which lost their connection are dropped, the
+ * keep-alive messages of JSch detect dead connections while the sessions are idle.
+ */
 @Component
 public class JSchSessionProvider implements DisposableBean {
     private static final Logger log = getLogger(JSchSessionProvider.class);
 
+    private static final int SERVER_ALIVE_INTERVAL = 15000;
+    private static final int SERVER_ALIVE_COUNT_MAX = 3;
+
     static {
         JSch.setLogger(new JSchLogForwarder());
         JSch.setConfig("StrictHostKeyChecking", "yes");
@@ -42,7 +57,12 @@ public class JSchSessionProvider implements DisposableBean {
     private final String userName;
     private final String hostName;
     private final int hostPort;
-    private final ConcurrentLinkedQueue<Session> sessions;
+    private final int maxSessions;
+    private final int channelsPerSession;
+
+    // guarded by this
+    private final List<PooledSession> sessions = new ArrayList<>();
+    private int connectingSessions = 0;
 
     @Autowired
     public JSchSessionProvider(FossologySettings fossologySettings, FossologyHostKeyRepository fossologyHostKeyRepository) {
@@ -51,15 +71,22 @@ public class JSchSessionProvider implements DisposableBean {
         userName = fossologySettings.getFossologySshUsername();
         hostName = fossologySettings.getFossologyHost();
         hostPort = fossologySettings.getFossologyPort();
+        maxSessions = Math.max(1, fossologySettings.getFossologySshMaxSessions());
+        channelsPerSession = Math.max(1, fossologySettings.getFossologySshChannelsPerSession());
 
         addIdentity(userName, fossologySettings.getFossologyPrivateKey());
-        sessions = new ConcurrentLinkedQueue<>();
     }
 
     @Override
     public void destroy() throws Exception {
-        for (Session session : sessions) {
-            doCloseSession(session);
+        List<PooledSession> closed;
+        synchronized (this) {
+            closed = new ArrayList<>(sessions);
+            sessions.clear();
+            notifyAll();
+        }
+        for (PooledSession pooledSession : closed) {
+            doCloseSession(pooledSession.session);
         }
     }
 
@@ -75,49 +102,121 @@ public class JSchSessionProvider implements DisposableBean {
         }
     }
 
-    private Optional<Session> pollCachedSession() {
-        Session session = sessions.poll();
-        if (session != null && session.isConnected()) {
-            return Optional.of(session);
-        } else {
-            return Optional.empty();
+    /**
+     * @return a connected session with a free channel, which has to be given back with {@link #closeSession(Session)}
+     */
+    public Session getSession(int connectionTimeout) throws SW360Exception {
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos(connectionTimeout);
+        synchronized (this) {
+            while (true) {
+                dropDisconnectedSessions();
+                Optional<PooledSession> pooledSession = pollCachedSession(0);
+                if (pooledSession.isPresent()) {
+                    pooledSession.get().leases++;
+                    return pooledSession.get().session;
+                }
+                if (sessions.size() + connectingSessions < maxSessions) {
+                    connectingSessions++;
+                    break;
+                }
+                pooledSession = pollCachedSession(channelsPerSession - 1);
+                if (pooledSession.isPresent()) {
+                    pooledSession.get().leases++;
+                    return pooledSession.get().session;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw fail("no free session to Fossology Server %s within %d ms", getServerString(), connectionTimeout);
+                }
+                try {
+                    NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw fail(e, "interrupted while waiting for a session to Fossology");
+                }
+            }
         }
-    }
 
-    public Session getSession(int connectionTimeout) throws SW360Exception {
-        Optional<Session> session = pollCachedSession();
-        if (session.isPresent()) {
-            return session.get();
-        } else {
-            return doGetSession(connectionTimeout);
+        // connecting takes a while, the other callers go on meanwhile
+        Session session = null;
+        try {
+            session = doGetSession(connectionTimeout);
+            return session;
+        } finally {
+            synchronized (this) {
+                connectingSessions--;
+                if (session != null) {
+                    PooledSession pooledSession = new PooledSession(session);
+                    pooledSession.leases++;
+                    sessions.add(pooledSession);
+                }
+                notifyAll();
+            }
         }
     }
 
+    /**
+     * Gives the session back to the pool. Sessions which are not connected any more are closed and dropped.
+     */
     public void closeSession(Session session) {
         if (session == null) {
             return;
         }
-        if (session.isConnected()) {
-            if (sessions.size() < 5) { // minor race condition, not a problem
-                sessions.add(session);
+        boolean drop = false;
+        synchronized (this) {
+            Optional<PooledSession> pooledSession = sessions.stream()
+                    .filter(pooled -> pooled.session == session)
+                    .findAny();
+            if (pooledSession.isPresent()) {
+                PooledSession pooled = pooledSession.get();
+                pooled.leases = Math.max(0, pooled.leases - 1);
+                if (!session.isConnected() && pooled.leases == 0) {
+                    sessions.remove(pooled);
+                    drop = true;
+                }
             } else {
-                doCloseSession(session);
+                drop = true;
+            }
+            notifyAll();
+        }
+        if (drop) {
+            doCloseSession(session);
+        }
+    }
+
+    private void dropDisconnectedSessions() {
+        for (Iterator<PooledSession> iterator = sessions.iterator(); iterator.hasNext(); ) {
+            PooledSession pooledSession = iterator.next();
+            if (!pooledSession.session.isConnected() && pooledSession.leases == 0) {
+                iterator.remove();
+                log.info("dropping disconnected session to Fossology Server " + getServerString());
             }
         }
     }
 
+    // idle sessions are used first, then new sessions are opened and only then busy sessions are shared
+    private Optional<PooledSession> pollCachedSession(int maxLeases) {
+        return sessions.stream()
+                .filter(pooledSession -> pooledSession.session.isConnected())
+                .filter(pooledSession -> pooledSession.leases <= maxLeases)
+                .min(Comparator.comparingInt(pooledSession -> pooledSession.leases));
+    }
+
     private Session doGetSession(int connectionTimeout) throws SW360Exception {
-        synchronized (J_SCH) {
-            try {
-                Session session = J_SCH.getSession(userName, hostName, hostPort);
-                session.setHostKeyRepository(fossologyHostKeyRepository);
-                session.connect(connectionTimeout);
-                return session;
-            } catch (JSchException e) {
-                String serverString = getServerString();
-                log.error("cannot connect to fossology server: " + serverString, e);
-                throw new SW360Exception("cannot connect to Fossology Server");
+        try {
+            Session session;
+            synchronized (J_SCH) {
+                session = J_SCH.getSession(userName, hostName, hostPort);
             }
+            session.setHostKeyRepository(fossologyHostKeyRepository);
+            session.setServerAliveInterval(SERVER_ALIVE_INTERVAL);
+            session.setServerAliveCountMax(SERVER_ALIVE_COUNT_MAX);
+            session.connect(connectionTimeout);
+            return session;
+        } catch (JSchException e) {
+            String serverString = getServerString();
+            log.error("cannot connect to fossology server: " + serverString, e);
+            throw new SW360Exception("cannot connect to Fossology Server");
         }
     }
 
@@ -131,6 +230,15 @@ public class JSchSessionProvider implements DisposableBean {
         return userName + "@[" + hostName + "]:[" + hostPort + "]";
     }
 
+    private static class PooledSession {
+        private final Session session;
+        private int leases = 0;
+
+        private PooledSession(Session session) {
+            this.session = session;
+        }
+    }
+
     private static class JSchLogForwarder implements com.jcraft.jsch.Logger {
         @Override
         public boolean isEnabled(int level) {
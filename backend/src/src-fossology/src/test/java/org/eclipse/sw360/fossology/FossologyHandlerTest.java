@@ -10,6 +10,7 @@
  */
 package org.eclipse.sw360.fossology;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.eclipse.sw360.datahandler.TestUtils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
@@ -18,6 +19,7 @@ import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.fossology.config.FossologySettings;
 import org.eclipse.sw360.fossology.handler.FossologyFileHandler;
 import org.eclipse.sw360.fossology.handler.FossologyHostKeyHandler;
+import org.eclipse.sw360.fossology.handler.FossologyJobQueue;
 import org.eclipse.sw360.fossology.handler.FossologyScriptsHandler;
 import org.eclipse.sw360.fossology.ssh.FossologySshConnector;
 import org.junit.After;
@@ -56,7 +58,8 @@ public class FossologyHandlerTest {
     @Before
     public void setUp() {
         when(fossologySettings.getFossologyPublicKey()).thenReturn(pubkey.getBytes());
-        fossologyHandler = new FossologyHandler(fossologyFileHandler, fossologyHostKeyHandler, fossologySshConnector, fossologyScriptsHandler, fossologySettings);
+        FossologyJobQueue fossologyJobQueue = new FossologyJobQueue(fossologyFileHandler, MoreExecutors.newDirectExecutorService());
+        fossologyHandler = new FossologyHandler(fossologyJobQueue, fossologyHostKeyHandler, fossologySshConnector, fossologyScriptsHandler, fossologySettings);
         user = TestUtils.getAdminUser(getClass());
     }
 
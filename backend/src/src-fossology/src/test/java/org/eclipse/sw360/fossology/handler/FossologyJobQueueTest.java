@@ -0,0 +1,265 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.fossology.handler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.sw360.datahandler.TestUtils;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentConnector;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
+import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.eclipse.sw360.datahandler.thrift.components.ClearingState;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
+import org.eclipse.sw360.datahandler.thrift.components.FossologyStatus;
+import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.fossology.ssh.FossologyUploader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class FossologyJobQueueTest {
+
+    private static final String CLEARING_TEAM = "team";
+    private static final int PARALLEL_JOBS = 2;
+
+    private final Map<String, Release> releases = new ConcurrentHashMap<>();
+    private FakeFossologyUploader fossologyUploader;
+    private ExecutorService executor;
+    private FossologyJobQueue fossologyJobQueue;
+    private User user;
+
+    @Before
+    public void setUp() throws Exception {
+        user = TestUtils.getAdminUser(getClass());
+
+        ComponentService.Iface componentClient = mock(ComponentService.Iface.class);
+        when(componentClient.getReleaseById(anyString(), any(User.class))).thenAnswer(invocation -> {
+            Release release = releases.get((String) invocation.getArguments()[0]);
+            return release != null ? release.deepCopy() : null;
+        });
+        when(componentClient.updateReleaseFossology(any(Release.class), any(User.class))).thenAnswer(invocation -> {
+            Release release = (Release) invocation.getArguments()[0];
+            releases.put(release.getId(), release.deepCopy());
+            return RequestStatus.SUCCESS;
+        });
+        when(componentClient.getSourceAttachments(anyString()))
+                .thenAnswer(invocation -> ImmutableSet.of(new Attachment("source-" + invocation.getArguments()[0], "source.zip")));
+        ThriftClients thriftClients = mock(ThriftClients.class);
+        when(thriftClients.makeComponentClient()).thenReturn(componentClient);
+
+        AttachmentConnector attachmentConnector = mock(AttachmentConnector.class);
+        when(attachmentConnector.getAttachmentContent(anyString()))
+                .thenAnswer(invocation -> new AttachmentContent().setId((String) invocation.getArguments()[0]).setFilename("source.zip"));
+        when(attachmentConnector.getAttachmentStream(any(AttachmentContent.class), any(User.class), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        fossologyUploader = new FakeFossologyUploader();
+        executor = Executors.newFixedThreadPool(PARALLEL_JOBS);
+        fossologyJobQueue = new FossologyJobQueue(new FossologyFileHandler(attachmentConnector, fossologyUploader, thriftClients), executor);
+
+        for (int i = 0; i < 6; i++) {
+            String id = "release" + i;
+            releases.put(id, new Release("release", "1." + i, "component").setId(id).setClearingState(ClearingState.NEW_CLEARING));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fossologyUploader.gate.countDown();
+        fossologyJobQueue.destroy();
+    }
+
+    @Test
+    public void testUploadsRunInParallelUpToTheLimit() throws Exception {
+        List<String> releaseIds = IntStream.range(0, 6).mapToObj(i -> "release" + i).collect(Collectors.toList());
+
+        CompletableFuture<RequestStatus> uploads = fossologyJobQueue.uploadAll(releaseIds, user, CLEARING_TEAM);
+
+        assertThat(fossologyUploader.started.tryAcquire(PARALLEL_JOBS, 10, TimeUnit.SECONDS), is(true));
+        assertThat(fossologyUploader.started.tryAcquire(100, TimeUnit.MILLISECONDS), is(false));
+        assertThat(uploads.isDone(), is(false));
+
+        fossologyUploader.gate.countDown();
+
+        assertThat(uploads.get(10, TimeUnit.SECONDS), is(RequestStatus.SUCCESS));
+        assertThat(fossologyUploader.maxRunning.get(), is(PARALLEL_JOBS));
+        assertThat(fossologyUploader.uploads.get(), is(6));
+    }
+
+    @Test
+    public void testStatusIsStoredOnTheRelease() throws Exception {
+        fossologyUploader.gate.countDown();
+        CountDownLatch calledBack = new CountDownLatch(1);
+
+        fossologyJobQueue.upload("release1", user, CLEARING_TEAM).thenRun(calledBack::countDown);
+
+        assertThat(calledBack.await(10, TimeUnit.SECONDS), is(true));
+        // read without contacting Fossology
+        Release release = releases.get("release1");
+        assertThat(release.getClearingTeamToFossologyStatus().get(CLEARING_TEAM), is(FossologyStatus.SENT));
+        assertThat(release.getClearingState(), is(ClearingState.SENT_TO_FOSSOLOGY));
+        assertThat(release.getFossologyId(), is(not(isEmptyOrNullString())));
+
+        fossologyUploader.status = FossologyStatus.IN_PROGRESS;
+        Release checked = FossologyJobQueue.await(fossologyJobQueue.checkStatus("release1", user, CLEARING_TEAM));
+
+        assertThat(checked.getClearingTeamToFossologyStatus().get(CLEARING_TEAM), is(FossologyStatus.IN_PROGRESS));
+        assertThat(releases.get("release1").getClearingState(), is(ClearingState.UNDER_CLEARING));
+    }
+
+    @Test
+    public void testJobsOfOneReleaseRunOneAfterTheOther() throws Exception {
+        CompletableFuture<RequestStatus> upload = fossologyJobQueue.upload("release1", user, CLEARING_TEAM);
+        CompletableFuture<Release> status = fossologyJobQueue.checkStatus("release1", user, CLEARING_TEAM);
+
+        assertThat(fossologyUploader.started.tryAcquire(10, TimeUnit.SECONDS), is(true));
+        assertThat(status.isDone(), is(false));
+        Thread.sleep(100);
+        assertThat(fossologyUploader.statusChecks.get(), is(0));
+
+        fossologyUploader.gate.countDown();
+
+        assertThat(upload.get(10, TimeUnit.SECONDS), is(RequestStatus.SUCCESS));
+        // the check sees the upload which was done before
+        assertThat(status.get(10, TimeUnit.SECONDS).getClearingTeamToFossologyStatus().get(CLEARING_TEAM), is(FossologyStatus.SENT));
+        assertThat(fossologyUploader.statusChecks.get(), is(1));
+    }
+
+    @Test
+    public void testJobQueuedTwiceRunsOnce() throws Exception {
+        // keeps both workers busy, so the jobs below stay queued
+        fossologyJobQueue.upload("release4", user, CLEARING_TEAM);
+        fossologyJobQueue.upload("release5", user, CLEARING_TEAM);
+        assertThat(fossologyUploader.started.tryAcquire(PARALLEL_JOBS, 10, TimeUnit.SECONDS), is(true));
+
+        CompletableFuture<RequestStatus> first = fossologyJobQueue.upload("release1", user, CLEARING_TEAM);
+        CompletableFuture<RequestStatus> second = fossologyJobQueue.upload("release1", user, CLEARING_TEAM);
+        fossologyUploader.gate.countDown();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(first.get(10, TimeUnit.SECONDS), is(RequestStatus.SUCCESS));
+        assertThat(fossologyUploader.uploads.get(), is(3));
+    }
+
+    @Test
+    public void testFailuresAreReported() throws Exception {
+        fossologyUploader.gate.countDown();
+        fossologyUploader.uploadId = -1;
+
+        assertThat(FossologyJobQueue.await(fossologyJobQueue.upload("release1", user, CLEARING_TEAM)), is(RequestStatus.FAILURE));
+        assertThat(fossologyJobQueue.uploadAll(ImmutableList.of("release2", "release3"), user, CLEARING_TEAM).get(10, TimeUnit.SECONDS),
+                is(RequestStatus.FAILURE));
+        for (String releaseId : ImmutableList.of("release1", "release2", "release3")) {
+            assertThat(releases.get(releaseId).getClearingTeamToFossologyStatus().get(CLEARING_TEAM), is(FossologyStatus.ERROR));
+        }
+    }
+
+    @Test
+    public void testUploadsWhichThrowAreStoredAsConnectionFailed() throws Exception {
+        fossologyUploader.gate.countDown();
+        fossologyUploader.failure = new IllegalStateException("connection refused");
+
+        try {
+            FossologyJobQueue.await(fossologyJobQueue.upload("release1", user, CLEARING_TEAM));
+            fail("expected the failure of the upload");
+        } catch (SW360Exception expected) {
+        }
+
+        assertThat(releases.get("release1").getClearingTeamToFossologyStatus().get(CLEARING_TEAM), is(FossologyStatus.CONNECTION_FAILED));
+    }
+
+    @Test
+    public void testQueuedJobsAreCancelledAtShutdown() throws Exception {
+        fossologyJobQueue.upload("release4", user, CLEARING_TEAM);
+        fossologyJobQueue.upload("release5", user, CLEARING_TEAM);
+        assertThat(fossologyUploader.started.tryAcquire(PARALLEL_JOBS, 10, TimeUnit.SECONDS), is(true));
+        CompletableFuture<RequestStatus> queued = fossologyJobQueue.upload("release1", user, CLEARING_TEAM);
+
+        fossologyJobQueue.destroy();
+
+        assertThat(queued.isCancelled(), is(true));
+        assertThat(fossologyUploader.uploads.get(), is(0));
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testExceptionsOfJobsAreThrownAgain() throws Exception {
+        fossologyUploader.gate.countDown();
+        releases.remove("release1");
+
+        FossologyJobQueue.await(fossologyJobQueue.upload("release1", user, CLEARING_TEAM));
+    }
+
+    private static class FakeFossologyUploader extends FossologyUploader {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final Semaphore started = new Semaphore(0);
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger uploads = new AtomicInteger();
+        private final AtomicInteger statusChecks = new AtomicInteger();
+        private volatile int uploadId = 42;
+        private volatile FossologyStatus status = FossologyStatus.SENT;
+        private volatile RuntimeException failure;
+
+        private FakeFossologyUploader() {
+            super(null);
+        }
+
+        @Override
+        public int uploadToFossology(InputStream inputStream, AttachmentContent attachment, String clearingTeam) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            if (failure != null) {
+                throw failure;
+            }
+            started.release();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            } finally {
+                running.decrementAndGet();
+            }
+            uploads.incrementAndGet();
+            return uploadId;
+        }
+
+        @Override
+        public FossologyStatus getStatusInFossology(int uploadId, String clearingTeam) {
+            statusChecks.incrementAndGet();
+            return status;
+        }
+
+        @Override
+        public boolean duplicateInFossology(int uploadId, String clearingTeam) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.fossology.ssh;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.server.Command;
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.auth.pubkey.AcceptAllPublickeyAuthenticator;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.eclipse.sw360.fossology.config.FossologySettings;
+import org.junit.rules.ExternalResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Local SSH server standing in for the Fossology server. It accepts any key and understands a few commands:
+ * <ul>
+ * <li>{@code exit <code>}</li>
+ * <li>{@code echo <text>}</li>
+ * <li>{@code cat}, which copies the input to the output</li>
+ * <li>{@code sleep <seconds>}</li>
+ * </ul>
+ */
+public class EmbeddedSshServer extends ExternalResource {
+
+    private final AtomicInteger openedSessions = new AtomicInteger();
+    private final AtomicInteger runningCommands = new AtomicInteger();
+    private final AtomicInteger maxRunningCommands = new AtomicInteger();
+
+    private SshServer server;
+
+    @Override
+    protected void before() throws Throwable {
+        server = SshServer.setUpDefaultServer();
+        server.setHost("localhost");
+        server.setPort(0);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        server.setPublickeyAuthenticator(AcceptAllPublickeyAuthenticator.INSTANCE);
+        server.setCommandFactory(StandInCommand::new);
+        server.addSessionListener(new SessionListener() {
+            @Override
+            public void sessionCreated(Session session) {
+                openedSessions.incrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void after() {
+        try {
+            server.stop(true);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return settings which point to this server, with the given pool size
+     */
+    public FossologySettings settings(int maxSessions, int channelsPerSession, long executionTimeout) {
+        FossologySettings settings = spy(new FossologySettings());
+        doReturn("localhost").when(settings).getFossologyHost();
+        doReturn(server.getPort()).when(settings).getFossologyPort();
+        doReturn(maxSessions).when(settings).getFossologySshMaxSessions();
+        doReturn(channelsPerSession).when(settings).getFossologySshChannelsPerSession();
+        doReturn(2000).when(settings).getFossologyConnectionTimeout();
+        doReturn(executionTimeout).when(settings).getFossologyExecutionTimeout();
+        return settings;
+    }
+
+    public int getOpenedSessions() {
+        return openedSessions.get();
+    }
+
+    public int getMaxRunningCommands() {
+        return maxRunningCommands.get();
+    }
+
+    private class StandInCommand implements Command, Runnable {
+        private final String command;
+        private InputStream in;
+        private OutputStream out;
+        private OutputStream err;
+        private ExitCallback exitCallback;
+        private Thread thread;
+
+        private StandInCommand(String command) {
+            this.command = command;
+        }
+
+        @Override
+        public void setInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+            this.err = err;
+        }
+
+        @Override
+        public void setExitCallback(ExitCallback exitCallback) {
+            this.exitCallback = exitCallback;
+        }
+
+        @Override
+        public void start(Environment environment) throws IOException {
+            thread = new Thread(this, "ssh-stand-in " + command);
+            thread.start();
+        }
+
+        @Override
+        public void destroy() throws Exception {
+            thread.interrupt();
+        }
+
+        @Override
+        public void run() {
+            int running = runningCommands.incrementAndGet();
+            maxRunningCommands.accumulateAndGet(running, Math::max);
+            int exitCode;
+            try {
+                exitCode = execute();
+            } catch (IOException | RuntimeException e) {
+                exitCode = 1;
+            } catch (InterruptedException e) {
+                exitCode = 130;
+            } finally {
+                runningCommands.decrementAndGet();
+            }
+            exitCallback.onExit(exitCode);
+        }
+
+        private int execute() throws IOException, InterruptedException {
+            String[] words = command.trim().split("\\s+", 2);
+            String argument = words.length > 1 ? words[1] : "";
+            switch (words[0]) {
+                case "exit":
+                    return Integer.parseInt(argument);
+                case "echo":
+                    write(out, argument + "\n");
+                    return 0;
+                case "cat":
+                    IOUtils.copy(in, out);
+                    out.flush();
+                    return 0;
+                case "sleep":
+                    Thread.sleep((long) (Double.parseDouble(argument) * 1000));
+                    return 0;
+                default:
+                    write(err, words[0] + ": command not found\n");
+                    return 127;
+            }
+        }
+
+        private void write(OutputStream stream, String text) throws IOException {
+            stream.write(text.getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        }
+    }
+}
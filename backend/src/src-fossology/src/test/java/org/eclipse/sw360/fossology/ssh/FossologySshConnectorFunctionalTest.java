@@ -0,0 +1,113 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.fossology.ssh;
+
+import org.eclipse.sw360.fossology.config.FossologySettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FossologySshConnectorFunctionalTest {
+
+    @Rule
+    public EmbeddedSshServer sshServer = new EmbeddedSshServer();
+
+    private JSchSessionProvider jSchSessionProvider;
+    private FossologySshConnector fossologySshConnector;
+
+    @Before
+    public void setUp() throws Exception {
+        connectWith(sshServer.settings(2, 4, 10000));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        jSchSessionProvider.destroy();
+    }
+
+    @Test
+    public void testExitCodeIsReturned() throws Exception {
+        assertThat(fossologySshConnector.runInFossologyViaSsh("exit 0"), is(0));
+        assertThat(fossologySshConnector.runInFossologyViaSsh("exit 3"), is(3));
+        assertThat(fossologySshConnector.runInFossologyViaSsh("unknown"), is(127));
+    }
+
+    @Test
+    public void testInputIsSentAndOutputIsReceived() throws Exception {
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+
+        int exitCode = fossologySshConnector.runInFossologyViaSsh("cat",
+                new ByteArrayInputStream("some content".getBytes(StandardCharsets.UTF_8)), stdout);
+
+        assertThat(exitCode, is(0));
+        assertThat(new String(stdout.toByteArray(), StandardCharsets.UTF_8), is("some content"));
+    }
+
+    @Test
+    public void testSequentialCommandsReuseOneSession() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            assertThat(fossologySshConnector.runInFossologyViaSsh("echo " + i, stdout), is(0));
+            assertThat(new String(stdout.toByteArray(), StandardCharsets.UTF_8), is(i + "\n"));
+        }
+
+        assertThat(sshServer.getOpenedSessions(), is(1));
+    }
+
+    @Test
+    public void testParallelCommandsShareTheBoundedSessions() throws Exception {
+        ExecutorService service = newFixedThreadPool(8);
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<Integer>> exitCodes = newArrayList();
+            for (int i = 0; i < 8; i++) {
+                exitCodes.add(service.submit(() -> fossologySshConnector.runInFossologyViaSsh("sleep 0.5")));
+            }
+            for (Future<Integer> exitCode : exitCodes) {
+                assertThat(exitCode.get(), is(0));
+            }
+        } finally {
+            service.shutdownNow();
+        }
+
+        // 2 sessions with 4 channels each run all commands at once
+        assertThat(sshServer.getOpenedSessions(), is(2));
+        assertThat(sshServer.getMaxRunningCommands(), is(8));
+        assertThat(System.currentTimeMillis() - start, is(lessThan(8 * 500L)));
+    }
+
+    @Test
+    public void testTimedOutCommandFailsAndPoolStaysUsable() throws Exception {
+        jSchSessionProvider.destroy();
+        connectWith(sshServer.settings(1, 1, 200));
+
+        assertThat(fossologySshConnector.runInFossologyViaSsh("sleep 5"), is(lessThan(0)));
+        assertThat(fossologySshConnector.runInFossologyViaSsh("exit 0"), is(0));
+    }
+
+    private void connectWith(FossologySettings settings) {
+        jSchSessionProvider = RealSshConnectionUtils.getTrustingJSchSessionFactory(settings);
+        fossologySshConnector = new FossologySshConnector(jSchSessionProvider, settings);
+    }
+}
@@ -71,7 +71,7 @@ public class FossologySshConnectorTest {
         fossologySshConnector = new FossologySshConnector(jSchSessionProvider, fossologySettings);
 
         fossologySshConnector = spy(fossologySshConnector);
-        doNothing().when(fossologySshConnector).waitCompletion(channel, executionTimeout);
+        doNothing().when(fossologySshConnector).waitCompletion(eq(channel), any(FossologySshConnector.CompletionSignal.class), eq(executionTimeout));
     }
 
     @After
@@ -147,7 +147,7 @@ public class FossologySshConnectorTest {
 
     @Test
     public void testRunInFossologyViaSshReturnErrorOnTimeout() throws Exception {
-        doThrow(new SW360Exception()).when(fossologySshConnector).waitCompletion(channel, executionTimeout);
+        doThrow(new SW360Exception()).when(fossologySshConnector).waitCompletion(eq(channel), any(FossologySshConnector.CompletionSignal.class), eq(executionTimeout));
 
         final int exitCode = fossologySshConnector.runInFossologyViaSsh("cmd");
 
@@ -161,24 +161,27 @@ public class FossologySshConnectorTest {
     }
 
     @Test
-    public void testWaitCompletion() throws SW360Exception {
+    public void testWaitCompletion() throws Exception {
         executionTimeout = 100;
+        FossologySshConnector.CompletionSignal completion = new FossologySshConnector.CompletionSignal(mock(InputStream.class));
 
-        doCallRealMethod().when(fossologySshConnector).waitCompletion(channel, executionTimeout); // reset spy
+        doCallRealMethod().when(fossologySshConnector).waitCompletion(channel, completion, executionTimeout); // reset spy
 
         when(channel.isClosed()).thenReturn(true);
-        fossologySshConnector.waitCompletion(channel, executionTimeout);
+        completion.close();
+        fossologySshConnector.waitCompletion(channel, completion, executionTimeout);
     }
 
     @Test
-    public void testWaitCompletionThrowsOnTimeout() throws SW360Exception {
+    public void testWaitCompletionThrowsOnTimeout() throws Exception {
         executionTimeout = 100;
+        FossologySshConnector.CompletionSignal completion = new FossologySshConnector.CompletionSignal(mock(InputStream.class));
 
-        doCallRealMethod().when(fossologySshConnector).waitCompletion(channel, executionTimeout); // reset spy
+        doCallRealMethod().when(fossologySshConnector).waitCompletion(channel, completion, executionTimeout); // reset spy
 
         expectedException.expect(SW360Exception.class);
 
         when(channel.isClosed()).thenReturn(false);
-        fossologySshConnector.waitCompletion(channel, executionTimeout);
+        fossologySshConnector.waitCompletion(channel, completion, executionTimeout);
     }
-}
\ No newline at end of file
+}
@@ -11,7 +11,10 @@
 package org.eclipse.sw360.fossology.ssh;
 
 import com.jcraft.jsch.Session;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
 import java.util.List;
@@ -29,12 +32,18 @@ import static org.hamcrest.Matchers.*;
  */
 public class JSchSessionProviderTest {
 
+    @Rule
+    public EmbeddedSshServer sshServer = new EmbeddedSshServer();
+
     private JSchSessionProvider jSchSessionProvider;
 
     @Before
     public void setUp() throws Exception {
-        jSchSessionProvider = RealSshConnectionUtils.getTrustingJSchSessionFactory();
-        RealSshConnectionUtils.assumeCanOpenSshSessions(jSchSessionProvider);
+        jSchSessionProvider = RealSshConnectionUtils.getTrustingJSchSessionFactory(sshServer.settings(4, 3, 10000));
+    }
+
+    @After
+    public void tearDown() throws Exception {
         jSchSessionProvider.destroy();
     }
 
@@ -66,6 +75,9 @@ public class JSchSessionProviderTest {
 
     @Test
     public void testConcurrentAlwaysManuallyClosing() throws Exception {
+        // a session disconnected by one caller must not be handed out to others meanwhile
+        jSchSessionProvider.destroy();
+        jSchSessionProvider = RealSshConnectionUtils.getTrustingJSchSessionFactory(sshServer.settings(4, 1, 10000));
         final ExecutorService service = newFixedThreadPool(12);
 
         List<Future<Session>> futures = newArrayList();
@@ -123,5 +135,52 @@ public class JSchSessionProviderTest {
         }
 
         assertThat(sessionSet, hasSize(lessThan(12))); // assert that some session were recycled
+        assertThat(sessionSet, hasSize(lessThanOrEqualTo(4))); // never more sessions than the pool size
+    }
+
+    @Test
+    public void testSessionIsSharedUpToChannelsPerSession() throws Exception {
+        Session first = jSchSessionProvider.getSession(2000);
+        Session second = jSchSessionProvider.getSession(2000);
+        Session third = jSchSessionProvider.getSession(2000);
+        Session fourth = jSchSessionProvider.getSession(2000);
+
+        // new sessions are opened before the busy ones are shared
+        assertThat(newHashSet(first, second, third, fourth), hasSize(4));
+        assertThat(sshServer.getOpenedSessions(), is(4));
+
+        Session fifth = jSchSessionProvider.getSession(2000);
+        assertThat(fifth, isOneOf(first, second, third, fourth));
+        assertThat(sshServer.getOpenedSessions(), is(4));
+    }
+
+    @Test
+    public void testWaitsForAFreeSession() throws Exception {
+        List<Session> leased = newArrayList();
+        for (int i = 0; i < 4 * 3; i++) {
+            leased.add(jSchSessionProvider.getSession(2000));
+        }
+
+        ExecutorService service = newFixedThreadPool(1);
+        try {
+            Future<Session> waiting = service.submit(() -> jSchSessionProvider.getSession(5000));
+            Thread.sleep(200);
+            assertThat(waiting.isDone(), is(false));
+
+            jSchSessionProvider.closeSession(leased.get(5));
+
+            assertThat(waiting.get(5, TimeUnit.SECONDS), is(sameInstance(leased.get(5))));
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testGivesUpWaitingAfterTheConnectionTimeout() throws Exception {
+        for (int i = 0; i < 4 * 3; i++) {
+            jSchSessionProvider.getSession(2000);
+        }
+
+        jSchSessionProvider.getSession(100);
     }
-}
\ No newline at end of file
+}
@@ -52,10 +52,14 @@ public class RealSshConnectionUtils {
     }
 
     static JSchSessionProvider getTrustingJSchSessionFactory() {
+        return getTrustingJSchSessionFactory(new FossologySettings());
+    }
+
+    static JSchSessionProvider getTrustingJSchSessionFactory(FossologySettings fossologySettings) {
         FossologyFingerPrintRepository keyConnector = mock(FossologyFingerPrintRepository.class);
         FossologyHostKeyRepository hostKeyRepository = spy(new FossologyHostKeyRepository(keyConnector));
 
         doReturn(HostKeyRepository.OK).when(hostKeyRepository).check(anyString(), any(byte[].class));
-        return new JSchSessionProvider(new FossologySettings(), hostKeyRepository);
+        return new JSchSessionProvider(fossologySettings, hostKeyRepository);
     }
 }
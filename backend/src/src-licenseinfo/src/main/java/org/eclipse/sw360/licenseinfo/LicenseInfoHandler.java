@@ -23,6 +23,7 @@ import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.common.WrappedException.WrappedTException;
 import org.eclipse.sw360.datahandler.db.ComponentDatabaseHandler;
+import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.*;
@@ -34,6 +35,7 @@ import org.eclipse.sw360.licenseinfo.outputGenerators.TextGenerator;
 import org.eclipse.sw360.licenseinfo.outputGenerators.XhtmlGenerator;
 import org.eclipse.sw360.licenseinfo.parsers.*;
 import org.eclipse.sw360.licenseinfo.util.LicenseNameWithTextUtils;
+import org.eclipse.sw360.licenseinfo.util.PreparedFileStore;
 
 import java.net.MalformedURLException;
 import java.util.*;
@@ -52,6 +54,8 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     private static final Logger LOGGER = Logger.getLogger(LicenseInfoHandler.class);
     private static final int CACHE_TIMEOUT_MINUTES = 15;
     private static final int CACHE_MAX_ITEMS = 100;
+    private static final int PREPARED_FILE_TIMEOUT_MINUTES = 15;
+    private static final int PREPARED_FILES_MAX_TOTAL_MEGABYTES = 1024;
     private static final String DEFAULT_LICENSE_INFO_HEADER_FILE="/DefaultLicenseInfoHeader.txt";
     private static final String DEFAULT_LICENSE_INFO_TEXT = loadDefaultLicenseInfoHeaderText();
     public static final String MSG_NO_RELEASE_GIVEN = "No release given";
@@ -60,6 +64,7 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     protected List<OutputGenerator<?>> outputGenerators;
     protected ComponentDatabaseHandler componentDatabaseHandler;
     protected Cache<String, List<LicenseInfoParsingResult>> licenseInfoCache;
+    protected PreparedFileStore preparedFileStore;
 
     public LicenseInfoHandler() throws MalformedURLException {
         this(new AttachmentDatabaseHandler(DatabaseSettings.getConfiguredHttpClient(), DatabaseSettings.COUCH_DB_ATTACHMENTS),
@@ -72,6 +77,7 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
         this.componentDatabaseHandler = componentDatabaseHandler;
         this.licenseInfoCache = CacheBuilder.newBuilder().expireAfterWrite(CACHE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(CACHE_MAX_ITEMS).build();
+        this.preparedFileStore = new PreparedFileStore(PREPARED_FILE_TIMEOUT_MINUTES, PREPARED_FILES_MAX_TOTAL_MEGABYTES);
 
         AttachmentContentProvider contentProvider = attachment -> attachmentDatabaseHandler.getAttachmentContent(attachment.getAttachmentContentId());
 
@@ -94,22 +100,13 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
     public LicenseInfoFile getLicenseInfoFile(Project project, User user, String outputGeneratorClassName,
             Map<String, Set<String>> releaseIdsToSelectedAttachmentIds, Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment)
             throws TException {
-        assertNotNull(project);
-        assertNotNull(user);
-        assertNotNull(outputGeneratorClassName);
-        assertNotNull(releaseIdsToSelectedAttachmentIds);
-        assertNotNull(excludedLicensesPerAttachment);
-
-        Map<Release, Set<String>> releaseToAttachmentId = mapKeysToReleases(releaseIdsToSelectedAttachmentIds, user);
-        Collection<LicenseInfoParsingResult> projectLicenseInfoResults = getAllReleaseLicenseInfos(releaseToAttachmentId, user,
-                excludedLicensesPerAttachment);
-
         OutputGenerator<?> generator = getOutputGeneratorByClassname(outputGeneratorClassName);
+        Collection<LicenseInfoParsingResult> projectLicenseInfoResults = getProjectLicenseInfoResults(project, user,
+                outputGeneratorClassName, releaseIdsToSelectedAttachmentIds, excludedLicensesPerAttachment);
         LicenseInfoFile licenseInfoFile = new LicenseInfoFile();
 
         licenseInfoFile.setOutputFormatInfo(generator.getOutputFormatInfo());
-        String licenseInfoHeaderText = (project.isSetLicenseInfoHeaderText()) ? project.getLicenseInfoHeaderText() : getDefaultLicenseInfoHeaderText();
-        Object output = generator.generateOutputFile(projectLicenseInfoResults, project.getName(), project.getVersion(), licenseInfoHeaderText);
+        Object output = generator.generateOutputFile(projectLicenseInfoResults, project.getName(), project.getVersion(), getLicenseInfoHeaderText(project));
         if (output instanceof byte[]) {
             licenseInfoFile.setGeneratedOutput((byte[]) output);
         } else if (output instanceof String) {
@@ -121,6 +118,55 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
         return licenseInfoFile;
     }
 
+    @Override
+    public PreparedLicenseInfoFile prepareLicenseInfoFile(Project project, User user, String outputGeneratorClassName,
+            Map<String, Set<String>> releaseIdsToSelectedAttachmentIds, Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment)
+            throws TException {
+        OutputGenerator<?> generator = getOutputGeneratorByClassname(outputGeneratorClassName);
+        Collection<LicenseInfoParsingResult> projectLicenseInfoResults = getProjectLicenseInfoResults(project, user,
+                outputGeneratorClassName, releaseIdsToSelectedAttachmentIds, excludedLicensesPerAttachment);
+        String licenseInfoHeaderText = getLicenseInfoHeaderText(project);
+
+        String fileId = preparedFileStore.store(user.getEmail(), outputStream -> generator.writeOutputFile(projectLicenseInfoResults,
+                project.getName(), project.getVersion(), licenseInfoHeaderText, outputStream));
+
+        return new PreparedLicenseInfoFile()
+                .setFileId(fileId)
+                .setOutputFormatInfo(generator.getOutputFormatInfo())
+                .setSize(preparedFileStore.size(fileId, user.getEmail()));
+    }
+
+    @Override
+    public LicenseInfoFileChunk getLicenseInfoFileChunk(String fileId, User user, long offset, int maxLength) throws TException {
+        assertNotNull(fileId);
+        assertNotNull(user);
+        return preparedFileStore.readChunk(fileId, user.getEmail(), offset, maxLength);
+    }
+
+    @Override
+    public void discardLicenseInfoFile(String fileId, User user) throws TException {
+        assertNotNull(fileId);
+        assertNotNull(user);
+        preparedFileStore.discard(fileId, user.getEmail());
+    }
+
+    private Collection<LicenseInfoParsingResult> getProjectLicenseInfoResults(Project project, User user, String outputGeneratorClassName,
+            Map<String, Set<String>> releaseIdsToSelectedAttachmentIds, Map<String, Set<LicenseNameWithText>> excludedLicensesPerAttachment)
+            throws TException {
+        assertNotNull(project);
+        assertNotNull(user);
+        assertNotNull(outputGeneratorClassName);
+        assertNotNull(releaseIdsToSelectedAttachmentIds);
+        assertNotNull(excludedLicensesPerAttachment);
+
+        Map<Release, Set<String>> releaseToAttachmentId = mapKeysToReleases(releaseIdsToSelectedAttachmentIds, user);
+        return getAllReleaseLicenseInfos(releaseToAttachmentId, user, excludedLicensesPerAttachment);
+    }
+
+    private String getLicenseInfoHeaderText(Project project) {
+        return (project.isSetLicenseInfoHeaderText()) ? project.getLicenseInfoHeaderText() : getDefaultLicenseInfoHeaderText();
+    }
+
     @Override
     public List<OutputFormatInfo> getPossibleOutputFormats() {
         return outputGenerators.stream().map(OutputGenerator::getOutputFormatInfo).collect(Collectors.toList());
@@ -195,11 +241,12 @@ public class LicenseInfoHandler implements LicenseInfoService.Iface {
 
     protected Map<Release, Set<String>> mapKeysToReleases(Map<String, Set<String>> releaseIdsToAttachmentIds, User user) throws TException {
         Map<Release, Set<String>> result = Maps.newHashMap();
-        try {
-            releaseIdsToAttachmentIds
-                    .forEach((relId, attIds) -> wrapTException(() -> result.put(componentDatabaseHandler.getRelease(relId, user), attIds)));
-        } catch (WrappedTException exception) {
-            throw exception.getCause();
+        Map<String, Release> releasesById = ThriftUtils.getIdMap(
+                componentDatabaseHandler.getReleasesWithVendorsByIds(releaseIdsToAttachmentIds.keySet(), user));
+        for (Entry<String, Set<String>> entry : releaseIdsToAttachmentIds.entrySet()) {
+            Release release = releasesById.get(entry.getKey());
+            assertNotNull(release, "Could not fetch release from database! id=" + entry.getKey());
+            result.put(release, entry.getValue());
         }
         return result;
     }
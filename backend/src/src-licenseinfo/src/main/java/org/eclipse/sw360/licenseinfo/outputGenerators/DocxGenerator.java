@@ -14,8 +14,6 @@
 package org.eclipse.sw360.licenseinfo.outputGenerators;
 
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.apache.xmlbeans.XmlException;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfo;
@@ -23,8 +21,10 @@ import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyString;
@@ -34,6 +34,7 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
 
     private static final String UNKNOWN_LICENSE_NAME = "Unknown license name";
     private static final String UNKNOWN_FILE_NAME = "Unknown file name";
+    private static final String STREAMED_CONTENT_MARKER = "$streamed-content";
 
     public DocxGenerator() {
         super("docx", "License information as DOCX", true, "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
@@ -41,13 +42,24 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
 
     @Override
     public byte[] generateOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText) throws SW360Exception {
+        ByteArrayOutputStream docxOutputStream = new ByteArrayOutputStream();
+        writeOutputFile(projectLicenseInfoResults, projectName, projectVersion, licenseInfoHeaderText, docxOutputStream);
+        return docxOutputStream.toByteArray();
+    }
+
+    /**
+     * Only the front page and the release overview are built with the POI object
+     * model. The release details and the license texts, which make up almost the
+     * whole document for big projects, are streamed into the main document part.
+     */
+    @Override
+    public void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText, OutputStream outputStream) throws SW360Exception {
         try {
-            XWPFDocument document = new XWPFDocument(this.getClass().getResourceAsStream("/templateFrontpageContent.docx"));
-            fillDocument(document, projectLicenseInfoResults, projectName, projectVersion, licenseInfoHeaderText);
-            ByteArrayOutputStream docxOutputStream = new ByteArrayOutputStream();
-            document.write(docxOutputStream);
-            docxOutputStream.close();
-            return docxOutputStream.toByteArray();
+            byte[] skeleton = generateSkeleton(projectLicenseInfoResults, projectName, projectVersion, licenseInfoHeaderText);
+            DocxStreamWriter.writeDocument(skeleton, STREAMED_CONTENT_MARKER, outputStream, writer -> {
+                writeReleaseDetailList(writer, projectLicenseInfoResults.iterator());
+                writeLicenseList(writer, getSortedLicenseNameWithTexts(projectLicenseInfoResults).iterator());
+            });
         } catch (XmlException e) {
             throw new SW360Exception("Got XmlException while generating docx document: " + e.getMessage());
         } catch (IOException ioe) {
@@ -55,15 +67,19 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
         }
     }
 
-    private void fillDocument(XWPFDocument document, Collection<LicenseInfoParsingResult> projectLicenseInfoResults,
-                              String projectName, String projectVersion, String licenseInfoHeaderText) throws XmlException {
+    private byte[] generateSkeleton(Collection<LicenseInfoParsingResult> projectLicenseInfoResults,
+                                    String projectName, String projectVersion, String licenseInfoHeaderText) throws XmlException, IOException {
+        XWPFDocument document = new XWPFDocument(this.getClass().getResourceAsStream("/templateFrontpageContent.docx"));
         replaceText(document, "$license-info-header", licenseInfoHeaderText);
         replaceText(document, "$project-name", projectName);
         replaceText(document, "$project-version", projectVersion);
 
         fillReleaseBulletList(document, projectLicenseInfoResults);
-        fillReleaseDetailList(document, projectLicenseInfoResults);
-        fillLicenseList(document, projectLicenseInfoResults);
+        setText(document.createParagraph().createRun(), STREAMED_CONTENT_MARKER);
+
+        ByteArrayOutputStream skeletonOutputStream = new ByteArrayOutputStream();
+        document.write(skeletonOutputStream);
+        return skeletonOutputStream.toByteArray();
     }
 
     private void fillReleaseBulletList(XWPFDocument document, Collection<LicenseInfoParsingResult> projectLicenseInfoResults) throws XmlException {
@@ -75,50 +91,39 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
         addPageBreak(document);
     }
 
-    private void fillReleaseDetailList(XWPFDocument document, Collection<LicenseInfoParsingResult> projectLicenseInfoResults) {
-        XWPFRun releaseTitleTextRun = document.createParagraph().createRun();
-        addFormattedText(releaseTitleTextRun, "Detailed Releases Information", FONT_SIZE + 2, true);
-        XWPFRun releaseInfoTextRun = document.createParagraph().createRun();
-        setText(releaseInfoTextRun, "Please note the following license conditions and copyright " +
+    private void writeReleaseDetailList(DocxStreamWriter writer, Iterator<LicenseInfoParsingResult> projectLicenseInfoResults) throws XMLStreamException {
+        writer.addFormattedParagraph("Detailed Releases Information", FONT_SIZE + 2, true);
+        writer.addParagraph("Please note the following license conditions and copyright " +
                 "notices applicable to Open Source Software and/or other components (or parts thereof):");
-        addNewLines(document, 0);
+        writer.addNewLines(0);
 
-        for (LicenseInfoParsingResult parsingResult : projectLicenseInfoResults) {
-            addReleaseTitle(document, parsingResult);
+        while (projectLicenseInfoResults.hasNext()) {
+            LicenseInfoParsingResult parsingResult = projectLicenseInfoResults.next();
+            String releaseTitle = getComponentLongName(parsingResult);
+            writer.addBookmarkParagraph(STYLE_HEADING, releaseTitle, releaseTitle, FONT_SIZE + 2);
+            writer.addNewLines(0);
             if (parsingResult.getStatus() == LicenseInfoRequestStatus.SUCCESS) {
-                XWPFRun copyrightTitleRun = document.createParagraph().createRun();
-                addFormattedText(copyrightTitleRun, "Copyrights", FONT_SIZE, true);
+                writer.addFormattedParagraph("Copyrights", FONT_SIZE, true);
                 for (String copyright : getReleaseCopyrights(parsingResult)) {
-                    XWPFParagraph copyPara = document.createParagraph();
-                    copyPara.setSpacingAfter(0);
-                    setText(copyPara.createRun(), copyright);
+                    writer.addParagraph(copyright, true);
                 }
-                XWPFRun licensesTitleRun = document.createParagraph().createRun();
-                addNewLines(licensesTitleRun, 1);
-                addFormattedText(licensesTitleRun, "Licenses", FONT_SIZE, true);
+                writer.startParagraph();
+                writer.addFormattedText("\nLicenses", FONT_SIZE, true, null);
+                writer.endParagraph();
                 for (String licenseName : getReleasesLicenses(parsingResult)) {
-                    XWPFParagraph licensePara = document.createParagraph();
-                    licensePara.setSpacingAfter(0);
-                    addBookmarkHyperLink(licensePara, licenseName, licenseName);
+                    writer.addBookmarkHyperLinkParagraph(licenseName, licenseName);
                 }
             } else {
-                XWPFRun errorRun = document.createParagraph().createRun();
                 String errorText = nullToEmptyString(parsingResult.getMessage());
                 String filename = getFilename(parsingResult);
-                addFormattedText(errorRun, String.format("Error reading license information: %s", errorText), FONT_SIZE, false, ALERT_COLOR);
-                addFormattedText(errorRun, String.format("Source file: %s", filename), FONT_SIZE, false, ALERT_COLOR);
+                writer.startParagraph();
+                writer.addFormattedText(String.format("Error reading license information: %s", errorText), FONT_SIZE, false, ALERT_COLOR);
+                writer.addFormattedText(String.format("Source file: %s", filename), FONT_SIZE, false, ALERT_COLOR);
+                writer.endParagraph();
             }
-            addNewLines(document, 1);
+            writer.addNewLines(1);
         }
-        addPageBreak(document);
-    }
-
-    private void addReleaseTitle(XWPFDocument document, LicenseInfoParsingResult parsingResult) {
-        String releaseTitle = getComponentLongName(parsingResult);
-        XWPFParagraph releaseTitleParagraph = document.createParagraph();
-        releaseTitleParagraph.setStyle(STYLE_HEADING);
-        addBookmark(releaseTitleParagraph, releaseTitle, releaseTitle);
-        addNewLines(document, 0);
+        writer.addPageBreak();
     }
 
     private Set<String> getReleaseCopyrights(LicenseInfoParsingResult licenseInfoParsingResult) {
@@ -154,19 +159,16 @@ public class DocxGenerator extends OutputGenerator<byte[]> {
                 .orElse(UNKNOWN_FILE_NAME);
     }
 
-    private void fillLicenseList(XWPFDocument document, Collection<LicenseInfoParsingResult> projectLicenseInfoResults) {
-        List<LicenseNameWithText> licenseNameWithTexts = OutputGenerator.getSortedLicenseNameWithTexts(projectLicenseInfoResults);
-        XWPFRun licenseHeaderRun = document.createParagraph().createRun();
-        addFormattedText(licenseHeaderRun, "License texts", FONT_SIZE + 2, true);
-        addNewLines(document, 0);
+    private void writeLicenseList(DocxStreamWriter writer, Iterator<LicenseNameWithText> licenseNameWithTexts) throws XMLStreamException {
+        writer.addFormattedParagraph("License texts", FONT_SIZE + 2, true);
+        writer.addNewLines(0);
 
-        for (LicenseNameWithText licenseNameWithText : licenseNameWithTexts) {
-            XWPFParagraph licenseParagraph = document.createParagraph();
-            licenseParagraph.setStyle(STYLE_HEADING);
+        while (licenseNameWithTexts.hasNext()) {
+            LicenseNameWithText licenseNameWithText = licenseNameWithTexts.next();
             String licenseName = licenseNameWithText.isSetLicenseName() ? licenseNameWithText.getLicenseName() : UNKNOWN_LICENSE_NAME;
-            addBookmark(licenseParagraph, licenseName, licenseName);
-            setText(document.createParagraph().createRun(), nullToEmptyString(licenseNameWithText.getLicenseText()));
-            addNewLines(document, 1);
+            writer.addBookmarkParagraph(STYLE_HEADING, licenseName, licenseName, FONT_SIZE + 2);
+            writer.addParagraph(nullToEmptyString(licenseNameWithText.getLicenseText()));
+            writer.addNewLines(1);
         }
     }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.outputGenerators;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.eclipse.sw360.licenseinfo.outputGenerators.DocxUtils.FONT_FAMILY;
+import static org.eclipse.sw360.licenseinfo.outputGenerators.DocxUtils.generateValidBookmarkName;
+
+/**
+ * Writes WordprocessingML paragraphs directly into the main document part of
+ * a docx package. A small skeleton document (front page, release overview)
+ * is built with POI as before and written to a byte array. Its package parts
+ * are then copied to the target stream one by one, and the paragraph
+ * containing the marker text is replaced by whatever the {@link BodyContent}
+ * callback writes. Content written by the callback is never held in memory
+ * as a whole, which keeps the generation of documents with thousands of
+ * license texts within a small heap.
+ *
+ * The methods mirror those in {@link DocxUtils}, so streamed content looks
+ * the same as content created via the POI object model.
+ */
+public class DocxStreamWriter {
+    private static final String MAIN_DOCUMENT_PART = "word/document.xml";
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String W = "w";
+    private static final String HYPERLINK_COLOR = "0000FF";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FIRST_BOOKMARK_ID = 100000;
+
+    @FunctionalInterface
+    public interface BodyContent {
+        void write(DocxStreamWriter writer) throws XMLStreamException;
+    }
+
+    private final XMLStreamWriter xml;
+    private int nextBookmarkId = FIRST_BOOKMARK_ID;
+
+    private DocxStreamWriter(XMLStreamWriter xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * Copies the docx package in {@code skeleton} to {@code outputStream},
+     * replacing the paragraph that contains {@code marker} in the main document
+     * part by the content written by {@code bodyContent}. The output stream is
+     * finished as zip file, but not closed.
+     */
+    public static void writeDocument(byte[] skeleton, String marker, OutputStream outputStream, BodyContent bodyContent) throws IOException {
+        ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(skeleton))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry.getName()));
+                if (MAIN_DOCUMENT_PART.equals(entry.getName())) {
+                    writeMainDocumentPart(IOUtils.toString(zipInputStream, StandardCharsets.UTF_8), marker, zipOutputStream, bodyContent);
+                } else {
+                    IOUtils.copy(zipInputStream, zipOutputStream);
+                }
+                zipOutputStream.closeEntry();
+            }
+        }
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+    }
+
+    private static void writeMainDocumentPart(String documentXml, String marker, OutputStream outputStream, BodyContent bodyContent) throws IOException {
+        int markerIndex = documentXml.indexOf(marker);
+        if (markerIndex < 0) {
+            throw new IOException("Marker " + marker + " not found in docx skeleton");
+        }
+        int paragraphStart = Math.max(documentXml.lastIndexOf("<w:p>", markerIndex), documentXml.lastIndexOf("<w:p ", markerIndex));
+        int paragraphEnd = documentXml.indexOf("</w:p>", markerIndex) + "</w:p>".length();
+
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        writer.write(documentXml, 0, paragraphStart);
+        try {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            bodyContent.write(new DocxStreamWriter(xml));
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write docx body content: " + e.getMessage(), e);
+        }
+        writer.write(documentXml, paragraphEnd, documentXml.length() - paragraphEnd);
+        writer.flush();
+    }
+
+    public void startParagraph() throws XMLStreamException {
+        startParagraph(null, false);
+    }
+
+    public void startParagraph(String style, boolean noSpacingAfter) throws XMLStreamException {
+        xml.writeStartElement(W, "p", W_NS);
+        if (style != null || noSpacingAfter) {
+            xml.writeStartElement(W, "pPr", W_NS);
+            if (style != null) {
+                writeValueElement("pStyle", style);
+            }
+            if (noSpacingAfter) {
+                xml.writeEmptyElement(W, "spacing", W_NS);
+                xml.writeAttribute(W, W_NS, "after", "0");
+            }
+            xml.writeEndElement();
+        }
+    }
+
+    public void endParagraph() throws XMLStreamException {
+        xml.writeEndElement();
+    }
+
+    public void addParagraph(String text) throws XMLStreamException {
+        addParagraph(text, false);
+    }
+
+    public void addParagraph(String text, boolean noSpacingAfter) throws XMLStreamException {
+        startParagraph(null, noSpacingAfter);
+        addRun(text, null, 0, false, null);
+        endParagraph();
+    }
+
+    public void addFormattedParagraph(String text, int fontSize, boolean bold) throws XMLStreamException {
+        startParagraph();
+        addRun(text, FONT_FAMILY, fontSize, bold, null);
+        endParagraph();
+    }
+
+    public void addFormattedText(String text, int fontSize, boolean bold, String rrggbbColor) throws XMLStreamException {
+        addRun(text, FONT_FAMILY, fontSize, bold, rrggbbColor);
+    }
+
+    public void addNewLines(int numberOfNewlines) throws XMLStreamException {
+        startParagraph();
+        xml.writeStartElement(W, "r", W_NS);
+        for (int count = 0; count < numberOfNewlines; count++) {
+            xml.writeEmptyElement(W, "cr", W_NS);
+            xml.writeEmptyElement(W, "br", W_NS);
+        }
+        xml.writeEndElement();
+        endParagraph();
+    }
+
+    public void addPageBreak() throws XMLStreamException {
+        startParagraph();
+        xml.writeStartElement(W, "r", W_NS);
+        xml.writeEmptyElement(W, "br", W_NS);
+        xml.writeEmptyElement(W, "br", W_NS);
+        xml.writeAttribute(W, W_NS, "type", "page");
+        xml.writeEndElement();
+        endParagraph();
+    }
+
+    public void addBookmarkParagraph(String style, String bookmarkAnchor, String bookmarkText, int fontSize) throws XMLStreamException {
+        String id = Integer.toString(nextBookmarkId++);
+        startParagraph(style, false);
+        xml.writeEmptyElement(W, "bookmarkStart", W_NS);
+        xml.writeAttribute(W, W_NS, "id", id);
+        xml.writeAttribute(W, W_NS, "name", generateValidBookmarkName(bookmarkAnchor));
+        addRun(bookmarkText, FONT_FAMILY, fontSize, true, null);
+        xml.writeEmptyElement(W, "bookmarkEnd", W_NS);
+        xml.writeAttribute(W, W_NS, "id", id);
+        endParagraph();
+    }
+
+    public void addBookmarkHyperLinkParagraph(String hyperlinkAnchor, String hyperlinkText) throws XMLStreamException {
+        startParagraph(null, true);
+        xml.writeStartElement(W, "hyperlink", W_NS);
+        xml.writeAttribute(W, W_NS, "anchor", generateValidBookmarkName(hyperlinkAnchor));
+        xml.writeStartElement(W, "r", W_NS);
+        xml.writeStartElement(W, "rPr", W_NS);
+        writeValueElement("color", HYPERLINK_COLOR);
+        writeValueElement("u", "single");
+        xml.writeEndElement();
+        writeText(hyperlinkText);
+        xml.writeEndElement();
+        xml.writeEndElement();
+        endParagraph();
+    }
+
+    private void addRun(String text, String fontFamily, int fontSize, boolean bold, String rrggbbColor) throws XMLStreamException {
+        xml.writeStartElement(W, "r", W_NS);
+        if (fontFamily != null) {
+            // element order is given by the CT_RPr schema
+            xml.writeStartElement(W, "rPr", W_NS);
+            xml.writeEmptyElement(W, "rFonts", W_NS);
+            xml.writeAttribute(W, W_NS, "ascii", fontFamily);
+            xml.writeAttribute(W, W_NS, "hAnsi", fontFamily);
+            xml.writeAttribute(W, W_NS, "cs", fontFamily);
+            if (bold) {
+                xml.writeEmptyElement(W, "b", W_NS);
+            }
+            if (rrggbbColor != null) {
+                writeValueElement("color", rrggbbColor);
+            }
+            writeValueElement("sz", Integer.toString(fontSize * 2));
+            xml.writeEndElement();
+        }
+        String[] lines = text.split("\n", -1);
+        writeText(lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            xml.writeEmptyElement(W, "br", W_NS);
+            writeText(lines[i]);
+        }
+        xml.writeEndElement();
+    }
+
+    private void writeText(String text) throws XMLStreamException {
+        xml.writeStartElement(W, "t", W_NS);
+        xml.writeAttribute("xml", XMLConstants.XML_NS_URI, "space", "preserve");
+        xml.writeCharacters(stripInvalidXmlCharacters(text));
+        xml.writeEndElement();
+    }
+
+    private void writeValueElement(String localName, String value) throws XMLStreamException {
+        xml.writeEmptyElement(W, localName, W_NS);
+        xml.writeAttribute(W, W_NS, "val", value);
+    }
+
+    static String stripInvalidXmlCharacters(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean valid = c == '\t' || c == '\n' || c == '\r' || (c >= 0x20 && c <= 0xFFFD);
+            if (!valid && sb == null) {
+                sb = new StringBuilder(text.length());
+                sb.append(text, 0, i);
+            } else if (valid && sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+}
@@ -15,18 +15,15 @@ package org.eclipse.sw360.licenseinfo.outputGenerators;
 
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import org.apache.commons.io.IOUtils;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.Velocity;
-import org.apache.velocity.tools.ToolManager;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.*;
 import org.eclipse.sw360.licenseinfo.util.LicenseNameWithTextUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.StringWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -55,6 +52,26 @@ public abstract class OutputGenerator<T> {
 
     public abstract T generateOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText) throws SW360Exception;
 
+    /**
+     * Writes the generated output directly to the given stream. The default
+     * implementation materializes the result of {@link #generateOutputFile} first;
+     * generators which are able to render incrementally should override this.
+     * The stream is flushed but not closed.
+     */
+    public void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText, OutputStream outputStream) throws SW360Exception {
+        T output = generateOutputFile(projectLicenseInfoResults, projectName, projectVersion, licenseInfoHeaderText);
+        try {
+            if (output instanceof byte[]) {
+                outputStream.write((byte[]) output);
+            } else {
+                outputStream.write(String.valueOf(output).getBytes(StandardCharsets.UTF_8));
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new SW360Exception("Could not write " + getOutputType() + " license info file: " + e.getMessage());
+        }
+    }
+
     public String getOutputType() {
         return outputType;
     }
@@ -85,13 +102,7 @@ public abstract class OutputGenerator<T> {
     }
 
     public VelocityContext getConfiguredVelocityContext() {
-        Properties p = new Properties();
-        p.setProperty("resource.loader", "class");
-        p.setProperty("class.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
-        Velocity.init(p);
-        ToolManager velocityToolManager = new ToolManager();
-        velocityToolManager.configure(VELOCITY_TOOLS_FILE);
-        return new VelocityContext(velocityToolManager.createContext());
+        return VelocityTemplateCache.getInstance().createContext();
     }
 
     @NotNull
@@ -136,8 +147,8 @@ public abstract class OutputGenerator<T> {
                 .filter(Objects::nonNull)
                 .map(LicenseInfo::getLicenseNamesWithTexts)
                 .filter(Objects::nonNull)
-                .reduce(Sets::union)
-                .orElse(Collections.emptySet());
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
 
         return licenseNamesWithText.stream()
                 .filter(licenseNameWithText -> !LicenseNameWithTextUtils.isEmpty(licenseNameWithText))
@@ -183,7 +194,43 @@ public abstract class OutputGenerator<T> {
      * @return rendered template
      */
     protected String renderTemplateWithDefaultValues(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String file, String licenseInfoHeaderText) {
+        StringWriter sw = new StringWriter();
+        renderTemplateWithDefaultValues(projectLicenseInfoResults, file, licenseInfoHeaderText, sw);
+        return sw.toString();
+    }
+
+    /**
+     * Same as {@link #renderTemplateWithDefaultValues(Collection, String, String)},
+     * but writes the rendered template utf-8 encoded to the given stream instead of
+     * building it up in memory. The stream is flushed but not closed.
+     */
+    protected void renderTemplateWithDefaultValues(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String file, String licenseInfoHeaderText, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        renderTemplateWithDefaultValues(projectLicenseInfoResults, file, licenseInfoHeaderText, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the error text a streaming generator reports instead of the rendered
+     * template, so that it ends up in the same place as the text returned by
+     * {@link #generateOutputFile} when rendering fails.
+     */
+    protected void writeErrorText(OutputStream outputStream, String errorText) throws SW360Exception {
+        try {
+            outputStream.write(errorText.getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new SW360Exception("Could not write " + getOutputType() + " license info file: " + e.getMessage());
+        }
+    }
+
+    private void renderTemplateWithDefaultValues(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String file, String licenseInfoHeaderText, Writer writer) {
         VelocityContext vc = getConfiguredVelocityContext();
+        fillContextWithDefaultValues(vc, projectLicenseInfoResults, licenseInfoHeaderText);
+        VelocityTemplateCache.getInstance().render(file, vc, writer);
+    }
+
+    void fillContextWithDefaultValues(VelocityContext vc, Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String licenseInfoHeaderText) {
         // set header
         vc.put(LICENSE_INFO_HEADER_TEXT, licenseInfoHeaderText);
 
@@ -218,11 +265,6 @@ public abstract class OutputGenerator<T> {
         // also display acknowledgments
         SortedMap<String, Set<String>> acknowledgements = getSortedAcknowledgements(sortedLicenseInfos);
         vc.put(ACKNOWLEDGEMENTS_CONTEXT_PROPERTY, acknowledgements);
-
-        StringWriter sw = new StringWriter();
-        Velocity.mergeTemplate(file, "utf-8", vc, sw);
-        IOUtils.closeQuietly(sw);
-        return sw.toString();
     }
 
     /**
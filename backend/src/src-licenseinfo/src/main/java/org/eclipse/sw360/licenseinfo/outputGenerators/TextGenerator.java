@@ -17,6 +17,8 @@ import org.apache.log4j.Logger;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 
 public class TextGenerator extends OutputGenerator<String> {
@@ -36,4 +38,18 @@ public class TextGenerator extends OutputGenerator<String> {
             return "License information could not be generated.\nAn exception occurred: " + e.toString();
         }
     }
+
+    @Override
+    public void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText, OutputStream outputStream) throws SW360Exception {
+        try {
+            renderTemplateWithDefaultValues(projectLicenseInfoResults, LICENSE_INFO_TEMPLATE_FILE, licenseInfoHeaderText, outputStream);
+        } catch (IOException e) {
+            LOGGER.error("Could not write text licenseinfo file for project " + projectName, e);
+            throw new SW360Exception("Could not write text licenseinfo file: " + e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("Could not generate text licenseinfo file for project " + projectName, e);
+            writeErrorText(outputStream, "License information could not be generated.\nAn exception occurred: " + e.toString());
+        }
+    }
+
 }
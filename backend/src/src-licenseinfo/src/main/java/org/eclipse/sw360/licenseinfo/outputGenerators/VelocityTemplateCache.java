@@ -0,0 +1,82 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.outputGenerators;
+
+import org.apache.log4j.Logger;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.apache.velocity.tools.ToolManager;
+
+import java.io.Writer;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Long-lived velocity engine together with a cache of parsed templates. The
+ * engine, the tool manager and the parsed templates are immutable after
+ * creation and are shared by all output generators, so rendering only costs
+ * the merge of a fresh context into an already parsed template.
+ */
+public class VelocityTemplateCache {
+    private static final Logger log = Logger.getLogger(VelocityTemplateCache.class);
+
+    static final String TEMPLATE_ENCODING = "utf-8";
+
+    private final VelocityEngine velocityEngine;
+    private final ToolManager toolManager;
+    private final ConcurrentMap<String, Template> templates = new ConcurrentHashMap<>();
+
+    private static class InstanceHolder {
+        private static final VelocityTemplateCache INSTANCE = new VelocityTemplateCache(OutputGenerator.VELOCITY_TOOLS_FILE);
+    }
+
+    public static VelocityTemplateCache getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    VelocityTemplateCache(String velocityToolsFile) {
+        Properties p = new Properties();
+        p.setProperty("resource.loader", "class");
+        p.setProperty("class.resource.loader.class", ClasspathResourceLoader.class.getName());
+        p.setProperty("class.resource.loader.cache", "true");
+        p.setProperty("class.resource.loader.modificationCheckInterval", "-1");
+        velocityEngine = new VelocityEngine(p);
+        velocityEngine.init();
+
+        toolManager = new ToolManager();
+        toolManager.setVelocityEngine(velocityEngine);
+        toolManager.configure(velocityToolsFile);
+    }
+
+    public VelocityContext createContext() {
+        return new VelocityContext(toolManager.createContext());
+    }
+
+    public Template getTemplate(String templateFile) {
+        return templates.computeIfAbsent(templateFile, this::parseTemplate);
+    }
+
+    public void render(String templateFile, VelocityContext context, Writer writer) {
+        getTemplate(templateFile).merge(context, writer);
+    }
+
+    public int getCachedTemplateCount() {
+        return templates.size();
+    }
+
+    private Template parseTemplate(String templateFile) {
+        log.debug("Parsing velocity template " + templateFile);
+        return velocityEngine.getTemplate(templateFile, TEMPLATE_ENCODING);
+    }
+}
@@ -18,6 +18,8 @@ import org.apache.log4j.Logger;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 
 public class XhtmlGenerator extends OutputGenerator<String> {
@@ -38,6 +40,19 @@ public class XhtmlGenerator extends OutputGenerator<String> {
         }
     }
 
+    @Override
+    public void writeOutputFile(Collection<LicenseInfoParsingResult> projectLicenseInfoResults, String projectName, String projectVersion, String licenseInfoHeaderText, OutputStream outputStream) throws SW360Exception {
+        try {
+            renderTemplateWithDefaultValues(projectLicenseInfoResults, XHTML_TEMPLATE_FILE, convertHeaderTextToHTML(licenseInfoHeaderText), outputStream);
+        } catch (IOException e) {
+            LOGGER.error("Could not write xhtml license info file for project " + projectName, e);
+            throw new SW360Exception("Could not write xhtml license info file: " + e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("Could not generate xhtml license info file for project " + projectName, e);
+            writeErrorText(outputStream, "License information could not be generated.\nAn exception occured: " + e.toString());
+        }
+    }
+
     private String convertHeaderTextToHTML(String headerText) {
         String html = StringEscapeUtils.escapeHtml(headerText);
         html = html.replace("\n", "<br>");
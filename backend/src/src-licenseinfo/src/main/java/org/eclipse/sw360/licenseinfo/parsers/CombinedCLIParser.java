@@ -10,6 +10,7 @@
  */
 package org.eclipse.sw360.licenseinfo.parsers;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.log4j.Logger;
@@ -91,7 +92,6 @@ public class CombinedCLIParser extends AbstractCLIParser{
         AttachmentContent attachmentContent = attachmentContentProvider.getAttachmentContent(attachment);
         InputStream attachmentStream = null;
         List<LicenseInfoParsingResult> parsingResults = new ArrayList<>();
-        Map<String, Release> releasesByExternalId = prepareReleasesByExternalId(getCorrelationKey());
 
         try {
             attachmentStream = attachmentConnector.getAttachmentStream(attachmentContent, user, context);
@@ -101,6 +101,7 @@ public class CombinedCLIParser extends AbstractCLIParser{
             Map<String, Set<LicenseNameWithText>> licenseNamesWithTextsByExternalId = getLicenseNamesWithTextsByExternalIdsMap(doc);
 
             Set<String> allExternalIds = Sets.union(copyrightSetsByExternalId.keySet(), licenseNamesWithTextsByExternalId.keySet());
+            Map<String, Release> releasesByExternalId = prepareReleasesByExternalId(getCorrelationKey(), allExternalIds);
             allExternalIds.forEach(extId -> {
                 LicenseInfoParsingResult parsingResult = getLicenseInfoParsingResultForExternalId(attachmentContent, releasesByExternalId, copyrightSetsByExternalId, licenseNamesWithTextsByExternalId, extId);
                 parsingResults.add(parsingResult);
@@ -144,9 +145,15 @@ public class CombinedCLIParser extends AbstractCLIParser{
         return parsingResult;
     }
 
-    private Map<String, Release> prepareReleasesByExternalId(String correlationKey) {
-        Map<String, Release> idMap = componentDatabaseHandler.getAllReleasesIdMap();
-        Map<String, Release> releasesByExternalId = idMap.values().stream()
+    private Map<String, Release> prepareReleasesByExternalId(String correlationKey, Set<String> externalIds) {
+        Set<String> referencedExternalIds = externalIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (isNullOrEmpty(correlationKey) || referencedExternalIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Release> releases = componentDatabaseHandler.getReleasesByExternalIds(ImmutableMap.of(correlationKey, referencedExternalIds));
+        Map<String, Release> releasesByExternalId = releases.stream()
                 .filter(r -> r.getExternalIds() != null && r.getExternalIds().containsKey(correlationKey))
                 .collect(Collectors.toMap(r -> r.getExternalIds().get(correlationKey), r -> r, (r1, r2) -> {
                     log.warn(String.format("Duplicate externalId in releases %s and %s", SW360Utils.printFullname(r1), SW360Utils.printFullname(r2)));
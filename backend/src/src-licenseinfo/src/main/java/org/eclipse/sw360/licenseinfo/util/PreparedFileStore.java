@@ -0,0 +1,182 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoFileChunk;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporary files holding generated output until the caller has fetched them
+ * chunk by chunk. Each file can only be read by the user who stored it. Files
+ * are deleted when the caller discards them after the transfer, when they have
+ * not been accessed within the expiry time (so that a chunk can be requested
+ * again if its transfer failed), or when the total size of all stored files
+ * exceeds the configured maximum. Files left over by a previous run are deleted
+ * on startup once they are older than the expiry time.
+ */
+public class PreparedFileStore {
+    private static final Logger LOGGER = Logger.getLogger(PreparedFileStore.class);
+    private static final String TEMP_FILE_PREFIX = "sw360-licenseinfo-";
+
+    public static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream outputStream) throws SW360Exception;
+    }
+
+    private final Cache<String, PreparedFile> files;
+
+    public PreparedFileStore(int expiryMinutes, int maxTotalMegabytes) {
+        this(expiryMinutes, maxTotalMegabytes, Ticker.systemTicker());
+        deleteLeftoverFiles(TimeUnit.MINUTES.toMillis(expiryMinutes));
+    }
+
+    @VisibleForTesting
+    PreparedFileStore(int expiryMinutes, int maxTotalMegabytes, Ticker ticker) {
+        // a single segment, so that the maximum weight bounds the total size and not the size per segment
+        files = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .expireAfterAccess(expiryMinutes, TimeUnit.MINUTES)
+                .maximumWeight(maxTotalMegabytes * 1024L)
+                .weigher((String fileId, PreparedFile preparedFile) -> preparedFile.sizeInKilobytes())
+                .ticker(ticker)
+                .removalListener((RemovalListener<String, PreparedFile>) notification -> deleteQuietly(notification.getValue().file))
+                .build();
+    }
+
+    /**
+     * @param owner email of the user who is allowed to read the file
+     */
+    public String store(String owner, ContentWriter writer) throws SW360Exception {
+        File file;
+        try {
+            file = File.createTempFile(TEMP_FILE_PREFIX, ".tmp");
+        } catch (IOException e) {
+            throw new SW360Exception("Could not create temporary file: " + e.getMessage());
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            writer.write(outputStream);
+        } catch (IOException | SW360Exception | RuntimeException e) {
+            deleteQuietly(file);
+            if (e instanceof SW360Exception) {
+                throw (SW360Exception) e;
+            }
+            throw new SW360Exception("Could not write temporary file: " + e.getMessage());
+        }
+        String fileId = UUID.randomUUID().toString();
+        files.put(fileId, new PreparedFile(file, owner));
+        if (files.getIfPresent(fileId) == null) {
+            throw new SW360Exception("Prepared file of " + file.length() + " bytes exceeds the maximum size of all prepared files");
+        }
+        return fileId;
+    }
+
+    public long size(String fileId, String owner) throws SW360Exception {
+        return getFile(fileId, owner).length();
+    }
+
+    public LicenseInfoFileChunk readChunk(String fileId, String owner, long offset, int maxLength) throws SW360Exception {
+        File file = getFile(fileId, owner);
+        long size = file.length();
+        if (offset < 0 || offset > size || maxLength <= 0) {
+            throw new SW360Exception("Invalid chunk request for prepared file " + fileId + ": offset " + offset + ", length " + maxLength);
+        }
+        int length = (int) Math.min(Math.min(maxLength, MAX_CHUNK_SIZE), size - offset);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // keep reading until the chunk is full
+            }
+        } catch (IOException e) {
+            throw new SW360Exception("Could not read prepared file " + fileId + ": " + e.getMessage());
+        }
+        return new LicenseInfoFileChunk()
+                .setOffset(offset)
+                .setData(buffer.array())
+                .setLastChunk(offset + length >= size);
+    }
+
+    /**
+     * Deletes the file once its transfer is complete. Discarding a file which
+     * has already expired or which belongs to another user does nothing.
+     */
+    public void discard(String fileId, String owner) {
+        PreparedFile preparedFile = files.getIfPresent(fileId);
+        if (preparedFile != null && Objects.equals(preparedFile.owner, owner)) {
+            files.invalidate(fileId);
+        }
+    }
+
+    private File getFile(String fileId, String owner) throws SW360Exception {
+        PreparedFile preparedFile = files.getIfPresent(fileId);
+        // files of other users are reported as missing, so that their ids cannot be probed
+        if (preparedFile == null || !Objects.equals(preparedFile.owner, owner)) {
+            throw new SW360Exception("Prepared file " + fileId + " does not exist or has expired");
+        }
+        return preparedFile.file;
+    }
+
+    private static void deleteLeftoverFiles(long expiryMillis) {
+        long expiredBefore = System.currentTimeMillis() - expiryMillis;
+        Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(tempDirectory, TEMP_FILE_PREFIX + "*")) {
+            for (Path leftover : leftovers) {
+                File file = leftover.toFile();
+                if (file.lastModified() < expiredBefore) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete left over prepared files in " + tempDirectory, e);
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete temporary file " + file, e);
+        }
+    }
+
+    private static class PreparedFile {
+        private final File file;
+        private final String owner;
+
+        private PreparedFile(File file, String owner) {
+            this.file = file;
+            this.owner = owner;
+        }
+
+        private int sizeInKilobytes() {
+            return (int) Math.min(Integer.MAX_VALUE, (file.length() + 1023) / 1024);
+        }
+    }
+}
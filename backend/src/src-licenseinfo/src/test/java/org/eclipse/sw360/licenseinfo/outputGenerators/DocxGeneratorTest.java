@@ -0,0 +1,150 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.outputGenerators;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfo;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DocxGeneratorTest {
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final int SYNTHETIC_RELEASES = 1000;
+    private static final int SYNTHETIC_LICENSES_PER_RELEASE = 10;
+    private static final String SYNTHETIC_LICENSE_TEXT = StringUtils.repeat("Permission is hereby granted. ", 40);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DocxGenerator generator;
+
+    @Before
+    public void setUp() throws Exception {
+        generator = new DocxGenerator();
+    }
+
+    @Test
+    public void testGeneratedDocumentContainsReleasesCopyrightsAndLicenseTexts() throws Exception {
+        LicenseInfoParsingResult success = new LicenseInfoParsingResult()
+                .setStatus(LicenseInfoRequestStatus.SUCCESS)
+                .setVendor("vendor").setName("release").setVersion("1.0")
+                .setLicenseInfo(new LicenseInfo()
+                        .setCopyrights(ImmutableSet.of("Copyright (c) <someone> & co"))
+                        .setLicenseNamesWithTexts(ImmutableSet.of(
+                                new LicenseNameWithText().setLicenseName("MIT").setLicenseText("MIT line 1\nMIT line 2\u0001"))));
+        LicenseInfoParsingResult failure = new LicenseInfoParsingResult()
+                .setStatus(LicenseInfoRequestStatus.FAILURE)
+                .setVendor("vendor").setName("broken").setVersion("2.0")
+                .setMessage("could not parse");
+
+        byte[] docx = generator.generateOutputFile(Arrays.asList(success, failure), "project", "1.0", "header text");
+
+        String text = new XWPFWordExtractor(new XWPFDocument(new ByteArrayInputStream(docx))).getText();
+        assertThat(text, containsString("header text"));
+        assertThat(text, containsString("vendor release 1.0"));
+        assertThat(text, containsString("Copyright (c) <someone> & co"));
+        assertThat(text, containsString("MIT line 1"));
+        assertThat(text, containsString("MIT line 2"));
+        assertThat(text, containsString("Error reading license information: could not parse"));
+        assertThat(text, not(containsString("$streamed-content")));
+    }
+
+    @Test
+    public void testStreamedOutputEqualsGeneratedOutputInContent() throws Exception {
+        Collection<LicenseInfoParsingResult> results = createSyntheticResults(5, 3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeOutputFile(results, "project", "1.0", "header", out);
+        byte[] generated = generator.generateOutputFile(results, "project", "1.0", "header");
+
+        assertThat(extractText(out.toByteArray()), is(extractText(generated)));
+    }
+
+    /**
+     * Surefire runs with a heap of 128MB (argLine in the root pom), which bounds
+     * the memory available to the generation. The result is checked with a
+     * streaming parser for the same reason.
+     */
+    @Test
+    public void testTenThousandLicensesAreStreamedWithinBoundedMemory() throws Exception {
+        Collection<LicenseInfoParsingResult> results = createSyntheticResults(SYNTHETIC_RELEASES, SYNTHETIC_LICENSES_PER_RELEASE);
+        File docx = temporaryFolder.newFile("large.docx");
+
+        try (OutputStream out = new FileOutputStream(docx)) {
+            generator.writeOutputFile(results, "project", "1.0", "header", out);
+        }
+
+        try (ZipFile zipFile = new ZipFile(docx)) {
+            ZipEntry documentPart = zipFile.getEntry("word/document.xml");
+            assertThat(documentPart, notNullValue());
+            int licenseHeadings = 0;
+            boolean lastReleaseFound = false;
+            try (InputStream documentStream = zipFile.getInputStream(documentPart)) {
+                XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(documentStream, "UTF-8");
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "bookmarkStart".equals(reader.getLocalName())
+                            && reader.getAttributeValue(W_NS, "name").startsWith("bookmark_license-")) {
+                        licenseHeadings++;
+                    } else if (event == XMLStreamConstants.CHARACTERS
+                            && reader.getText().contains("vendor release" + (SYNTHETIC_RELEASES - 1) + " 1.0")) {
+                        lastReleaseFound = true;
+                    }
+                }
+                reader.close();
+            }
+            assertThat(licenseHeadings, is(SYNTHETIC_RELEASES * SYNTHETIC_LICENSES_PER_RELEASE));
+            assertThat(lastReleaseFound, is(true));
+        }
+    }
+
+    private static Collection<LicenseInfoParsingResult> createSyntheticResults(int releases, int licensesPerRelease) {
+        List<LicenseInfoParsingResult> results = new ArrayList<>();
+        for (int r = 0; r < releases; r++) {
+            Set<LicenseNameWithText> licenses = new HashSet<>();
+            for (int l = 0; l < licensesPerRelease; l++) {
+                licenses.add(new LicenseNameWithText()
+                        .setLicenseName("license-" + r + "-" + l)
+                        .setLicenseText(SYNTHETIC_LICENSE_TEXT + r + "-" + l));
+            }
+            results.add(new LicenseInfoParsingResult()
+                    .setStatus(LicenseInfoRequestStatus.SUCCESS)
+                    .setVendor("vendor").setName("release" + r).setVersion("1.0")
+                    .setLicenseInfo(new LicenseInfo()
+                            .setCopyrights(ImmutableSet.of("Copyright " + r))
+                            .setLicenseNamesWithTexts(licenses)));
+        }
+        return results;
+    }
+
+    private static String extractText(byte[] docx) throws IOException {
+        return new XWPFWordExtractor(new XWPFDocument(new ByteArrayInputStream(docx))).getText();
+    }
+}
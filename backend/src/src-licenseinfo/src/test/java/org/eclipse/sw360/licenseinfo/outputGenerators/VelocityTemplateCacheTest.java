@@ -0,0 +1,145 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.outputGenerators;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.log4j.Logger;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.Velocity;
+import org.apache.velocity.tools.ToolManager;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfo;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoParsingResult;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseNameWithText;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class VelocityTemplateCacheTest {
+    private static final Logger log = Logger.getLogger(VelocityTemplateCacheTest.class);
+
+    private static final int BENCHMARK_WARMUP = 20;
+    private static final int BENCHMARK_RUNS = 200;
+
+    private Collection<LicenseInfoParsingResult> results;
+
+    @Before
+    public void setUp() throws Exception {
+        results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            LicenseInfo licenseInfo = new LicenseInfo()
+                    .setCopyrights(ImmutableSet.of("Copyright " + i, "(c) Someone " + i))
+                    .setLicenseNamesWithTexts(ImmutableSet.of(
+                            new LicenseNameWithText().setLicenseName("License " + i).setLicenseText("Text of license " + i),
+                            new LicenseNameWithText().setLicenseName("Apache-2.0").setLicenseText("Apache text")));
+            results.add(new LicenseInfoParsingResult()
+                    .setStatus(LicenseInfoRequestStatus.SUCCESS)
+                    .setLicenseInfo(licenseInfo)
+                    .setName("release" + i)
+                    .setVendor("vendor")
+                    .setVersion("1." + i));
+        }
+    }
+
+    @Test
+    public void testTemplatesAreParsedOnlyOnce() throws Exception {
+        VelocityTemplateCache cache = new VelocityTemplateCache(OutputGenerator.VELOCITY_TOOLS_FILE);
+        assertThat(cache.getTemplate("textLicenseInfoFile.vm"), sameInstance(cache.getTemplate("textLicenseInfoFile.vm")));
+        cache.getTemplate("xhtmlLicenseInfoFile.vm");
+        assertThat(cache.getCachedTemplateCount(), is(2));
+    }
+
+    @Test
+    public void testStreamedOutputEqualsStringOutput() throws Exception {
+        for (OutputGenerator<String> generator : Arrays.asList(new TextGenerator(), new XhtmlGenerator())) {
+            String expected = generator.generateOutputFile(results, "project", "1.0", "header");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            generator.writeOutputFile(results, "project", "1.0", "header", out);
+            assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is(expected));
+        }
+    }
+
+    @Test
+    public void testConcurrentRenderingProducesSameOutput() throws Exception {
+        TextGenerator generator = new TextGenerator();
+        String expected = generator.generateOutputFile(results, "project", "1.0", "header");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> generator.generateOutputFile(results, "project", "1.0", "header")));
+            }
+            for (Future<String> future : futures) {
+                assertThat(future.get(), is(expected));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPerRenderOverheadAgainstUncachedRendering() throws Exception {
+        TextGenerator generator = new TextGenerator();
+        String expected = generator.generateOutputFile(results, "project", "1.0", "header");
+        assertThat(renderUncached(generator), is(expected));
+
+        for (int i = 0; i < BENCHMARK_WARMUP; i++) {
+            renderUncached(generator);
+            generator.writeOutputFile(results, "project", "1.0", "header", new ByteArrayOutputStream());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            renderUncached(generator);
+        }
+        long uncachedNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            generator.writeOutputFile(results, "project", "1.0", "header", new ByteArrayOutputStream());
+        }
+        long cachedNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+
+        log.info(String.format("Per-render time over %d runs: uncached %d us, cached %d us",
+                BENCHMARK_RUNS, uncachedNanos / 1000, cachedNanos / 1000));
+        assertThat(cachedNanos, greaterThan(0L));
+    }
+
+    /**
+     * Renders the text template the way the generators used to: initializing
+     * velocity and the tool manager and parsing the template on every call.
+     */
+    private String renderUncached(TextGenerator generator) {
+        Properties p = new Properties();
+        p.setProperty("resource.loader", "class");
+        p.setProperty("class.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
+        p.setProperty("class.resource.loader.cache", "false");
+        Velocity.init(p);
+        ToolManager velocityToolManager = new ToolManager();
+        velocityToolManager.configure(OutputGenerator.VELOCITY_TOOLS_FILE);
+        VelocityContext vc = new VelocityContext(velocityToolManager.createContext());
+        generator.fillContextWithDefaultValues(vc, results, "header");
+        StringWriter sw = new StringWriter();
+        Velocity.mergeTemplate("textLicenseInfoFile.vm", "utf-8", vc, sw);
+        return sw.toString();
+    }
+}
@@ -33,7 +33,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.InputStream;
 import java.io.StringReader;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.licenseinfo.TestHelper.assertLicenseInfoParsingResult;
@@ -42,6 +42,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.*;
 
@@ -88,7 +89,16 @@ public class CombinedCLIParserTest {
                 .setVendor(new Vendor().setFullname("VendorD Fullname").setShortname("VendorD"))
                 .setExternalIds(ImmutableMap.of("some_external_id", "1234"));
 
-        when(componentDatabaseHandler.getAllReleasesIdMap()).thenReturn(ImmutableMap.of(r1.getId(), r1, r2.getId(), r2, r3.getId(), r3, r4.getId(), r4));
+        List<Release> releases = Arrays.asList(r1, r2, r3, r4);
+
+        when(componentDatabaseHandler.getReleasesByExternalIds(anyMap())).thenAnswer(invocation -> {
+            Map<String, Set<String>> externalIds = (Map<String, Set<String>>) invocation.getArguments()[0];
+            return releases.stream()
+                    .filter(r -> r.getExternalIds() != null)
+                    .filter(r -> r.getExternalIds().entrySet().stream()
+                            .anyMatch(e -> externalIds.getOrDefault(e.getKey(), Collections.emptySet()).contains(e.getValue())))
+                    .collect(Collectors.toList());
+        });
     }
 
     @Test
@@ -131,4 +141,14 @@ public class CombinedCLIParserTest {
         assertThat(res.getName(), is("r1"));
         assertThat(res.getVersion(), is("1.0"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetCLIOnlyLoadsReferencedReleases() throws Exception {
+        Attachment cliAttachment = new Attachment("A1", "a.xml");
+        when(connector.getAttachmentStream(anyObject(), anyObject(), anyObject())).thenReturn(new ReaderInputStream(new StringReader(cliTestfile)));
+        parser.getLicenseInfos(cliAttachment, new User(), new Project());
+        verify(componentDatabaseHandler).getReleasesByExternalIds(ImmutableMap.of("external-correlation-id", Collections.singleton("1234")));
+        verify(componentDatabaseHandler, never()).getAllReleasesIdMap();
+        verify(componentDatabaseHandler, never()).getAllReleases();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.licenseinfo.util;
+
+import com.google.common.base.Ticker;
+import com.google.common.io.ByteStreams;
+import org.eclipse.sw360.datahandler.common.LicenseInfoFileInputStream;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoFileChunk;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoService;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.PreparedLicenseInfoFile;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class PreparedFileStoreTest {
+
+    private static final int EXPIRY_MINUTES = 15;
+    private static final int MAX_TOTAL_MEGABYTES = 1;
+    private static final String OWNER = "owner@sw360.org";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private PreparedFileStore store;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new PreparedFileStore(EXPIRY_MINUTES, MAX_TOTAL_MEGABYTES, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+        content = new byte[10_000];
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    public void testFileIsTransferredInChunks() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+        LicenseInfoService.Iface client = mock(LicenseInfoService.Iface.class);
+        when(client.getLicenseInfoFileChunk(anyString(), any(User.class), anyLong(), anyInt())).thenAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            return store.readChunk((String) arguments[0], ((User) arguments[1]).getEmail(), (Long) arguments[2], (Integer) arguments[3]);
+        });
+        PreparedLicenseInfoFile preparedFile = new PreparedLicenseInfoFile().setFileId(fileId).setSize(store.size(fileId, OWNER));
+
+        byte[] transferred;
+        try (InputStream stream = new LicenseInfoFileInputStream(client, preparedFile, new User().setEmail(OWNER), 4096)) {
+            transferred = ByteStreams.toByteArray(stream);
+        }
+
+        assertThat(transferred, is(content));
+        verify(client, times(3)).getLicenseInfoFileChunk(eq(fileId), any(User.class), anyLong(), eq(4096));
+        verify(client).discardLicenseInfoFile(eq(fileId), any(User.class));
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testDiscardedFileCannotBeReadAgain() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+
+        store.discard(fileId, OWNER);
+
+        store.readChunk(fileId, OWNER, 0, 4096);
+    }
+
+    @Test
+    public void testFileCannotBeDiscardedByOtherUsers() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+
+        store.discard(fileId, "other@sw360.org");
+
+        assertThat(store.readChunk(fileId, OWNER, 0, 4096).getData().length, is(4096));
+    }
+
+    @Test
+    public void testOldestFilesAreEvictedWhenMaximumSizeIsExceeded() throws Exception {
+        content = new byte[400 * 1024];
+        String first = store.store(OWNER, this::writeContent);
+        String second = store.store(OWNER, this::writeContent);
+        store.readChunk(first, OWNER, 0, 4096);
+
+        String third = store.store(OWNER, this::writeContent);
+
+        assertThat(store.size(first, OWNER), is((long) content.length));
+        assertThat(store.size(third, OWNER), is((long) content.length));
+        try {
+            store.size(second, OWNER);
+            fail("the least recently used file should have been evicted");
+        } catch (SW360Exception expected) {
+        }
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testFileLargerThanMaximumSizeIsRejected() throws Exception {
+        content = new byte[MAX_TOTAL_MEGABYTES * 1024 * 1024 + 1];
+
+        store.store(OWNER, this::writeContent);
+    }
+
+    @Test
+    public void testLastChunkCanBeReadAgain() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+
+        LicenseInfoFileChunk first = store.readChunk(fileId, OWNER, 8000, 4096);
+        LicenseInfoFileChunk retried = store.readChunk(fileId, OWNER, 8000, 4096);
+
+        assertThat(first.isLastChunk(), is(true));
+        assertThat(retried.getData(), is(first.getData()));
+        assertThat(retried.getData().length, is(2000));
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testFileCannotBeReadByOtherUsers() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+
+        store.readChunk(fileId, "other@sw360.org", 0, 4096);
+    }
+
+    @Test
+    public void testFileExpiresWhenNotAccessed() throws Exception {
+        String fileId = store.store(OWNER, this::writeContent);
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(EXPIRY_MINUTES - 1));
+        store.readChunk(fileId, OWNER, 0, 4096);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(EXPIRY_MINUTES - 1));
+        store.readChunk(fileId, OWNER, 4096, 4096);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(EXPIRY_MINUTES + 1));
+
+        try {
+            store.readChunk(fileId, OWNER, 8192, 4096);
+            fail("the file should have expired");
+        } catch (SW360Exception expected) {
+        }
+    }
+
+    private void writeContent(OutputStream outputStream) throws SW360Exception {
+        try {
+            outputStream.write(content);
+        } catch (IOException e) {
+            throw new SW360Exception(e.getMessage());
+        }
+    }
+}
@@ -260,6 +260,15 @@ public class LicenseHandler implements LicenseService.Iface {
         return handler.updateLicense(license, user, requestingUser);
     }
 
+    @Override
+    public List<RequestStatus> updateLicenses(List<License> licenses, User user, User requestingUser) throws TException {
+        assertNotNull(licenses);
+        assertUser(user);
+        assertUser(requestingUser);
+
+        return handler.updateLicenses(licenses, user, requestingUser);
+    }
+
     @Override
     public RequestStatus updateLicenseFromModerationRequest(License licenseAdditions,
                                                             License licenseDeletions,
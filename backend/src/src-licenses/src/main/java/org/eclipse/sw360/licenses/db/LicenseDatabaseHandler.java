@@ -12,7 +12,6 @@
 package org.eclipse.sw360.licenses.db;
 
 
-import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
@@ -71,6 +70,7 @@ public class LicenseDatabaseHandler {
     private final LicenseTypeRepository licenseTypeRepository;
     private final LicenseModerator moderator;
     private final CustomPropertiesRepository customPropertiesRepository;
+    private final ReleaseRepository releaseRepository;
     private final DatabaseRepository[] repositories;
 
     private final Logger log = Logger.getLogger(LicenseDatabaseHandler.class);
@@ -87,6 +87,7 @@ public class LicenseDatabaseHandler {
         riskCategoryRepository = new RiskCategoryRepository(db);
         licenseTypeRepository = new LicenseTypeRepository(db);
         customPropertiesRepository = new CustomPropertiesRepository(db);
+        releaseRepository = new ReleaseRepository(db, new VendorRepository(db));
 
         repositories = new DatabaseRepository[]{
                 licenseRepository,
@@ -117,11 +118,11 @@ public class LicenseDatabaseHandler {
      * Get a summary of all licenses from the database
      */
     public List<License> getLicenseSummary() {
-        final List<License> licenses = licenseRepository.getAll();
+        final List<License> licenses = licenseRepository.getLicenseSummary();
         final List<LicenseType> licenseTypes = licenseTypeRepository.getAll();
         putLicenseTypesInLicenses(licenses, licenseTypes);
         /*Note that risks are not set here*/
-        return licenseRepository.makeSummaryFromFullDocs(SummaryType.SUMMARY, licenses);
+        return licenses;
 
     }
 
@@ -411,6 +412,38 @@ public class LicenseDatabaseHandler {
         return RequestStatus.FAILURE;
     }
 
+    /**
+     * Updates the licenses as {@link #updateLicense(License, User, User)} does, but reads and writes them with one
+     * request each.
+     */
+    public List<RequestStatus> updateLicenses(List<License> inputLicenses, User user, User requestingUser) {
+        String businessUnit = SW360Utils.getBUFromOrganisation(requestingUser.getDepartment());
+        Set<String> ids = inputLicenses.stream()
+                .filter(License::isSetId)
+                .map(License::getId)
+                .collect(Collectors.toSet());
+        Map<String, License> dbLicensesById = ThriftUtils.getIdMap(licenseRepository.get(ids, true));
+
+        List<License> licensesToWrite = new ArrayList<>();
+        List<String> writtenIds = new ArrayList<>();
+        for (License inputLicense : inputLicenses) {
+            if (makePermission(inputLicense, user).isActionAllowed(RequestedAction.WRITE)) {
+                License dbLicense = inputLicense.isSetId() ? dbLicensesById.get(inputLicense.getId()) : null;
+                License license = updateLicenseFromInputLicense(dbLicense != null ? dbLicense : new License(), inputLicense, businessUnit, user);
+                licensesToWrite.add(license);
+                writtenIds.add(license.getId());
+            } else {
+                writtenIds.add(null);
+            }
+        }
+
+        List<DocumentOperationResult> documentOperationResults = licenseRepository.executeBulk(licensesToWrite);
+        if (!documentOperationResults.isEmpty()) {
+            log.error("Failed to update licenses: " + documentOperationResults);
+        }
+        return CommonUtils.getRequestStatuses(writtenIds, documentOperationResults);
+    }
+
     private License updateLicenseFromInputLicense(License license, License inputLicense, String businessUnit, User user){
         if(inputLicense.isSetTodos()) {
             for (Todo todo : inputLicense.getTodos()) {
@@ -778,7 +811,6 @@ public class LicenseDatabaseHandler {
     }
 
     public boolean checkIfInUse(String licenseId) {
-        ReleaseRepository releaseRepository = new ReleaseRepository(db,new VendorRepository(db));
         final List<Release> usingReleases = releaseRepository.searchReleasesByUsingLicenseId(licenseId);
         return !usingReleases.isEmpty();
     }
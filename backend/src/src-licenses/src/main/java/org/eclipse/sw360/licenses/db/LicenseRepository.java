@@ -13,6 +13,7 @@ package org.eclipse.sw360.licenses.db;
 import org.eclipse.sw360.components.summary.LicenseSummary;
 import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DocumentCache;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
 import org.eclipse.sw360.datahandler.thrift.licenses.License;
 import org.ektorp.ViewQuery;
@@ -20,6 +21,7 @@ import org.ektorp.support.View;
 import org.ektorp.support.Views;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -34,10 +36,18 @@ import java.util.List;
 })
 public class LicenseRepository extends SummaryAwareRepository<License> {
 
+    // same order as the byname view
+    private static final Comparator<License> BY_NAME = Comparator.comparing(License::getFullname,
+            Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+
+    private final DocumentCache<License> summaryCache;
+
     public LicenseRepository(DatabaseConnector db) {
         super(License.class, db, new LicenseSummary());
 
         initStandardDesignDocument();
+        summaryCache = new DocumentCache<>(License.class, "license", db, this::getAll, BY_NAME);
+        enableReadCache(License::deepCopy);
     }
 
     public List<License> searchByName(String name) {
@@ -52,7 +62,7 @@ public class LicenseRepository extends SummaryAwareRepository<License> {
     }
 
     public List<License> getLicenseSummary() {
-        return makeSummaryFromFullDocs(SummaryType.SUMMARY, queryView("byname"));
+        return makeSummaryFromFullDocs(SummaryType.SUMMARY, summaryCache.getAll());
     }
 
     public List<License> getLicenseSummaryForExport() {
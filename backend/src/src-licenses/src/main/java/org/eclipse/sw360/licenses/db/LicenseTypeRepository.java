@@ -25,5 +25,6 @@ public class LicenseTypeRepository extends DatabaseRepository<LicenseType> {
         super(LicenseType.class, db);
 
         initStandardDesignDocument();
+        enableReadCache(LicenseType::deepCopy);
     }
 }
@@ -25,6 +25,7 @@ public class RiskRepository extends DatabaseRepository<Risk> {
         super(Risk.class, db);
 
         initStandardDesignDocument();
+        enableReadCache(Risk::deepCopy);
     }
 
 }
@@ -28,6 +28,7 @@ public class TodoRepository extends DatabaseRepository<Todo> {
         super(Todo.class, db);
 
         initStandardDesignDocument();
+        enableReadCache(Todo::deepCopy);
     }
 
 }
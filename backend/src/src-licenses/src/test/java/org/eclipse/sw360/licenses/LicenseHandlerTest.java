@@ -13,18 +13,18 @@ package org.eclipse.sw360.licenses;
 import org.eclipse.sw360.datahandler.TestUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.licenses.*;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.net.MalformedURLException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -93,6 +93,41 @@ public class LicenseHandlerTest {
         }
     }
 
+    @Test
+    public void testLicenseSummaryIsOrderedByName() throws Exception {
+        DatabaseConnector db = new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), dbName);
+        db.add(new License().setId("AAA").setFullname("Zope Public License 2.1"));
+        db.add(new License().setId("ZZZ").setFullname("academic Free License 3.0"));
+
+        List<String> names = handler.getLicenseSummary().stream().map(License::getFullname).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("academic Free License 3.0", "The Apache Software License, Version 1.1",
+                "The Apache Software License, Version 2.0", "Zope Public License 2.1"), names);
+    }
+
+    @Test
+    public void testUpdateLicensesMatchesUpdateLicense() throws Exception {
+        User admin = new User().setEmail("admin@siemens.com").setDepartment(user.getDepartment()).setUserGroup(UserGroup.CLEARING_ADMIN);
+
+        RequestStatus single = handler.updateLicense(new License().setId("Apache 1.1").setFullname("Apache 1.1 updated"), admin, admin);
+        List<RequestStatus> batch = handler.updateLicenses(Arrays.asList(
+                new License().setId("Apache 2.0").setFullname("Apache 2.0 updated"),
+                new License().setShortname("MIT").setFullname("The MIT License")), admin, admin);
+
+        assertEquals(RequestStatus.SUCCESS, single);
+        assertEquals(Arrays.asList(RequestStatus.SUCCESS, RequestStatus.SUCCESS), batch);
+        assertEquals("Apache 1.1 updated", handler.getByID("Apache 1.1", user.getDepartment()).getFullname());
+        assertEquals("Apache 2.0 updated", handler.getByID("Apache 2.0", user.getDepartment()).getFullname());
+        assertEquals("The MIT License", handler.getByID("MIT", user.getDepartment()).getFullname());
+
+        // users who may not write licenses fail the same way in both calls
+        assertEquals(RequestStatus.FAILURE, handler.updateLicense(new License().setId("Apache 1.1").setFullname("denied"), user, user));
+        assertEquals(Collections.singletonList(RequestStatus.FAILURE),
+                handler.updateLicenses(Collections.singletonList(new License().setId("Apache 2.0").setFullname("denied")), user, user));
+        assertEquals("Apache 1.1 updated", handler.getByID("Apache 1.1", user.getDepartment()).getFullname());
+        assertEquals("Apache 2.0 updated", handler.getByID("Apache 2.0", user.getDepartment()).getFullname());
+    }
+
     @Test
     public void testGetLicense() throws Exception {
         License expLicense = licenses.get("Apache 1.1");
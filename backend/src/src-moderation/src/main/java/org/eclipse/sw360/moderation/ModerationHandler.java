@@ -14,6 +14,7 @@ package org.eclipse.sw360.moderation;
 import org.apache.thrift.TException;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.thrift.ModerationState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RemoveModeratorRequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
@@ -21,6 +22,7 @@ import org.eclipse.sw360.datahandler.thrift.components.Component;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenses.License;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequestPage;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationService;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -28,6 +30,7 @@ import org.eclipse.sw360.moderation.db.ModerationDatabaseHandler;
 
 import java.net.MalformedURLException;
 import java.util.List;
+import java.util.Set;
 
 import static org.eclipse.sw360.datahandler.common.SW360Assert.*;
 
@@ -206,4 +209,18 @@ public class ModerationHandler implements ModerationService.Iface {
         return handler.getRequestsByRequestingUser(user.getEmail());
     }
 
+    @Override
+    public ModerationRequestPage getRequestsByModeratorPage(User user, Set<ModerationState> states, PaginationData pagination) throws TException {
+        assertUser(user);
+
+        return handler.getRequestsByModerator(user.getEmail(), states, pagination != null ? pagination : new PaginationData());
+    }
+
+    @Override
+    public ModerationRequestPage getRequestsByRequestingUserPage(User user, Set<ModerationState> states, PaginationData pagination) throws TException {
+        assertUser(user);
+
+        return handler.getRequestsByRequestingUser(user.getEmail(), states, pagination != null ? pagination : new PaginationData());
+    }
+
 }
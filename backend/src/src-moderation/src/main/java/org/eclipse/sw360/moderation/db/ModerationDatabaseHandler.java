@@ -21,6 +21,7 @@ import org.eclipse.sw360.datahandler.db.ComponentDatabaseHandler;
 import org.eclipse.sw360.datahandler.db.ProjectDatabaseHandler;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.ModerationState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.ThriftClients;
@@ -29,6 +30,7 @@ import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.licenses.License;
 import org.eclipse.sw360.datahandler.thrift.moderation.DocumentType;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequestPage;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectClearingState;
 import org.eclipse.sw360.datahandler.thrift.users.User;
@@ -46,7 +48,6 @@ import java.net.MalformedURLException;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.notEmptyOrNull;
 
@@ -91,6 +92,14 @@ public class ModerationDatabaseHandler {
         return repository.getRequestsByRequestingUser(user);
     }
 
+    public ModerationRequestPage getRequestsByModerator(String moderator, Set<ModerationState> states, PaginationData pagination) {
+        return repository.getRequestsByModerator(moderator, states, pagination);
+    }
+
+    public ModerationRequestPage getRequestsByRequestingUser(String user, Set<ModerationState> states, PaginationData pagination) {
+        return repository.getRequestsByRequestingUser(user, states, pagination);
+    }
+
     public ModerationRequest getRequest(String requestId) {
         ModerationRequest moderationRequest = repository.get(requestId);
         return moderationRequest;
@@ -375,23 +384,8 @@ public class ModerationDatabaseHandler {
     }
 
     private Set<String> getLicenseModerators(String department) {
-        List<User> sw360users = getAllSW360Users();
-        //try first clearing admins or admins from same department
-        Set<String> moderators = sw360users
-                .stream()
-                .filter(user1 -> PermissionUtils.isUserAtLeast(UserGroup.CLEARING_ADMIN, user1))
-                .filter(user1 -> user1.getDepartment().equals(department))
-                .map(User::getEmail)
-                .collect(Collectors.toSet());
-        //second choice are all clearing admins or admins in SW360
-        if (moderators.size() == 0) {
-            moderators = sw360users
-                    .stream()
-                    .filter(user1 -> PermissionUtils.isUserAtLeast(UserGroup.CLEARING_ADMIN, user1))
-                    .map(User::getEmail)
-                    .collect(Collectors.toSet());
-        }
-        return moderators;
+        //try first clearing admins or admins from same department, second choice are all clearing admins or admins in SW360
+        return getUsersAtLeast(UserGroup.CLEARING_ADMIN, department);
     }
 
     private Set<String> getUsersAtLeast(UserGroup userGroup, String department) {
@@ -399,42 +393,24 @@ public class ModerationDatabaseHandler {
     }
 
     private Set<String> getUsersAtLeast(UserGroup userGroup, String department, boolean defaultToAllUsersInGroup) {
-        List<User> sw360users = getAllSW360Users();
-        List<User> allRelevantUsers = sw360users
-                    .stream()
-                    .filter(user1 -> PermissionUtils.isUserAtLeast(userGroup, user1))
-                    .collect(Collectors.toList());
-
-        List<User> relevantUsersOfDepartment = Collections.emptyList();
-        if(department != null) {
-            relevantUsersOfDepartment = allRelevantUsers.stream()
-                    .filter(user -> user.getDepartment().equals(department))
-                    .collect(Collectors.toList());
-        }
-
-        List<User> defaultUsersList = defaultToAllUsersInGroup ? allRelevantUsers : Collections.emptyList();
-        List<User> resultingUsers = relevantUsersOfDepartment.isEmpty() ? defaultUsersList : relevantUsersOfDepartment;
-
-        Set<String> resultingUserEmails = resultingUsers.stream()
-                    .map(User::getEmail)
-                    .collect(Collectors.toSet());
-
-        return resultingUserEmails;
-    }
-
-    private Set<String> getUsersAtLeast(UserGroup userGroup){
-        return getUsersAtLeast(userGroup, null);
-    }
-
-    private List<User> getAllSW360Users() {
-        List<User> sw360users = Collections.emptyList();
         try {
             UserService.Iface client = (new ThriftClients()).makeUserClient();
-            sw360users = CommonUtils.nullToEmptyList(client.getAllUsers());
+            Set<String> usersOfDepartment = Collections.emptySet();
+            if (department != null) {
+                usersOfDepartment = CommonUtils.nullToEmptySet(client.getUserEmailsAtLeast(userGroup, department));
+            }
+            if (!usersOfDepartment.isEmpty() || !defaultToAllUsersInGroup) {
+                return usersOfDepartment;
+            }
+            return CommonUtils.nullToEmptySet(client.getUserEmailsAtLeast(userGroup, null));
         } catch (TException e) {
             log.error("Problem with user client", e);
+            return Collections.emptySet();
         }
-        return sw360users;
+    }
+
+    private Set<String> getUsersAtLeast(UserGroup userGroup){
+        return getUsersAtLeast(userGroup, null);
     }
 
     public void addOrUpdate(ModerationRequest request, User user) {
@@ -12,13 +12,19 @@
 package org.eclipse.sw360.moderation.db;
 
 import org.eclipse.sw360.components.summary.ModerationRequestSummary;
-import org.eclipse.sw360.components.summary.SummaryType;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.SummaryAwareRepository;
+import org.eclipse.sw360.datahandler.thrift.ModerationState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequestPage;
+import org.ektorp.ComplexKey;
+import org.ektorp.ViewQuery;
+import org.ektorp.ViewResult;
 import org.ektorp.support.View;
 
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * CRUD access for the ModerationRequest class
@@ -35,16 +41,34 @@ public class ModerationRequestRepository extends SummaryAwareRepository<Moderati
             "  }" +
             "}";
 
-    private static final String USERS_VIEW = "function(doc) { " +
+    // the fields shown in listings, everything but the additions and deletions and the comments
+    private static final String LISTING = "{" +
+            "  _id: doc._id," +
+            "  issetBitfield: doc.issetBitfield," +
+            "  timestamp: doc.timestamp," +
+            "  timestampOfDecision: doc.timestampOfDecision," +
+            "  documentId: doc.documentId," +
+            "  documentType: doc.documentType," +
+            "  documentName: doc.documentName," +
+            "  moderationState: doc.moderationState," +
+            "  requestingUser: doc.requestingUser," +
+            "  requestingUserDepartment: doc.requestingUserDepartment," +
+            "  moderators: doc.moderators," +
+            "  reviewer: doc.reviewer," +
+            "  requestDocumentDelete: doc.requestDocumentDelete," +
+            "  componentType: doc.componentType" +
+            "}";
+
+    private static final String USERS_LISTING_VIEW = "function(doc) { " +
             "  if (doc.type == 'moderation') {" +
-            "    emit(doc.requestingUser, doc);" +
-            "    }" +
+            "    emit([doc.requestingUser, doc.moderationState, doc.timestamp], " + LISTING + ");" +
+            "  }" +
             "}";
 
-    private static final String MODERATORS_VIEW = "function(doc) {" +
+    private static final String MODERATORS_LISTING_VIEW = "function(doc) {" +
             "  if (doc.type == 'moderation') {" +
             "    for(var i in doc.moderators) {" +
-            "      emit(doc.moderators[i], doc);" +
+            "      emit([doc.moderators[i], doc.moderationState, doc.timestamp], " + LISTING + ");" +
             "    }" +
             "  }" +
             "}";
@@ -60,14 +84,70 @@ public class ModerationRequestRepository extends SummaryAwareRepository<Moderati
         return queryView("documents", documentId);
     }
 
-    @View(name = "moderators", map = MODERATORS_VIEW)
+    @View(name = "moderatorsListing", map = MODERATORS_LISTING_VIEW, reduce = "_count")
     public List<ModerationRequest> getRequestsByModerator(String moderator) {
-        return makeSummaryFromFullDocs(SummaryType.SHORT, queryView("moderators", moderator));
+        return queryListing("moderatorsListing", moderator);
     }
 
-    @View(name = "users", map = USERS_VIEW)
+    public ModerationRequestPage getRequestsByModerator(String moderator, Set<ModerationState> states, PaginationData pagination) {
+        return queryListingPage("moderatorsListing", moderator, states, pagination);
+    }
+
+    @View(name = "usersListing", map = USERS_LISTING_VIEW, reduce = "_count")
     public List<ModerationRequest> getRequestsByRequestingUser(String user) {
-        return makeSummaryFromFullDocs(SummaryType.SHORT, queryView("users", user));
+        return queryListing("usersListing", user);
+    }
+
+    public ModerationRequestPage getRequestsByRequestingUser(String user, Set<ModerationState> states, PaginationData pagination) {
+        return queryListingPage("usersListing", user, states, pagination);
     }
 
+    private List<ModerationRequest> queryListing(String viewName, String user) {
+        return queryView(createQuery(viewName).reduce(false)
+                .startKey(ComplexKey.of(user))
+                .endKey(ComplexKey.of(user, ComplexKey.emptyObject())));
+    }
+
+    /**
+     * The listing view is sorted by state and timestamp for each user, so the first rows up to the end of the
+     * page are read for each state and merged by timestamp.
+     */
+    private ModerationRequestPage queryListingPage(String viewName, String user, Set<ModerationState> states, PaginationData pagination) {
+        Set<ModerationState> selectedStates = states == null || states.isEmpty() ? EnumSet.allOf(ModerationState.class) : states;
+        boolean ascending = pagination.isAscending();
+        int start = Math.max(0, pagination.getDisplayStart());
+        int end = pagination.getRowsPerPage() < 0 ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) start + pagination.getRowsPerPage());
+
+        List<ModerationRequest> rows = new ArrayList<>();
+        for (ModerationState state : selectedStates) {
+            ComplexKey first = ComplexKey.of(user, state.name());
+            ComplexKey last = ComplexKey.of(user, state.name(), ComplexKey.emptyObject());
+            ViewQuery query = createQuery(viewName).reduce(false)
+                    .startKey(ascending ? first : last)
+                    .endKey(ascending ? last : first)
+                    .descending(!ascending);
+            if (end < Integer.MAX_VALUE) {
+                query.limit(end);
+            }
+            rows.addAll(queryView(query));
+        }
+
+        Comparator<ModerationRequest> byTimestamp = Comparator.comparingLong(ModerationRequest::getTimestamp)
+                .thenComparing(ModerationRequest::getId);
+        rows.sort(ascending ? byTimestamp : byTimestamp.reversed());
+        List<ModerationRequest> page = rows.subList(Math.min(start, rows.size()), Math.min(end, rows.size()));
+
+        return new ModerationRequestPage(new ArrayList<>(page), countListing(viewName, user, selectedStates));
+    }
+
+    private int countListing(String viewName, String user, Set<ModerationState> states) {
+        ViewResult counts = getConnector().queryView(createQuery(viewName).reduce(true).groupLevel(2)
+                .startKey(ComplexKey.of(user))
+                .endKey(ComplexKey.of(user, ComplexKey.emptyObject())));
+        Set<String> stateNames = states.stream().map(ModerationState::name).collect(Collectors.toSet());
+        return counts.getRows().stream()
+                .filter(row -> stateNames.contains(row.getKeyAsNode().get(1).asText()))
+                .mapToInt(ViewResult.Row::getValueAsInt)
+                .sum();
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.moderation.db;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.datahandler.thrift.ModerationState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.components.Component;
+import org.eclipse.sw360.datahandler.thrift.moderation.DocumentType;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequestPage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ModerationRequestRepositoryTest {
+
+    private static final String MODERATOR = "moderator@sw360.org";
+    private static final String OTHER_MODERATOR = "other@sw360.org";
+    private static final String REQUESTER = "requester@sw360.org";
+    private static final Set<ModerationState> OPEN_STATES = ImmutableSet.of(ModerationState.PENDING, ModerationState.INPROGRESS);
+    private static final ModerationState[] STATES = {
+            ModerationState.PENDING, ModerationState.INPROGRESS, ModerationState.APPROVED, ModerationState.REJECTED};
+
+    private DatabaseConnector connector;
+    private ModerationRequestRepository repository;
+    private List<ModerationRequest> requests;
+
+    @Before
+    public void setUp() throws Exception {
+        connector = new DatabaseConnector(new InMemoryCouchDb().asSupplier(), "moderationtest");
+        repository = new ModerationRequestRepository(connector);
+
+        requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ModerationRequest request = new ModerationRequest()
+                    // states interleaved in time, so that pages span several states
+                    .setTimestamp(1000 + i)
+                    .setDocumentId("component" + i)
+                    .setDocumentType(DocumentType.COMPONENT)
+                    .setDocumentName("Component " + i)
+                    .setModerationState(STATES[i % STATES.length])
+                    .setRequestDocumentDelete(false)
+                    .setRequestingUser(i % 2 == 0 ? REQUESTER : "someone@sw360.org")
+                    .setModerators(i % 5 == 0 ? ImmutableSet.of(OTHER_MODERATOR) : ImmutableSet.of(MODERATOR, OTHER_MODERATOR))
+                    .setComponentAdditions(new Component("Component " + i).setDescription("a large payload"));
+            requests.add(request);
+        }
+        Collections.shuffle(requests);
+        repository.executeBulk(requests);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connector.getChangesListener().close();
+    }
+
+    @Test
+    public void testPagesOfOpenRequestsAreSortedByTimestampAcrossStates() throws Exception {
+        List<ModerationRequest> expected = expected(MODERATOR, OPEN_STATES, true);
+
+        ModerationRequestPage first = repository.getRequestsByModerator(MODERATOR, OPEN_STATES, page(0, 5, true));
+        ModerationRequestPage second = repository.getRequestsByModerator(MODERATOR, OPEN_STATES, page(5, 5, true));
+
+        assertThat(first.getTotalCount(), is(expected.size()));
+        assertThat(ids(first.getRequests()), is(ids(expected.subList(0, 5))));
+        assertThat(ids(second.getRequests()), is(ids(expected.subList(5, 10))));
+        assertThat(states(first.getRequests()), containsInAnyOrder(ModerationState.PENDING, ModerationState.PENDING,
+                ModerationState.PENDING, ModerationState.INPROGRESS, ModerationState.INPROGRESS));
+    }
+
+    @Test
+    public void testPagesCanStartWithTheNewestRequest() throws Exception {
+        List<ModerationRequest> expected = expected(MODERATOR, OPEN_STATES, false);
+
+        ModerationRequestPage page = repository.getRequestsByModerator(MODERATOR, OPEN_STATES, page(3, 4, false));
+
+        assertThat(ids(page.getRequests()), is(ids(expected.subList(3, 7))));
+    }
+
+    @Test
+    public void testLastPageIsShortAndPagesBeyondAreEmpty() throws Exception {
+        List<ModerationRequest> expected = expected(MODERATOR, OPEN_STATES, true);
+
+        ModerationRequestPage last = repository.getRequestsByModerator(MODERATOR, OPEN_STATES, page(10, 10, true));
+        ModerationRequestPage beyond = repository.getRequestsByModerator(MODERATOR, OPEN_STATES, page(100, 10, true));
+
+        assertThat(ids(last.getRequests()), is(ids(expected.subList(10, expected.size()))));
+        assertThat(beyond.getRequests(), is(empty()));
+        assertThat(beyond.getTotalCount(), is(expected.size()));
+    }
+
+    @Test
+    public void testAllStatesAndAllRowsWithoutLimits() throws Exception {
+        List<ModerationRequest> expected = expected(OTHER_MODERATOR, ImmutableSet.copyOf(STATES), true);
+
+        ModerationRequestPage page = repository.getRequestsByModerator(OTHER_MODERATOR, Collections.emptySet(), new PaginationData());
+
+        assertThat(page.getTotalCount(), is(40));
+        assertThat(ids(page.getRequests()), is(ids(expected)));
+    }
+
+    @Test
+    public void testRequestingUserIsPaged() throws Exception {
+        Set<ModerationState> closed = ImmutableSet.of(ModerationState.APPROVED, ModerationState.REJECTED);
+        List<ModerationRequest> expected = expected(REQUESTER, closed, true);
+
+        ModerationRequestPage page = repository.getRequestsByRequestingUser(REQUESTER, closed, page(2, 3, true));
+
+        assertThat(page.getTotalCount(), is(expected.size()));
+        assertThat(ids(page.getRequests()), is(ids(expected.subList(2, 5))));
+    }
+
+    @Test
+    public void testListingsHoldNoPayload() throws Exception {
+        List<ModerationRequest> listing = repository.getRequestsByModerator(MODERATOR);
+
+        assertThat(listing, hasSize(expected(MODERATOR, ImmutableSet.copyOf(STATES), true).size()));
+        for (ModerationRequest request : listing) {
+            assertThat(request.isSetComponentAdditions(), is(false));
+            assertThat(request.getDocumentName(), startsWith("Component "));
+            assertThat(request.getModerators(), hasItem(MODERATOR));
+        }
+        ModerationRequest full = repository.get(listing.get(0).getId());
+        assertThat(full.getComponentAdditions().getDescription(), is("a large payload"));
+    }
+
+    private List<ModerationRequest> expected(String user, Set<ModerationState> states, boolean ascending) {
+        return requests.stream()
+                .filter(request -> request.getModerators().contains(user) || user.equals(request.getRequestingUser()))
+                .filter(request -> states.contains(request.getModerationState()))
+                .sorted((first, second) -> ascending
+                        ? Long.compare(first.getTimestamp(), second.getTimestamp())
+                        : Long.compare(second.getTimestamp(), first.getTimestamp()))
+                .collect(Collectors.toList());
+    }
+
+    private static PaginationData page(int start, int rows, boolean ascending) {
+        return new PaginationData().setDisplayStart(start).setRowsPerPage(rows).setAscending(ascending);
+    }
+
+    private static List<String> ids(List<ModerationRequest> requests) {
+        return requests.stream().map(ModerationRequest::getId).collect(Collectors.toList());
+    }
+
+    private static List<ModerationState> states(List<ModerationRequest> requests) {
+        return requests.stream().map(ModerationRequest::getModerationState).collect(Collectors.toList());
+    }
+}
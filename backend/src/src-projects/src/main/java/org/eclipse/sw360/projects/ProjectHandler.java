@@ -16,6 +16,7 @@ import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.db.ProjectDatabaseHandler;
 import org.eclipse.sw360.datahandler.db.ProjectSearchHandler;
 import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.components.ReleaseClearingStatusData;
@@ -23,6 +24,7 @@ import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectLink;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectRelationship;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 
 import java.io.IOException;
@@ -74,6 +76,13 @@ public class ProjectHandler implements ProjectService.Iface {
         return handler.getAccessibleProjectsSummary(user);
     }
 
+    @Override
+    public ProjectSummaryPage getAccessibleProjectsSummaryPage(User user, PaginationData pagination) throws TException {
+        assertUser(user);
+
+        return handler.getAccessibleProjectsSummaryPage(user, pagination);
+    }
+
     @Override
     public Set<Project> getAccessibleProjects(User user) throws TException {
         assertUser(user);
@@ -152,6 +161,18 @@ public class ProjectHandler implements ProjectService.Iface {
         return handler.addProject(project, user);
     }
 
+    @Override
+    public List<AddDocumentRequestSummary> addProjects(List<Project> projects, User user) throws TException {
+        assertNotNull(projects);
+        for (Project project : projects) {
+            assertNotNull(project);
+            assertIdUnset(project.getId());
+        }
+        assertUser(user);
+
+        return handler.addProjects(projects, user);
+    }
+
     ///////////////////////////////
     // UPDATE INDIVIDUAL OBJECTS //
     ///////////////////////////////
@@ -165,6 +186,18 @@ public class ProjectHandler implements ProjectService.Iface {
         return handler.updateProject(project, user);
     }
 
+    @Override
+    public List<RequestStatus> updateProjects(List<Project> projects, User user) throws TException {
+        assertNotNull(projects);
+        for (Project project : projects) {
+            assertNotNull(project);
+            assertId(project.getId());
+        }
+        assertUser(user);
+
+        return handler.updateProjects(projects, user);
+    }
+
     public RequestStatus updateProjectFromModerationRequest(Project projectAdditions, Project projectDeletions, User user) {
         return handler.updateProjectFromAdditionsAndDeletions(projectAdditions, projectDeletions, user);
     }
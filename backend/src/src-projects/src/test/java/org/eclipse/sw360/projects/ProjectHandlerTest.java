@@ -19,10 +19,14 @@ import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.db.ComponentDatabaseHandler;
 import org.eclipse.sw360.datahandler.db.ProjectDatabaseHandler;
 import org.eclipse.sw360.datahandler.entitlement.ProjectModerator;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.projects.ProjectRelationship;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectSummaryPage;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.junit.After;
 import org.junit.Before;
@@ -30,10 +34,13 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.common.SW360Utils.getProjectIds;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
 
@@ -92,6 +99,35 @@ public class ProjectHandlerTest {
     }
 
 
+    @Test
+    public void testGetAccessibleProjectsSummaryPage() throws Exception {
+        PaginationData firstPage = new PaginationData().setDisplayStart(0).setRowsPerPage(2).setSortColumn("name");
+        PaginationData secondPage = firstPage.deepCopy().setDisplayStart(2);
+
+        ProjectSummaryPage page1 = handler.getAccessibleProjectsSummaryPage(user1, firstPage);
+        ProjectSummaryPage page2 = handler.getAccessibleProjectsSummaryPage(user1, secondPage);
+
+        assertEquals(3, page1.getTotalCount());
+        assertEquals(3, page1.getFilteredCount());
+        assertThat(idsInOrder(page1.getProjects()), contains("P1", "P2"));
+        assertThat(idsInOrder(page2.getProjects()), contains("P3"));
+    }
+
+    @Test
+    public void testGetAccessibleProjectsSummaryPageOnlyCountsVisibleProjects() throws Exception {
+        PaginationData pagination = new PaginationData().setSearchText("project").setAscending(false);
+
+        ProjectSummaryPage page = handler.getAccessibleProjectsSummaryPage(user3, pagination);
+
+        assertEquals(2, page.getTotalCount());
+        assertEquals(2, page.getFilteredCount());
+        assertThat(idsInOrder(page.getProjects()), contains("P3", "P1"));
+    }
+
+    private static List<String> idsInOrder(List<Project> projects) {
+        return projects.stream().map(Project::getId).collect(Collectors.toList());
+    }
+
     @Test
     public void testGetProjectByIdUser1_1() throws Exception {
         Project project1 = handler.getProjectById("P1", user1);
@@ -168,6 +204,42 @@ public class ProjectHandlerTest {
     }
 
 
+    @Test
+    public void testAddProjectsMatchesAddProject() throws Exception {
+        AddDocumentRequestSummary single = handler.addProject(new Project().setName("Project4"), user2);
+        List<AddDocumentRequestSummary> batch = handler.addProjects(Arrays.asList(
+                new Project().setName("Project5"), new Project().setName("Project1")), user2);
+
+        assertEquals(AddDocumentRequestStatus.SUCCESS, single.getRequestStatus());
+        assertEquals(AddDocumentRequestStatus.SUCCESS, batch.get(0).getRequestStatus());
+        assertEquals(handler.addProject(new Project().setName("Project1"), user2).getRequestStatus(), batch.get(1).getRequestStatus());
+
+        Project singleProject = handler.getProjectById(single.getId(), user2);
+        Project batchProject = handler.getProjectById(batch.get(0).getId(), user2);
+        assertEquals("Project5", batchProject.getName());
+        assertEquals(singleProject.getCreatedBy(), batchProject.getCreatedBy());
+        assertEquals(singleProject.getCreatedOn(), batchProject.getCreatedOn());
+        assertEquals(singleProject.getBusinessUnit(), batchProject.getBusinessUnit());
+        assertEquals(3, handler.getMyProjects(user2.getEmail()).size());
+    }
+
+    @Test
+    public void testUpdateProjectsMatchesUpdateProject() throws Exception {
+        Project project1 = handler.getProjectById("P1", user1).setName("Project1new");
+        Project project2 = handler.getProjectById("P2", user1).setName("Project2new");
+
+        RequestStatus single = handler.updateProject(project1, user1);
+        List<RequestStatus> batch = handler.updateProjects(Arrays.asList(project2, new Project().setId("P9").setName("Project9")), user1);
+
+        assertEquals(RequestStatus.SUCCESS, single);
+        // each project of a batch gets its own status, a missing one does not fail the others
+        assertEquals(Arrays.asList(RequestStatus.SUCCESS, RequestStatus.FAILURE), batch);
+        assertEquals("Project1new", handler.getProjectById("P1", user1).getName());
+        assertEquals("Project2new", handler.getProjectById("P2", user1).getName());
+        assertEquals("user1", handler.getProjectById("P1", user1).getCreatedBy());
+        assertEquals("user2", handler.getProjectById("P2", user1).getCreatedBy());
+    }
+
 //    @Test
 //    public void testDuplicateProject() throws Exception {
 //        String id = handler.duplicateProject("P1", "Project1a", user3);
@@ -0,0 +1,66 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.db;
+
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.ektorp.ComplexKey;
+import org.ektorp.ViewQuery;
+import org.ektorp.support.View;
+
+import java.util.List;
+
+/**
+ * Background jobs with their progress and results
+ */
+@View(name = "all", map = "function(doc) { if (doc.type == 'backgroundJob') emit(null, doc._id) }")
+public class BackgroundJobRepository extends DatabaseRepository<BackgroundJob> {
+
+    private static final String BY_NAME_AND_START_VIEW =
+            "function(doc) {" +
+                    "  if (doc.type == 'backgroundJob') {" +
+                    "    emit([doc.jobName, doc.startedOn], null);" +
+                    "  } " +
+                    "}";
+
+    public BackgroundJobRepository(DatabaseConnector db) {
+        super(BackgroundJob.class, db);
+
+        initStandardDesignDocument();
+    }
+
+    /**
+     * @return the latest jobs with the name, newest first
+     */
+    @View(name = "byNameAndStart", map = BY_NAME_AND_START_VIEW)
+    public List<BackgroundJob> getLatestJobs(String jobName, int limit) {
+        return queryView(latestJobs(jobName).limit(limit));
+    }
+
+    /**
+     * Deletes all jobs with the name except for the latest ones.
+     */
+    public void removeAllButLatest(String jobName, int keep) {
+        List<BackgroundJob> outdated = queryView(latestJobs(jobName).skip(keep));
+        if (!outdated.isEmpty()) {
+            deleteBulk(outdated);
+        }
+    }
+
+    private ViewQuery latestJobs(String jobName) {
+        return createQuery("byNameAndStart")
+                .startKey(ComplexKey.of(jobName, ComplexKey.emptyObject()))
+                .endKey(ComplexKey.of(jobName))
+                .descending(true)
+                .includeDocs(true);
+    }
+}
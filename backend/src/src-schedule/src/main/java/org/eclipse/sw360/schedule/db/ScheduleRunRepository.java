@@ -0,0 +1,66 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.db;
+
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRun;
+import org.ektorp.ComplexKey;
+import org.ektorp.ViewQuery;
+import org.ektorp.support.View;
+
+import java.util.List;
+
+/**
+ * History of the runs of scheduled services
+ */
+@View(name = "all", map = "function(doc) { if (doc.type == 'scheduleRun') emit(null, doc._id) }")
+public class ScheduleRunRepository extends DatabaseRepository<ScheduleRun> {
+
+    private static final String BY_SERVICE_AND_START_VIEW =
+            "function(doc) {" +
+                    "  if (doc.type == 'scheduleRun') {" +
+                    "    emit([doc.serviceName, doc.startedOn], null);" +
+                    "  } " +
+                    "}";
+
+    public ScheduleRunRepository(DatabaseConnector db) {
+        super(ScheduleRun.class, db);
+
+        initStandardDesignDocument();
+    }
+
+    /**
+     * @return the latest runs of the service, newest first
+     */
+    @View(name = "byServiceAndStart", map = BY_SERVICE_AND_START_VIEW)
+    public List<ScheduleRun> getLatestRuns(String serviceName, int limit) {
+        return queryView(latestRuns(serviceName).limit(limit));
+    }
+
+    /**
+     * Deletes all runs of the service except for the latest ones.
+     */
+    public void removeAllButLatest(String serviceName, int keep) {
+        List<ScheduleRun> outdated = queryView(latestRuns(serviceName).skip(keep));
+        if (!outdated.isEmpty()) {
+            deleteBulk(outdated);
+        }
+    }
+
+    private ViewQuery latestRuns(String serviceName) {
+        return createQuery("byServiceAndStart")
+                .startKey(ComplexKey.of(serviceName, ComplexKey.emptyObject()))
+                .endKey(ComplexKey.of(serviceName))
+                .descending(true)
+                .includeDocs(true);
+    }
+}
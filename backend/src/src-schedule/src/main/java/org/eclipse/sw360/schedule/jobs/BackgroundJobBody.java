@@ -0,0 +1,21 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.jobs;
+
+import org.apache.thrift.TException;
+
+/**
+ * Work of a background job, which reports its progress and results to the {@link JobContext}
+ */
+@FunctionalInterface
+public interface BackgroundJobBody {
+    void run(JobContext context) throws TException;
+}
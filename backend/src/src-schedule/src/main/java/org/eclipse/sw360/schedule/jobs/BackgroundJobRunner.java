@@ -0,0 +1,197 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.jobs;
+
+import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJobState;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.schedule.db.BackgroundJobRepository;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
+import static org.eclipse.sw360.datahandler.common.SW360Assert.fail;
+
+/**
+ * Runs background jobs off the request, at most one job of each name at a time. The jobs are stored with their
+ * progress while running and with their summary and reports when done, so they can be read later on. Only the
+ * latest jobs of each name are kept.
+ */
+public class BackgroundJobRunner {
+
+    private static final Logger log = Logger.getLogger(BackgroundJobRunner.class);
+
+    private final BackgroundJobRepository repository;
+    private final Map<String, BackgroundJobBody> bodies;
+    private final ExecutorService executor;
+    private final Clock clock;
+    private final int historySize;
+
+    private final Map<String, RunningJob> runningJobs = new ConcurrentHashMap<>();
+
+    public BackgroundJobRunner(BackgroundJobRepository repository, Map<String, BackgroundJobBody> bodies,
+                               ExecutorService executor, Clock clock, int historySize) {
+        this.repository = repository;
+        this.bodies = bodies;
+        this.executor = executor;
+        this.clock = clock;
+        this.historySize = historySize;
+    }
+
+    public boolean isJob(String jobName) {
+        return bodies.containsKey(jobName);
+    }
+
+    /**
+     * Starts the job, or returns the running job of the same name.
+     */
+    public synchronized BackgroundJob start(String jobName, User user) throws SW360Exception {
+        return startJob(jobName, user).context.snapshot();
+    }
+
+    /**
+     * Starts the job like {@link #start(String, User)} and waits until it is done.
+     */
+    public BackgroundJob run(String jobName, User user) throws SW360Exception {
+        RunningJob running;
+        synchronized (this) {
+            running = startJob(jobName, user);
+        }
+        try {
+            running.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(e, "Interrupted while waiting for job %s", jobName);
+        } catch (ExecutionException | CancellationException e) {
+            throw fail(e, "Could not run job %s", jobName);
+        }
+        return running.context.snapshot();
+    }
+
+    public BackgroundJob get(String jobId) throws SW360Exception {
+        RunningJob running = runningJobs.get(jobId);
+        if (running != null) {
+            return running.context.snapshot();
+        }
+        return assertNotNull(repository.get(jobId), "Background job %s not found", jobId);
+    }
+
+    /**
+     * @return the latest jobs with the name, newest first
+     */
+    public List<BackgroundJob> getLatest(String jobName, int limit) {
+        return repository.getLatestJobs(jobName, limit).stream()
+                .map(job -> Optional.ofNullable(runningJobs.get(job.getId()))
+                        .map(running -> running.context.snapshot())
+                        .orElse(job))
+                .collect(Collectors.toList());
+    }
+
+    public RequestStatus cancel(String jobId) {
+        RunningJob running = runningJobs.get(jobId);
+        if (running == null) {
+            return RequestStatus.FAILURE;
+        }
+        log.info("Cancelling background job " + running.context.snapshot().getJobName() + " " + jobId);
+        running.context.cancel();
+        return RequestStatus.SUCCESS;
+    }
+
+    public void shutdown() {
+        runningJobs.values().forEach(running -> running.context.cancel());
+        executor.shutdown();
+    }
+
+    private RunningJob startJob(String jobName, User user) throws SW360Exception {
+        BackgroundJobBody body = assertNotNull(bodies.get(jobName), "Unknown background job %s", jobName);
+        Optional<RunningJob> alreadyRunning = runningJobs.values().stream()
+                .filter(running -> jobName.equals(running.jobName))
+                .findAny();
+        if (alreadyRunning.isPresent()) {
+            return alreadyRunning.get();
+        }
+
+        BackgroundJob job = new BackgroundJob(jobName, BackgroundJobState.RUNNING)
+                .setStartedBy(user != null ? user.getEmail() : "")
+                .setStartedOn(clock.millis())
+                .setProgress(0);
+        repository.add(job);
+        JobContext context = new JobContext(job, user, repository::update);
+        RunningJob running = new RunningJob(jobName, context);
+        runningJobs.put(job.getId(), running);
+        try {
+            running.done = executor.submit(() -> execute(job.getId(), context, body));
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(job.getId());
+            context.update(stored -> stored.setState(BackgroundJobState.FAILED).setFinishedOn(clock.millis()));
+            throw fail(e, "Could not start job %s", jobName);
+        }
+        log.info("Started background job " + jobName + " " + job.getId());
+        return running;
+    }
+
+    private void execute(String jobId, JobContext context, BackgroundJobBody body) {
+        context.attachTo(Thread.currentThread());
+        BackgroundJobState state;
+        String message = null;
+        try {
+            context.checkCancelled();
+            body.run(context);
+            BackgroundJob result = context.snapshot();
+            boolean failed = result.isSetSummary() && result.getSummary().getRequestStatus() == RequestStatus.FAILURE;
+            state = failed ? BackgroundJobState.FAILED : BackgroundJobState.FINISHED;
+        } catch (CancellationException e) {
+            state = BackgroundJobState.CANCELLED;
+        } catch (TException | RuntimeException e) {
+            if (context.isCancelled()) {
+                state = BackgroundJobState.CANCELLED;
+            } else {
+                log.error("Background job " + jobId + " failed", e);
+                state = BackgroundJobState.FAILED;
+                message = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+        } finally {
+            context.detach();
+        }
+
+        String failure = message;
+        BackgroundJobState finalState = state;
+        try {
+            context.update(job -> job.setState(finalState).setFinishedOn(clock.millis()).setMessage(failure).unsetCurrentStep());
+            repository.removeAllButLatest(context.snapshot().getJobName(), historySize);
+        } catch (RuntimeException e) {
+            log.error("Could not store result of background job " + jobId, e);
+        } finally {
+            runningJobs.remove(jobId);
+        }
+        log.info("Background job " + jobId + " " + finalState);
+    }
+
+    private static class RunningJob {
+        private final String jobName;
+        private final JobContext context;
+        private volatile Future<?> done;
+
+        private RunningJob(String jobName, JobContext context) {
+            this.jobName = jobName;
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.jobs;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.RequestSummary;
+import org.eclipse.sw360.datahandler.thrift.ThriftClients;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentService;
+import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants.*;
+
+/**
+ * Maintenance work which was run inside the requests of the admin portlets, as background jobs
+ */
+public class BackgroundJobs {
+
+    private BackgroundJobs() {
+        // only static members
+    }
+
+    public static Map<String, BackgroundJobBody> create(ThriftClients thriftClients) {
+        return ImmutableMap.of(
+                DUPLICATES_JOB, context -> findDuplicates(thriftClients, context),
+                ATTACHMENT_VACUUM_JOB, context -> vacuumAttachments(thriftClients, context),
+                REMOTE_ATTACHMENTS_JOB, context -> runSingleStep(context, "Downloading remote attachments",
+                        () -> thriftClients.makeAttachmentClient().downloadRemoteAttachments(context.getUser())),
+                SPDX_LICENSE_IMPORT_JOB, context -> runSingleStep(context, "Importing SPDX licenses",
+                        () -> thriftClients.makeLicenseClient().importAllSpdxLicenses(context.getUser())));
+    }
+
+    private static void runSingleStep(JobContext context, String description, JobContext.Step<RequestSummary> step) throws TException {
+        context.setTotal(1);
+        context.setSummary(context.step(description, step));
+    }
+
+    private static void findDuplicates(ThriftClients thriftClients, JobContext context) throws TException {
+        ComponentService.Iface componentClient = thriftClients.makeComponentClient();
+        ProjectService.Iface projectClient = thriftClients.makeProjectClient();
+        context.setTotal(4);
+
+        Map<String, List<String>> components = context.step("Searching duplicate components", componentClient::getDuplicateComponents);
+        context.putReport(DUPLICATE_COMPONENTS, components);
+        Map<String, List<String>> releases = context.step("Searching duplicate releases", componentClient::getDuplicateReleases);
+        context.putReport(DUPLICATE_RELEASES, releases);
+        Map<String, List<String>> releaseSources = context.step("Searching releases with several sources", componentClient::getDuplicateReleaseSources);
+        context.putReport(DUPLICATE_RELEASE_SOURCES, releaseSources);
+        Map<String, List<String>> projects = context.step("Searching duplicate projects", projectClient::getDuplicateProjects);
+        context.putReport(DUPLICATE_PROJECTS, projects);
+
+        int duplicates = components.size() + releases.size() + releaseSources.size() + projects.size();
+        context.setSummary(new RequestSummary(RequestStatus.SUCCESS).setTotalAffectedElements(duplicates));
+    }
+
+    private static void vacuumAttachments(ThriftClients thriftClients, JobContext context) throws TException {
+        ComponentService.Iface componentClient = thriftClients.makeComponentClient();
+        AttachmentService.Iface attachmentClient = thriftClients.makeAttachmentClient();
+        context.setTotal(2);
+
+        Set<String> usedIds = context.step("Collecting used attachments", componentClient::getUsedAttachmentContentIds);
+        context.setSummary(context.step("Deleting unused attachments",
+                () -> attachmentClient.vacuumAttachmentDB(context.getUser(), usedIds)));
+    }
+}
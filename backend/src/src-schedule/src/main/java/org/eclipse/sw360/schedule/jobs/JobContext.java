@@ -0,0 +1,119 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.jobs;
+
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.RequestSummary;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * Progress, results and cancellation of a running background job. Every change is stored right away,
+ * so that it can be read while the job is running.
+ */
+public class JobContext {
+
+    @FunctionalInterface
+    public interface Step<T> {
+        T call() throws TException;
+    }
+
+    private final BackgroundJob job;
+    private final User user;
+    private final Consumer<BackgroundJob> store;
+    private volatile boolean cancelled = false;
+    private Thread worker = null;
+
+    JobContext(BackgroundJob job, User user, Consumer<BackgroundJob> store) {
+        this.job = job;
+        this.user = user;
+        this.store = store;
+    }
+
+    /**
+     * @return the user on whose behalf the job runs
+     */
+    public User getUser() {
+        return user;
+    }
+
+    public void setTotal(int total) {
+        update(job -> job.setTotal(total));
+    }
+
+    /**
+     * Runs one step of the job, unless the job was cancelled, and counts it as progress.
+     *
+     * @throws CancellationException if the job was cancelled before the step
+     */
+    public <T> T step(String description, Step<T> step) throws TException {
+        checkCancelled();
+        update(job -> job.setCurrentStep(description));
+        T result = step.call();
+        update(job -> job.setProgress(job.getProgress() + 1));
+        return result;
+    }
+
+    /**
+     * @throws CancellationException if the job was cancelled
+     */
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Job " + job.getJobName() + " was cancelled");
+        }
+    }
+
+    public void setSummary(RequestSummary summary) {
+        update(job -> job.setSummary(summary));
+    }
+
+    public void putReport(String name, Map<String, List<String>> report) {
+        update(job -> job.putToReports(name, report));
+    }
+
+    synchronized BackgroundJob snapshot() {
+        return job.deepCopy();
+    }
+
+    synchronized void update(Consumer<BackgroundJob> change) {
+        change.accept(job);
+        store.accept(job);
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks the job as cancelled and interrupts it if it is waiting.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    synchronized void attachTo(Thread thread) {
+        worker = thread;
+    }
+
+    synchronized void detach() {
+        worker = null;
+        // an interrupt of the cancellation must not hit the next job of the thread
+        Thread.interrupted();
+    }
+}
@@ -11,33 +11,79 @@
  */
 package org.eclipse.sw360.schedule.service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.sw360.schedule.db.BackgroundJobRepository;
+import org.eclipse.sw360.schedule.db.ScheduleRunRepository;
+import org.eclipse.sw360.schedule.jobs.BackgroundJobRunner;
+import org.eclipse.sw360.schedule.jobs.BackgroundJobs;
 import org.eclipse.sw360.schedule.timer.ScheduleConstants;
+import org.eclipse.sw360.schedule.timer.ScheduleExpression;
 import org.eclipse.sw360.schedule.timer.Scheduler;
+import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestStatusWithBoolean;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
 import org.eclipse.sw360.datahandler.thrift.ThriftClients;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJobState;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRun;
 import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleService;
+import org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 
-import java.util.Date;
-import java.util.Optional;
+import java.net.MalformedURLException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.common.SW360Assert.assertUser;
+import static org.eclipse.sw360.datahandler.common.SW360Assert.failIf;
 
 public class ScheduleHandler implements ScheduleService.Iface {
 
     ThriftClients thriftClients;
     Logger log;
+    private final ScheduleRunRepository runRepository;
+    private final Scheduler scheduler;
+    private final BackgroundJobRunner jobRunner;
+
+    public ScheduleHandler() throws MalformedURLException {
+        this(new ThriftClients(), new DatabaseConnector(DatabaseSettings.getConfiguredHttpClient(), DatabaseSettings.COUCH_DB_DATABASE));
+        scheduler.start();
+    }
 
-    public ScheduleHandler() {
-        thriftClients = new ThriftClients();
+    private ScheduleHandler(ThriftClients thriftClients, DatabaseConnector databaseConnector) {
+        this(thriftClients, new ScheduleRunRepository(databaseConnector), new BackgroundJobRunner(new BackgroundJobRepository(databaseConnector),
+                BackgroundJobs.create(thriftClients),
+                Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("sw360-background-job-%d").setDaemon(true).build()),
+                Clock.systemDefaultZone(), ScheduleConstants.JOBS_HISTORY_SIZE));
+    }
+
+    private ScheduleHandler(ThriftClients thriftClients, ScheduleRunRepository runRepository, BackgroundJobRunner jobRunner) {
+        this(thriftClients, runRepository, new Scheduler(Clock.systemDefaultZone(), runRepository), jobRunner);
+    }
+
+    ScheduleHandler(ThriftClients thriftClients, ScheduleRunRepository runRepository, Scheduler scheduler, BackgroundJobRunner jobRunner) {
+        this.thriftClients = thriftClients;
+        this.runRepository = runRepository;
+        this.scheduler = scheduler;
+        this.jobRunner = jobRunner;
         log = Logger.getLogger(ScheduleHandler.class);
     }
 
+    public void shutdown() {
+        scheduler.shutdown();
+        jobRunner.shutdown();
+    }
+
     @FunctionalInterface
     public interface SupplierThrowingTException {
         RequestStatus get() throws TException;
@@ -52,7 +98,7 @@ public class ScheduleHandler implements ScheduleService.Iface {
                 return RequestStatus.FAILURE;
             }
         };
-        return Scheduler.scheduleNextSync(wrappedBody, serviceName);
+        return scheduler.scheduleNextSync(wrappedBody, serviceName, ScheduleConstants.SCHEDULE_EXPRESSIONS.get(serviceName));
     }
 
     @Override
@@ -62,32 +108,49 @@ public class ScheduleHandler implements ScheduleService.Iface {
             return new RequestSummary(RequestStatus.FAILURE);
         }
 
-        Scheduler.cancelSyncJobOfService(serviceName);
+        scheduler.cancelSyncJobOfService(serviceName);
 
         boolean successSync = false;
         switch (serviceName) {
             case ThriftClients.CVESEARCH_SERVICE:
                 successSync = wrapSupplierException(() -> thriftClients.makeCvesearchClient().update(), serviceName);
                 break;
+            case scheduleConstants.DUPLICATES_JOB:
+            case scheduleConstants.ATTACHMENT_VACUUM_JOB:
+            case scheduleConstants.REMOTE_ATTACHMENTS_JOB:
+            case scheduleConstants.SPDX_LICENSE_IMPORT_JOB:
+                successSync = wrapSupplierException(() -> runScheduledJob(serviceName), serviceName);
+                break;
             default:
                 log.error("Could not schedule service: " + serviceName + ". Reason: service is not registered in ThriftClients.");
         }
 
         if (successSync){
             RequestSummary summary = new RequestSummary(RequestStatus.SUCCESS);
-            summary.setMessage(SW360Utils.getDateTimeString(Scheduler.getNextSync()));
+            summary.setMessage(scheduler.getNextSync(serviceName).map(SW360Utils::getDateTimeString).orElse(""));
             return summary;
         } else {
             return new RequestSummary(RequestStatus.FAILURE);
         }
     }
 
+    private RequestStatus runScheduledJob(String jobName) throws TException {
+        User user = null;
+        if (ScheduleConstants.JOBS_USER.isEmpty()) {
+            log.warn("Property " + ScheduleConstants.JOBS_USER_PROPERTY_NAME + " is not set, running " + jobName + " without user.");
+        } else {
+            user = thriftClients.makeUserClient().getByEmail(ScheduleConstants.JOBS_USER);
+        }
+        BackgroundJob job = jobRunner.run(jobName, user);
+        return job.getState() == BackgroundJobState.FINISHED ? RequestStatus.SUCCESS : RequestStatus.FAILURE;
+    }
+
     @Override
     public RequestStatus unscheduleService(String serviceName, User user) throws TException {
         if (!PermissionUtils.isAdmin(user)) {
             return RequestStatus.FAILURE;
         }
-        return Scheduler.cancelSyncJobOfService(serviceName);
+        return scheduler.cancelSyncJobOfService(serviceName);
     }
 
     @Override
@@ -95,7 +158,7 @@ public class ScheduleHandler implements ScheduleService.Iface {
         if (!PermissionUtils.isAdmin(user)) {
             return RequestStatus.FAILURE;
         }
-        return Scheduler.cancelAllSyncJobs();
+        return scheduler.cancelAllSyncJobs();
     }
 
     @Override
@@ -103,7 +166,7 @@ public class ScheduleHandler implements ScheduleService.Iface {
         if (!PermissionUtils.isAdmin(user)) {
             return failedRequestStatusWithBoolean();
         }
-        boolean answer = Scheduler.isServiceScheduled(serviceName);
+        boolean answer = scheduler.isServiceScheduled(serviceName);
         return new RequestStatusWithBoolean()
                 .setRequestStatus(RequestStatus.SUCCESS)
                 .setAnswerPositive(answer);
@@ -114,7 +177,7 @@ public class ScheduleHandler implements ScheduleService.Iface {
         if (!PermissionUtils.isAdmin(user)) {
             return failedRequestStatusWithBoolean();
         }
-        boolean answer = Scheduler.isAnyServiceScheduled();
+        boolean answer = scheduler.isAnyServiceScheduled();
         return new RequestStatusWithBoolean()
                 .setRequestStatus(RequestStatus.SUCCESS)
                 .setAnswerPositive(answer);
@@ -131,7 +194,10 @@ public class ScheduleHandler implements ScheduleService.Iface {
 
     @Override
     public String getNextSync(String serviceName){
-        Optional<Date> syncDate = Scheduler.getNextSync(serviceName);
+        Optional<Date> syncDate = scheduler.getNextSync(serviceName);
+        if (!syncDate.isPresent() && !ScheduleConstants.invalidConfiguredServices.contains(serviceName)) {
+            syncDate = Optional.ofNullable(ScheduleConstants.SCHEDULE_EXPRESSIONS.get(serviceName)).map(scheduler::getNextSync);
+        }
         return syncDate.isPresent() ? syncDate.get().toString() : "";
     }
 
@@ -139,4 +205,54 @@ public class ScheduleHandler implements ScheduleService.Iface {
     public int getInterval(String serviceName){
         return ScheduleConstants.SYNC_INTERVAL_SEC.get(serviceName) != null ? ScheduleConstants.SYNC_INTERVAL_SEC.get(serviceName) : -1 ;
     }
+
+    @Override
+    public List<ScheduleRun> getScheduleRuns(String serviceName, int limit, User user) {
+        if (!PermissionUtils.isAdmin(user)) {
+            return Collections.emptyList();
+        }
+        return runRepository.getLatestRuns(serviceName, limit);
+    }
+
+    @Override
+    public List<ScheduleRun> getLatestScheduleRuns(User user) {
+        if (!PermissionUtils.isAdmin(user)) {
+            return Collections.emptyList();
+        }
+        return ScheduleConstants.SCHEDULE_EXPRESSIONS.keySet().stream()
+                .sorted()
+                .flatMap(serviceName -> runRepository.getLatestRuns(serviceName, 1).stream())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public BackgroundJob startBackgroundJob(String jobName, User user) throws TException {
+        assertAdmin(user);
+        return jobRunner.start(jobName, user);
+    }
+
+    @Override
+    public BackgroundJob getBackgroundJob(String jobId, User user) throws TException {
+        assertAdmin(user);
+        return jobRunner.get(jobId);
+    }
+
+    @Override
+    public List<BackgroundJob> getBackgroundJobs(String jobName, int limit, User user) throws TException {
+        assertAdmin(user);
+        return jobRunner.getLatest(jobName, limit);
+    }
+
+    @Override
+    public RequestStatus cancelBackgroundJob(String jobId, User user) {
+        if (!PermissionUtils.isAdmin(user)) {
+            return RequestStatus.FAILURE;
+        }
+        return jobRunner.cancel(jobId);
+    }
+
+    private static void assertAdmin(User user) throws SW360Exception {
+        assertUser(user);
+        failIf(!PermissionUtils.isAdmin(user), "User %s is not allowed to access background jobs", user.getEmail());
+    }
 }
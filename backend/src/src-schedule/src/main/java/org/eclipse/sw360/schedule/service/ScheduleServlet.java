@@ -25,11 +25,16 @@ import java.net.MalformedURLException;
 public class ScheduleServlet extends Sw360ThriftServlet {
 
     Logger log = Logger.getLogger(ScheduleServlet.class);
-    static ScheduleHandler handler = new ScheduleHandler();
+    private final ScheduleHandler handler;
 
     public ScheduleServlet() throws MalformedURLException, FileNotFoundException, TException {
+        this(new ScheduleHandler());
+    }
+
+    private ScheduleServlet(ScheduleHandler handler) throws MalformedURLException, FileNotFoundException, TException {
         // Create a service processor using the provided handler
         super(new ScheduleService.Processor<>(handler), new TCompactProtocol.Factory());
+        this.handler = handler;
     }
 
     public void init() throws ServletException {
@@ -41,6 +46,12 @@ public class ScheduleServlet extends Sw360ThriftServlet {
         }
     }
 
+    @Override
+    public void destroy() {
+        handler.shutdown();
+        super.destroy();
+    }
+
     private void autoStart() throws TException {
         log.info("Auto-starting scheduling tasks in schedule service...");
         String[] servicesToSchedule = ScheduleConstants.autostartServices;
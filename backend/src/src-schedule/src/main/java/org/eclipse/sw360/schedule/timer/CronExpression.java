@@ -0,0 +1,144 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Cron expression with the five fields minute, hour, day of month, month and day of week, e.g.
+ * {@code 30 2 * * 1-5} for 2:30 am on working days. Fields are {@code *}, numbers, ranges and lists of them,
+ * each optionally with a step like {@code *}{@code /15}. Day of week 0 and 7 are Sunday. As in cron, a day matches
+ * either of day of month and day of week if both are restricted. The macros {@code @hourly}, {@code @daily},
+ * {@code @weekly} and {@code @monthly} are understood as well.
+ */
+public class CronExpression implements ScheduleExpression {
+
+    private static final Map<String, String> MACROS = ImmutableMap.of(
+            "@hourly", "0 * * * *",
+            "@daily", "0 0 * * *",
+            "@weekly", "0 0 * * 0",
+            "@monthly", "0 0 1 * *");
+
+    // no date matches after searching that far, e.g. for the 30th of February
+    private static final int MAX_YEARS = 5;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        minutes = parseField(fields[0], 0, 59);
+        hours = parseField(fields[1], 0, 23);
+        daysOfMonth = parseField(fields[2], 1, 31);
+        months = parseField(fields[3], 1, 12);
+        daysOfWeek = parseField(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        anyDayOfMonth = fields[2].startsWith("*");
+        anyDayOfWeek = fields[4].startsWith("*");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CronExpression parse(String expression) {
+        String trimmed = expression.trim();
+        String[] fields = MACROS.getOrDefault(trimmed, trimmed).split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression needs five fields: " + expression);
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+    @Override
+    public ZonedDateTime nextAfter(ZonedDateTime time) {
+        ZonedDateTime candidate = time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = candidate.plusYears(MAX_YEARS);
+        while (candidate.isBefore(limit)) {
+            if (!months.get(candidate.getMonthValue())) {
+                candidate = candidate.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(candidate)) {
+                candidate = candidate.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(candidate.getHour())) {
+                candidate = candidate.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(candidate.getMinute())) {
+                candidate = candidate.plusMinutes(1);
+            } else {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("Cron expression never matches: " + expression);
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            String[] rangeAndStep = part.split("/", 2);
+            int step = rangeAndStep.length > 1 ? parseNumber(rangeAndStep[1], 1, max, field) : 1;
+            String range = rangeAndStep[0];
+            int from;
+            int to;
+            if ("*".equals(range)) {
+                from = min;
+                to = max;
+            } else if (range.contains("-")) {
+                String[] bounds = range.split("-", 2);
+                from = parseNumber(bounds[0], min, max, field);
+                to = parseNumber(bounds[1], from, max, field);
+            } else {
+                from = parseNumber(range, min, max, field);
+                to = rangeAndStep.length > 1 ? max : from;
+            }
+            for (int value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String number, int min, int max, String field) {
+        try {
+            int value = Integer.parseInt(number);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Value " + value + " out of range " + min + "-" + max + " in cron field " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron field " + field, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Runs every interval, counted from an offset after midnight of the day, as configured by the
+ * {@code firstOffset} and {@code interval} properties.
+ */
+public class IntervalExpression implements ScheduleExpression {
+
+    private final int firstOffsetSeconds;
+    private final int intervalSeconds;
+
+    public IntervalExpression(int firstOffsetSeconds, int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalSeconds);
+        }
+        this.firstOffsetSeconds = firstOffsetSeconds;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public int getFirstOffsetSeconds() {
+        return firstOffsetSeconds;
+    }
+
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    @Override
+    public ZonedDateTime nextAfter(ZonedDateTime time) {
+        ZonedDateTime first = time.toLocalDate().atStartOfDay(time.getZone()).plusSeconds(firstOffsetSeconds);
+        if (first.isAfter(time)) {
+            return first;
+        }
+        long elapsedMillis = Duration.between(first, time).toMillis();
+        long intervalMillis = intervalSeconds * 1000L;
+        return first.plus(Duration.ofMillis((elapsedMillis / intervalMillis + 1) * intervalMillis));
+    }
+
+    @Override
+    public String toString() {
+        return "every " + intervalSeconds + "s from " + firstOffsetSeconds + "s after midnight";
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+/**
+ * What the {@link Scheduler} does with a run which is due for longer than the misfire threshold, e.g. after the
+ * server was suspended. Runs missed meanwhile are never caught up one by one.
+ */
+public enum MisfirePolicy {
+    /**
+     * run once right away, then continue with the schedule
+     */
+    RUN_ONCE,
+    /**
+     * record the run as missed and wait for the next scheduled time
+     */
+    SKIP
+}
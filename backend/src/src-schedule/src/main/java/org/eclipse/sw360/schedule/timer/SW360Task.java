@@ -12,29 +12,31 @@
 package org.eclipse.sw360.schedule.timer;
 
 import org.eclipse.sw360.datahandler.common.SW360Utils;
-import org.apache.log4j.Logger;
-import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 
+import java.time.Instant;
 import java.util.Date;
-import java.util.TimerTask;
 import java.util.UUID;
-
-import static org.apache.log4j.Logger.getLogger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * creates new {@link TimerTask} which will be executed on the scheduled execution time
+ * task which is run by the {@link Scheduler} at the times of its {@link ScheduleExpression},
+ * never more than one run at a time
  *
  * @author stefan.jaeger@evosoft.com
  * @author birgit.heydenreich@tngtech.com
  */
-public abstract class SW360Task extends TimerTask {
-    private static final Logger log = getLogger(SW360Task.class);
+public abstract class SW360Task {
 
     private String id = UUID.randomUUID().toString();
     private String name;
+    private final ScheduleExpression expression;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Instant nextRun;
 
-    public SW360Task (String name){
+    public SW360Task (String name, ScheduleExpression expression){
         this.name = name;
+        this.expression = expression;
     }
 
     public String getId() {
@@ -44,12 +46,44 @@ public abstract class SW360Task extends TimerTask {
         return this.name;
     }
 
+    public ScheduleExpression getExpression() {
+        return expression;
+    }
+
+    public Instant getNextRun() {
+        return nextRun;
+    }
+
+    void setNextRun(Instant nextRun) {
+        this.nextRun = nextRun;
+    }
+
+    /**
+     * @return false if the previous run is still running
+     */
+    boolean startRun() {
+        return running.compareAndSet(false, true);
+    }
+
+    void finishRun() {
+        running.set(false);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public abstract RequestStatus run();
+
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("SW360Task{");
         sb.append("name='").append(name).append('\'');
         sb.append("id='").append(id).append('\'');
-        sb.append("scheduledExecutionTime='").append(SW360Utils.getDateTimeString(new Date(this.scheduledExecutionTime()))).append('\'');
+        sb.append("schedule='").append(expression).append('\'');
+        if (nextRun != null) {
+            sb.append("nextRun='").append(SW360Utils.getDateTimeString(Date.from(nextRun))).append('\'');
+        }
         sb.append('}');
         return sb.toString();
     }
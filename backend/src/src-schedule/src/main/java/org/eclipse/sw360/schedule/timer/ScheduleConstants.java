@@ -13,11 +13,16 @@
 package org.eclipse.sw360.schedule.timer;
 
 
+import com.google.common.collect.ImmutableMap;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.thrift.ThriftClients;
+import org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants;
 import org.apache.log4j.Logger;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -35,44 +40,118 @@ public class ScheduleConstants {
     public static final String PROPERTIES_FILE_PATH = "/sw360.properties";
     public static final String CVESEARCH_OFFSET_PROPERTY_NAME = "schedule.cvesearch.firstOffset.seconds";
     public static final String CVESEARCH_INTERVAL_PROPERTY_NAME = "schedule.cvesearch.interval.seconds";
+    public static final String CVESEARCH_CRON_PROPERTY_NAME = "schedule.cvesearch.cron";
     public static final String AUTOSTART_PROPERTY_NAME = "autostart";
+    public static final String MISFIRE_THRESHOLD_PROPERTY_NAME = "schedule.misfire.threshold.seconds";
+    public static final String MISFIRE_POLICY_PROPERTY_NAME = "schedule.misfire.policy";
+    public static final String RUN_HISTORY_SIZE_PROPERTY_NAME = "schedule.history.size";
+    public static final String JOBS_USER_PROPERTY_NAME = "schedule.jobs.user";
+    public static final String JOBS_HISTORY_SIZE_PROPERTY_NAME = "schedule.jobs.history.size";
     public static final String CVESEARCH_OFFSET_DEFAULT  = 0 + "" ; // default 00:00 am, in seconds
     public static final String CVESEARCH_INTERVAL_DEFAULT  = (24*60*60)+"" ; // default 24h, in seconds
+    public static final String MISFIRE_THRESHOLD_DEFAULT = (10*60)+"" ; // default 10 minutes, in seconds
+    public static final String RUN_HISTORY_SIZE_DEFAULT = "100" ; // runs kept per service
+    public static final String JOBS_HISTORY_SIZE_DEFAULT = "10" ; // background jobs kept per job name, with their reports
+
+    // property prefixes of the background jobs, e.g. schedule.duplicates.cron
+    private static final Map<String, String> JOB_PROPERTY_PREFIXES = ImmutableMap.of(
+            scheduleConstants.DUPLICATES_JOB, "schedule.duplicates",
+            scheduleConstants.ATTACHMENT_VACUUM_JOB, "schedule.attachmentvacuum",
+            scheduleConstants.REMOTE_ATTACHMENTS_JOB, "schedule.remoteattachments",
+            scheduleConstants.SPDX_LICENSE_IMPORT_JOB, "schedule.spdxlicenseimport");
 
 
     // scheduler properties
     public static final ConcurrentHashMap<String, Integer> SYNC_FIRST_RUN_OFFSET_SEC = new ConcurrentHashMap<>();
     public static final ConcurrentHashMap<String, Integer> SYNC_INTERVAL_SEC = new ConcurrentHashMap<>();
+    public static final ConcurrentHashMap<String, ScheduleExpression> SCHEDULE_EXPRESSIONS = new ConcurrentHashMap<>();
     public static final String[] autostartServices;
     public static Set<String> invalidConfiguredServices = new HashSet<>();
+    public static final Duration MISFIRE_THRESHOLD;
+    public static final MisfirePolicy MISFIRE_POLICY;
+    public static final int RUN_HISTORY_SIZE;
+    public static final String JOBS_USER;
+    public static final int JOBS_HISTORY_SIZE;
 
     static {
         Properties props = CommonUtils.loadProperties(ScheduleConstants.class, PROPERTIES_FILE_PATH);
 
-        if(! props.containsKey(CVESEARCH_OFFSET_PROPERTY_NAME)){
-            log.info("Property "+ CVESEARCH_OFFSET_PROPERTY_NAME + " not set. Using default value.");
+        loadSchedule(props, ThriftClients.CVESEARCH_SERVICE,
+                CVESEARCH_OFFSET_PROPERTY_NAME, CVESEARCH_OFFSET_DEFAULT,
+                CVESEARCH_INTERVAL_PROPERTY_NAME, CVESEARCH_INTERVAL_DEFAULT,
+                CVESEARCH_CRON_PROPERTY_NAME);
+        JOB_PROPERTY_PREFIXES.forEach((jobName, prefix) -> loadSchedule(props, jobName,
+                prefix + ".firstOffset.seconds", CVESEARCH_OFFSET_DEFAULT,
+                prefix + ".interval.seconds", CVESEARCH_INTERVAL_DEFAULT,
+                prefix + ".cron"));
+
+        String autostartServicesString = props.getProperty(AUTOSTART_PROPERTY_NAME, "");
+        autostartServices = autostartServicesString.split(",");
+
+        MISFIRE_THRESHOLD = Duration.ofSeconds(parseInt(props, MISFIRE_THRESHOLD_PROPERTY_NAME, MISFIRE_THRESHOLD_DEFAULT));
+        RUN_HISTORY_SIZE = parseInt(props, RUN_HISTORY_SIZE_PROPERTY_NAME, RUN_HISTORY_SIZE_DEFAULT);
+        JOBS_HISTORY_SIZE = parseInt(props, JOBS_HISTORY_SIZE_PROPERTY_NAME, JOBS_HISTORY_SIZE_DEFAULT);
+        JOBS_USER = props.getProperty(JOBS_USER_PROPERTY_NAME, "").trim();
+        String misfirePolicy = props.getProperty(MISFIRE_POLICY_PROPERTY_NAME, MisfirePolicy.RUN_ONCE.name()).trim();
+        MisfirePolicy policy = MisfirePolicy.RUN_ONCE;
+        try {
+            policy = MisfirePolicy.valueOf(misfirePolicy);
+        } catch (IllegalArgumentException e) {
+            log.error("Property " + MISFIRE_POLICY_PROPERTY_NAME + " is not one of " + Arrays.toString(MisfirePolicy.values()) + ".");
+        }
+        MISFIRE_POLICY = policy;
+    }
+
+    /**
+     * Reads the first run offset and interval of the service, and its cron expression which takes precedence if set.
+     */
+    private static void loadSchedule(Properties props, String serviceName,
+                                     String offsetProperty, String offsetDefault,
+                                     String intervalProperty, String intervalDefault,
+                                     String cronProperty) {
+        if(! props.containsKey(offsetProperty)){
+            log.info("Property "+ offsetProperty + " not set. Using default value.");
         }
-        String cveSearchOffset  = props.getProperty(CVESEARCH_OFFSET_PROPERTY_NAME, CVESEARCH_OFFSET_DEFAULT);
+        String offset  = props.getProperty(offsetProperty, offsetDefault);
         try {
-            SYNC_FIRST_RUN_OFFSET_SEC.put(ThriftClients.CVESEARCH_SERVICE, Integer.parseInt(cveSearchOffset));
+            SYNC_FIRST_RUN_OFFSET_SEC.put(serviceName, Integer.parseInt(offset.trim()));
         } catch (NumberFormatException nfe){
-            log.error("Property " + CVESEARCH_OFFSET_PROPERTY_NAME + " is not an integer.");
-            invalidConfiguredServices.add(ThriftClients.CVESEARCH_SERVICE);
+            log.error("Property " + offsetProperty + " is not an integer.");
+            invalidConfiguredServices.add(serviceName);
         }
 
-        if(! props.containsKey(CVESEARCH_INTERVAL_PROPERTY_NAME)){
-            log.info("Property "+ CVESEARCH_INTERVAL_PROPERTY_NAME + " not set. Using default value.");
+        if(! props.containsKey(intervalProperty)){
+            log.info("Property "+ intervalProperty + " not set. Using default value.");
         }
-        String cveSearchInterval  = props.getProperty(CVESEARCH_INTERVAL_PROPERTY_NAME, CVESEARCH_INTERVAL_DEFAULT);
+        String interval  = props.getProperty(intervalProperty, intervalDefault);
         try {
-            SYNC_INTERVAL_SEC.put(ThriftClients.CVESEARCH_SERVICE, Integer.parseInt(cveSearchInterval));
+            SYNC_INTERVAL_SEC.put(serviceName, Integer.parseInt(interval.trim()));
         } catch (NumberFormatException nfe){
-            log.error("Property " + CVESEARCH_INTERVAL_PROPERTY_NAME + " is not an integer.");
-            invalidConfiguredServices.add(ThriftClients.CVESEARCH_SERVICE);
+            log.error("Property " + intervalProperty + " is not an integer.");
+            invalidConfiguredServices.add(serviceName);
         }
 
-        String autostartServicesString = props.getProperty(AUTOSTART_PROPERTY_NAME, "");
-        autostartServices = autostartServicesString.split(",");
+        String cron = props.getProperty(cronProperty, "").trim();
+        try {
+            if (!cron.isEmpty()) {
+                SCHEDULE_EXPRESSIONS.put(serviceName, CronExpression.parse(cron));
+            } else if (!invalidConfiguredServices.contains(serviceName)) {
+                SCHEDULE_EXPRESSIONS.put(serviceName, new IntervalExpression(SYNC_FIRST_RUN_OFFSET_SEC.get(serviceName), SYNC_INTERVAL_SEC.get(serviceName)));
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Schedule of " + serviceName + " is invalid: " + e.getMessage());
+            invalidConfiguredServices.add(serviceName);
+        }
+    }
+
+    private static int parseInt(Properties props, String property, String defaultValue) {
+        String value = props.getProperty(property, defaultValue);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nfe) {
+            log.error("Property " + property + " is not an integer. Using default value.");
+            return Integer.parseInt(defaultValue);
+        }
     }
 
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Points in time at which a scheduled service runs.
+ */
+public interface ScheduleExpression {
+
+    /**
+     * @return the first point in time strictly after the given one
+     */
+    ZonedDateTime nextAfter(ZonedDateTime time);
+}
@@ -16,10 +16,8 @@ import org.apache.log4j.Logger;
 
 import java.util.function.Supplier;
 
-import org.apache.log4j.Logger;
-
 /**
- * creates new {@link java.util.TimerTask} which will be executed on the next scheduled time
+ * task which runs the update of a service on the scheduled times
  *
  * @author stefan.jaeger@evosoft.com
  * @author birgit.heydenreich@tngtech.com
@@ -28,18 +26,19 @@ public class ScheduleSyncTask extends SW360Task {
     private static final Logger log = Logger.getLogger(ScheduleSyncTask.class);
     private final Supplier<RequestStatus> body;
 
-    public ScheduleSyncTask(Supplier<RequestStatus> body, String name) {
-        super(name);
+    public ScheduleSyncTask(Supplier<RequestStatus> body, String name, ScheduleExpression expression) {
+        super(name, expression);
         this.body = body;
     }
 
     @Override
-    public void run() {
+    public RequestStatus run() {
         RequestStatus requestStatus = body.get();
         if (RequestStatus.SUCCESS.equals(requestStatus)) {
             log.info("Successfully finished ScheduleSyncTask name=" + getName() + " id=" + getId() + ".");
         } else {
             log.error("ScheduleSyncTask " + getId() + " failed.");
         }
+        return requestStatus;
     }
 }
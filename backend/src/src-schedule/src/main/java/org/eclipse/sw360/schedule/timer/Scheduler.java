@@ -11,121 +11,261 @@
  */
 package org.eclipse.sw360.schedule.timer;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
-import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRun;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRunOutcome;
+import org.eclipse.sw360.schedule.db.ScheduleRunRepository;
 import org.apache.log4j.Logger;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static org.apache.log4j.Logger.getLogger;
 
 /**
- * creates new {@link TimerTask} which will be executed on the next valid time
+ * runs each scheduled service on a thread of its own at the times of its {@link ScheduleExpression}
+ *
+ * A slow or failing service does not delay the others. A run which is due while the previous run of the same
+ * service is still running is skipped. Runs which are late by more than the misfire threshold, e.g. after the
+ * server was suspended, are handled by the {@link MisfirePolicy}. Every run is recorded with its start, duration
+ * and outcome in the {@link ScheduleRunRepository}.
+ *
+ * All times are read from the {@link Clock}. Due runs are started by {@link #runDueJobs()}, which is called by
+ * the timer thread of {@link #start()} when the next run is due.
  *
  * @author stefan.jaeger@evosoft.com
  */
 public class Scheduler {
     private static final Logger log = getLogger(Scheduler.class);
-    private static Date nextSync = null;
-    private static final ConcurrentHashMap<String, SW360Task> scheduledJobs = new ConcurrentHashMap<>();
 
-    private static Timer timer = null;
+    // upper bound of waiting for the next run, so that changes of the system time are noticed
+    private static final Duration MAX_WAIT = Duration.ofMinutes(1);
+
+    private final Clock clock;
+    private final ScheduleRunRepository runRepository;
+    private final Function<String, ExecutorService> taskExecutors;
+    private final Executor historyWriter;
+    private final Duration misfireThreshold;
+    private final MisfirePolicy misfirePolicy;
+    private final int historySize;
 
-    private Scheduler() {
-        //only static members
+    private final Map<String, ScheduledTask> scheduledTasks = new HashMap<>();
+    private ScheduledExecutorService timer = null;
+    private ScheduledFuture<?> wakeUp = null;
+
+    public Scheduler(Clock clock, ScheduleRunRepository runRepository) {
+        this(clock, runRepository,
+                serviceName -> Executors.newSingleThreadExecutor(daemonThreads("sw360-schedule-" + serviceName)),
+                Executors.newSingleThreadExecutor(daemonThreads("sw360-schedule-history")),
+                ScheduleConstants.MISFIRE_THRESHOLD, ScheduleConstants.MISFIRE_POLICY, ScheduleConstants.RUN_HISTORY_SIZE);
     }
 
-    public static Date getNextSync() {
-        return nextSync;
+    Scheduler(Clock clock, ScheduleRunRepository runRepository, Function<String, ExecutorService> taskExecutors,
+              Executor historyWriter, Duration misfireThreshold, MisfirePolicy misfirePolicy, int historySize) {
+        this.clock = clock;
+        this.runRepository = runRepository;
+        this.taskExecutors = taskExecutors;
+        this.historyWriter = historyWriter;
+        this.misfireThreshold = misfireThreshold;
+        this.misfirePolicy = misfirePolicy;
+        this.historySize = historySize;
     }
 
-    public static synchronized boolean scheduleNextSync(Supplier<RequestStatus> body, String serviceName) {
+    /**
+     * Starts the timer thread which runs the tasks when they are due.
+     */
+    public synchronized void start() {
         if (timer == null) {
-            timer = new Timer();
+            timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("sw360-schedule-timer"));
+            wakeUpAtNextRun();
         }
-        ScheduleSyncTask syncTask = new ScheduleSyncTask(body, serviceName);
-        Integer firstRunOffset = ScheduleConstants.SYNC_FIRST_RUN_OFFSET_SEC.get(serviceName);
-        Integer syncInterval = ScheduleConstants.SYNC_INTERVAL_SEC.get(serviceName);
-        nextSync = getNextSyncDate(firstRunOffset, syncInterval);
+    }
 
+    /**
+     * Cancels all tasks and stops the timer thread, running tasks are finished.
+     */
+    public synchronized void shutdown() {
+        cancelAllSyncJobs();
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+    }
+
+    public synchronized boolean scheduleNextSync(Supplier<RequestStatus> body, String serviceName, ScheduleExpression expression) {
+        cancelSyncJobOfService(serviceName);
+
+        ScheduleSyncTask syncTask = new ScheduleSyncTask(body, serviceName, expression);
         try {
-            timer.scheduleAtFixedRate(syncTask, nextSync, syncInterval * 1000);
+            syncTask.setNextRun(nextRunAfter(expression, clock.instant()));
         } catch (IllegalStateException e) {
             log.error(e.getMessage(), e);
             return false;
         }
-
-        scheduledJobs.put(syncTask.getId(), syncTask);
-        log.info("New task scheduled. Interval=" + syncInterval + "sec " + syncTask.toString());
+        scheduledTasks.put(serviceName, new ScheduledTask(syncTask, taskExecutors.apply(serviceName)));
+        log.info("New task scheduled. " + syncTask.toString());
+        wakeUpAtNextRun();
         return true;
     }
 
-    private static Date getNextSyncDate(int firstRunOffset, int interval) {
-        GregorianCalendar calendar = new GregorianCalendar(); // use today 00:00:00.000 as base date
-        long now = calendar.getTime().getTime();
-        calendar.set(GregorianCalendar.HOUR_OF_DAY, 0);
-        calendar.set(GregorianCalendar.MINUTE, 0);
-        calendar.set(GregorianCalendar.SECOND, 0);
-        calendar.set(GregorianCalendar.MILLISECOND, 0);
+    public synchronized Optional<Date> getNextSync(String serviceName) {
+        return Optional.ofNullable(scheduledTasks.get(serviceName))
+                .map(scheduled -> Date.from(scheduled.task.getNextRun()));
+    }
+
+    /**
+     * @return the next time of the expression from now on, regardless of whether a task is scheduled with it
+     */
+    public Date getNextSync(ScheduleExpression expression) {
+        return Date.from(nextRunAfter(expression, clock.instant()));
+    }
 
-        calendar.add(GregorianCalendar.SECOND, firstRunOffset);//today with offset time as specified
+    public synchronized RequestStatus cancelAllSyncJobs() {
+        return new ArrayList<>(scheduledTasks.keySet()).stream()
+                .map(this::cancelSyncJobOfService)
+                .reduce(RequestStatus.SUCCESS, CommonUtils::reduceRequestStatus);
+    }
 
-        // if firstRunOffset is in the past compute next run
-        if (calendar.getTime().getTime() < now) {
-            long timeLeftToNextRunInMilliSeconds = interval * 1000 - ((now - calendar.getTime().getTime()) % (interval * 1000));
-            calendar.setTimeInMillis(now + timeLeftToNextRunInMilliSeconds);
+    public synchronized RequestStatus cancelSyncJobOfService(String serviceName) {
+        ScheduledTask scheduled = scheduledTasks.remove(serviceName);
+        if (scheduled != null) {
+            // a running task is finished, but not started again
+            scheduled.executor.shutdown();
+            log.info("Task cancelled. " + scheduled.task.toString());
+            wakeUpAtNextRun();
         }
-        ;
-        return calendar.getTime();
+        return RequestStatus.SUCCESS;
     }
 
-    public static Optional<Date> getNextSync(String serviceName) {
+    public synchronized boolean isServiceScheduled(String serviceName) {
+        return scheduledTasks.containsKey(serviceName);
+    }
 
-        if (ScheduleConstants.invalidConfiguredServices.contains(serviceName)) {
-            return Optional.empty();
+    public synchronized boolean isAnyServiceScheduled() {
+        return !scheduledTasks.isEmpty();
+    }
+
+    /**
+     * Starts every task which is due, each on its own executor.
+     */
+    public synchronized void runDueJobs() {
+        Instant now = clock.instant();
+        try {
+            for (ScheduledTask scheduled : scheduledTasks.values()) {
+                SW360Task task = scheduled.task;
+                Instant due = task.getNextRun();
+                if (now.isBefore(due)) {
+                    continue;
+                }
+                // the next run is counted from now, runs missed meanwhile are not caught up
+                task.setNextRun(nextRunAfter(task.getExpression(), now));
+
+                Duration late = Duration.between(due, now);
+                if (late.compareTo(misfireThreshold) > 0 && misfirePolicy == MisfirePolicy.SKIP) {
+                    log.warn("Task " + task.getName() + " missed its run at " + due + " by " + late.getSeconds() + "s.");
+                    record(task, due, null, ScheduleRunOutcome.MISSED, "Late by " + late.getSeconds() + "s");
+                } else if (!task.startRun()) {
+                    log.warn("Task " + task.getName() + " is still running, skipping its run at " + due + ".");
+                    record(task, now, null, ScheduleRunOutcome.SKIPPED, "Previous run still running");
+                } else {
+                    start(scheduled);
+                }
+            }
+        } finally {
+            wakeUpAtNextRun();
         }
-        return Optional.of(getNextSyncDate(
-                ScheduleConstants.SYNC_FIRST_RUN_OFFSET_SEC.get(serviceName),
-                ScheduleConstants.SYNC_INTERVAL_SEC.get(serviceName)));
     }
 
-    public static synchronized RequestStatus cancelAllSyncJobs() {
-        return scheduledJobs.values().stream()
-                .map(Scheduler::cancelJob)
-                .reduce(RequestStatus.SUCCESS, CommonUtils::reduceRequestStatus);
+    private void start(ScheduledTask scheduled) {
+        try {
+            scheduled.executor.execute(() -> run(scheduled.task));
+        } catch (RejectedExecutionException e) {
+            scheduled.task.finishRun();
+            log.error("Could not start task " + scheduled.task.getName() + ".", e);
+        }
     }
 
-    public static synchronized RequestStatus cancelSyncJobOfService(String serviceName) {
-        return scheduledJobs.values().stream()
-                .filter(job -> serviceName.equals(job.getName()))
-                .map(Scheduler::cancelJob)
-                .reduce(RequestStatus.SUCCESS, CommonUtils::reduceRequestStatus);
+    private void run(SW360Task task) {
+        Instant start = clock.instant();
+        ScheduleRunOutcome outcome = ScheduleRunOutcome.FAILURE;
+        String message = null;
+        try {
+            RequestStatus requestStatus = task.run();
+            if (RequestStatus.SUCCESS.equals(requestStatus)) {
+                outcome = ScheduleRunOutcome.SUCCESS;
+            } else {
+                message = "Finished with " + requestStatus;
+            }
+        } catch (RuntimeException e) {
+            log.error("Task " + task.getName() + " failed.", e);
+            message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            task.finishRun();
+        }
+        record(task, start, Duration.between(start, clock.instant()), outcome, message);
     }
 
-    private static synchronized RequestStatus cancelJob(SW360Task job) {
-        long executionTime = job.scheduledExecutionTime();
+    private void record(SW360Task task, Instant startedOn, Duration duration, ScheduleRunOutcome outcome, String message) {
+        ScheduleRun run = new ScheduleRun(task.getName(), startedOn.toEpochMilli(), outcome).setMessage(message);
+        if (duration != null) {
+            run.setDurationMillis(duration.toMillis());
+        }
+        historyWriter.execute(() -> {
+            try {
+                runRepository.add(run);
+                runRepository.removeAllButLatest(task.getName(), historySize);
+            } catch (RuntimeException e) {
+                log.error("Could not record run of task " + task.getName() + ".", e);
+            }
+        });
+    }
+
+    private Instant nextRunAfter(ScheduleExpression expression, Instant time) {
+        return expression.nextAfter(time.atZone(clock.getZone())).toInstant();
+    }
+
+    private void wakeUpAtNextRun() {
+        if (timer == null) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        Optional<Instant> nextRun = scheduledTasks.values().stream()
+                .map(scheduled -> scheduled.task.getNextRun())
+                .min(Comparator.naturalOrder());
+        if (nextRun.isPresent()) {
+            long delay = Math.min(Duration.between(clock.instant(), nextRun.get()).toMillis(), MAX_WAIT.toMillis());
+            wakeUp = timer.schedule(this::runDueJobsOnTimer, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runDueJobsOnTimer() {
         try {
-            job.cancel();
-        } catch (IllegalStateException e) {
-            log.error(e.getMessage(), e);
-            return RequestStatus.FAILURE;
+            runDueJobs();
+        } catch (RuntimeException e) {
+            log.error("Could not run due tasks.", e);
         }
-        scheduledJobs.remove(job.getId());
-        log.info("Task " + job.getClass().getSimpleName() + " for " + SW360Utils.getDateTimeString(new Date(executionTime)) + " cancelled. " + job.toString());
-        return RequestStatus.SUCCESS;
     }
 
-    public static boolean isServiceScheduled(String serviceName) {
-        boolean scheduledJobsContainsMatchingJob = scheduledJobs.values().stream()
-                .filter(job -> serviceName.equals(job.getName()))
-                .findAny().isPresent();
-        return scheduledJobsContainsMatchingJob;
+    private static ThreadFactory daemonThreads(String name) {
+        return new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build();
     }
 
-    public static boolean isAnyServiceScheduled() {
-        return (!scheduledJobs.isEmpty());
+    private static class ScheduledTask {
+        private final SW360Task task;
+        private final ExecutorService executor;
+
+        private ScheduledTask(SW360Task task, ExecutorService executor) {
+            this.task = task;
+            this.executor = executor;
+        }
     }
 }
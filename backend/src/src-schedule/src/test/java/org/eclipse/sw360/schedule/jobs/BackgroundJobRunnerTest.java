@@ -0,0 +1,255 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.jobs;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.RequestSummary;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJobState;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.schedule.db.BackgroundJobRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BackgroundJobRunnerTest {
+
+    private static final String JOB = "job";
+    private static final User ADMIN = new User().setEmail("admin@sw360.org");
+
+    private final Map<String, BackgroundJobBody> bodies = new HashMap<>();
+    private BackgroundJobRepository repository;
+    private ExecutorService executor;
+    private BackgroundJobRunner runner;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = new BackgroundJobRepository(new DatabaseConnector(new InMemoryCouchDb(), "jobtest"));
+        executor = Executors.newCachedThreadPool();
+        runner = new BackgroundJobRunner(repository, bodies, executor, new TickingClock(), 3);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        runner.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testProgressIsVisibleWhileRunning() throws Exception {
+        CountDownLatch secondStepStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bodies.put(JOB, context -> {
+            context.setTotal(2);
+            context.step("first", () -> null);
+            context.step("second", () -> {
+                secondStepStarted.countDown();
+                awaitUninterruptibly(release);
+                return null;
+            });
+        });
+
+        BackgroundJob started = runner.start(JOB, ADMIN);
+        assertTrue(secondStepStarted.await(10, TimeUnit.SECONDS));
+
+        for (BackgroundJob running : ImmutableList.of(runner.get(started.getId()), repository.get(started.getId()))) {
+            assertThat(running.getState(), is(BackgroundJobState.RUNNING));
+            assertThat(running.getProgress(), is(1));
+            assertThat(running.getTotal(), is(2));
+            assertThat(running.getCurrentStep(), is("second"));
+            assertThat(running.getStartedBy(), is(ADMIN.getEmail()));
+        }
+
+        release.countDown();
+        BackgroundJob done = awaitDone(started.getId());
+        assertThat(done.getState(), is(BackgroundJobState.FINISHED));
+        assertThat(done.getProgress(), is(2));
+        assertThat(done.isSetCurrentStep(), is(false));
+        assertThat(done.isSetFinishedOn(), is(true));
+    }
+
+    @Test
+    public void testStoredJobCarriesEveryUpdate() throws Exception {
+        bodies.put(JOB, context -> {
+            context.setTotal(3);
+            for (int i = 0; i < 3; i++) {
+                context.step("step " + i, () -> null);
+            }
+            context.setSummary(new RequestSummary(RequestStatus.SUCCESS).setTotalAffectedElements(3));
+        });
+
+        BackgroundJob done = runner.run(JOB, ADMIN);
+
+        BackgroundJob stored = repository.get(done.getId());
+        assertThat(stored.getRevision(), is(notNullValue()));
+        assertThat(stored.getState(), is(BackgroundJobState.FINISHED));
+        assertThat(stored.getProgress(), is(3));
+        assertThat(stored.getTotal(), is(3));
+        assertThat(stored.getSummary().getTotalAffectedElements(), is(3));
+    }
+
+    @Test
+    public void testCancelledJobStopsBeforeNextStep() throws Exception {
+        CountDownLatch firstStepStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondStepRun = new AtomicBoolean(false);
+        bodies.put(JOB, context -> {
+            context.setTotal(2);
+            context.step("first", () -> {
+                firstStepStarted.countDown();
+                awaitUninterruptibly(release);
+                return null;
+            });
+            context.step("second", () -> secondStepRun.getAndSet(true));
+        });
+
+        BackgroundJob started = runner.start(JOB, ADMIN);
+        assertTrue(firstStepStarted.await(10, TimeUnit.SECONDS));
+        assertThat(runner.cancel(started.getId()), is(RequestStatus.SUCCESS));
+        release.countDown();
+
+        BackgroundJob done = awaitDone(started.getId());
+        assertThat(done.getState(), is(BackgroundJobState.CANCELLED));
+        assertThat(done.getProgress(), is(1));
+        assertThat(secondStepRun.get(), is(false));
+        assertThat(runner.cancel(started.getId()), is(RequestStatus.FAILURE));
+    }
+
+    @Test
+    public void testSummaryAndReportsAreStored() throws Exception {
+        bodies.put(JOB, context -> {
+            context.setTotal(1);
+            Map<String, List<String>> duplicates = context.step("search",
+                    () -> ImmutableMap.of("name", ImmutableList.of("id1", "id2")));
+            context.putReport("duplicates", duplicates);
+            context.setSummary(new RequestSummary(RequestStatus.SUCCESS).setTotalAffectedElements(duplicates.size()));
+        });
+
+        BackgroundJob done = runner.run(JOB, ADMIN);
+        assertThat(done.getState(), is(BackgroundJobState.FINISHED));
+
+        BackgroundJob stored = runner.getLatest(JOB, 1).get(0);
+        assertThat(stored.getId(), is(done.getId()));
+        assertThat(stored.getSummary().getTotalAffectedElements(), is(1));
+        assertThat(stored.getReports().get("duplicates").get("name"), contains("id1", "id2"));
+    }
+
+    @Test
+    public void testSecondStartReturnsRunningJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        bodies.put(JOB, context -> awaitUninterruptibly(release));
+
+        BackgroundJob first = runner.start(JOB, ADMIN);
+        BackgroundJob second = runner.start(JOB, ADMIN);
+        release.countDown();
+
+        assertThat(second.getId(), is(first.getId()));
+        awaitDone(first.getId());
+        assertThat(runner.getLatest(JOB, 10), hasSize(1));
+    }
+
+    @Test
+    public void testFailureIsStoredWithMessage() throws Exception {
+        bodies.put(JOB, context -> {
+            throw new IllegalStateException("broken");
+        });
+        bodies.put("failingSummary", context -> context.setSummary(new RequestSummary(RequestStatus.FAILURE)));
+
+        BackgroundJob thrown = runner.run(JOB, ADMIN);
+        assertThat(thrown.getState(), is(BackgroundJobState.FAILED));
+        assertThat(repository.get(thrown.getId()).getMessage(), containsString("broken"));
+
+        assertThat(runner.run("failingSummary", ADMIN).getState(), is(BackgroundJobState.FAILED));
+    }
+
+    @Test
+    public void testOnlyLatestJobsAreKept() throws Exception {
+        bodies.put(JOB, context -> context.setSummary(new RequestSummary(RequestStatus.SUCCESS)));
+
+        for (int i = 0; i < 5; i++) {
+            runner.run(JOB, ADMIN);
+        }
+
+        assertThat(runner.getLatest(JOB, 10), hasSize(3));
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testUnknownJobIsRejected() throws Exception {
+        runner.start("unknown", ADMIN);
+    }
+
+    private BackgroundJob awaitDone(String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        BackgroundJob job = runner.get(jobId);
+        while (job.getState() == BackgroundJobState.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = runner.get(jobId);
+        }
+        return job;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A clock which moves on by a second whenever it is read, so that jobs never start at the same time
+     */
+    private static class TickingClock extends Clock {
+        private Instant now = Instant.parse("2018-05-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Instant instant() {
+            now = now.plusSeconds(1);
+            return now;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CronExpressionTest {
+
+    // a Tuesday
+    private static final ZonedDateTime NOW = ZonedDateTime.parse("2018-05-01T10:15:30Z");
+
+    @Test
+    public void testEveryQuarterHour() throws Exception {
+        assertThat(next("*/15 * * * *"), is(at("2018-05-01T10:30:00Z")));
+    }
+
+    @Test
+    public void testDailyAtFixedTime() throws Exception {
+        assertThat(next("30 2 * * *"), is(at("2018-05-02T02:30:00Z")));
+        assertThat(next("@daily"), is(at("2018-05-02T00:00:00Z")));
+    }
+
+    @Test
+    public void testSameMinuteIsNotNext() throws Exception {
+        assertThat(CronExpression.parse("15 10 * * *").nextAfter(NOW), is(at("2018-05-02T10:15:00Z")));
+    }
+
+    @Test
+    public void testRangesAndLists() throws Exception {
+        assertThat(next("0 8-9,22 * * *"), is(at("2018-05-01T22:00:00Z")));
+        assertThat(next("0 0 * * 6,7"), is(at("2018-05-05T00:00:00Z")));
+        assertThat(next("0 0 1 1-6/3 *"), is(at("2019-01-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() throws Exception {
+        // the 15th or a Friday, whichever comes first
+        assertThat(next("0 0 15 * 5"), is(at("2018-05-04T00:00:00Z")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpression() throws Exception {
+        CronExpression.parse("0 24 * * *");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExpressionWhichNeverMatches() throws Exception {
+        next("0 0 30 2 *");
+    }
+
+    private static ZonedDateTime next(String expression) {
+        return CronExpression.parse(expression).nextAfter(NOW);
+    }
+
+    private static ZonedDateTime at(String time) {
+        return ZonedDateTime.parse(time);
+    }
+}
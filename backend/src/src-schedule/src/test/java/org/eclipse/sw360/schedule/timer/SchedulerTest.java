@@ -0,0 +1,254 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.schedule.timer;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRun;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleRunOutcome;
+import org.eclipse.sw360.schedule.db.ScheduleRunRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SchedulerTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2018-05-01T00:00:00Z");
+    private static final ScheduleExpression EVERY_MINUTE = new IntervalExpression(0, 60);
+    private static final Duration MISFIRE_THRESHOLD = Duration.ofMinutes(10);
+
+    private ManualClock clock;
+    private ScheduleRunRepository runRepository;
+    private Scheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        clock = new ManualClock(MIDNIGHT);
+        runRepository = new ScheduleRunRepository(new DatabaseConnector(new InMemoryCouchDb(), "scheduletest"));
+        scheduler = directScheduler(MisfirePolicy.RUN_ONCE, 100);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testTaskRunsWhenDue() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleNextSync(() -> {
+            runs.incrementAndGet();
+            clock.advance(Duration.ofSeconds(5));
+            return RequestStatus.SUCCESS;
+        }, "service", EVERY_MINUTE);
+
+        assertThat(scheduler.getNextSync("service").get().toInstant(), is(MIDNIGHT.plusSeconds(60)));
+        scheduler.runDueJobs();
+        assertThat(runs.get(), is(0));
+
+        clock.advance(Duration.ofSeconds(60));
+        scheduler.runDueJobs();
+        scheduler.runDueJobs();
+
+        assertThat(runs.get(), is(1));
+        assertThat(scheduler.getNextSync("service").get().toInstant(), is(MIDNIGHT.plusSeconds(120)));
+        List<ScheduleRun> history = runRepository.getLatestRuns("service", 10);
+        assertThat(history, hasSize(1));
+        assertThat(history.get(0).getOutcome(), is(ScheduleRunOutcome.SUCCESS));
+        assertThat(history.get(0).getStartedOn(), is(MIDNIGHT.plusSeconds(60).toEpochMilli()));
+        assertThat(history.get(0).getDurationMillis(), is(5000L));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopItselfOrOthers() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleNextSync(() -> {
+            throw new IllegalStateException("broken");
+        }, "failing", EVERY_MINUTE);
+        scheduler.scheduleNextSync(() -> {
+            runs.incrementAndGet();
+            return RequestStatus.SUCCESS;
+        }, "working", EVERY_MINUTE);
+
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            scheduler.runDueJobs();
+        }
+
+        assertThat(runs.get(), is(3));
+        assertThat(outcomes("failing"), contains(ScheduleRunOutcome.FAILURE, ScheduleRunOutcome.FAILURE, ScheduleRunOutcome.FAILURE));
+        assertThat(runRepository.getLatestRuns("failing", 1).get(0).getMessage(), containsString("broken"));
+        assertThat(outcomes("working"), everyItem(is(ScheduleRunOutcome.SUCCESS)));
+    }
+
+    @Test
+    public void testSlowTaskNeitherBlocksOthersNorOverlaps() throws Exception {
+        scheduler = new Scheduler(clock, runRepository, serviceName -> Executors.newSingleThreadExecutor(),
+                MoreExecutors.directExecutor(), MISFIRE_THRESHOLD, MisfirePolicy.RUN_ONCE, 100);
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Semaphore fastRuns = new Semaphore(0);
+        scheduler.scheduleNextSync(() -> {
+            slowStarted.countDown();
+            awaitUninterruptibly(release);
+            return RequestStatus.SUCCESS;
+        }, "slow", EVERY_MINUTE);
+        scheduler.scheduleNextSync(() -> {
+            fastRuns.release();
+            return RequestStatus.SUCCESS;
+        }, "fast", EVERY_MINUTE);
+
+        try {
+            clock.advance(Duration.ofMinutes(1));
+            scheduler.runDueJobs();
+            assertTrue(slowStarted.await(10, TimeUnit.SECONDS));
+            assertTrue(fastRuns.tryAcquire(10, TimeUnit.SECONDS));
+
+            clock.advance(Duration.ofMinutes(1));
+            scheduler.runDueJobs();
+            assertTrue(fastRuns.tryAcquire(10, TimeUnit.SECONDS));
+            assertThat(outcomes("slow"), contains(ScheduleRunOutcome.SKIPPED));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testLateRunIsRunOnceWithRunOncePolicy() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleNextSync(() -> {
+            runs.incrementAndGet();
+            return RequestStatus.SUCCESS;
+        }, "service", EVERY_MINUTE);
+
+        clock.advance(Duration.ofHours(1));
+        scheduler.runDueJobs();
+
+        assertThat(runs.get(), is(1));
+        assertThat(outcomes("service"), contains(ScheduleRunOutcome.SUCCESS));
+        assertThat(scheduler.getNextSync("service").get().toInstant(), is(MIDNIGHT.plus(Duration.ofMinutes(61))));
+    }
+
+    @Test
+    public void testLateRunIsMissedWithSkipPolicy() throws Exception {
+        scheduler = directScheduler(MisfirePolicy.SKIP, 100);
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleNextSync(() -> {
+            runs.incrementAndGet();
+            return RequestStatus.SUCCESS;
+        }, "service", EVERY_MINUTE);
+
+        clock.advance(Duration.ofHours(1));
+        scheduler.runDueJobs();
+        assertThat(runs.get(), is(0));
+        assertThat(outcomes("service"), contains(ScheduleRunOutcome.MISSED));
+
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.runDueJobs();
+        assertThat(runs.get(), is(1));
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRunAnyMore() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.scheduleNextSync(() -> {
+            runs.incrementAndGet();
+            return RequestStatus.SUCCESS;
+        }, "service", EVERY_MINUTE);
+        assertThat(scheduler.isServiceScheduled("service"), is(true));
+
+        scheduler.cancelSyncJobOfService("service");
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.runDueJobs();
+
+        assertThat(runs.get(), is(0));
+        assertThat(scheduler.isAnyServiceScheduled(), is(false));
+        assertThat(scheduler.getNextSync("service").isPresent(), is(false));
+    }
+
+    @Test
+    public void testOnlyLatestRunsAreKept() throws Exception {
+        scheduler = directScheduler(MisfirePolicy.RUN_ONCE, 3);
+        scheduler.scheduleNextSync(() -> RequestStatus.SUCCESS, "service", EVERY_MINUTE);
+
+        for (int i = 1; i <= 5; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            scheduler.runDueJobs();
+        }
+
+        List<Long> starts = runRepository.getLatestRuns("service", 10).stream()
+                .map(ScheduleRun::getStartedOn)
+                .collect(Collectors.toList());
+        assertThat(starts, contains(minute(5), minute(4), minute(3)));
+    }
+
+    private Scheduler directScheduler(MisfirePolicy misfirePolicy, int historySize) {
+        return new Scheduler(clock, runRepository, serviceName -> MoreExecutors.newDirectExecutorService(),
+                MoreExecutors.directExecutor(), MISFIRE_THRESHOLD, misfirePolicy, historySize);
+    }
+
+    private List<ScheduleRunOutcome> outcomes(String serviceName) {
+        return runRepository.getLatestRuns(serviceName, 100).stream()
+                .map(ScheduleRun::getOutcome)
+                .collect(Collectors.toList());
+    }
+
+    private static long minute(int minute) {
+        return MIDNIGHT.plus(Duration.ofMinutes(minute)).toEpochMilli();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ManualClock extends Clock {
+        private volatile Instant now;
+
+        ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
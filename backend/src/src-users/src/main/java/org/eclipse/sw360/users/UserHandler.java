@@ -12,7 +12,9 @@ package org.eclipse.sw360.users;
 
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
 import org.eclipse.sw360.datahandler.thrift.users.UserService;
 import org.eclipse.sw360.users.db.UserDatabaseHandler;
 import org.apache.log4j.Logger;
@@ -21,6 +23,7 @@ import org.apache.thrift.TException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.List;
+import java.util.Set;
 
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotEmpty;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
@@ -55,6 +58,13 @@ public class UserHandler implements UserService.Iface {
         return user;
     }
 
+    @Override
+    public List<User> getUsersByEmails(Set<String> emails) throws TException {
+        assertNotNull(emails);
+
+        return db.getUsersByEmails(emails);
+    }
+
     @Override
     public List<User> searchUsers(String searchText) throws TException {
         return db.searchUsers(searchText);
@@ -72,6 +82,12 @@ public class UserHandler implements UserService.Iface {
         return db.addUser(user);
     }
 
+    @Override
+    public List<RequestStatus> addUsers(List<User> users) throws TException {
+        assertUsersWithEmail(users);
+        return db.addUsers(users);
+    }
+
     @Override
     public RequestStatus updateUser(User user) throws TException {
         assertNotNull(user);
@@ -79,6 +95,12 @@ public class UserHandler implements UserService.Iface {
         return db.updateUser(user);
     }
 
+    @Override
+    public List<RequestStatus> updateUsers(List<User> users) throws TException {
+        assertUsersWithEmail(users);
+        return db.updateUsers(users);
+    }
+
     @Override
     public RequestStatus deleteUser(User user, User adminUser) throws TException {
         assertNotNull(user);
@@ -91,4 +113,18 @@ public class UserHandler implements UserService.Iface {
         User user = getByEmail(email);
         return user != null ? user.getDepartment() : null;
     }
+
+    @Override
+    public Set<String> getUserEmailsAtLeast(UserGroup userGroup, String department) throws TException {
+        assertNotNull(userGroup);
+        return db.getEmailsAtLeast(userGroup, department);
+    }
+
+    private static void assertUsersWithEmail(List<User> users) throws SW360Exception {
+        assertNotNull(users);
+        for (User user : users) {
+            assertNotNull(user);
+            assertNotNull(user.getEmail());
+        }
+    }
 }
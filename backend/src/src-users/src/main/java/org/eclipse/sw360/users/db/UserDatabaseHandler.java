@@ -10,6 +10,7 @@
  */
 package org.eclipse.sw360.users.db;
 
+import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.db.UserRepository;
 import org.eclipse.sw360.datahandler.db.UserSearch;
@@ -18,12 +19,16 @@ import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.ThriftValidate;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
+import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
+import org.ektorp.DocumentOperationResult;
 import org.ektorp.http.HttpClient;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.eclipse.sw360.datahandler.permissions.PermissionUtils.makePermission;
 
@@ -52,6 +57,10 @@ public class UserDatabaseHandler {
         return db.get(User.class, email);
     }
 
+    public List<User> getUsersByEmails(Set<String> emails) {
+        return repository.get(emails);
+    }
+
     private void prepareUser(User user) throws SW360Exception {
         // Prepare component for database
         ThriftValidate.prepareUser(user);
@@ -72,6 +81,23 @@ public class UserDatabaseHandler {
         return RequestStatus.SUCCESS;
     }
 
+    public List<RequestStatus> addUsers(List<User> users) throws SW360Exception {
+        return writeUsers(users);
+    }
+
+    public List<RequestStatus> updateUsers(List<User> users) throws SW360Exception {
+        return writeUsers(users);
+    }
+
+    private List<RequestStatus> writeUsers(List<User> users) throws SW360Exception {
+        for (User user : users) {
+            prepareUser(user);
+        }
+        List<DocumentOperationResult> documentOperationResults = repository.executeBulk(users);
+
+        return CommonUtils.getRequestStatuses(users.stream().map(User::getId).collect(Collectors.toList()), documentOperationResults);
+    }
+
     public RequestStatus deleteUser(User user, User adminUser) {
         if (makePermission(user, adminUser).isActionAllowed(RequestedAction.DELETE)) {
             repository.remove(user);
@@ -84,6 +110,10 @@ public class UserDatabaseHandler {
         return repository.getAll();
     }
 
+    public Set<String> getEmailsAtLeast(UserGroup userGroup, String department) {
+        return repository.getEmailsAtLeast(userGroup, department);
+    }
+
     public List<User> searchUsers(String searchText) {
         return userSearch.searchByNameAndEmail(searchText);
     }
@@ -10,15 +10,22 @@
  */
 package org.eclipse.sw360.users;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.eclipse.sw360.datahandler.TestUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 
 
 public class UserHandlerTest {
@@ -28,6 +35,7 @@ public class UserHandlerTest {
     private static final String DUMMY_EMAIL_ADDRESS_2 = "dummy.user2@dummy.domain.tld";
     private static final String DUMMY_COMMENT = "Lorem ipsum";
     private static final String DUMMY_DEPARTMENT = "DummyDepartment";
+    private static final String OTHER_DEPARTMENT = "OtherDepartment";
 
     UserHandler handler;
 
@@ -73,4 +81,33 @@ public class UserHandlerTest {
         assertEquals(DUMMY_DEPARTMENT, userFromDatabase.getDepartment());
         assertFalse(userFromDatabase.isSetCommentMadeDuringModerationRequest());
     }
+
+    @Test
+    public void testBatchCallsMatchSingleCalls() throws Exception {
+        User single = new User().setEmail(DUMMY_EMAIL_ADDRESS_1).setDepartment(DUMMY_DEPARTMENT).setCommentMadeDuringModerationRequest(DUMMY_COMMENT);
+        User batched = new User().setEmail(DUMMY_EMAIL_ADDRESS_2).setDepartment(DUMMY_DEPARTMENT).setCommentMadeDuringModerationRequest(DUMMY_COMMENT);
+
+        assertEquals(RequestStatus.SUCCESS, handler.addUser(single));
+        assertEquals(ImmutableList.of(RequestStatus.SUCCESS), handler.addUsers(ImmutableList.of(batched)));
+
+        List<User> users = handler.getUsersByEmails(ImmutableSet.of(DUMMY_EMAIL_ADDRESS_1, DUMMY_EMAIL_ADDRESS_2));
+        assertThat(users, containsInAnyOrder(handler.getByEmail(DUMMY_EMAIL_ADDRESS_1), handler.getByEmail(DUMMY_EMAIL_ADDRESS_2)));
+        for (User user : users) {
+            assertEquals(DUMMY_DEPARTMENT, user.getDepartment());
+            assertFalse(user.isSetCommentMadeDuringModerationRequest());
+        }
+
+        User outdated = handler.getByEmail(DUMMY_EMAIL_ADDRESS_2);
+        assertEquals(RequestStatus.SUCCESS, handler.updateUser(handler.getByEmail(DUMMY_EMAIL_ADDRESS_1).setDepartment(OTHER_DEPARTMENT)));
+        assertEquals(ImmutableList.of(RequestStatus.SUCCESS),
+                handler.updateUsers(ImmutableList.of(handler.getByEmail(DUMMY_EMAIL_ADDRESS_2).setDepartment(OTHER_DEPARTMENT))));
+
+        assertEquals(OTHER_DEPARTMENT, handler.getByEmail(DUMMY_EMAIL_ADDRESS_1).getDepartment());
+        assertEquals(OTHER_DEPARTMENT, handler.getByEmail(DUMMY_EMAIL_ADDRESS_2).getDepartment());
+
+        // each user of a batch gets its own status
+        assertEquals(ImmutableList.of(RequestStatus.FAILURE, RequestStatus.SUCCESS),
+                handler.updateUsers(ImmutableList.of(outdated, handler.getByEmail(DUMMY_EMAIL_ADDRESS_1))));
+        assertEquals(OTHER_DEPARTMENT, handler.getByEmail(DUMMY_EMAIL_ADDRESS_2).getDepartment());
+    }
 }
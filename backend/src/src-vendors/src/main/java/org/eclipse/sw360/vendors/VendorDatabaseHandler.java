@@ -11,21 +11,28 @@ package org.eclipse.sw360.vendors;
 
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.db.VendorRepository;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
+import org.ektorp.DocumentOperationResult;
 import org.ektorp.http.HttpClient;
 
 import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.nullToEmpty;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
@@ -49,6 +56,10 @@ public class VendorDatabaseHandler {
         return repository.get(id);
     }
 
+    public List<Vendor> getVendorsByIds(Set<String> ids) {
+        return repository.get(ids, true);
+    }
+
     public List<Vendor> getAllVendors() throws TException {
         return repository.getAll();
     }
@@ -59,6 +70,26 @@ public class VendorDatabaseHandler {
         return vendor.getId();
     }
 
+    public List<AddDocumentRequestSummary> addVendors(List<Vendor> vendors) throws SW360Exception {
+        for (Vendor vendor : vendors) {
+            prepareVendor(vendor);
+        }
+        List<DocumentOperationResult> documentOperationResults = repository.executeBulk(vendors);
+        if (!documentOperationResults.isEmpty()) {
+            log.error("Failed to add vendors: " + documentOperationResults);
+        }
+
+        List<String> ids = vendors.stream().map(Vendor::getId).collect(Collectors.toList());
+        List<RequestStatus> statuses = CommonUtils.getRequestStatuses(ids, documentOperationResults);
+        List<AddDocumentRequestSummary> summaries = new ArrayList<>(vendors.size());
+        for (int i = 0; i < vendors.size(); i++) {
+            summaries.add(statuses.get(i) == RequestStatus.SUCCESS
+                    ? new AddDocumentRequestSummary().setRequestStatus(AddDocumentRequestStatus.SUCCESS).setId(ids.get(i))
+                    : new AddDocumentRequestSummary().setRequestStatus(AddDocumentRequestStatus.FAILURE));
+        }
+        return summaries;
+    }
+
     public RequestStatus deleteVendor(String id, User user) throws SW360Exception {
         Vendor vendor = repository.get(id);
         assertNotNull(vendor);
@@ -85,6 +116,22 @@ public class VendorDatabaseHandler {
     }
 
 
+    public List<RequestStatus> updateVendors(List<Vendor> vendors, User user) {
+        List<Vendor> allowed = vendors.stream()
+                .filter(vendor -> makePermission(vendor, user).isActionAllowed(RequestedAction.WRITE))
+                .collect(Collectors.toList());
+        List<DocumentOperationResult> documentOperationResults = repository.executeBulk(allowed);
+        if (allowed.size() < vendors.size()) {
+            log.error("User is not allowed to update " + (vendors.size() - allowed.size()) + " of the vendors!");
+        }
+
+        Set<String> allowedIds = allowed.stream().map(Vendor::getId).collect(Collectors.toSet());
+        List<String> ids = vendors.stream()
+                .map(vendor -> allowedIds.contains(vendor.getId()) ? vendor.getId() : null)
+                .collect(Collectors.toList());
+        return CommonUtils.getRequestStatuses(ids, documentOperationResults);
+    }
+
     public void fillVendor(Release release){
         repository.fillVendor(release);
     }
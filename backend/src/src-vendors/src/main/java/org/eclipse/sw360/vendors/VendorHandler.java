@@ -12,6 +12,7 @@ package org.eclipse.sw360.vendors;
 
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
@@ -53,6 +54,13 @@ public class VendorHandler implements VendorService.Iface {
         return vendor;
     }
 
+    @Override
+    public List<Vendor> getVendorsByIds(Set<String> ids) throws TException {
+        assertNotNull(ids);
+
+        return vendorDatabaseHandler.getVendorsByIds(ids);
+    }
+
     @Override
     public List<Vendor> getAllVendors() throws TException {
         return vendorDatabaseHandler.getAllVendors();
@@ -91,6 +99,17 @@ public class VendorHandler implements VendorService.Iface {
         return vendor.getId();
     }
 
+    @Override
+    public List<AddDocumentRequestSummary> addVendors(List<Vendor> vendors) throws TException {
+        assertNotNull(vendors);
+        for (Vendor vendor : vendors) {
+            assertNotNull(vendor);
+            assertIdUnset(vendor.getId());
+        }
+
+        return vendorDatabaseHandler.addVendors(vendors);
+    }
+
     @Override
     public RequestStatus deleteVendor(String id, User user) throws TException {
         assertUser(user);
@@ -106,4 +125,16 @@ public class VendorHandler implements VendorService.Iface {
 
         return vendorDatabaseHandler.updateVendor(vendor, user);
     }
+
+    @Override
+    public List<RequestStatus> updateVendors(List<Vendor> vendors, User user) throws TException {
+        assertUser(user);
+        assertNotNull(vendors);
+        for (Vendor vendor : vendors) {
+            assertNotNull(vendor);
+            assertId(vendor.getId());
+        }
+
+        return vendorDatabaseHandler.updateVendors(vendors, user);
+    }
 }
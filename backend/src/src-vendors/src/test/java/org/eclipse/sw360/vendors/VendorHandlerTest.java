@@ -10,10 +10,14 @@
  */
 package org.eclipse.sw360.vendors;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.eclipse.sw360.datahandler.TestUtils;
 import org.eclipse.sw360.datahandler.common.DatabaseSettings;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseInstance;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestStatus;
+import org.eclipse.sw360.datahandler.thrift.AddDocumentRequestSummary;
 import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
 import org.junit.After;
 import org.junit.Before;
@@ -88,6 +92,33 @@ public class VendorHandlerTest {
         assertVendorEquals(oracle, actual);
     }
 
+    @Test
+    public void testGetVendorsByIdsLeavesOutUnknownIds() throws Exception {
+        List<Vendor> actualList = vendorHandler.getVendorsByIds(ImmutableSet.of(vendorList.get(0).getId(), vendorList.get(1).getId(), "unknown"));
+
+        assertEquals(vendorList.size(), actualList.size());
+        for (Vendor actual : actualList) {
+            Vendor expected = actual.getId().equals(vendorList.get(0).getId()) ? vendorList.get(0) : vendorList.get(1);
+            assertVendorEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testAddVendors() throws Exception {
+        Vendor oracle = new Vendor().setShortname("Oracle").setFullname("Oracle Corporation Inc").setUrl("http://www.oracle.com");
+        Vendor eclipse = new Vendor().setShortname("Eclipse").setFullname("Eclipse Foundation").setUrl("http://www.eclipse.org");
+
+        List<AddDocumentRequestSummary> summaries = vendorHandler.addVendors(ImmutableList.of(oracle, eclipse));
+
+        assertEquals(2, summaries.size());
+        assertEquals(vendorList.size() + 2, vendorHandler.getAllVendors().size());
+        for (AddDocumentRequestSummary summary : summaries) {
+            assertEquals(AddDocumentRequestStatus.SUCCESS, summary.getRequestStatus());
+        }
+        assertVendorEquals(oracle, vendorHandler.getByID(summaries.get(0).getId()));
+        assertVendorEquals(eclipse, vendorHandler.getByID(summaries.get(1).getId()));
+    }
+
     private static void assertVendorEquals(Vendor vendor, Vendor actualVendor) {
         assertEquals(vendor.getShortname(), actualVendor.getShortname());
         assertEquals(vendor.getFullname(), actualVendor.getFullname());
@@ -11,11 +11,13 @@
 
 package org.eclipse.sw360.portal.common;
 
+import com.google.common.net.HttpHeaders;
 import com.liferay.portal.kernel.portlet.PortletResponseUtil;
 import com.liferay.portal.kernel.upload.UploadPortletRequest;
 import com.liferay.portal.util.PortalUtil;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.common.ByteRange;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.Duration;
 import org.eclipse.sw360.datahandler.couchdb.AttachmentStreamConnector;
@@ -177,7 +179,9 @@ public class AttachmentPortletUtils {
         try {
             Optional<Object> context = getContextFromRequest(request, user);
 
-            if(context.isPresent()){
+            if(context.isPresent() && attachments.size() == 1 && isRangeSupported(attachments.get(0))){
+                serveAttachmentRange(attachments.get(0), filename, contentType, user, context.get(), request, response);
+            }else if(context.isPresent()){
                 try (InputStream attachmentStream = getStreamToServeAFile(attachments, user, context.get())) {
                     PortletResponseUtil.sendFile(request, response, filename, attachmentStream, contentType);
                 } catch (IOException e) {
@@ -201,6 +205,43 @@ public class AttachmentPortletUtils {
         }
     }
 
+    private boolean isRangeSupported(AttachmentContent attachment) {
+        // the length of remote attachments is unknown until they are downloaded by the first request
+        return !attachment.isOnlyRemote();
+    }
+
+    /**
+     * Serves a single attachment, or only the part of it requested by the Range header.
+     */
+    private void serveAttachmentRange(AttachmentContent attachment, String filename, String contentType, User user, Object context,
+                                      ResourceRequest request, ResourceResponse response) throws TException {
+        long totalLength = getConnector().getAttachmentLength(attachment);
+        Optional<ByteRange> range = ByteRange.parse(request.getProperty(HttpHeaders.RANGE), totalLength);
+
+        response.setProperty(HttpHeaders.ACCEPT_RANGES, ByteRange.ACCEPT_RANGES_VALUE);
+        if (range.isPresent()) {
+            response.setProperty(HttpHeaders.CONTENT_RANGE, range.get().getContentRange());
+            if (!range.get().isSatisfiable()) {
+                response.setProperty(ResourceResponse.HTTP_STATUS_CODE, "416");
+                return;
+            }
+            response.setProperty(ResourceResponse.HTTP_STATUS_CODE, "206");
+        }
+
+        long offset = range.map(ByteRange::getStart).orElse(0L);
+        long length = range.map(ByteRange::getLength).orElse(totalLength);
+        try (InputStream attachmentStream = getConnector().getAttachmentRangeStream(attachment, user, context, offset, length)) {
+            if (length <= Integer.MAX_VALUE) {
+                PortletResponseUtil.sendFile(request, response, filename, attachmentStream, (int) length, contentType);
+            } else {
+                PortletResponseUtil.sendFile(request, response, filename, attachmentStream, contentType);
+            }
+        } catch (IOException e) {
+            log.error("cannot finish writing response", e);
+            response.setProperty(ResourceResponse.HTTP_STATUS_CODE, "500");
+        }
+    }
+
     public boolean uploadAttachmentPartFromRequest(PortletRequest request, String fileUploadName) throws IOException, TException {
         final UploadPortletRequest uploadPortletRequest = PortalUtil.getUploadPortletRequest(request);
         final InputStream stream = uploadPortletRequest.getFileAsStream(fileUploadName);
@@ -333,6 +374,10 @@ public class AttachmentPortletUtils {
         if (attachment == null || !resumableUpload.isValid()) {
             return false;
         }
+        if (attachment.isSetBlobId()) {
+            // the upload is complete, its parts were merged into a shared blob
+            return true;
+        }
 
         AttachmentStreamConnector attachmentStreamConnector;
         try {
@@ -86,6 +86,7 @@ public class PortalConstants {
     public static final String MODERATION_REQUESTS = "moderationRequests";
     public static final String CLOSED_MODERATION_REQUESTS = "closedModerationRequests";
     public static final String DELETE_MODERATION_REQUEST = "deleteModerationRequest";
+    public static final String LOAD_MODERATION_REQUEST_PAGE = "load_moderation_request_page";
     public static final String MODERATION_ACTIONS_ALLOWED = "moderationAllowed";
 
     //! Specialized keys for components
@@ -157,6 +158,7 @@ public class PortalConstants {
     public static final String USER_LIST = "userList";
     public static final String MISSING_USER_LIST = "missingUserList";
     public static final String GET_CLEARING_STATE_SUMMARY = "getClearingStateSummary";
+    public static final String LOAD_PROJECT_LIST = "loadProjectList";
     public static final String PROJECT_LINK_TABLE_MODE = "projectLinkTableMode";
     public static final String PROJECT_LINK_TABLE_MODE_LICENSE_INFO = "licenseInfo";
     public static final String PROJECT_LINK_TABLE_MODE_SOURCE_BUNDLE = "sourceBundle";
@@ -167,7 +169,6 @@ public class PortalConstants {
     public static final String DUPLICATE_COMPONENTS = "duplicateComponents";
     public static final String DUPLICATE_PROJECTS = "duplicateProjects";
     public static final String ACTION_DELETE_ALL_LICENSE_INFORMATION = "deleteAllLicenseInformation";
-    public static final String ACTION_IMPORT_SPDX_LICENSE_INFORMATION = "importSpdxLicenseInformation";
 
 
     //! Specialized keys for vulnerability management
@@ -257,8 +258,12 @@ public class PortalConstants {
 
     public static final String ATTACHMENT_DELETE_ON_CANCEL = "attachmentDeleteOnCancel";
 
-    public static final String CLEANUP = "Cleanup";
     public static final String DUPLICATES = "Duplicates";
+    public static final String ACTION_START_BACKGROUND_JOB = "startBackgroundJob";
+    public static final String ACTION_BACKGROUND_JOB_STATUS = "backgroundJobStatus";
+    public static final String ACTION_CANCEL_BACKGROUND_JOB = "cancelBackgroundJob";
+    public static final String JOB_NAME = "jobName";
+    public static final String JOB_ID = "jobId";
     public static final String DOWNLOAD = "Download";
     public static final String DOWNLOAD_SAMPLE = "DownloadSample";
     public static final String DOWNLOAD_ATTACHMENT_INFO = "DownloadAttachmentInfo";
@@ -290,6 +295,7 @@ public class PortalConstants {
     public static final String VIEW_VENDOR = "view_vendor";
     public static final String CHECK_COMPONENT_NAME = "check_component_name";
     public static final String DELETE_COMPONENT = "delete_component";
+    public static final String LOAD_COMPONENT_LIST = "load_component_list";
     public static final String DELETE_RELEASE = "delete_release";
     public static final String SUBSCRIBE = "subscribe";
     public static final String SUBSCRIBE_RELEASE = "subscribe_release";
@@ -354,6 +360,7 @@ public class PortalConstants {
     public static final String FRIENDLY_URL_PLACEHOLDER_PAGENAME = FRIENDLY_URL_PREFIX + "Pagename";
     public static final String FRIENDLY_URL_PLACEHOLDER_PROJECT_ID = FRIENDLY_URL_PREFIX + "ProjectId";
     public static final String FRIENDLY_URL_PLACEHOLDER_COMPONENT_ID = FRIENDLY_URL_PREFIX + "ComponentId";
+    public static final String FRIENDLY_URL_PLACEHOLDER_MODERATION_ID = FRIENDLY_URL_PREFIX + "ModerationId";
 
     //
     public static String PROJECTIMPORT_HOSTS;
@@ -14,6 +14,7 @@ import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesColumn;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesOrder;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesParameters;
@@ -50,6 +51,27 @@ public class DataTablesParser {
         return parametersFrom(request.getParameterMap());
     }
 
+    /**
+     * Translates paging, ordering and the global search of a server-side request to a
+     * backend summary query. The list holds the name of the summary column displayed in
+     * each table column, or null where the table column cannot be sorted.
+     */
+    public static PaginationData paginationFrom(DataTablesParameters parameters, List<String> sortColumns) {
+        PaginationData pagination = new PaginationData()
+                .setDisplayStart(parameters.getStart())
+                .setRowsPerPage(parameters.getLength())
+                .setSearchText(parameters.getSearch().getValue());
+        for (DataTablesOrder order : parameters.getOrders()) {
+            int column = order.getColumn();
+            if (column >= 0 && column < sortColumns.size() && sortColumns.get(column) != null) {
+                pagination.setSortColumn(sortColumns.get(column));
+                pagination.setAscending(order.isAscending());
+                break;
+            }
+        }
+        return pagination;
+    }
+
     private static DataTablesSearch getSearch(Map<String, String[]> parameterMap, String paramPrefix) {
         Map<String, String[]> filterKeys = unprefix(parameterMap, paramPrefix);
         return getSearch(filterKeys);
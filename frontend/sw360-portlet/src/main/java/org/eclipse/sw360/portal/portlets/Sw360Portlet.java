@@ -25,14 +25,18 @@ import com.liferay.util.bridges.mvc.MVCPortlet;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.common.SW360Utils;
 import org.eclipse.sw360.datahandler.thrift.*;
 import org.eclipse.sw360.datahandler.thrift.licenses.License;
 import org.eclipse.sw360.datahandler.thrift.licenses.LicenseService;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.schedule.ScheduleService;
 import org.eclipse.sw360.datahandler.thrift.users.RequestedAction;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.datahandler.thrift.users.UserService;
 import org.eclipse.sw360.portal.common.ErrorMessages;
 import org.eclipse.sw360.portal.common.PortalConstants;
+import org.eclipse.sw360.portal.users.UserCacheHolder;
 
 import javax.portlet.*;
 import java.io.IOException;
@@ -119,6 +123,73 @@ abstract public class Sw360Portlet extends MVCPortlet {
         }
     }
 
+    protected void renderBackgroundJob(PortletRequest request, MimeResponse response, BackgroundJob job) {
+        JSONObject jsonObject = JSONFactoryUtil.createJSONObject();
+        jsonObject.put("jobId", job.getId());
+        jsonObject.put("state", job.getState().toString());
+        jsonObject.put("progress", job.getProgress());
+        jsonObject.put("total", job.getTotal());
+        if (job.isSetCurrentStep())
+            jsonObject.put("currentStep", job.getCurrentStep());
+        if (job.isSetFinishedOn())
+            jsonObject.put("finishedOn", SW360Utils.getDateTimeString(new Date(job.getFinishedOn())));
+        if (job.isSetMessage())
+            jsonObject.put("message", job.getMessage());
+        if (job.isSetSummary()) {
+            RequestSummary summary = job.getSummary();
+            jsonObject.put("result", summary.getRequestStatus().toString());
+            if (summary.isSetTotalAffectedElements())
+                jsonObject.put("totalAffectedObjects", summary.getTotalAffectedElements());
+            if (summary.isSetTotalElements())
+                jsonObject.put("totalObjects", summary.getTotalElements());
+            if (summary.isSetMessage())
+                jsonObject.put("summaryMessage", summary.getMessage());
+        }
+
+        try {
+            writeJSON(request, response, jsonObject);
+        } catch (IOException e) {
+            log.error("Problem rendering BackgroundJob", e);
+        }
+    }
+
+    /**
+     * Starts, polls or cancels one of the given background jobs of the schedule service
+     */
+    protected void serveBackgroundJobAction(ResourceRequest request, ResourceResponse response, String action, Set<String> allowedJobs) {
+        User user = UserCacheHolder.getUserFromRequest(request);
+        ScheduleService.Iface scheduleClient = thriftClients.makeScheduleClient();
+        try {
+            switch (action) {
+                case PortalConstants.ACTION_START_BACKGROUND_JOB:
+                    String jobName = request.getParameter(PortalConstants.JOB_NAME);
+                    if (!allowedJobs.contains(jobName)) {
+                        renderRequestStatus(request, response, RequestStatus.FAILURE);
+                        return;
+                    }
+                    renderBackgroundJob(request, response, scheduleClient.startBackgroundJob(jobName, user));
+                    break;
+                case PortalConstants.ACTION_BACKGROUND_JOB_STATUS:
+                    renderBackgroundJob(request, response, scheduleClient.getBackgroundJob(request.getParameter(PortalConstants.JOB_ID), user));
+                    break;
+                case PortalConstants.ACTION_CANCEL_BACKGROUND_JOB:
+                    renderRequestStatus(request, response, scheduleClient.cancelBackgroundJob(request.getParameter(PortalConstants.JOB_ID), user));
+                    break;
+                default:
+                    renderRequestStatus(request, response, RequestStatus.FAILURE);
+            }
+        } catch (TException e) {
+            log.error("Could not serve background job action " + action, e);
+            renderRequestStatus(request, response, RequestStatus.FAILURE);
+        }
+    }
+
+    protected static boolean isBackgroundJobAction(String action) {
+        return PortalConstants.ACTION_START_BACKGROUND_JOB.equals(action)
+                || PortalConstants.ACTION_BACKGROUND_JOB_STATUS.equals(action)
+                || PortalConstants.ACTION_CANCEL_BACKGROUND_JOB.equals(action);
+    }
+
     protected void renderRemoveModerationRequestStatus(PortletRequest request, MimeResponse response, RemoveModeratorRequestStatus status) {
         JSONObject jsonObject = JSONFactoryUtil.createJSONObject();
         jsonObject.put("result", status.toString());
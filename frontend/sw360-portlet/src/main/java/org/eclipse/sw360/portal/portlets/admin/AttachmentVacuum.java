@@ -10,15 +10,10 @@
  */
 package org.eclipse.sw360.portal.portlets.admin;
 
-import org.eclipse.sw360.datahandler.thrift.RequestSummary;
-import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentService;
-import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
-import org.eclipse.sw360.datahandler.thrift.users.User;
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants;
 import org.eclipse.sw360.portal.common.PortalConstants;
 import org.eclipse.sw360.portal.portlets.Sw360Portlet;
-import org.eclipse.sw360.portal.users.UserCacheHolder;
-import org.apache.log4j.Logger;
-import org.apache.thrift.TException;
 
 import javax.portlet.*;
 import java.io.IOException;
@@ -29,7 +24,7 @@ import java.util.Set;
  */
 public class AttachmentVacuum extends Sw360Portlet {
 
-    private static final Logger log = Logger.getLogger(AttachmentVacuum.class);
+    private static final Set<String> BACKGROUND_JOBS = ImmutableSet.of(scheduleConstants.ATTACHMENT_VACUUM_JOB, scheduleConstants.REMOTE_ATTACHMENTS_JOB);
 
     @Override
     public void doView(RenderRequest request, RenderResponse response) throws IOException, PortletException {
@@ -41,23 +36,9 @@ public class AttachmentVacuum extends Sw360Portlet {
     @Override
     public void serveResource(ResourceRequest request, ResourceResponse response) throws IOException, PortletException {
         String action = request.getParameter(PortalConstants.ACTION);
-        if (PortalConstants.CLEANUP.equals(action)) {
-            try {
-                final RequestSummary requestSummary = cleanUpAttachments(request);
-                renderRequestSummary(request, response, requestSummary);
-            } catch (TException e) {
-                log.error("Something went wrong with the cleanup", e);
-            }
+        if (isBackgroundJobAction(action)) {
+            serveBackgroundJobAction(request, response, action, BACKGROUND_JOBS);
         }
     }
 
-    private RequestSummary cleanUpAttachments(ResourceRequest request) throws TException {
-        final ComponentService.Iface componentClient = thriftClients.makeComponentClient();
-        final AttachmentService.Iface attachmentClient = thriftClients.makeAttachmentClient();
-
-        final Set<String> usedAttachmentIds = componentClient.getUsedAttachmentContentIds();
-        final User userFromRequest = UserCacheHolder.getUserFromRequest(request);
-        return attachmentClient.vacuumAttachmentDB(userFromRequest, usedAttachmentIds);
-    }
-
 }
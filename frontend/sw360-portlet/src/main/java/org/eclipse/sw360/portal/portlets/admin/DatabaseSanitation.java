@@ -12,10 +12,11 @@ package org.eclipse.sw360.portal.portlets.admin;
 
 import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.RequestSummary;
-import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
-import org.eclipse.sw360.datahandler.thrift.licenses.License;
+import com.google.common.collect.ImmutableSet;
 import org.eclipse.sw360.datahandler.thrift.licenses.LicenseService;
-import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJob;
+import org.eclipse.sw360.datahandler.thrift.schedule.BackgroundJobState;
+import org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.portal.common.PortalConstants;
 import org.eclipse.sw360.portal.portlets.Sw360Portlet;
@@ -27,8 +28,10 @@ import javax.portlet.*;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.allAreEmptyOrNull;
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyMap;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.oneIsNull;
 
 /**
@@ -39,6 +42,8 @@ public class DatabaseSanitation extends Sw360Portlet {
 
     private static final Logger log = Logger.getLogger(DatabaseSanitation.class);
 
+    private static final Set<String> BACKGROUND_JOBS = ImmutableSet.of(scheduleConstants.DUPLICATES_JOB, scheduleConstants.SPDX_LICENSE_IMPORT_JOB);
+
     @Override
     public void doView(RenderRequest request, RenderResponse response) throws IOException, PortletException {
         // Proceed with page rendering
@@ -52,32 +57,35 @@ public class DatabaseSanitation extends Sw360Portlet {
                  serveDuplicates(request,response);
         }else if(PortalConstants.ACTION_DELETE_ALL_LICENSE_INFORMATION.equals(action)){
             deleteAllLicenseInformation(request, response);
-        }else if(PortalConstants.ACTION_IMPORT_SPDX_LICENSE_INFORMATION.equals(action)){
-            try {
-                importLicensesFromSPDX(request, response);
-            } catch (TException e) {
-                throw new PortletException(e);
-            }
+        }else if(isBackgroundJobAction(action)){
+            serveBackgroundJobAction(request, response, action, BACKGROUND_JOBS);
         }
     }
 
+    /**
+     * Serves the report of the latest duplicates job, the search itself runs in the schedule service
+     */
     private void serveDuplicates(ResourceRequest request, ResourceResponse response) throws IOException, PortletException {
-
-        Map<String, List<String>> duplicateComponents=null;
-        Map<String, List<String>> duplicateReleases=null;
-        Map<String, List<String>> duplicateReleaseSources=null;
-        Map<String, List<String>> duplicateProjects=null;
+        User user = UserCacheHolder.getUserFromRequest(request);
+        BackgroundJob latestJob = null;
         try {
-            final ComponentService.Iface componentClient = thriftClients.makeComponentClient();
-            duplicateComponents = componentClient.getDuplicateComponents();
-            duplicateReleases = componentClient.getDuplicateReleases();
-            duplicateReleaseSources = componentClient.getDuplicateReleaseSources();
-            final ProjectService.Iface projectClient = thriftClients.makeProjectClient();
-            duplicateProjects =  projectClient.getDuplicateProjects();
+            List<BackgroundJob> jobs = thriftClients.makeScheduleClient().getBackgroundJobs(scheduleConstants.DUPLICATES_JOB, 1, user);
+            latestJob = jobs.isEmpty() ? null : jobs.get(0);
         } catch (TException e) {
-            log.error("Error in component client", e);
+            log.error("Error in schedule client", e);
+        }
+
+        if (latestJob == null || latestJob.getState() != BackgroundJobState.FINISHED) {
+            renderRequestStatus(request, response, RequestStatus.FAILURE);
+            return;
         }
 
+        Map<String, Map<String, List<String>>> reports = nullToEmptyMap(latestJob.getReports());
+        Map<String, List<String>> duplicateComponents = reports.get(scheduleConstants.DUPLICATE_COMPONENTS);
+        Map<String, List<String>> duplicateReleases = reports.get(scheduleConstants.DUPLICATE_RELEASES);
+        Map<String, List<String>> duplicateReleaseSources = reports.get(scheduleConstants.DUPLICATE_RELEASE_SOURCES);
+        Map<String, List<String>> duplicateProjects = reports.get(scheduleConstants.DUPLICATE_PROJECTS);
+
         if(oneIsNull(duplicateComponents,duplicateReleases,duplicateProjects,duplicateReleaseSources)) {
             renderRequestStatus(request,response, RequestStatus.FAILURE);
         } else if(allAreEmptyOrNull(duplicateComponents, duplicateReleases, duplicateProjects, duplicateReleaseSources)) {
@@ -101,11 +109,4 @@ public class DatabaseSanitation extends Sw360Portlet {
             log.error("Got TException when trying to delete all license information." ,te);
         }
     }
-
-    private void importLicensesFromSPDX(ResourceRequest request, ResourceResponse response) throws TException {
-        User user = UserCacheHolder.getUserFromRequest(request);
-        LicenseService.Iface licenseClient = thriftClients.makeLicenseClient();
-        RequestSummary requestSummary = licenseClient.importAllSpdxLicenses(user);
-        renderRequestSummary(request, response, requestSummary);
-    }
 }
@@ -17,6 +17,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import com.liferay.portal.kernel.json.JSONArray;
 import com.liferay.portal.kernel.json.JSONFactoryUtil;
 import com.liferay.portal.kernel.json.JSONObject;
 import com.liferay.portal.kernel.portlet.LiferayPortletURL;
@@ -27,6 +28,7 @@ import com.liferay.portal.kernel.util.WebKeys;
 import com.liferay.portal.theme.ThemeDisplay;
 import com.liferay.portal.util.PortalUtil;
 import com.liferay.portlet.PortletURLFactoryUtil;
+import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
@@ -34,6 +36,7 @@ import org.apache.thrift.protocol.TSimpleJSONProtocol;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.SW360Constants;
 import org.eclipse.sw360.datahandler.common.SW360Utils;
+import org.eclipse.sw360.datahandler.common.SummaryPaginator;
 import org.eclipse.sw360.datahandler.common.ThriftEnumUtils;
 import org.eclipse.sw360.datahandler.permissions.PermissionUtils;
 import org.eclipse.sw360.datahandler.thrift.*;
@@ -54,6 +57,8 @@ import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityDTO;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityService;
 import org.eclipse.sw360.exporter.ComponentExporter;
 import org.eclipse.sw360.portal.common.*;
+import org.eclipse.sw360.portal.common.datatables.DataTablesParser;
+import org.eclipse.sw360.portal.common.datatables.data.DataTablesParameters;
 import org.eclipse.sw360.portal.portlets.FossologyAwarePortlet;
 import org.eclipse.sw360.portal.users.LifeRayUserSession;
 import org.eclipse.sw360.portal.users.UserCacheHolder;
@@ -120,6 +125,15 @@ public class ComponentPortlet extends FossologyAwarePortlet {
             Component._Fields.COMPONENT_TYPE,
             Component._Fields.MAIN_LICENSE_IDS);
 
+    // summary column shown in each column of the components table, null if it cannot be sorted
+    private static final List<String> COMPONENT_LIST_SORT_COLUMNS = Arrays.asList(
+            Component._Fields.VENDOR_NAMES.getFieldName(),
+            Component._Fields.NAME.getFieldName(),
+            Component._Fields.MAIN_LICENSE_IDS.getFieldName(),
+            Component._Fields.COMPONENT_TYPE.getFieldName(),
+            null);
+    private static final SummaryPaginator<Component> COMPONENT_LIST_PAGINATOR = SummaryPaginator.forComponents();
+
     //! Serve resource and helpers
     @Override
     public void serveResource(ResourceRequest request, ResourceResponse response) throws IOException, PortletException {
@@ -133,6 +147,8 @@ public class ComponentPortlet extends FossologyAwarePortlet {
             serveCheckComponentName(request, response);
         } else if (DELETE_COMPONENT.equals(action)) {
             serveDeleteComponent(request, response);
+        } else if (LOAD_COMPONENT_LIST.equals(action)) {
+            serveComponentList(request, response);
         } else if (DELETE_RELEASE.equals(action)) {
             serveDeleteRelease(request, response);
         } else if (SUBSCRIBE.equals(action)) {
@@ -940,7 +956,8 @@ public class ComponentPortlet extends FossologyAwarePortlet {
     }
 
     private void prepareStandardView(RenderRequest request) throws IOException {
-        List<Component> componentList = getFilteredComponentList(request);
+        // the components are loaded page by page by the table, see serveComponentList
+        loadFilterMapFromRequest(request);
 
         Set<String> vendorNames;
 
@@ -951,42 +968,83 @@ public class ComponentPortlet extends FossologyAwarePortlet {
             vendorNames = Collections.emptySet();
         }
 
+        try {
+            final User user = UserCacheHolder.getUserFromRequest(request);
+            request.setAttribute(PortalConstants.TOTAL_ROWS, thriftClients.makeComponentClient().getTotalComponentsCount(user));
+        } catch (TException e) {
+            log.error("Could not count components in backend ", e);
+            request.setAttribute(PortalConstants.TOTAL_ROWS, 0);
+        }
+
         List<String> componentTypeNames = Arrays.asList(ComponentType.values())
                 .stream()
                 .map(ThriftEnumUtils::enumToString)
                 .collect(Collectors.toList());
 
         request.setAttribute(VENDOR_LIST, new ThriftJsonSerializer().toJson(vendorNames));
-        request.setAttribute(COMPONENT_LIST, componentList);
         request.setAttribute(COMPONENT_TYPE_LIST, new ThriftJsonSerializer().toJson(componentTypeNames));
 
     }
 
-    private List<Component> getFilteredComponentList(PortletRequest request) throws IOException {
-        List<Component> componentList;
-        Map<String, Set<String>> filterMap = new HashMap<>();
+    private void serveComponentList(ResourceRequest request, ResourceResponse response) throws IOException {
+        DataTablesParameters parameters = DataTablesParser.parametersFrom(request);
+        PaginationData pagination = DataTablesParser.paginationFrom(parameters, COMPONENT_LIST_SORT_COLUMNS);
+        ComponentSummaryPage page = getFilteredComponentPage(request, pagination);
+
+        JSONArray data = JSONFactoryUtil.createJSONArray();
+        for (Component component : page.getComponents()) {
+            JSONArray licenseIds = JSONFactoryUtil.createJSONArray();
+            nullToEmptySet(component.getMainLicenseIds()).stream().sorted().map(StringEscapeUtils::escapeHtml).forEach(licenseIds::put);
+
+            JSONObject row = JSONFactoryUtil.createJSONObject();
+            row.put("DT_RowId", component.getId());
+            row.put("id", component.getId());
+            row.put("vndrs", StringEscapeUtils.escapeHtml(nullToEmptySet(component.getVendorNames()).stream()
+                    .sorted().collect(Collectors.joining(", "))));
+            row.put("name", StringEscapeUtils.escapeHtml(printName(component)));
+            row.put("lics", licenseIds);
+            row.put("cType", ThriftEnumUtils.enumToString(component.getComponentType()));
+            row.put("lRelsSize", component.getReleaseIdsSize());
+            row.put("attsSize", component.getAttachmentsSize());
+            data.put(row);
+        }
 
-        for (Component._Fields filteredField : componentFilteredFields) {
-            String parameter = request.getParameter(filteredField.toString());
-            if (!isNullOrEmpty(parameter) &&
-                    !(filteredField.equals(Component._Fields.COMPONENT_TYPE) && parameter.equals(PortalConstants.NO_FILTER))) {
-                Set<String> values = CommonUtils.splitToSet(parameter);
-                if (filteredField.equals(Component._Fields.NAME)) {
-                    values = values.stream().map(v -> v + "*").collect(Collectors.toSet());
-                }
-                filterMap.put(filteredField.getFieldName(), values);
+        JSONObject jsonResponse = JSONFactoryUtil.createJSONObject();
+        jsonResponse.put("data", data);
+        jsonResponse.put("draw", parameters.getDraw());
+        jsonResponse.put("recordsTotal", page.getTotalCount());
+        jsonResponse.put("recordsFiltered", page.getFilteredCount());
+        writeJSON(request, response, jsonResponse);
+    }
+
+    private ComponentSummaryPage getFilteredComponentPage(PortletRequest request, PaginationData pagination) {
+        final User user = UserCacheHolder.getUserFromRequest(request);
+        Map<String, Set<String>> filterMap = loadFilterMapFromRequest(request);
+        ComponentService.Iface componentClient = thriftClients.makeComponentClient();
+
+        try {
+            if (filterMap.isEmpty()) {
+                return componentClient.getComponentSummaryPage(user, pagination);
             }
-            request.setAttribute(filteredField.getFieldName(), nullToEmpty(parameter));
+            // searches are not paged in the backend, their results are small enough to be paged here
+            SummaryPaginator.Page<Component> page = COMPONENT_LIST_PAGINATOR.paginate(componentClient.refineSearch(null, filterMap), pagination);
+            return new ComponentSummaryPage(page.getRows(), page.getTotalCount(), page.getFilteredCount());
+        } catch (TException e) {
+            log.error("Could not search components in backend ", e);
+            return new ComponentSummaryPage(Collections.emptyList(), 0, 0);
         }
+    }
+
+    private List<Component> getFilteredComponentList(PortletRequest request) throws IOException {
+        List<Component> componentList;
+        Map<String, Set<String>> filterMap = loadFilterMapFromRequest(request);
 
         try {
             final User user = UserCacheHolder.getUserFromRequest(request);
-            int limit = CustomFieldHelper.loadAndStoreStickyViewSize(request, user, CUSTOM_FIELD_COMPONENTS_VIEW_SIZE);
             ComponentService.Iface componentClient = thriftClients.makeComponentClient();
-            request.setAttribute(PortalConstants.TOTAL_ROWS, componentClient.getTotalComponentsCount(user));
 
             if (filterMap.isEmpty()) {
-                componentList = componentClient.getRecentComponentsSummary(limit, user);
+                componentList = componentClient.getComponentSummary(user);
             } else {
                 componentList = componentClient.refineSearch(null, filterMap);
             }
@@ -997,6 +1055,24 @@ public class ComponentPortlet extends FossologyAwarePortlet {
         return componentList;
     }
 
+    private Map<String, Set<String>> loadFilterMapFromRequest(PortletRequest request) {
+        Map<String, Set<String>> filterMap = new HashMap<>();
+
+        for (Component._Fields filteredField : componentFilteredFields) {
+            String parameter = request.getParameter(filteredField.toString());
+            if (!isNullOrEmpty(parameter) &&
+                    !(filteredField.equals(Component._Fields.COMPONENT_TYPE) && parameter.equals(PortalConstants.NO_FILTER))) {
+                Set<String> values = CommonUtils.splitToSet(parameter);
+                if (filteredField.equals(Component._Fields.NAME)) {
+                    values = values.stream().map(v -> v + "*").collect(Collectors.toSet());
+                }
+                filterMap.put(filteredField.getFieldName(), values);
+            }
+            request.setAttribute(filteredField.getFieldName(), nullToEmpty(parameter));
+        }
+        return filterMap;
+    }
+
     //! Actions
     @UsedAsLiferayAction
     public void updateComponent(ActionRequest request, ActionResponse response) throws PortletException, IOException {
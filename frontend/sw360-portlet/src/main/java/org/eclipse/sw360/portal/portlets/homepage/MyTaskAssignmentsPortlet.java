@@ -10,27 +10,36 @@
  */
 package org.eclipse.sw360.portal.portlets.homepage;
 
-import org.eclipse.sw360.datahandler.common.CommonUtils;
+import com.google.common.collect.ImmutableSet;
+import com.liferay.portal.kernel.json.JSONArray;
+import com.liferay.portal.kernel.json.JSONFactoryUtil;
+import com.liferay.portal.kernel.json.JSONObject;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.eclipse.sw360.datahandler.common.ThriftEnumUtils;
+import org.eclipse.sw360.datahandler.thrift.ModerationState;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest;
+import org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequestPage;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.portal.common.PortalConstants;
+import org.eclipse.sw360.portal.common.datatables.DataTablesParser;
+import org.eclipse.sw360.portal.common.datatables.data.DataTablesParameters;
 import org.eclipse.sw360.portal.portlets.Sw360Portlet;
-import org.eclipse.sw360.portal.portlets.moderation.ModerationPortletUtils;
 import org.eclipse.sw360.portal.users.UserCacheHolder;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 
 import javax.portlet.PortletException;
-import javax.portlet.RenderRequest;
-import javax.portlet.RenderResponse;
+import javax.portlet.ResourceRequest;
+import javax.portlet.ResourceResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.Set;
 
 import static org.apache.log4j.Logger.getLogger;
 
 /**
- * Small homepage portlet
+ * Small homepage portlet, pages through the open moderation requests of the user, newest first
  *
  * @author cedric.bodet@tngtech.com
  * @author gerrit.grenzebach@tngtech.com
@@ -39,21 +48,48 @@ public class MyTaskAssignmentsPortlet extends Sw360Portlet {
 
     private static final Logger log = getLogger(MyTaskAssignmentsPortlet.class);
 
+    private static final Set<ModerationState> OPEN_STATES = ImmutableSet.of(ModerationState.PENDING, ModerationState.INPROGRESS);
 
     @Override
-    public void doView(RenderRequest request, RenderResponse response) throws IOException, PortletException {
-        List<ModerationRequest> openModerations=null;
+    public void serveResource(ResourceRequest request, ResourceResponse response) throws IOException, PortletException {
+        String action = request.getParameter(PortalConstants.ACTION);
 
+        if (PortalConstants.LOAD_MODERATION_REQUEST_PAGE.equals(action)) {
+            serveModerationRequestPage(request, response);
+        }
+    }
+
+    private void serveModerationRequestPage(ResourceRequest request, ResourceResponse response) throws IOException {
+        DataTablesParameters parameters = DataTablesParser.parametersFrom(request);
+        PaginationData pagination = DataTablesParser.paginationFrom(parameters, Collections.emptyList())
+                .setAscending(false);
+        ModerationRequestPage page = getOpenModerationRequestPage(request, pagination);
+
+        JSONArray data = JSONFactoryUtil.createJSONArray();
+        for (ModerationRequest moderationRequest : page.getRequests()) {
+            JSONObject row = JSONFactoryUtil.createJSONObject();
+            row.put("DT_RowId", moderationRequest.getId());
+            row.put("id", moderationRequest.getId());
+            row.put("name", StringEscapeUtils.escapeHtml(moderationRequest.getDocumentName()));
+            row.put("state", ThriftEnumUtils.enumToString(moderationRequest.getModerationState()));
+            data.put(row);
+        }
+
+        JSONObject jsonResponse = JSONFactoryUtil.createJSONObject();
+        jsonResponse.put("data", data);
+        jsonResponse.put("draw", parameters.getDraw());
+        jsonResponse.put("recordsTotal", page.getTotalCount());
+        jsonResponse.put("recordsFiltered", page.getTotalCount());
+        writeJSON(request, response, jsonResponse);
+    }
+
+    private ModerationRequestPage getOpenModerationRequestPage(ResourceRequest request, PaginationData pagination) {
         try {
             User user = UserCacheHolder.getUserFromRequest(request);
-            List<ModerationRequest> moderations = thriftClients.makeModerationClient().getRequestsByModerator(user);
-            openModerations = moderations.stream().filter(ModerationPortletUtils::isOpenModerationRequest).collect(Collectors.toList());
+            return thriftClients.makeModerationClient().getRequestsByModeratorPage(user, OPEN_STATES, pagination);
         } catch (TException e) {
             log.error("Could not fetch your moderations from backend", e);
+            return new ModerationRequestPage(Collections.emptyList(), 0);
         }
-
-        request.setAttribute(PortalConstants.MODERATION_REQUESTS,  CommonUtils.nullToEmptyList(openModerations));
-
-        super.doView(request, response);
     }
 }
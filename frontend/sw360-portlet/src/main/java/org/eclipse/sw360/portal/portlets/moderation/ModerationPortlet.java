@@ -236,7 +236,9 @@ public class ModerationPortlet extends FossologyAwarePortlet {
 
         Collections.sort(openModerationRequests, compareByTimeStamp());
 
-        int nextIndex = openModerationRequests.indexOf(moderationRequest) + 1;
+        // the listing holds summaries only, so the current request is found by its id
+        List<String> openModerationRequestIds = openModerationRequests.stream().map(ModerationRequest::getId).collect(Collectors.toList());
+        int nextIndex = openModerationRequestIds.indexOf(moderationRequest.getId()) + 1;
         if (nextIndex < openModerationRequests.size()) {
             renderEditViewForId(request, response, openModerationRequests.get(nextIndex).getId());
         } else {
@@ -21,6 +21,8 @@ import com.liferay.portal.kernel.json.JSONObject;
 import com.liferay.portal.kernel.portlet.PortletResponseUtil;
 import com.liferay.portal.kernel.servlet.SessionMessages;
 import com.liferay.portal.model.Organization;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 import org.apache.thrift.TSerializer;
@@ -46,7 +48,10 @@ import org.eclipse.sw360.datahandler.thrift.vulnerabilities.*;
 import org.eclipse.sw360.exporter.ProjectExporter;
 import org.eclipse.sw360.exporter.ReleaseExporter;
 import org.eclipse.sw360.portal.common.*;
+import org.eclipse.sw360.portal.common.datatables.DataTablesParser;
+import org.eclipse.sw360.portal.common.datatables.data.DataTablesParameters;
 import org.eclipse.sw360.portal.portlets.FossologyAwarePortlet;
+import org.eclipse.sw360.portal.tags.DisplayStateBoxes;
 import org.eclipse.sw360.portal.users.LifeRayUserSession;
 import org.eclipse.sw360.portal.users.UserCacheHolder;
 import org.eclipse.sw360.portal.users.UserUtils;
@@ -55,6 +60,7 @@ import org.jetbrains.annotations.NotNull;
 import javax.portlet.*;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.URLConnection;
 import java.util.*;
@@ -100,6 +106,17 @@ public class ProjectPortlet extends FossologyAwarePortlet {
             Project._Fields.STATE,
             Project._Fields.TAG);
 
+    // summary column shown in each column of the projects table, null if it cannot be sorted
+    private static final List<String> PROJECT_LIST_SORT_COLUMNS = Arrays.asList(
+            Project._Fields.NAME.getFieldName(),
+            Project._Fields.DESCRIPTION.getFieldName(),
+            Project._Fields.PROJECT_RESPONSIBLE.getFieldName(),
+            Project._Fields.STATE.getFieldName(),
+            null,
+            null);
+    private static final SummaryPaginator<Project> PROJECT_LIST_PAGINATOR = SummaryPaginator.forProjects();
+    private static final int PROJECT_LIST_DESCRIPTION_MAX_CHAR = 140;
+
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final TSerializer THRIFT_JSON_SERIALIZER = new TSerializer(new TSimpleJSONProtocol.Factory());
 
@@ -156,6 +173,8 @@ public class ProjectPortlet extends FossologyAwarePortlet {
             serveAttachmentFileLicenses(request, response);
         } else if (PortalConstants.LOAD_LICENSE_INFO_ATTACHMENT_USAGE.equals(action)) {
             serveLicenseInfoAttachmentUsage(request, response);
+        } else if (PortalConstants.LOAD_PROJECT_LIST.equals(action)) {
+            serveProjectList(request, response);
         } else if (isGenericAction(action)) {
             dealWithGenericAction(request, response, action);
         }
@@ -177,7 +196,7 @@ public class ProjectPortlet extends FossologyAwarePortlet {
             final ProjectService.Iface projectClient = thriftClients.makeProjectClient();
 
             Project project = projectClient.getProjectById(projectId, user);
-            LicenseInfoFile licenseInfoFile = licenseInfoClient.getLicenseInfoFile(project, user, generatorClassName,
+            PreparedLicenseInfoFile licenseInfoFile = licenseInfoClient.prepareLicenseInfoFile(project, user, generatorClassName,
                     selectedReleaseAndAttachmentIds, excludedLicensesPerAttachmentId);
             try {
                 replaceAttachmentUsages(user, selectedReleaseAndAttachmentIds, excludedLicensesPerAttachmentId, project);
@@ -194,7 +213,9 @@ public class ProjectPortlet extends FossologyAwarePortlet {
                 mimetype = URLConnection.guessContentTypeFromName(filename);
             }
 
-            PortletResponseUtil.sendFile(request, response, filename, licenseInfoFile.getGeneratedOutput(), mimetype);
+            try (InputStream licenseInfoStream = new LicenseInfoFileInputStream(licenseInfoClient, licenseInfoFile, user)) {
+                PortletResponseUtil.sendFile(request, response, filename, licenseInfoStream, mimetype);
+            }
         } catch (TException e) {
             log.error("Error getting LicenseInfo file for project with id " + projectId + " and generator " + generatorClassName, e);
             response.setProperty(ResourceResponse.HTTP_STATUS_CODE, Integer.toString(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
@@ -657,22 +678,69 @@ public class ProjectPortlet extends FossologyAwarePortlet {
     }
 
     private void prepareStandardView(RenderRequest request) throws IOException {
-        List<Project> projectList = getFilteredProjectList(request);
-
-        // The data should be sorted like it will be initially sorted on the client
-        // side. That way additional data can be loaded in order the data is visible to
-        // the user.
-        // As we currently use no defined sorting on the client, jquery dataTables
-        // default sorting is used. This is for the first column and case insensitive.
-        // So we duplicate that sorting here.
-        List<Project> sortedProjectList = projectList.stream()
-                .sorted(Comparator.comparing(p -> SW360Utils.printName(p).toLowerCase())).collect(Collectors.toList());
-        request.setAttribute(PROJECT_LIST, sortedProjectList);
+        // the projects are loaded page by page by the table, see serveProjectList
+        final User user = UserCacheHolder.getUserFromRequest(request);
+        Map<String, Set<String>> filterMap = loadFilterMapFromRequest(request);
+        loadAndStoreStickyProjectGroup(request, user, filterMap);
 
         List<Organization> organizations = UserUtils.getOrganizations(request);
         request.setAttribute(PortalConstants.ORGANIZATIONS, organizations);
     }
 
+    private void serveProjectList(ResourceRequest request, ResourceResponse response) throws IOException {
+        DataTablesParameters parameters = DataTablesParser.parametersFrom(request);
+        PaginationData pagination = DataTablesParser.paginationFrom(parameters, PROJECT_LIST_SORT_COLUMNS);
+        ProjectSummaryPage page = getFilteredProjectPage(request, pagination);
+
+        JSONArray data = createJSONArray();
+        for (Project project : page.getProjects()) {
+            DisplayStateBoxes stateBoxes = new DisplayStateBoxes();
+            stateBoxes.setProject(project);
+            String description = StringUtils.abbreviate(nullToEmpty(project.getDescription()), PROJECT_LIST_DESCRIPTION_MAX_CHAR)
+                    .replaceAll("[\r\n]+", " ");
+
+            JSONObject row = createJSONObject();
+            row.put("DT_RowId", project.getId());
+            row.put("id", project.getId());
+            row.put("name", StringEscapeUtils.escapeHtml(printName(project)));
+            row.put("description", StringEscapeUtils.escapeHtml(description));
+            row.put("state", stateBoxes.makeBoxes());
+            row.put("clearing", "Not loaded yet");
+            row.put("responsible", isNullOrEmpty(project.getProjectResponsible()) ? ""
+                    : UserUtils.displayUser(StringEscapeUtils.escapeHtml(project.getProjectResponsible()), null));
+            row.put("linkedProjectsSize", project.getLinkedProjectsSize());
+            row.put("linkedReleasesSize", project.getReleaseIdToUsageSize());
+            row.put("attachmentsSize", project.getAttachmentsSize());
+            data.put(row);
+        }
+
+        JSONObject jsonResponse = createJSONObject();
+        jsonResponse.put("data", data);
+        jsonResponse.put("draw", parameters.getDraw());
+        jsonResponse.put("recordsTotal", page.getTotalCount());
+        jsonResponse.put("recordsFiltered", page.getFilteredCount());
+        writeJSON(request, response, jsonResponse);
+    }
+
+    private ProjectSummaryPage getFilteredProjectPage(PortletRequest request, PaginationData pagination) {
+        final User user = UserCacheHolder.getUserFromRequest(request);
+        Map<String, Set<String>> filterMap = loadFilterMapFromRequest(request);
+        loadAndStoreStickyProjectGroup(request, user, filterMap);
+        String id = request.getParameter(Project._Fields.ID.toString());
+
+        if (isNullOrEmpty(id) && filterMap.isEmpty()) {
+            try {
+                return thriftClients.makeProjectClient().getAccessibleProjectsSummaryPage(user, pagination);
+            } catch (TException e) {
+                log.error("Could not get projects from backend ", e);
+                return new ProjectSummaryPage(Collections.emptyList(), 0, 0);
+            }
+        }
+        // searches are not paged in the backend, their results are small enough to be paged here
+        SummaryPaginator.Page<Project> page = PROJECT_LIST_PAGINATOR.paginate(findProjectsByFiltersOrId(filterMap, id, user), pagination);
+        return new ProjectSummaryPage(page.getRows(), page.getTotalCount(), page.getFilteredCount());
+    }
+
     private List<Project> getFilteredProjectList(PortletRequest request) throws IOException {
         final User user = UserCacheHolder.getUserFromRequest(request);
         Map<String, Set<String>> filterMap = loadFilterMapFromRequest(request);
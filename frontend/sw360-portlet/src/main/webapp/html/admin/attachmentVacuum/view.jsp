@@ -9,6 +9,7 @@
   ~ http://www.eclipse.org/legal/epl-v10.html
   --%>
 <%@ page import="org.eclipse.sw360.portal.common.PortalConstants" %>
+<%@ page import="org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants" %>
 
 <%@include file="/html/init.jsp" %>
 <%-- the following is needed by liferay to display error messages--%>
@@ -16,9 +17,7 @@
 <portlet:defineObjects/>
 <liferay-theme:defineObjects/>
 
-<portlet:resourceURL var="cleanUpURL" >
-  <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.CLEANUP%>'/>
-</portlet:resourceURL>
+<%@include file="/html/utils/includes/backgroundJobs.jspf" %>
 <div id="header"></div>
 <p class="pageHeader"><span class="pageHeaderBigSpan">Attachment DB Administration</span> </p>
 
@@ -33,6 +32,13 @@
   <tr>
     <td>Clean up Attachments</td>
     <td> <img src="<%=request.getContextPath()%>/images/Trash.png" alt="CleanUp" onclick="cleanUp()">
+      <span id="cleanUpStatus"></span>
+    </td>
+  </tr>
+  <tr>
+    <td>Download remote attachments</td>
+    <td> <a href="#" onclick="downloadRemoteAttachments(); return false;">Download</a>
+      <span id="remoteAttachmentsStatus"></span>
     </td>
   </tr>
   </tbody>
@@ -44,26 +50,45 @@
 <script>
   function cleanUp() {
       function cleanUpInternal() {
-          jQuery.ajax({
-              type: 'POST',
-              url: '<%=cleanUpURL%>',
-              cache: false,
-              data: "",
-              success: function (data) {
-                  if(data.result == 'SUCCESS')
-                      $.alert("I deleted " + data.totalAffectedObjects + " of " + data.totalObjects + " total Attachments in the DB.");
+          var status = $('#cleanUpStatus');
+          runBackgroundJob('<%=scheduleConstants.ATTACHMENT_VACUUM_JOB%>',
+              function (job) {
+                  status.text(describeBackgroundJob(job));
+              },
+              function (job) {
+                  status.text("");
+                  if (job.state == 'FINISHED')
+                      $.alert("I deleted " + job.totalAffectedObjects + " of " + job.totalObjects + " total Attachments in the DB.");
                   else {
-                      $.alert("I could not cleanup the attachments!");
+                      $.alert("I could not cleanup the attachments! " + describeBackgroundJob(job));
                   }
               },
-              error: function () {
+              function () {
+                  status.text("");
                   $.alert("I could not cleanup the attachments!");
-              }
-          });
+              });
       }
 
       deleteConfirmed("Do you really want to clean up the attachment db?", cleanUpInternal);
   }
+
+  function downloadRemoteAttachments() {
+      var status = $('#remoteAttachmentsStatus');
+      runBackgroundJob('<%=scheduleConstants.REMOTE_ATTACHMENTS_JOB%>',
+          function (job) {
+              status.text(describeBackgroundJob(job));
+          },
+          function (job) {
+              status.text(describeBackgroundJob(job));
+              if (job.summaryMessage) {
+                  $.alert(job.summaryMessage);
+              }
+          },
+          function () {
+              status.text("");
+              $.alert("I could not download the remote attachments!");
+          });
+  }
 </script>
 
 <link rel="stylesheet" href="<%=request.getContextPath()%>/css/dataTable_Siemens.css">
@@ -10,6 +10,7 @@
   ~ http://www.eclipse.org/legal/epl-v10.html
   --%>
 <%@ page import="org.eclipse.sw360.portal.common.PortalConstants" %>
+<%@ page import="org.eclipse.sw360.datahandler.thrift.schedule.scheduleConstants" %>
 
 <%@include file="/html/init.jsp" %>
 <%-- the following is needed by liferay to display error messages--%>
@@ -26,14 +27,10 @@
                    value='<%=PortalConstants.ACTION_DELETE_ALL_LICENSE_INFORMATION%>'/>
 </portlet:resourceURL>
 
-<portlet:resourceURL var="importSpdxLicenseInformationURL">
-    <portlet:param name="<%=PortalConstants.ACTION%>"
-                   value='<%=PortalConstants.ACTION_IMPORT_SPDX_LICENSE_INFORMATION%>'/>
-</portlet:resourceURL>
-
 <script src="<%=request.getContextPath()%>/webjars/jquery/1.12.4/jquery.min.js"></script>
 <script src="<%=request.getContextPath()%>/webjars/jquery-ui/1.12.1/jquery-ui.min.js"></script>
 <script src="<%=request.getContextPath()%>/webjars/datatables/1.10.15/js/jquery.dataTables.min.js"></script>
+<%@include file="/html/utils/includes/backgroundJobs.jspf" %>
 
 <div id="header"></div>
 <p class="pageHeader"><span class="pageHeaderBigSpan">DB Administration</span></p>
@@ -55,6 +52,7 @@
     <tr>
         <td>Import all SPDX license information</td>
         <td><a id="importSPDXLink" href="#">Import</a>
+            <span id="importSPDXStatus"></span>
         </td>
     </tr>
     <tr>
@@ -75,9 +73,26 @@
 <script src="<%=request.getContextPath()%>/webjars/github-com-craftpip-jquery-confirm/3.0.1/jquery-confirm.min.js" type="text/javascript"></script>
 <script>
     function findDuplicates() {
-
         var field = $('#DuplicateSearch');
         field.html("Looking for duplicate identifiers ... ");
+        runBackgroundJob('<%=scheduleConstants.DUPLICATES_JOB%>',
+            function (job) {
+                field.html("Looking for duplicate identifiers ... " + describeBackgroundJob(job));
+            },
+            function (job) {
+                if (job.state == 'FINISHED') {
+                    showDuplicates();
+                } else {
+                    field.html("Error in looking for duplicate identifiers: " + describeBackgroundJob(job));
+                }
+            },
+            function () {
+                field.html("Error in looking for duplicate identifiers");
+            });
+    }
+
+    function showDuplicates() {
+        var field = $('#DuplicateSearch');
         jQuery.ajax({
             type: 'POST',
             url: '<%=getDuplicatesURL%>',
@@ -88,7 +103,7 @@
                 if (data.result == 'SUCCESS')
                     html = "No duplicate identifiers were found";
                 else if (data.result == 'FAILURE') {
-                    html = "Error in looking for duplicate identifiers";
+                    html = "There is no finished search for duplicate identifiers yet";
                 } else {
                     html = data;
                 }
@@ -150,28 +165,23 @@
     function importSpdxLicenseInformation() {
 
         function importSpdxLicenseInformationInternal() {
-            $.confirm({
-                title: "Import",
-                content: function () {
-                    var self = this;
-                    return $.ajax({
-                        type: 'POST',
-                        url: '<%=importSpdxLicenseInformationURL%>',
-                        cache: false,
-                        dataType: 'json'
-                    }).done(function (data) {
-                        if (data.result == 'SUCCESS') {
-                            self.setTitle("Success");
-                            self.setContent("I imported " + data.totalAffectedObjects + " of " + data.totalObjects + " SPDX licenses. " + data.message);
-                        }else {
-                            self.setTitle("Failure");
-                            self.setContent("I could not import all SPDX license information!");
-                        }
-                    }).fail(function(){
-                        self.setContent('Something went wrong.');
-                    });
-                }
-            });
+            var status = $('#importSPDXStatus');
+            runBackgroundJob('<%=scheduleConstants.SPDX_LICENSE_IMPORT_JOB%>',
+                function (job) {
+                    status.text(describeBackgroundJob(job));
+                },
+                function (job) {
+                    status.text("");
+                    if (job.state == 'FINISHED') {
+                        $.alert("I imported " + job.totalAffectedObjects + " of " + job.totalObjects + " SPDX licenses. " + (job.summaryMessage || ""));
+                    } else {
+                        $.alert("I could not import all SPDX license information! " + describeBackgroundJob(job));
+                    }
+                },
+                function () {
+                    status.text("");
+                    $.alert('Something went wrong.');
+                });
         }
 
         var confirmMessage = "Do you really want to import all SPDX licenses";
@@ -181,6 +191,7 @@
     window.onload = function() {
         var a = document.getElementById("importSPDXLink");
         a.onclick = importSpdxLicenseInformation;
+        showDuplicates();
     }
 </script>
 
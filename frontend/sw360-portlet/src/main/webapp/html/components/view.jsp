@@ -15,8 +15,6 @@
 <%@ page import="javax.portlet.PortletRequest" %>
 <%@ page import="org.eclipse.sw360.datahandler.thrift.components.ComponentType" %>
 
-<%@ taglib prefix="tags" tagdir="/WEB-INF/tags" %>
-
 <%@ include file="/html/init.jsp" %>
 <%-- the following is needed by liferay to display error messages--%>
 <%@ include file="/html/utils/includes/errorKeyToMessage.jspf"%>
@@ -24,9 +22,6 @@
 <portlet:defineObjects/>
 <liferay-theme:defineObjects/>
 
-<jsp:useBean id="componentList" type="java.util.List<org.eclipse.sw360.datahandler.thrift.components.Component>"
-             scope="request"/>
-
 <jsp:useBean id="categories" class="java.lang.String" scope="request"/>
 <jsp:useBean id="languages" class="java.lang.String" scope="request"/>
 <jsp:useBean id="softwarePlatforms" class="java.lang.String" scope="request"/>
@@ -36,7 +31,6 @@
 <jsp:useBean id="vendorNames" class="java.lang.String" scope="request"/>
 <jsp:useBean id="mainLicenseIds" class="java.lang.String" scope="request"/>
 <jsp:useBean id="name" class="java.lang.String" scope="request"/>
-<jsp:useBean id="viewSize" type="java.lang.Integer" scope="request"/>
 <jsp:useBean id="totalRows" type="java.lang.Integer" scope="request"/>
 
 <core_rt:set var="programmingLanguages" value='<%=PortalConstants.PROGRAMMING_LANGUAGES%>'/>
@@ -56,6 +50,10 @@
     <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.DELETE_COMPONENT%>'/>
 </portlet:resourceURL>
 
+<portlet:resourceURL var="loadComponentListAjaxURL">
+    <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.LOAD_COMPONENT_LIST%>'/>
+</portlet:resourceURL>
+
 <portlet:actionURL var="applyFiltersURL" name="applyFilters">
 </portlet:actionURL>
 
@@ -69,7 +67,7 @@
 <div id="header"></div>
 <p class="pageHeader">
     <span class="pageHeaderBigSpan">Components</span>
-    <span class="pageHeaderMediumSpan">(<core_rt:if test="${componentList.size() == totalRows}"><span id="componentCounter">${totalRows}</span></core_rt:if><core_rt:if test="${componentList.size() != totalRows}"><span id="componentCounter1">${componentList.size()}</span> latest of <span id="componentCounter2">${totalRows}</span></core_rt:if>)</span>
+    <span class="pageHeaderMediumSpan">(<span id="componentCounter">${totalRows}</span>)</span>
     <span class="pull-right">
           <input type="button" class="addButton" onclick="window.location.href='<%=addComponentURL%>'"
                 value="Add Component">
@@ -77,28 +75,6 @@
 </p>
 
 <div id="searchInput" class="content1">
-     <table>
-         <thead>
-         <tr>
-             <th class="infoheading">
-                 Loading
-             </th>
-         </tr>
-         </thead>
-         <tbody style="background-color: #f8f7f7; border: none;">
-         <tr>
-             <td>
-                 <select class="searchbar" id="view_size" name="<portlet:namespace/><%=PortalConstants.VIEW_SIZE%>">
-                     <option value="200" <core_rt:if test="${viewSize == 200}">selected</core_rt:if>>200 latest</option>
-                     <option value="500" <core_rt:if test="${viewSize == 500}">selected</core_rt:if>>500 latest</option>
-                     <option value="1000" <core_rt:if test="${viewSize == 1000}">selected</core_rt:if>>1000 latest</option>
-                     <option value="-1" <core_rt:if test="${viewSize == -1}">selected</core_rt:if>>All</option>
-                 </select>
-             </td>
-         </tr>
-         </tbody>
-     </table>
-
     <%@ include file="/html/utils/includes/quickfilter.jspf" %>
 
     <form action="<%=applyFiltersURL%>" method="post">
@@ -223,9 +199,6 @@
             $('#exportSpreadsheetButton').on('click', function() {
                 exportSpreadsheet();
             });
-            $('#view_size').on('change', function() {
-                reloadViewSize();
-            });
 
             // helper functions
             function load() {
@@ -235,10 +208,7 @@
                 autocomplete.prepareForMultipleHits('vendor_names', ${vendorList});
 
                 componentsTable = createComponentsTable();
-                quickfilter.addTable(componentsTable, function(searchTerm) {
-                    var searchRegex = $.fn.dataTable.util.escapeRegex(searchTerm);
-                    this.columns(1).search(searchRegex, true).draw();
-                });
+                quickfilter.addTable(componentsTable);
             }
 
             // catch ctrl+p and print dataTable
@@ -273,29 +243,8 @@
                 window.location.href=portletURL.toString();
             }
 
-            function reloadViewSize(){
-                var portletURL = PortletURL.createURL('<%= PortletURLFactoryUtil.create(request, portletDisplay.getId(), themeDisplay.getPlid(), PortletRequest.RENDER_PHASE) %>');
-                portletURL.setParameter('<%=PortalConstants.VIEW_SIZE%>', $('#view_size').val());
-                window.location.href=portletURL.toString();
-            }
-
             function createComponentsTable() {
-                var componentsTable,
-                    result = [];
-
-                <core_rt:forEach items="${componentList}" var="component">
-                <core_rt:set var="licenseCollectionTagOutput"><sw360:DisplayLicenseCollection licenseIds="${component.mainLicenseIds}" scopeGroupId="${pageContext.getAttribute('scopeGroupId')}"/></core_rt:set>
-                    result.push({
-                        "DT_RowId": "${component.id}",
-                        "id": "${component.id}",
-                        "vndrs": '<sw360:DisplayCollection value="${component.vendorNames}"/>',
-                        "name": '<sw360:ComponentName component="${component}"/>',
-                        "lics": "<tags:TrimLineBreaks input="${licenseCollectionTagOutput}"/>",
-                        "cType": "<sw360:DisplayEnum value="${component.componentType}"/>",
-                        "lRelsSize": "${component.releaseIdsSize}",
-                        "attsSize": "${component.attachmentsSize}"
-                    });
-                </core_rt:forEach>
+                var componentsTable;
 
                 componentsTable = $('#componentsTable').DataTable({
                     "pagingType": "simple_numbers",
@@ -312,13 +261,29 @@
                         }
                     ],
                     "pageLength": 25,
-                    "data": result,
+                    "serverSide": true,
+                    "ajax": {
+                        url: '<%=loadComponentListAjaxURL%>',
+                        type: 'POST',
+                        data: function(data) {
+                            <%--the filters applied by the last search, the table pages through their result--%>
+                            data['<%=Component._Fields.NAME%>'] = '<sw360:out value="${name}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.CATEGORIES%>'] = '<sw360:out value="${categories}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.COMPONENT_TYPE%>'] = '<sw360:out value="${componentType}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.LANGUAGES%>'] = '<sw360:out value="${languages}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.SOFTWARE_PLATFORMS%>'] = '<sw360:out value="${softwarePlatforms}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.OPERATING_SYSTEMS%>'] = '<sw360:out value="${operatingSystems}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.VENDOR_NAMES%>'] = '<sw360:out value="${vendorNames}" jsQuoting="true" bare="true"/>';
+                            data['<%=Component._Fields.MAIN_LICENSE_IDS%>'] = '<sw360:out value="${mainLicenseIds}" jsQuoting="true" bare="true"/>';
+                            return objectNamespacerOf('<portlet:namespace/>')(data);
+                        }
+                    },
                     "columns": [
                         {"title": "Vendor", data: "vndrs"},
                         {"title": "Component Name", data: "name", render: {display: renderComponentNameLink}},
-                        {"title": "Main Licenses", data: "lics"},
+                        {"title": "Main Licenses", data: "lics", render: {display: renderLicenseLinks}},
                         {"title": "Component Type", data: "cType"},
-                        {"title": "Actions", data: "id", render: {display: renderComponentActions}}
+                        {"title": "Actions", data: "id", orderable: false, render: {display: renderComponentActions}}
                     ],
                     order: [[1, 'asc']],
                     language: {
@@ -341,6 +306,13 @@
                     " data-component-id='" + id + "' data-component-name='" + replaceSingleQuote(row.name) + "' data-component-release-count='" + replaceSingleQuote(row.lRelsSize) + "' data-component-attachment-count='" + replaceSingleQuote(row.attsSize) + "' alt='Delete' title='Delete'/>";
             }
 
+            function renderLicenseLinks(licenseIds) {
+                var licenseLink = "<sw360:DisplayLicenseLink licenseId="__LICENSE_ID__" scopeGroupId="${pageContext.getAttribute('scopeGroupId')}"/>";
+                return $.map(licenseIds, function(licenseId) {
+                    return licenseLink.replace(/__LICENSE_ID__/g, licenseId);
+                }).join(', ');
+            }
+
             function renderComponentNameLink(name, type, row) {
                 return renderLinkTo(makeComponentFriendlyUrl(row.id, '<%=PortalConstants.PAGENAME_DETAIL%>'), name);
             }
@@ -372,10 +344,8 @@
 
                         success: function (data) {
                             if (data.result == 'SUCCESS') {
-                                componentsTable.row('#' + id).remove().draw(false);
-                                $.each([$('#componentCounter'), $('#componentCounter1'), $('#componentCounter2')], function (i, counter) {
-                                    counter.text(counter.text() - 1);
-                                });
+                                componentsTable.draw(false);
+                                $('#componentCounter').text($('#componentCounter').text() - 1);
                             }
                             else if (data.result == 'SENT_TO_MODERATOR') {
                                 $.alert("You may not delete the component, but a request was sent to a moderator!");
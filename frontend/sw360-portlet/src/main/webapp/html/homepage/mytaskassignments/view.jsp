@@ -15,11 +15,9 @@
 
 
 
-<% assert ("moderationRequests".equals(PortalConstants.MODERATION_REQUESTS)); %>
-
-<jsp:useBean id="moderationRequests"
-             type="java.util.List<org.eclipse.sw360.datahandler.thrift.moderation.ModerationRequest>"
-             class="java.util.ArrayList" scope="request"/>
+<portlet:resourceURL var="loadModerationRequestPageURL">
+    <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.LOAD_MODERATION_REQUEST_PAGE%>'/>
+</portlet:resourceURL>
 <br>
 <br>
 
@@ -38,27 +36,31 @@
 <script>
 
     Liferay.on('allPortletsReady', function() {
-        var result = [];
-
-        <core_rt:forEach items="${moderationRequests}" var="moderation">
-        result.push({
-            "DT_RowId": "${moderation.id}",
-            "0": "<sw360:DisplayModerationRequestLink moderationRequest="${moderation}"/>",
-            "1": "<sw360:DisplayEnum value="${moderation.moderationState}"/>"
-        });
-        </core_rt:forEach>
-
         $('#taskassignmentTable').dataTable({
             pagingType: "simple_numbers",
             dom: "rtip",
-            data: result,
-            pageLength:10,
+            pageLength: 10,
+            serverSide: true,
+            ordering: false,
+            ajax: {
+                url: '<%=loadModerationRequestPageURL%>',
+                type: 'POST',
+                data: function(data) {
+                    return objectNamespacerOf('<portlet:namespace/>')(data);
+                }
+            },
             columns: [
-                {"title": "Document Name"},
-                {"title": "Status"},
+                {"title": "Document Name", data: "name", render: {display: renderModerationRequestLink}},
+                {"title": "Status", data: "state"}
             ],
             autoWidth: false
         });
     });
 
+    function renderModerationRequestLink(name, type, row) {
+        var url = '<sw360:DisplayModerationRequestLink moderationRequestId="<%=PortalConstants.FRIENDLY_URL_PLACEHOLDER_MODERATION_ID%>" bare="true"/>'
+            .replace('<%=PortalConstants.FRIENDLY_URL_PLACEHOLDER_MODERATION_ID%>', row.id);
+        return renderLinkTo(url, name);
+    }
+
 </script>
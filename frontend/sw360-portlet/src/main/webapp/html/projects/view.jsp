@@ -22,9 +22,6 @@
 <portlet:defineObjects/>
 <liferay-theme:defineObjects/>
 
-<jsp:useBean id="projectList" type="java.util.List<org.eclipse.sw360.datahandler.thrift.projects.Project>"
-             scope="request"/>
-
 <jsp:useBean id="projectType" class="java.lang.String" scope="request"/>
 <jsp:useBean id="project" class="org.eclipse.sw360.datahandler.thrift.projects.Project" scope="request"/>
 <jsp:useBean id="projectResponsible" class="java.lang.String" scope="request"/>
@@ -70,6 +67,10 @@
 <portlet:actionURL var="applyFiltersURL" name="applyFilters">
 </portlet:actionURL>
 
+<portlet:resourceURL var="loadProjectListAjaxURL">
+    <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.LOAD_PROJECT_LIST%>'/>
+</portlet:resourceURL>
+
 <portlet:resourceURL var="loadClearingStateAjaxURL">
     <portlet:param name="<%=PortalConstants.ACTION%>" value='<%=PortalConstants.GET_CLEARING_STATE_SUMMARY%>'/>
 </portlet:resourceURL>
@@ -284,31 +285,25 @@
 
                 createProjectsTable();
                 quickfilter.addTable(projectsTable);
-
-                loadClearingStateSummaries();
-
             }
             function createProjectsTable() {
-                var result = [];
-
-                <core_rt:forEach items="${projectList}" var="project">
-                result.push({
-                    "DT_RowId": "${project.id}",
-                    "id": '${project.id}',
-                    "name": '<sw360:ProjectName project="${project}"/>',
-                    "description": '<sw360:out value="${project.description}" maxChar="140" jsQuoting="true" bare="true"/>',
-                    "state": '<sw360:DisplayStateBoxes project="${project}"/>',
-                    "clearing": 'Not loaded yet',
-                    "responsible": '<sw360:DisplayUserEmail email="${project.projectResponsible}" bare="true"/>',
-                    "linkedProjectsSize": '${project.linkedProjectsSize}',
-                    "linkedReleasesSize": '${project.releaseIdToUsageSize}',
-                    "attachmentsSize": '${project.attachmentsSize}'
-                });
-                </core_rt:forEach>
-
                 projectsTable = $('#projectsTable').DataTable({
                     "pagingType": "simple_numbers",
-                    "data": result,
+                    "serverSide": true,
+                    "ajax": {
+                        "url": '<%=loadProjectListAjaxURL%>',
+                        "type": 'POST',
+                        "data": function (data) {
+                            <%-- the filters applied to the page restrict the listed projects --%>
+                            data['<%=Project._Fields.NAME%>'] = '<sw360:out value="${name}" jsQuoting="true" bare="true"/>';
+                            data['<%=Project._Fields.VERSION%>'] = '<sw360:out value="${version}" jsQuoting="true" bare="true"/>';
+                            data['<%=Project._Fields.PROJECT_TYPE%>'] = '<sw360:out value="${projectType}" jsQuoting="true" bare="true"/>';
+                            data['<%=Project._Fields.PROJECT_RESPONSIBLE%>'] = '<sw360:out value="${projectResponsible}" jsQuoting="true" bare="true"/>';
+                            data['<%=Project._Fields.STATE%>'] = '<sw360:out value="${state}" jsQuoting="true" bare="true"/>';
+                            data['<%=Project._Fields.TAG%>'] = '<sw360:out value="${tag}" jsQuoting="true" bare="true"/>';
+                            return objectNamespacerOf('<portlet:namespace/>')(data);
+                        }
+                    },
                     "dom": "lBrtip",
                     "buttons": [
                         {
@@ -327,36 +322,30 @@
                         {title: "Description", data: "description"},
                         {title: "Project Responsible", data: "responsible"},
                         {title: "State", data: "state"},
-                        {title: "<span title=\"Release clearing state\">Clearing Status</span>", data: "clearing"},
-                        {title: "Actions", data: "id", render: {display: renderProjectActions}}
+                        {title: "<span title=\"Release clearing state\">Clearing Status</span>", data: "clearing", orderable: false},
+                        {title: "Actions", data: "id", render: {display: renderProjectActions}, orderable: false}
                     ],
                     "autoWidth": false
                 });
+                projectsTable.on('draw', loadClearingStateSummaries);
             }
 
             function loadClearingStateSummaries() {
-                var tableData = projectsTable.data(),
+                var pageData = projectsTable.rows({page: 'current'}).data(),
                     queryPageSize = 10,
-                    numberOfQueryPages = Math.ceil(tableData.length / queryPageSize),
                     queryPagesPageIds = [],
-                    pageIds,
-                    cell,
-                    i, j, idx;
-
-                for (i = 0; i < numberOfQueryPages; i++) {
-                    pageIds = [];
-                    for (j = 0; j < queryPageSize; j++) {
-                        idx = (i * queryPageSize) + j;
-                        /* make sure last page is handled correctly as it might not be a full page */
-                        if (tableData[idx]) {
-                            pageIds.push(tableData[idx].id);
-
-                            cell = projectsTable.cell(idx, clearingSummaryColumnIndex);
-                            cell.data("Loading...");
-                        } else {
-                            break;
-                        }
+                    pageIds = [],
+                    i;
+
+                for (i = 0; i < pageData.length; i++) {
+                    pageIds.push(pageData[i].id);
+                    projectsTable.cell('#' + pageData[i].id, clearingSummaryColumnIndex).data("Loading...");
+                    if (pageIds.length === queryPageSize) {
+                        queryPagesPageIds.push(pageIds);
+                        pageIds = [];
                     }
+                }
+                if (pageIds.length > 0) {
                     queryPagesPageIds.push(pageIds);
                 }
                 postClearingStateSummaryRequest(queryPagesPageIds);
@@ -456,7 +445,7 @@
                         },
 		                success: function (data) {
 		                    if (data.result == 'SUCCESS') {
-		                        projectsTable.row('#' + projectId).remove().draw(false);
+		                        projectsTable.draw(false);
 		                    }
 		                    else if (data.result == 'SENT_TO_MODERATOR') {
 		                        $.alert("You may not delete the project, but a request was sent to a moderator!");
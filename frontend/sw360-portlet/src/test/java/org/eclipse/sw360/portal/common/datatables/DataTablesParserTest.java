@@ -11,12 +11,14 @@
 package org.eclipse.sw360.portal.common.datatables;
 
 import com.google.common.collect.ImmutableMap;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesColumn;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesOrder;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesParameters;
 import org.eclipse.sw360.portal.common.datatables.data.DataTablesSearch;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -113,4 +115,26 @@ public class DataTablesParserTest {
         assertThat(unprefixed, hasEntry("ac", new String[]{"7"}));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPagination() throws Exception {
+        DataTablesParameters parameters = DataTablesParser.parametersFrom(getTestParameterMap());
+
+        PaginationData pagination = DataTablesParser.paginationFrom(parameters, Arrays.asList("name", null));
+
+        assertThat(pagination.getDisplayStart(), is(5));
+        assertThat(pagination.getRowsPerPage(), is(10));
+        assertThat(pagination.getSearchText(), is("lookingFor"));
+        assertThat(pagination.getSortColumn(), is("name"));
+        assertThat(pagination.isAscending(), is(true));
+    }
+
+    @Test
+    public void testPaginationIgnoresOrderOfUnsortableColumns() throws Exception {
+        DataTablesParameters parameters = DataTablesParser.parametersFrom(getTestParameterMap());
+
+        PaginationData pagination = DataTablesParser.paginationFrom(parameters, Arrays.asList((String) null));
+
+        assertThat(pagination.isSetSortColumn(), is(false));
+    }
+}
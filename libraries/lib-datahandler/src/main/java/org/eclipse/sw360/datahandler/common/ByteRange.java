@@ -0,0 +1,123 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.common;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * A single byte range of an http {@code Range} header, resolved against the
+ * length of the requested content.
+ */
+public final class ByteRange {
+    public static final String ACCEPT_RANGES_VALUE = "bytes";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    private final long start;
+    private final long end;
+    private final long totalLength;
+
+    private ByteRange(long start, long end, long totalLength) {
+        this.start = start;
+        this.end = end;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * Parses the value of a {@code Range} header. Headers which are absent,
+     * malformed or ask for several ranges are ignored, i.e. the whole content is
+     * to be served. A range starting after the end of the content is returned as
+     * not satisfiable.
+     */
+    public static Optional<ByteRange> parse(String rangeHeader, long totalLength) {
+        if (isNullOrEmpty(rangeHeader)) {
+            return Optional.empty();
+        }
+        Matcher matcher = SINGLE_RANGE.matcher(rangeHeader);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return Optional.empty();
+                }
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0 || totalLength == 0) {
+                    return Optional.of(unsatisfiable(totalLength));
+                }
+                return Optional.of(new ByteRange(Math.max(0, totalLength - suffixLength), totalLength - 1, totalLength));
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? totalLength - 1 : Long.parseLong(last);
+            if (end < start) {
+                return Optional.empty();
+            }
+            if (start >= totalLength) {
+                return Optional.of(unsatisfiable(totalLength));
+            }
+            return Optional.of(new ByteRange(start, Math.min(end, totalLength - 1), totalLength));
+        } catch (NumberFormatException e) {
+            // too large to be a position in the content
+            return Optional.empty();
+        }
+    }
+
+    private static ByteRange unsatisfiable(long totalLength) {
+        return new ByteRange(-1, -1, totalLength);
+    }
+
+    public boolean isSatisfiable() {
+        return start >= 0;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return position of the last byte of the range (inclusive)
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return isSatisfiable() ? end - start + 1 : 0;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    /**
+     * @return the value of the {@code Content-Range} header for a response to this range
+     */
+    public String getContentRange() {
+        if (isSatisfiable()) {
+            return "bytes " + start + "-" + end + "/" + totalLength;
+        }
+        return "bytes */" + totalLength;
+    }
+
+    @Override
+    public String toString() {
+        return getContentRange();
+    }
+}
@@ -515,6 +515,20 @@ public class CommonUtils {
         return requestSummary;
     }
 
+    /**
+     * @param ids the ids of the documents after they were written with one bulk request, null for those which got none
+     * @return the status of each document, in the order of the ids
+     */
+    @NotNull
+    public static List<RequestStatus> getRequestStatuses(List<String> ids, List<DocumentOperationResult> documentOperationResults) {
+        Set<String> failedIds = documentOperationResults.stream()
+                .map(DocumentOperationResult::getId)
+                .collect(Collectors.toSet());
+        return ids.stream()
+                .map(id -> id == null || failedIds.contains(id) ? RequestStatus.FAILURE : RequestStatus.SUCCESS)
+                .collect(Collectors.toList());
+    }
+
     public static RequestSummary getRequestSummary(int total, int failures) {
         final RequestSummary requestSummary = new RequestSummary();
         requestSummary.requestStatus = failures == 0 ? RequestStatus.SUCCESS : RequestStatus.FAILURE;
@@ -10,10 +10,15 @@
  */
 package org.eclipse.sw360.datahandler.common;
 
+import com.google.common.io.ByteStreams;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
 
 /**
  * @author daniele.fognini@tngtech.com
@@ -72,6 +77,88 @@ public class ConcatClosingInputStream extends InputStream {
         }
     }
 
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+
+        while (!closed) {
+            if (current == null) {
+                return safeCloseAndThrow(new IOException("cannot read from null Stream"));
+            }
+
+            int read;
+            try {
+                read = current.read(b, off, len);
+            } catch (IOException e) {
+                return safeCloseAndThrow(e);
+            }
+
+            if (read >= 0)
+                return read;
+
+            try {
+                current.close();
+            } catch (IOException e) {
+                return safeCloseAndThrow(e);
+            }
+            if (streams.hasNext()) {
+                current = streams.next();
+            } else {
+                closed = true;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Concatenates the chunks holding the {@code length} bytes starting at {@code offset}
+     * of the content made up of chunks with the given lengths. Chunks outside of the range
+     * are never opened, the beginning of the first opened chunk is skipped.
+     *
+     * @param openChunk opens the chunk with the given (zero based) index, must not throw exceptions
+     */
+    public static InputStream ofRange(List<Long> chunkLengths, IntFunction<InputStream> openChunk, long offset, long length) throws IOException {
+        int first = 0;
+        long firstStart = 0;
+        while (first < chunkLengths.size() && firstStart + chunkLengths.get(first) <= offset) {
+            firstStart += chunkLengths.get(first);
+            first++;
+        }
+
+        int last = first;
+        long lastEnd = first < chunkLengths.size() ? firstStart + chunkLengths.get(first) : firstStart;
+        while (last + 1 < chunkLengths.size() && lastEnd < offset + length) {
+            last++;
+            lastEnd += chunkLengths.get(last);
+        }
+
+        final int firstChunk = first;
+        final int endChunk = first < chunkLengths.size() ? last + 1 : first;
+        ConcatClosingInputStream chunks = new ConcatClosingInputStream(new Iterator<InputStream>() {
+            int chunk = firstChunk;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < endChunk;
+            }
+
+            @Override
+            public InputStream next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return openChunk.apply(chunk++);
+            }
+        });
+
+        try {
+            ByteStreams.skipFully(chunks, offset - firstStart);
+        } catch (IOException e) {
+            chunks.safeCloseAndThrow(e);
+        }
+        return ByteStreams.limit(chunks, length);
+    }
+
     private int safeCloseAndThrow(IOException e) throws IOException {
         try {
             close();
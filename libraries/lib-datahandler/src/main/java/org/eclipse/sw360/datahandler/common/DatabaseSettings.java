@@ -15,6 +15,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Supplier;
 
+import org.eclipse.sw360.datahandler.couchdb.DatabaseBootstrap;
 import org.ektorp.http.HttpClient;
 import org.ektorp.http.StdHttpClient;
 
@@ -63,7 +64,7 @@ public class DatabaseSettings {
         if (! "".equals(COUCH_DB_PASSWORD)) {
             httpClientBuilder.password(COUCH_DB_PASSWORD);
         }
-        return httpClientBuilder::build;
+        return () -> DatabaseBootstrap.onServer(COUCH_DB_URL, httpClientBuilder.build());
     }
 
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.common;
+
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoFileChunk;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.LicenseInfoService;
+import org.eclipse.sw360.datahandler.thrift.licenseinfo.PreparedLicenseInfoFile;
+import org.eclipse.sw360.datahandler.thrift.users.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a license info file prepared by
+ * {@link LicenseInfoService.Iface#prepareLicenseInfoFile} chunk by chunk, so
+ * that at most one chunk is held in memory at a time. The file has to be read
+ * as the user who prepared it. Closing the stream discards the prepared file.
+ */
+public class LicenseInfoFileInputStream extends InputStream {
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private final LicenseInfoService.Iface client;
+    private final String fileId;
+    private final User user;
+    private final int chunkSize;
+
+    private byte[] chunk = new byte[0];
+    private int positionInChunk = 0;
+    private long offset = 0;
+    private boolean lastChunkRead;
+    private boolean closed;
+
+    public LicenseInfoFileInputStream(LicenseInfoService.Iface client, PreparedLicenseInfoFile preparedFile, User user) {
+        this(client, preparedFile, user, DEFAULT_CHUNK_SIZE);
+    }
+
+    public LicenseInfoFileInputStream(LicenseInfoService.Iface client, PreparedLicenseInfoFile preparedFile, User user, int chunkSize) {
+        this.client = client;
+        this.fileId = preparedFile.getFileId();
+        this.user = user;
+        this.chunkSize = chunkSize;
+        this.lastChunkRead = preparedFile.getSize() == 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunkAvailable()) {
+            return -1;
+        }
+        return chunk[positionInChunk++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureChunkAvailable()) {
+            return -1;
+        }
+        int count = Math.min(len, chunk.length - positionInChunk);
+        System.arraycopy(chunk, positionInChunk, b, off, count);
+        positionInChunk += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - positionInChunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunk = new byte[0];
+        positionInChunk = 0;
+        try {
+            client.discardLicenseInfoFile(fileId, user);
+        } catch (TException e) {
+            throw new IOException("Could not discard license info file " + fileId, e);
+        }
+    }
+
+    private boolean ensureChunkAvailable() throws IOException {
+        if (closed) {
+            throw new IOException("Stream of license info file " + fileId + " is closed");
+        }
+        while (positionInChunk >= chunk.length) {
+            if (lastChunkRead) {
+                return false;
+            }
+            try {
+                LicenseInfoFileChunk next = client.getLicenseInfoFileChunk(fileId, user, offset, chunkSize);
+                chunk = next.getData();
+                positionInChunk = 0;
+                offset += chunk.length;
+                lastChunkRead = next.isLastChunk();
+            } catch (TException e) {
+                throw new IOException("Could not read chunk at offset " + offset + " of license info file " + fileId, e);
+            }
+        }
+        return true;
+    }
+}
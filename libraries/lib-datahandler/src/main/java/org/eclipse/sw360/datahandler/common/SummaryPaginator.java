@@ -0,0 +1,150 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.common;
+
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.components.Component;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Strings.nullToEmpty;
+
+/**
+ * Filters, sorts and pages summary lists as requested by a {@link PaginationData}.
+ *
+ * The columns rows can be sorted by are also the ones the search text is looked
+ * for in. The first column is the default sort column. Rows with equal values in
+ * the sort column are ordered by their id, so that consecutive pages neither
+ * overlap nor miss rows.
+ */
+public class SummaryPaginator<T> {
+    private final Function<T, String> id;
+    private final Map<String, Function<T, String>> columns = new LinkedHashMap<>();
+
+    public SummaryPaginator(Function<T, String> id) {
+        this.id = id;
+    }
+
+    /**
+     * Columns of the project list: name (with version), description, responsible and state
+     */
+    public static SummaryPaginator<Project> forProjects() {
+        return new SummaryPaginator<>(Project::getId)
+                .withColumn(Project._Fields.NAME.getFieldName(), SW360Utils::printName)
+                .withColumn(Project._Fields.DESCRIPTION.getFieldName(), Project::getDescription)
+                .withColumn(Project._Fields.PROJECT_RESPONSIBLE.getFieldName(), Project::getProjectResponsible)
+                .withColumn(Project._Fields.STATE.getFieldName(), project -> ThriftEnumUtils.enumToString(project.getState()));
+    }
+
+    /**
+     * Columns of the component list: name, vendors, main licenses and type
+     */
+    public static SummaryPaginator<Component> forComponents() {
+        return new SummaryPaginator<>(Component::getId)
+                .withColumn(Component._Fields.NAME.getFieldName(), SW360Utils::printName)
+                .withColumn(Component._Fields.VENDOR_NAMES.getFieldName(), component -> joinSorted(component.getVendorNames()))
+                .withColumn(Component._Fields.MAIN_LICENSE_IDS.getFieldName(), component -> joinSorted(component.getMainLicenseIds()))
+                .withColumn(Component._Fields.COMPONENT_TYPE.getFieldName(), component -> ThriftEnumUtils.enumToString(component.getComponentType()));
+    }
+
+    private static String joinSorted(Set<String> values) {
+        return CommonUtils.nullToEmptySet(values).stream().sorted().collect(Collectors.joining(", "));
+    }
+
+    public SummaryPaginator<T> withColumn(String name, Function<T, String> value) {
+        columns.put(name, value);
+        return this;
+    }
+
+    public Set<String> getColumns() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    public Page<T> paginate(Collection<T> rows, PaginationData pagination) {
+        if (pagination == null) {
+            pagination = new PaginationData();
+        }
+
+        List<T> filtered = filter(rows, pagination.getSearchText());
+        Function<T, String> sortValue = columns.getOrDefault(pagination.getSortColumn(), columns.values().iterator().next());
+        Comparator<SortKey<T>> order = Comparator.comparing((SortKey<T> key) -> key.value, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(key -> key.id);
+        if (!pagination.isAscending()) {
+            order = order.reversed();
+        }
+
+        int start = Math.min(Math.max(0, pagination.getDisplayStart()), filtered.size());
+        int end = pagination.getRowsPerPage() < 0
+                ? filtered.size()
+                : (int) Math.min((long) start + pagination.getRowsPerPage(), filtered.size());
+
+        List<T> page = filtered.stream()
+                .map(row -> new SortKey<>(row, nullToEmpty(sortValue.apply(row)), nullToEmpty(id.apply(row))))
+                .sorted(order)
+                .skip(start)
+                .limit(end - start)
+                .map(key -> key.row)
+                .collect(Collectors.toList());
+        return new Page<>(page, rows.size(), filtered.size());
+    }
+
+    private List<T> filter(Collection<T> rows, String searchText) {
+        if (isNullOrEmpty(searchText) || searchText.trim().isEmpty()) {
+            return new ArrayList<>(rows);
+        }
+        String searched = searchText.trim().toLowerCase();
+        return rows.stream()
+                .filter(row -> columns.values().stream()
+                        .map(column -> nullToEmpty(column.apply(row)).toLowerCase())
+                        .anyMatch(value -> value.contains(searched)))
+                .collect(Collectors.toList());
+    }
+
+    private static class SortKey<T> {
+        private final T row;
+        private final String value;
+        private final String id;
+
+        private SortKey(T row, String value, String id) {
+            this.row = row;
+            this.value = value;
+            this.id = id;
+        }
+    }
+
+    public static class Page<T> {
+        private final List<T> rows;
+        private final int totalCount;
+        private final int filteredCount;
+
+        public Page(List<T> rows, int totalCount, int filteredCount) {
+            this.rows = rows;
+            this.totalCount = totalCount;
+            this.filteredCount = filteredCount;
+        }
+
+        public List<T> getRows() {
+            return rows;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public int getFilteredCount() {
+            return filteredCount;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.ektorp.support.CouchDbDocument;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Document holding the bytes of attachment content shared by all attachment
+ * contents with the same sha1, see {@link AttachmentBlobStore}. The bytes are
+ * stored as the couchdb attachment {@link AttachmentBlobStore#BLOB_CONTENT_NAME}.
+ */
+public class AttachmentBlob extends CouchDbDocument {
+    public static final String TYPE = "attachmentBlob";
+
+    private String type;
+    private String sha1;
+    private String sha256;
+    private Set<String> references;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    public void setSha1(String sha1) {
+        this.sha1 = sha1;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Ids of the attachment contents referencing this blob.
+     */
+    public Set<String> getReferences() {
+        if (references == null) {
+            references = new HashSet<>();
+        }
+        return references;
+    }
+
+    public void setReferences(Set<String> references) {
+        this.references = references;
+    }
+}
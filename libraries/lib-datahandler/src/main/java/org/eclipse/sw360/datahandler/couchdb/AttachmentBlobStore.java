@@ -0,0 +1,229 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.Iterables;
+import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.ektorp.*;
+
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
+
+/**
+ * Content addressed storage for attachment content in the attachments database.
+ *
+ * The bytes of all attachment contents with the same sha1 are kept once, in an
+ * {@link AttachmentBlob} with the id {@code blob-<sha1>}. Attachment contents
+ * refer to it by their {@code blobId}, the blob lists the ids of the referencing
+ * attachment contents. Since the id of a blob is derived from its content,
+ * concurrent uploads of the same content cannot create two blobs: creating the
+ * blob fails for all but one of them and the others just add their reference.
+ *
+ * All changes of a blob are made with its current revision, so references added
+ * concurrently are never lost and a blob which got a new reference in the
+ * meantime is not deleted by {@link #removeUnreferencedBlobs()}. Whenever
+ * the content cannot be stored in a blob, the attachment content simply keeps
+ * its own copy of the bytes.
+ */
+public class AttachmentBlobStore {
+    private static final Logger log = Logger.getLogger(AttachmentBlobStore.class);
+
+    public static final String BLOB_ID_PREFIX = "blob-";
+    public static final String BLOB_CONTENT_NAME = "content";
+    private static final String BLOB_CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_UPDATE_ATTEMPTS = 10;
+    private static final char HIGH_VALUE_UNICODE_CHARACTER = '\uFFF0';
+
+    private final DatabaseConnector connector;
+
+    public AttachmentBlobStore(DatabaseConnector connector) {
+        this.connector = connector;
+    }
+
+    public static String getBlobId(String sha1) {
+        return BLOB_ID_PREFIX + sha1;
+    }
+
+    public InputStream getBlobStream(String blobId) {
+        return connector.getAttachment(blobId, BLOB_CONTENT_NAME);
+    }
+
+    /**
+     * Stores the content of an upload in the blob with the given digests and refers
+     * the given attachment content to it. If the blob exists already, it is only
+     * referenced and nothing is copied. Otherwise it is created from {@code content},
+     * so that the bytes are written once and never to the attachment content itself.
+     * The digests are stored with the attachment content and the couchdb attachments
+     * {@code ownAttachmentNames} written so far are removed from it.
+     *
+     * @return whether the attachment content refers to a blob now, false if the blob
+     * could not be created or referenced, in which case the caller has to store the
+     * content with the attachment content instead
+     */
+    public boolean storeInBlob(String attachmentContentId, String sha1, String sha256, Supplier<InputStream> content, Collection<String> ownAttachmentNames) {
+        AttachmentContent attachmentContent = connector.get(AttachmentContent.class, attachmentContentId);
+        if (attachmentContent == null) {
+            return false;
+        }
+
+        String blobId = getBlobId(sha1);
+        if (!connector.contains(blobId) && !createBlob(blobId, content)) {
+            return false;
+        }
+        attachmentContent.setSha1(sha1);
+        attachmentContent.setSha256(sha256);
+        return referTo(blobId, attachmentContent, ownAttachmentNames);
+    }
+
+    private boolean referTo(String blobId, AttachmentContent attachmentContent, Collection<String> ownAttachmentNames) {
+        if (!addReference(blobId, attachmentContent)) {
+            return false;
+        }
+
+        String attachmentContentId = attachmentContent.getId();
+        attachmentContent.setBlobId(blobId);
+        connector.update(attachmentContent);
+        AttachmentContent updatedContent = connector.get(AttachmentContent.class, attachmentContentId);
+        if (updatedContent == null || !blobId.equals(updatedContent.getBlobId())) {
+            // the reference is dropped by the next removal of unreferenced blobs once the attachment content is gone
+            log.warn("Could not refer attachment content " + attachmentContentId + " to blob " + blobId);
+            return false;
+        }
+
+        for (String attachmentName : ownAttachmentNames) {
+            removeAttachment(attachmentContentId, attachmentName);
+        }
+        return true;
+    }
+
+    private boolean createBlob(String blobId, Supplier<InputStream> content) {
+        InputStream stream = null;
+        try {
+            stream = content.get();
+            // creates the document together with its attachment, so a blob is never seen without its bytes
+            connector.createAttachment(blobId, new AttachmentInputStream(BLOB_CONTENT_NAME, stream, BLOB_CONTENT_TYPE));
+            return true;
+        } catch (UpdateConflictException e) {
+            // created concurrently by an upload of the same content
+            return true;
+        } catch (DbAccessException | UncheckedIOException e) {
+            log.error("Could not create attachment blob " + blobId, e);
+            return false;
+        } finally {
+            closeQuietly(stream, log);
+        }
+    }
+
+    private boolean addReference(String blobId, AttachmentContent attachmentContent) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            AttachmentBlob blob = connector.get(AttachmentBlob.class, blobId);
+            if (blob == null) {
+                // removed in the meantime as it was not referenced yet
+                return false;
+            }
+            blob.setType(AttachmentBlob.TYPE);
+            blob.setSha1(attachmentContent.getSha1());
+            blob.setSha256(attachmentContent.getSha256());
+            if (!blob.getReferences().add(attachmentContent.getId())) {
+                return true;
+            }
+            if (connector.executeBulk(Collections.singletonList(blob)).isEmpty()) {
+                return true;
+            }
+        }
+        log.warn("Could not add reference to attachment blob " + blobId + " after " + MAX_UPDATE_ATTEMPTS + " attempts");
+        return false;
+    }
+
+    private void removeAttachment(String documentId, String attachmentName) {
+        try {
+            connector.deleteAttachment(documentId, connector.getCurrentRevision(documentId), attachmentName);
+        } catch (DocumentNotFoundException e) {
+            // was not stored or is already gone
+        } catch (DbAccessException e) {
+            log.warn("Could not remove attachment " + attachmentName + " of " + documentId + " after deduplication", e);
+        }
+    }
+
+    /**
+     * All blobs, read page by page while iterating
+     */
+    public DocumentIterable<AttachmentBlob> iterateAllBlobs(int pageSize) {
+        return new DocumentIterable<>(connector, AttachmentBlob.class, () -> new ViewQuery()
+                .allDocs()
+                .startKey(BLOB_ID_PREFIX)
+                .endKey(BLOB_ID_PREFIX + HIGH_VALUE_UNICODE_CHARACTER), pageSize, null);
+    }
+
+    /**
+     * Drops references to attachment contents which do not exist anymore and
+     * deletes the blobs without any references left.
+     *
+     * @return the number of deleted blobs
+     */
+    public int removeUnreferencedBlobs() {
+        return removeUnreferencedBlobs(DocumentIterable.DEFAULT_PAGE_SIZE, blobs -> {});
+    }
+
+    /**
+     * Like {@link #removeUnreferencedBlobs()}, only {@code pageSize} blobs are held
+     * in memory at a time.
+     *
+     * @param afterPage called with the number of blobs of each page after it was swept
+     * @return the number of deleted blobs
+     */
+    public int removeUnreferencedBlobs(int pageSize, IntConsumer afterPage) {
+        int removed = 0;
+        for (List<AttachmentBlob> page : Iterables.partition(iterateAllBlobs(pageSize), pageSize)) {
+            removed += removeUnreferencedBlobs(page);
+            afterPage.accept(page.size());
+        }
+        return removed;
+    }
+
+    private int removeUnreferencedBlobs(List<AttachmentBlob> blobs) {
+        Set<String> referencedIds = blobs.stream()
+                .flatMap(blob -> blob.getReferences().stream())
+                .collect(Collectors.toSet());
+        Set<String> existingIds = connector.get(AttachmentContent.class, referencedIds, true).stream()
+                .filter(Objects::nonNull)
+                .map(AttachmentContent::getId)
+                .collect(Collectors.toSet());
+
+        List<AttachmentBlob> unreferenced = new ArrayList<>();
+        List<AttachmentBlob> changed = new ArrayList<>();
+        for (AttachmentBlob blob : blobs) {
+            boolean referencesDropped = blob.getReferences().retainAll(existingIds);
+            if (blob.getReferences().isEmpty()) {
+                unreferenced.add(blob);
+            } else if (referencesDropped) {
+                changed.add(blob);
+            }
+        }
+
+        // documents changed in the meantime are skipped and handled next time
+        if (!changed.isEmpty()) {
+            connector.executeBulk(changed);
+        }
+        if (unreferenced.isEmpty()) {
+            return 0;
+        }
+        List<DocumentOperationResult> failedDeletions = connector.deleteBulk(unreferenced);
+        return unreferenced.size() - failedDeletions.size();
+    }
+}
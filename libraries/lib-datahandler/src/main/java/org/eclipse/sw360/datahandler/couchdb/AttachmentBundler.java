@@ -0,0 +1,352 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyString;
+
+/**
+ * Streams a set of attachments as one zip file.
+ *
+ * The zip file is written by a task on a shared executor into a bounded pipe
+ * which is drained by the consumer of the returned stream. While one entry is
+ * being written, the next attachments are already opened concurrently and
+ * their first bytes are read ahead, so that the latency of fetching many
+ * attachments one after the other does not add up. Entries are written in a
+ * stable order: by file name, then by attachment id.
+ *
+ * Closing the returned stream before it is fully read cancels the writer and
+ * all prefetching tasks and closes the attachment streams they opened.
+ */
+public class AttachmentBundler {
+    private static final Logger log = Logger.getLogger(AttachmentBundler.class);
+
+    public static final int DEFAULT_PREFETCH_COUNT = 4;
+    public static final int DEFAULT_PREFETCH_BYTES = 4 * 1024 * 1024;
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PIPE_CAPACITY_IN_BUFFERS = 16;
+
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("attachment-bundler-%d")
+            .setDaemon(true)
+            .build());
+
+    private static final Comparator<AttachmentContent> BUNDLE_ORDER = Comparator
+            .comparing((AttachmentContent a) -> nullToEmptyString(a.getFilename()))
+            .thenComparing(a -> nullToEmptyString(a.getId()));
+
+    @FunctionalInterface
+    public interface AttachmentOpener {
+        InputStream open(AttachmentContent attachment) throws TException;
+    }
+
+    private final ExecutorService executor;
+    private final int prefetchCount;
+    private final int prefetchBytes;
+
+    public AttachmentBundler() {
+        this(SHARED_EXECUTOR, DEFAULT_PREFETCH_COUNT, DEFAULT_PREFETCH_BYTES);
+    }
+
+    /**
+     * @param executor      executor running the writer and the prefetching tasks, it must not
+     *                      queue tasks behind running ones (e.g. a cached thread pool)
+     * @param prefetchCount number of attachments opened ahead of the one being written
+     * @param prefetchBytes number of bytes read ahead from each prefetched attachment
+     */
+    public AttachmentBundler(ExecutorService executor, int prefetchCount, int prefetchBytes) {
+        this.executor = executor;
+        this.prefetchCount = Math.max(1, prefetchCount);
+        this.prefetchBytes = Math.max(0, prefetchBytes);
+    }
+
+    public InputStream bundle(Collection<AttachmentContent> attachments, AttachmentOpener opener) {
+        List<AttachmentContent> ordered = new ArrayList<>(attachments);
+        ordered.sort(BUNDLE_ORDER);
+
+        BundlePipe pipe = new BundlePipe();
+        Future<?> writer = executor.submit(() -> writeBundle(ordered, opener, pipe));
+        pipe.setWriter(writer);
+        return pipe.inputStream;
+    }
+
+    private void writeBundle(List<AttachmentContent> attachments, AttachmentOpener opener, BundlePipe pipe) {
+        Deque<Future<PrefetchedAttachment>> pending = new ArrayDeque<>();
+        Iterator<AttachmentContent> toPrefetch = attachments.iterator();
+        Set<String> entryNames = new HashSet<>();
+        // the zip stream is not closed on failure, the reader must not see a regular end of the stream then
+        ZipOutputStream zip = new ZipOutputStream(pipe.outputStream);
+        try {
+            while (pending.size() < prefetchCount && toPrefetch.hasNext()) {
+                pending.add(prefetch(toPrefetch.next(), opener));
+            }
+            while (!pending.isEmpty()) {
+                Future<PrefetchedAttachment> next = pending.poll();
+                if (toPrefetch.hasNext()) {
+                    pending.add(prefetch(toPrefetch.next(), opener));
+                }
+                PrefetchedAttachment prefetched = next.get();
+                try {
+                    zip.putNextEntry(new ZipEntry(uniqueEntryName(prefetched.attachment, entryNames)));
+                    prefetched.writeTo(zip);
+                    zip.closeEntry();
+                } finally {
+                    prefetched.close();
+                }
+            }
+            zip.close();
+        } catch (InterruptedException | InterruptedIOException e) {
+            log.info("Writing of attachment bundle was cancelled");
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            if (pipe.isClosedByReader()) {
+                log.info("Writing of attachment bundle was cancelled");
+            } else {
+                log.error("failed to write zip stream", e);
+                pipe.fail(e);
+            }
+        } finally {
+            pending.forEach(AttachmentBundler::cancel);
+        }
+    }
+
+    private Future<PrefetchedAttachment> prefetch(AttachmentContent attachment, AttachmentOpener opener) {
+        return executor.submit(() -> {
+            PrefetchedAttachment prefetched = new PrefetchedAttachment(attachment);
+            try {
+                prefetched.fill(opener.open(attachment), prefetchBytes);
+            } catch (TException e) {
+                log.error("failed to get AttachmentStream, maybe due to permission problems", e);
+            } catch (IOException | RuntimeException e) {
+                prefetched.close();
+                throw e;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                prefetched.close();
+            }
+            return prefetched;
+        });
+    }
+
+    private static void cancel(Future<PrefetchedAttachment> future) {
+        if (!future.cancel(true)) {
+            try {
+                future.get().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException ignored) {
+                // nothing was left open
+            }
+        }
+    }
+
+    private static String uniqueEntryName(AttachmentContent attachment, Set<String> entryNames) {
+        String filename = nullToEmptyString(attachment.getFilename());
+        String name = filename;
+        int extensionIndex = filename.lastIndexOf('.');
+        String base = extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename;
+        String extension = extensionIndex > 0 ? filename.substring(extensionIndex) : "";
+        for (int count = 1; !entryNames.add(name); count++) {
+            name = base + " (" + count + ")" + extension;
+        }
+        return name;
+    }
+
+    /**
+     * An attachment whose stream has been opened and whose first bytes have
+     * been read. The stream is only kept open if there is more to read.
+     */
+    private static class PrefetchedAttachment implements Closeable {
+        private final AttachmentContent attachment;
+        private byte[] head = new byte[0];
+        private int headLength = 0;
+        private InputStream rest;
+
+        PrefetchedAttachment(AttachmentContent attachment) {
+            this.attachment = attachment;
+        }
+
+        void fill(InputStream stream, int prefetchBytes) throws IOException {
+            rest = stream;
+            head = new byte[Math.min(prefetchBytes, BUFFER_SIZE)];
+            while (headLength < prefetchBytes && !Thread.currentThread().isInterrupted()) {
+                if (headLength == head.length) {
+                    head = Arrays.copyOf(head, Math.min(prefetchBytes, head.length * 2));
+                }
+                int read = stream.read(head, headLength, head.length - headLength);
+                if (read < 0) {
+                    close();
+                    break;
+                }
+                headLength += read;
+            }
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(head, 0, headLength);
+            head = null;
+            if (rest != null) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int length;
+                while ((length = rest.read(buffer)) >= 0) {
+                    out.write(buffer, 0, length);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(rest, log);
+            rest = null;
+        }
+    }
+
+    /**
+     * A pipe passing buffers of up to {@link #BUFFER_SIZE} bytes from the
+     * writer task to the consumer through a bounded queue. Unlike the piped
+     * streams of the JDK it does not depend on the identity of the reading or
+     * writing thread, which is not stable when tasks run on a thread pool.
+     */
+    private static class BundlePipe {
+        private static final byte[] END_OF_STREAM = new byte[0];
+
+        private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(PIPE_CAPACITY_IN_BUFFERS);
+        private volatile boolean closedByReader = false;
+        private volatile Exception failure;
+        private volatile Future<?> writer;
+
+        final OutputStream outputStream = new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len > 0) {
+                    put(Arrays.copyOfRange(b, off, off + len));
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                put(END_OF_STREAM);
+            }
+        }, BUFFER_SIZE);
+
+        final InputStream inputStream = new InputStream() {
+            private byte[] current = new byte[0];
+            private int position = 0;
+            private boolean endOfStream = false;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                while (position >= current.length) {
+                    if (endOfStream) {
+                        return -1;
+                    }
+                    take();
+                }
+                int count = Math.min(len, current.length - position);
+                System.arraycopy(current, position, b, off, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return current.length - position;
+            }
+
+            @Override
+            public void close() {
+                closedByReader = true;
+                Future<?> currentWriter = writer;
+                if (currentWriter != null) {
+                    currentWriter.cancel(true);
+                }
+                buffers.clear();
+            }
+
+            private void take() throws IOException {
+                if (closedByReader) {
+                    throw new IOException("Attachment bundle stream is closed");
+                }
+                byte[] next;
+                try {
+                    next = buffers.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for attachment bundle data");
+                }
+                if (next == null) {
+                    if (failure != null) {
+                        throw new IOException("Failed to write attachment bundle", failure);
+                    }
+                    return;
+                }
+                if (next == END_OF_STREAM) {
+                    endOfStream = true;
+                }
+                current = next;
+                position = 0;
+            }
+        };
+
+        void setWriter(Future<?> writer) {
+            this.writer = writer;
+            if (closedByReader) {
+                writer.cancel(true);
+            }
+        }
+
+        boolean isClosedByReader() {
+            return closedByReader;
+        }
+
+        void fail(Exception e) {
+            failure = e;
+        }
+
+        private void put(byte[] buffer) throws IOException {
+            try {
+                while (!buffers.offer(buffer, 1, TimeUnit.SECONDS)) {
+                    if (closedByReader) {
+                        throw new IOException("Attachment bundle stream was closed by the reader");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing attachment bundle");
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@
 package org.eclipse.sw360.datahandler.couchdb;
 
 import com.google.common.collect.Sets;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.eclipse.sw360.datahandler.common.Duration;
 import org.eclipse.sw360.datahandler.thrift.SW360Exception;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
@@ -20,8 +22,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -30,7 +34,6 @@ import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptyCollection;
 import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptySet;
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotEmpty;
-import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 
 import org.apache.log4j.Logger;
 import org.eclipse.sw360.datahandler.thrift.attachments.CheckStatus;
@@ -102,26 +105,56 @@ public class AttachmentConnector extends AttachmentStreamConnector {
     }
 
     public String getSha1FromAttachmentContentId(String attachmentContentId) {
-        InputStream attachmentStream = null;
         try {
-            AttachmentContent attachmentContent = getAttachmentContent(attachmentContentId);
-            attachmentStream = readAttachmentStream(attachmentContent);
-            return sha1Hex(attachmentStream);
+            return getSha1(getAttachmentContent(attachmentContentId));
         } catch (SW360Exception e) {
             log.error("Problem retrieving content of attachment", e);
             return "";
+        }
+    }
+
+    /**
+     * The sha1 is computed during the upload. Only for content uploaded before this was done,
+     * it is computed from the stored content once and then stored with the attachment content.
+     */
+    private String getSha1(AttachmentContent attachmentContent) {
+        if (attachmentContent == null) {
+            return "";
+        }
+        if (!isNullOrEmpty(attachmentContent.getSha1())) {
+            return attachmentContent.getSha1();
+        }
+
+        InputStream attachmentStream = null;
+        try {
+            AttachmentDigest digest = new AttachmentDigest();
+            attachmentStream = digest.digesting(readAttachmentStream(attachmentContent));
+            IOUtils.copy(attachmentStream, NullOutputStream.NULL_OUTPUT_STREAM);
+            digest.applyTo(attachmentContent);
         } catch (IOException e) {
             log.error("Problem computing the sha1 checksum", e);
             return "";
         } finally {
             closeQuietly(attachmentStream, log);
         }
+        connector.update(attachmentContent);
+        return attachmentContent.getSha1();
     }
 
     public void setSha1ForAttachments(Set<Attachment> attachments){
+        Set<String> attachmentContentIds = attachments.stream()
+                .filter(attachment -> isNullOrEmpty(attachment.getSha1()))
+                .map(Attachment::getAttachmentContentId)
+                .collect(Collectors.toSet());
+        if (attachmentContentIds.isEmpty()) {
+            return;
+        }
+        Map<String, AttachmentContent> attachmentContents = connector.get(AttachmentContent.class, attachmentContentIds, true).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(AttachmentContent::getId, Function.identity()));
         for(Attachment attachment : attachments){
             if(isNullOrEmpty(attachment.getSha1())){
-                String sha1 = getSha1FromAttachmentContentId(attachment.getAttachmentContentId());
+                String sha1 = getSha1(attachmentContents.get(attachment.getAttachmentContentId()));
                 attachment.setSha1(sha1);
             }
         }
@@ -10,34 +10,148 @@
  */
 package org.eclipse.sw360.datahandler.couchdb;
 
+import org.apache.log4j.Logger;
 import org.eclipse.sw360.datahandler.common.Duration;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 
 import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.eclipse.sw360.datahandler.common.CommonUtils.closeQuietly;
+
 /**
  * @author daniele.fognini@tngtech.com
  */
 public class AttachmentContentDownloader {
+    private static final Logger log = Logger.getLogger(AttachmentContentDownloader.class);
+
+    static final int MAX_RESUME_ATTEMPTS = 3;
+
     /**
      * download an incomplete AttachmentContent from its URL
      *
+     * If an http download breaks off, it is resumed with a range request for the
+     * missing bytes, as long as the server answers it with the same content.
+     *
      * @todo setup DI and move timeout to a member
      */
     public InputStream download(AttachmentContent attachmentContent, Duration timeout) throws IOException {
         int millisTimeout = ((Number) timeout.toMillis()).intValue();
 
         URL remoteURL = new URL(attachmentContent.getRemoteUrl());
+        URLConnection urlConnection = openConnection(remoteURL, millisTimeout);
+
+        InputStream downloadStream = urlConnection.getInputStream();
+        if (urlConnection instanceof HttpURLConnection) {
+            downloadStream = new ResumingDownloadStream(remoteURL, millisTimeout, (HttpURLConnection) urlConnection, downloadStream);
+        }
+        return new BufferedInputStream(downloadStream);
+    }
+
+    private static URLConnection openConnection(URL remoteURL, int millisTimeout) throws IOException {
         URLConnection urlConnection = remoteURL.openConnection();
 
         urlConnection.setConnectTimeout(millisTimeout);
         urlConnection.setReadTimeout(millisTimeout);
+        return urlConnection;
+    }
 
-        InputStream downloadStream = urlConnection.getInputStream();
-        return new BufferedInputStream(downloadStream);
+    /**
+     * Reads the body of an http response and continues with a range request
+     * whenever the connection fails or ends before the announced length.
+     */
+    private static class ResumingDownloadStream extends InputStream {
+        private final URL url;
+        private final int millisTimeout;
+        private final long expectedLength;
+        private final String validator;
+        private InputStream current;
+        private long received = 0;
+        private int resumes = 0;
+
+        ResumingDownloadStream(URL url, int millisTimeout, HttpURLConnection connection, InputStream stream) {
+            this.url = url;
+            this.millisTimeout = millisTimeout;
+            this.expectedLength = connection.getContentLengthLong();
+            this.validator = getValidator(connection);
+            this.current = stream;
+        }
+
+        private static String getValidator(HttpURLConnection connection) {
+            String etag = connection.getHeaderField("ETag");
+            if (!isNullOrEmpty(etag) && !etag.startsWith("W/")) {
+                return etag;
+            }
+            // weak etags must not be used in If-Range
+            return connection.getHeaderField("Last-Modified");
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                try {
+                    int read = current.read(b, off, len);
+                    if (read < 0) {
+                        if (expectedLength >= 0 && received < expectedLength) {
+                            throw new EOFException("download of " + url + " ended after " + received + " of " + expectedLength + " bytes");
+                        }
+                        return -1;
+                    }
+                    received += read;
+                    return read;
+                } catch (IOException e) {
+                    resume(e);
+                }
+            }
+        }
+
+        private void resume(IOException cause) throws IOException {
+            if (resumes >= MAX_RESUME_ATTEMPTS || validator == null && expectedLength < 0) {
+                // without a validator or length a changed resource could not be told apart from the original one
+                throw cause;
+            }
+            resumes++;
+            closeQuietly(current, log);
+            log.info("resuming download of " + url + " at byte " + received + " after: " + cause.getMessage());
+
+            HttpURLConnection connection = (HttpURLConnection) openConnection(url, millisTimeout);
+            connection.setRequestProperty("Range", "bytes=" + received + "-");
+            if (validator != null) {
+                connection.setRequestProperty("If-Range", validator);
+            }
+            try {
+                String contentRange = connection.getHeaderField("Content-Range");
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL
+                        || contentRange == null || !contentRange.startsWith("bytes " + received + "-")
+                        || expectedLength >= 0 && !contentRange.endsWith("/" + expectedLength)) {
+                    connection.disconnect();
+                    cause.addSuppressed(new IOException("server did not resume " + url + " at byte " + received));
+                    throw cause;
+                }
+                current = connection.getInputStream();
+            } catch (IOException e) {
+                if (e != cause) {
+                    cause.addSuppressed(e);
+                }
+                throw cause;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            current.close();
+        }
     }
 }
@@ -30,6 +30,9 @@ public class AttachmentContentWrapper extends DocumentWrapper<AttachmentContent>
     public String filename; // required
     public String contentType; // required
     public String partsCount; // optional
+    public String sha1; // optional
+    public String sha256; // optional
+    public String blobId; // optional
 
 
     @Override
@@ -41,5 +44,8 @@ public class AttachmentContentWrapper extends DocumentWrapper<AttachmentContent>
         partsCount = source.getPartsCount();
         remoteUrl = source.getRemoteUrl();
         onlyRemote = source.isOnlyRemote();
+        sha1 = source.getSha1();
+        sha256 = source.getSha256();
+        blobId = source.getBlobId();
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.codec.digest.DigestUtils.getSha1Digest;
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
+
+/**
+ * SHA-1 and SHA-256 digests of attachment content, updated while the content
+ * is streamed to the database. Parts of a multipart upload are fed one after
+ * the other into the same digest, which then yields the digests of the
+ * complete content.
+ */
+public class AttachmentDigest {
+    private final MessageDigest sha1;
+    private final MessageDigest sha256;
+
+    public AttachmentDigest() {
+        this(getSha1Digest(), getSha256Digest());
+    }
+
+    private AttachmentDigest(MessageDigest sha1, MessageDigest sha256) {
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Returns a stream which updates this digest with everything read from {@code in}.
+     */
+    public InputStream digesting(InputStream in) {
+        return new DigestInputStream(new DigestInputStream(in, sha1), sha256);
+    }
+
+    /**
+     * Returns an independent copy of the current state, so that a part can be
+     * digested without affecting this digest if its upload fails.
+     */
+    public AttachmentDigest copy() {
+        try {
+            return new AttachmentDigest((MessageDigest) sha1.clone(), (MessageDigest) sha256.clone());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("message digest cannot be cloned", e);
+        }
+    }
+
+    /**
+     * Completes the digests and sets them on {@code attachmentContent}. The
+     * digest must not be used afterwards.
+     */
+    public void applyTo(AttachmentContent attachmentContent) {
+        attachmentContent.setSha1(encodeHexString(sha1.digest()));
+        attachmentContent.setSha256(encodeHexString(sha256.digest()));
+    }
+}
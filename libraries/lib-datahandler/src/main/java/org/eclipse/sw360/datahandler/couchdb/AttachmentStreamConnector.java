@@ -11,6 +11,8 @@
  */
 package org.eclipse.sw360.datahandler.couchdb;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.thrift.TException;
 import org.eclipse.sw360.datahandler.common.CommonUtils;
 import org.eclipse.sw360.datahandler.common.ConcatClosingInputStream;
@@ -23,16 +25,14 @@ import org.apache.log4j.Logger;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.AttachmentInputStream;
 import org.ektorp.DocumentNotFoundException;
+import org.ektorp.support.CouchDbDocument;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.*;
 import java.net.MalformedURLException;
-import java.util.Iterator;
-import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
 
@@ -44,10 +44,16 @@ import static org.eclipse.sw360.datahandler.common.SW360Assert.assertNotNull;
  */
 public class AttachmentStreamConnector {
     private static Logger log = Logger.getLogger(AttachmentStreamConnector.class);
+    private static final int MULTIPART_DIGEST_EXPIRY_HOURS = 24;
 
     protected final DatabaseConnector connector;
     private final AttachmentContentDownloader attachmentContentDownloader;
     private final Duration downloadTimeout;
+    private final AttachmentBundler attachmentBundler = new AttachmentBundler();
+    private final AttachmentBlobStore blobStore;
+    private final Cache<String, PartialDigest> multipartDigests = CacheBuilder.newBuilder()
+            .expireAfterAccess(MULTIPART_DIGEST_EXPIRY_HOURS, TimeUnit.HOURS)
+            .build();
 
     /**
      * @param downloadTimeout timeout for downloading remote attachments
@@ -66,6 +72,7 @@ public class AttachmentStreamConnector {
         this.connector = connector;
         this.attachmentContentDownloader = attachmentContentDownloader;
         this.downloadTimeout = downloadTimeout;
+        this.blobStore = new AttachmentBlobStore(connector);
     }
 
     /**
@@ -73,6 +80,39 @@ public class AttachmentStreamConnector {
      * It is highly recommended to close this stream after using to avoid connection leak
      */
     public <T> InputStream getAttachmentStream(AttachmentContent attachment, User user, T context) throws TException {
+        assertAllowedToDownload(attachment, user, context);
+
+        return unsafeGetAttachmentStream(attachment);
+    }
+
+    /**
+     * Get an input stream of the {@code length} bytes of the attachment starting at {@code offset}.
+     * Only the stored chunks overlapping the range are read.
+     * It is highly recommended to close this stream after using to avoid connection leak
+     */
+    public <T> InputStream getAttachmentRangeStream(AttachmentContent attachment, User user, T context, long offset, long length) throws TException {
+        assertAllowedToDownload(attachment, user, context);
+
+        AttachmentContent stored = downloadRemoteAttachment(attachment);
+        try {
+            return ConcatClosingInputStream.ofRange(getStoredChunkLengths(stored), chunk -> openStoredChunk(stored, chunk), offset, length);
+        } catch (IOException e) {
+            String msg = "Cannot read range of attachment " + attachment.getId();
+            log.error(msg, e);
+            throw new SW360Exception(msg);
+        }
+    }
+
+    /**
+     * @return the length in bytes of the stored content of the attachment
+     */
+    public long getAttachmentLength(AttachmentContent attachment) throws SW360Exception {
+        return getStoredChunkLengths(downloadRemoteAttachment(attachment)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private <T> void assertAllowedToDownload(AttachmentContent attachment, User user, T context) throws SW360Exception {
         assertNotNull(attachment);
         assertNotNull(context);
 
@@ -84,53 +124,79 @@ public class AttachmentStreamConnector {
             log.warn(msg);
             throw new SW360Exception(msg);
         }
+    }
 
-        return unsafeGetAttachmentStream(attachment);
+    /**
+     * Lengths of the couchdb attachments the content is stored in, in the order
+     * they are concatenated by {@link #readAttachmentStream(AttachmentContent)}.
+     */
+    protected List<Long> getStoredChunkLengths(AttachmentContent attachment) throws SW360Exception {
+        if (attachment.isSetBlobId()) {
+            AttachmentBlob blob = connector.get(AttachmentBlob.class, attachment.getBlobId());
+            return Collections.singletonList(getStoredLength(blob, attachment.getBlobId(), AttachmentBlobStore.BLOB_CONTENT_NAME));
+        }
+
+        AttachmentContentWrapper stored = connector.get(AttachmentContentWrapper.class, attachment.getId());
+        List<Long> lengths = new ArrayList<>();
+        int partsCount = attachment.isSetPartsCount() ? CommonUtils.toUnsignedInt(attachment.getPartsCount()) : -1;
+        if (partsCount < 0) {
+            lengths.add(getStoredLength(stored, attachment.getId(), attachment.getFilename()));
+        } else {
+            for (int part = 1; part <= partsCount; part++) {
+                lengths.add(getStoredLength(stored, attachment.getId(), getPartFileName(attachment, part)));
+            }
+        }
+        return lengths;
+    }
+
+    private static long getStoredLength(CouchDbDocument document, String documentId, String attachmentName) throws SW360Exception {
+        org.ektorp.Attachment stub = document == null || document.getAttachments() == null
+                ? null
+                : document.getAttachments().get(attachmentName);
+        if (stub == null) {
+            throw new SW360Exception("Cannot find " + attachmentName + " of attachment " + documentId);
+        }
+        return stub.getContentLength();
+    }
+
+    private InputStream openStoredChunk(AttachmentContent attachment, int chunk) {
+        if (attachment.isSetBlobId()) {
+            return blobStore.getBlobStream(attachment.getBlobId());
+        }
+        boolean multipart = attachment.isSetPartsCount() && CommonUtils.toUnsignedInt(attachment.getPartsCount()) >= 0;
+        String attachmentName = multipart ? getPartFileName(attachment, chunk + 1) : attachment.getFilename();
+        try {
+            return connector.getAttachment(attachment.getId(), attachmentName);
+        } catch (DocumentNotFoundException e) {
+            log.error("Cannot find " + attachmentName + " of attachment " + attachment.getId(), e);
+            return null;
+        }
     }
 
     public InputStream unsafeGetAttachmentStream(AttachmentContent attachment) throws SW360Exception {
+        return readAttachmentStream(downloadRemoteAttachment(attachment));
+    }
+
+    /**
+     * Stores the content of a remote attachment in the database, unless this has happened already.
+     *
+     * @return the attachment content as stored in the database afterwards
+     */
+    public AttachmentContent downloadRemoteAttachment(AttachmentContent attachment) throws SW360Exception {
         if (attachment.isOnlyRemote()) {
-            attachment = downloadRemoteAttachmentAndUpdate(attachment);
+            return downloadRemoteAttachmentAndUpdate(attachment);
         }
-
-        return readAttachmentStream(attachment);
+        return attachment;
     }
 
     /**
-     * It is highly recommended to close this stream after using to avoid connection leak
+     * It is highly recommended to close this stream after using to avoid connection leak.
+     * Closing it before the end of the bundle has been reached cancels the remaining downloads.
      */
-    public <T> InputStream getAttachmentBundleStream(Set<AttachmentContent> attachments, User user, T context) throws IOException, SW360Exception {
+    public <T> InputStream getAttachmentBundleStream(Collection<AttachmentContent> attachments, User user, T context) throws IOException, SW360Exception {
         assertNotNull(context);
 
-        PipedInputStream in = new PipedInputStream();
-        PipedOutputStream out = new PipedOutputStream(in);
-
-        new Thread(() -> {
-            byte[] buffer = new byte[1024];
-            int length;
-
-            try(ZipOutputStream zip = new ZipOutputStream(out)){
-                for(AttachmentContent attachment : attachments) {
-                    // TODO: handle attachments with equal name
-                    ZipEntry zipEntry = new ZipEntry(attachment.getFilename());
-                    zip.putNextEntry(zipEntry);
-
-                    try(InputStream attachmentStream = getAttachmentStream(attachment, user, context)) {
-                        while ((length = attachmentStream.read(buffer)) >= 0) {
-                            zip.write(buffer, 0, length);
-                        }
-                    } catch (TException e) {
-                        log.error("failed to get AttachmentStream, maybe due to permission problems", e);
-                    }
-
-                    zip.closeEntry();
-                }
-            } catch (IOException e) {
-                log.error("failed to write zip stream", e);
-            }
-        }).start();
-
-        return in;
+        return attachmentBundler.bundle(attachments, attachment -> getAttachmentStream(attachment, user, context));
     }
 
     private AttachmentContent downloadRemoteAttachmentAndUpdate(AttachmentContent attachmentContent) throws SW360Exception {
@@ -144,17 +210,26 @@ public class AttachmentStreamConnector {
             throw new SW360Exception(msg);
         }
 
+        try {
+            uploadAttachment(attachmentContent, downloadStream);
+        } finally {
+            CommonUtils.closeQuietly(downloadStream, log);
+        }
 
-        uploadAttachment(attachmentContent, downloadStream);
-
-        attachmentContent = connector.get(AttachmentContent.class, attachmentContent.getId());
-        attachmentContent.setOnlyRemote(false);
-        connector.update(attachmentContent);
+        AttachmentContent uploadedContent = connector.get(AttachmentContent.class, attachmentContent.getId());
+        uploadedContent.setOnlyRemote(false);
+        uploadedContent.setSha1(attachmentContent.getSha1());
+        uploadedContent.setSha256(attachmentContent.getSha256());
+        connector.update(uploadedContent);
 
-        return attachmentContent;
+        return connector.get(AttachmentContent.class, uploadedContent.getId());
     }
 
     protected InputStream readAttachmentStream(AttachmentContent attachment) {
+        if (attachment.isSetBlobId()) {
+            return blobStore.getBlobStream(attachment.getBlobId());
+        }
+
         int partsCount = -1;
 
         if (attachment.isSetPartsCount()) {
@@ -200,22 +275,147 @@ public class AttachmentStreamConnector {
     }
 
     /**
-     * Upload a single part attachment using the provided metadata
+     * Upload a single part attachment using the provided metadata.
+     * The digests of the uploaded content are set on the given attachment, storing them is up to the caller.
+     * The content is written to the blob for its sha1 unless that is stored already, and the attachment refers
+     * to the blob. Only if the blob cannot be used, the content is written to the attachment itself.
      */
     public void uploadAttachment(AttachmentContent attachment, InputStream stream) throws SW360Exception {
-        addAttachmentTo(attachment.getId(), attachment.getFilename(), stream);
+        AttachmentDigest digest = new AttachmentDigest();
+        File spooled = spool(digest.digesting(stream));
+        try {
+            digest.applyTo(attachment);
+            if (blobStore.storeInBlob(attachment.getId(), attachment.getSha1(), attachment.getSha256(),
+                    () -> openSpooled(spooled), Collections.emptyList())) {
+                attachment.setBlobId(AttachmentBlobStore.getBlobId(attachment.getSha1()));
+                return;
+            }
+            addAttachmentTo(attachment.getId(), attachment.getFilename(), spooled);
+        } finally {
+            deleteSpooled(spooled);
+        }
     }
 
     /**
-     * Upload a part of an attachment using the provided metadata
+     * Upload a part of an attachment using the provided metadata.
+     * As long as the parts are uploaded in order, the digests of the whole content
+     * are computed along the way and stored with the attachment after the last part.
+     * The whole content is then written to the blob for its sha1 unless that is stored
+     * already, the attachment refers to the blob and its parts written so far are
+     * removed. Only if the blob cannot be used, the last part is written as well.
      */
     public void uploadAttachmentPart(AttachmentContent attachmentContent, int part, InputStream stream) throws SW360Exception {
         // Extract required data
         assertNotNull(attachmentContent);
 
         String partFileName = getPartFileName(attachmentContent, part);
+        AttachmentDigest digest = getDigestForPart(attachmentContent.getId(), part);
+
+        if (digest == null) {
+            addAttachmentTo(attachmentContent.getId(), partFileName, stream);
+        } else if (part < getPartsCount(attachmentContent)) {
+            addAttachmentTo(attachmentContent.getId(), partFileName, digest.digesting(stream));
+            multipartDigests.put(attachmentContent.getId(), new PartialDigest(part + 1, digest));
+        } else {
+            uploadLastPart(attachmentContent, partFileName, digest, stream);
+        }
+    }
+
+    private AttachmentDigest getDigestForPart(String attachmentContentId, int part) {
+        if (part == 1) {
+            return new AttachmentDigest();
+        }
+        PartialDigest partialDigest = multipartDigests.getIfPresent(attachmentContentId);
+        if (partialDigest == null || partialDigest.nextPart != part) {
+            // out of order or the digest of the previous parts is gone: the sha1 has to be computed from the stored parts later on
+            multipartDigests.invalidate(attachmentContentId);
+            return null;
+        }
+        return partialDigest.digest.copy();
+    }
+
+    private void uploadLastPart(AttachmentContent attachmentContent, String partFileName, AttachmentDigest digest, InputStream stream) throws SW360Exception {
+        String attachmentContentId = attachmentContent.getId();
+        int partsCount = getPartsCount(attachmentContent);
+        List<String> partFileNames = new ArrayList<>();
+        for (int part = 1; part <= partsCount; part++) {
+            partFileNames.add(getPartFileName(attachmentContent, part));
+        }
+
+        // the digests of the whole content are known before the last part is written
+        AttachmentContent digested = new AttachmentContent();
+        File spooled = spool(digest.digesting(stream));
+        try {
+            digest.applyTo(digested);
+            List<String> writtenPartFileNames = partFileNames.subList(0, partsCount - 1);
+            if (!blobStore.storeInBlob(attachmentContentId, digested.getSha1(), digested.getSha256(),
+                    () -> new SequenceInputStream(getConcatenatedAttachmentPartsStream(attachmentContent, partsCount - 1), openSpooled(spooled)),
+                    writtenPartFileNames)) {
+                addAttachmentTo(attachmentContentId, partFileName, spooled);
+                storeDigests(attachmentContentId, digested);
+            }
+        } finally {
+            deleteSpooled(spooled);
+        }
+        multipartDigests.invalidate(attachmentContentId);
+    }
+
+    private void storeDigests(String attachmentContentId, AttachmentContent digested) {
+        AttachmentContent uploadedContent = connector.get(AttachmentContent.class, attachmentContentId);
+        if (uploadedContent != null) {
+            uploadedContent.setSha1(digested.getSha1());
+            uploadedContent.setSha256(digested.getSha256());
+            connector.update(uploadedContent);
+        }
+    }
+
+    private static int getPartsCount(AttachmentContent attachmentContent) {
+        try {
+            return Integer.parseInt(attachmentContent.getPartsCount());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Copies the stream into a temporary file, so that it can be digested before it is written to the database
+     */
+    private static File spool(InputStream stream) throws SW360Exception {
+        File spooled = null;
+        try {
+            spooled = File.createTempFile("sw360-upload", ".tmp");
+            Files.copy(stream, spooled.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return spooled;
+        } catch (IOException e) {
+            deleteSpooled(spooled);
+            String msg = "Cannot buffer uploaded attachment content";
+            log.error(msg, e);
+            throw new SW360Exception(msg);
+        }
+    }
+
+    private void addAttachmentTo(String attachmentContentId, String filename, File spooled) throws SW360Exception {
+        try (InputStream stream = new FileInputStream(spooled)) {
+            addAttachmentTo(attachmentContentId, filename, stream);
+        } catch (IOException e) {
+            String msg = "Cannot read buffered content of attachment " + attachmentContentId;
+            log.error(msg, e);
+            throw new SW360Exception(msg);
+        }
+    }
 
-        addAttachmentTo(attachmentContent.getId(), partFileName, stream);
+    private static InputStream openSpooled(File spooled) {
+        try {
+            return new FileInputStream(spooled);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteSpooled(File spooled) {
+        if (spooled != null && !spooled.delete() && spooled.exists()) {
+            log.warn("Could not delete temporary file " + spooled);
+        }
     }
 
     private void addAttachmentTo(String attachmentContentId, String filename, InputStream stream) {
@@ -228,14 +428,30 @@ public class AttachmentStreamConnector {
 
     /**
      * Get an input stream to download a part of the attachment
+     *
+     * @throws SW360Exception if the parts were merged into a shared blob after the upload, the whole
+     *                        content has to be read then
      */
     public InputStream getAttachmentPartStream(AttachmentContent attachment, int part) throws SW360Exception {
         assertNotNull(attachment);
 
+        if (attachment.isSetBlobId()) {
+            throw new SW360Exception("The parts of attachment " + attachment.getId() + " were merged into blob " + attachment.getBlobId());
+        }
         return connector.getAttachment(attachment.getId(), getPartFileName(attachment, part));
     }
 
     private String getPartFileName(AttachmentContent attachment, int part) {
         return attachment.getFilename() + "_part" + part;
     }
+
+    private static class PartialDigest {
+        private final int nextPart;
+        private final AttachmentDigest digest;
+
+        PartialDigest(int nextPart, AttachmentDigest digest) {
+            this.nextPart = nextPart;
+            this.digest = digest;
+        }
+    }
 }
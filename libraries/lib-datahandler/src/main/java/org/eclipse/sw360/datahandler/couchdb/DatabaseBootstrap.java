@@ -0,0 +1,168 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.log4j.Logger;
+import org.ektorp.UpdateConflictException;
+import org.ektorp.http.HttpClient;
+import org.ektorp.support.DesignDocument;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Registry of the databases, security objects, design documents and search functions which were set up by
+ * this process, so that each of them is set up once instead of with every connector and repository.
+ *
+ * Design documents are registered with a hash of their views, so a changed view definition is written to the
+ * database even if the design document was set up before. Clients of the same CouchDB server are recognized by the
+ * server name given with {@link #onServer(String, HttpClient)}; any other client counts as a server of its own.
+ * Deleting a database through a {@link DatabaseInstance} forgets everything set up in it.
+ */
+public class DatabaseBootstrap {
+
+    private static final Logger log = Logger.getLogger(DatabaseBootstrap.class);
+
+    private static final int DESIGN_DOCUMENT_ATTEMPTS = 5;
+
+    private static final Map<HttpClient, String> servers = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final AtomicLong unnamedServers = new AtomicLong();
+    private static final Set<String> done = new HashSet<>();
+
+    private DatabaseBootstrap() {
+        // Utility class with only static functions
+    }
+
+    /**
+     * Names the server of the client, clients with the same name share what was set up.
+     */
+    public static HttpClient onServer(String serverName, HttpClient client) {
+        servers.put(client, serverName);
+        return client;
+    }
+
+    /**
+     * Creates the database and restricts its access, unless done before by this process.
+     */
+    public static void initDatabase(DatabaseInstance instance, String dbName, Runnable initializer) {
+        runOnce(keyOf(instance, dbName), initializer);
+    }
+
+    /**
+     * Writes the views of the generated design document which are missing or different in the database,
+     * unless the same views were written before by this process. Other views in the design document are kept,
+     * as repositories of the same type share it.
+     */
+    public static void initDesignDocument(DatabaseConnector connector, DesignDocument generated) {
+        String key = keyOf(connector.getInstance(), connector.getDbName()) + "/" + generated.getId() + "#" + hashOf(generated);
+        runOnce(key, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    writeViews(connector, generated);
+                    return;
+                } catch (UpdateConflictException e) {
+                    if (attempt >= DESIGN_DOCUMENT_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debug("Design document " + generated.getId() + " was changed concurrently, attempt " + attempt, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the uploader of a search function, unless the same function was set up before by this process.
+     *
+     * @return the result of the uploader, false if it did not run
+     */
+    public static boolean initSearchFunction(DatabaseInstance instance, String dbName, String name, String definition, BooleanSupplier uploader) {
+        String key = keyOf(instance, dbName) + "/" + name + "#" + Hashing.md5().hashString(definition, StandardCharsets.UTF_8);
+        boolean[] uploaded = {false};
+        runOnce(key, () -> uploaded[0] = uploader.getAsBoolean());
+        return uploaded[0];
+    }
+
+    /**
+     * Forgets what was set up in the database, as it was deleted.
+     */
+    public static void forget(DatabaseInstance instance, String dbName) {
+        String prefix = keyOf(instance, dbName);
+        synchronized (done) {
+            done.removeIf(key -> key.equals(prefix) || key.startsWith(prefix + "/"));
+        }
+    }
+
+    private static void runOnce(String key, Runnable initializer) {
+        synchronized (done) {
+            if (!done.contains(key)) {
+                initializer.run();
+                done.add(key);
+            }
+        }
+    }
+
+    private static void writeViews(DatabaseConnector connector, DesignDocument generated) {
+        DesignDocument stored = connector.get(DesignDocument.class, generated.getId());
+        if (stored == null) {
+            connector.create(copyOf(generated));
+            return;
+        }
+
+        boolean changed = false;
+        for (Map.Entry<String, DesignDocument.View> view : generated.getViews().entrySet()) {
+            DesignDocument.View storedView = stored.get(view.getKey());
+            if (storedView == null || !sameView(storedView, view.getValue())) {
+                stored.addView(view.getKey(), view.getValue());
+                changed = true;
+            }
+        }
+        if (changed) {
+            log.info("Updating views of design document " + generated.getId() + " in database " + connector.getDbName());
+            connector.update(stored);
+        }
+    }
+
+    private static DesignDocument copyOf(DesignDocument generated) {
+        DesignDocument copy = new DesignDocument(generated.getId());
+        generated.getViews().forEach(copy::addView);
+        return copy;
+    }
+
+    private static boolean sameView(DesignDocument.View a, DesignDocument.View b) {
+        return Objects.equals(a.getMap(), b.getMap()) && Objects.equals(a.getReduce(), b.getReduce());
+    }
+
+    private static String hashOf(DesignDocument designDocument) {
+        Hasher hasher = Hashing.md5().newHasher();
+        new TreeMap<>(designDocument.getViews()).forEach((name, view) -> hasher
+                .putString(name, StandardCharsets.UTF_8).putChar('\0')
+                .putString(Objects.toString(view.getMap()), StandardCharsets.UTF_8).putChar('\0')
+                .putString(Objects.toString(view.getReduce()), StandardCharsets.UTF_8).putChar('\0'));
+        return hasher.hash().toString();
+    }
+
+    private static String keyOf(DatabaseInstance instance, String dbName) {
+        HttpClient client = InstrumentedHttpClient.unwrap(instance.getConnection());
+        String server;
+        synchronized (servers) {
+            server = servers.get(client);
+            if (server == null) {
+                server = "client-" + unnamedServers.incrementAndGet();
+                servers.put(client, server);
+            }
+        }
+        return server + "/" + dbName;
+    }
+}
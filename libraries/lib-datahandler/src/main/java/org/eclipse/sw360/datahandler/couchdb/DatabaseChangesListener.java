@@ -0,0 +1,159 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.apache.log4j.Logger;
+import org.ektorp.CouchDbConnector;
+import org.ektorp.DbAccessException;
+import org.ektorp.DocumentNotFoundException;
+import org.ektorp.changes.ChangesCommand;
+import org.ektorp.changes.ChangesFeed;
+import org.ektorp.changes.DocumentChange;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Follows the continuous {@code _changes} feed of a database in a daemon thread and reports the ids of
+ * changed documents to the registered listeners. Writes made through the own connector can be reported
+ * directly with {@link #documentChanged(String)}, so that they are seen before the feed delivers them.
+ *
+ * While the feed is connected and nothing is pending, everything written to the database has been reported. The time
+ * since this was last known to be the case is available as staleness; it grows while the feed is broken
+ * and is reconnected from the last sequence seen, so no change is missed.
+ */
+public class DatabaseChangesListener implements Closeable {
+
+    private static final Logger log = Logger.getLogger(DatabaseChangesListener.class);
+
+    private static final long POLL_MILLIS = 1000;
+    private static final long HEARTBEAT_MILLIS = 10000;
+    private static final long RETRY_MILLIS = 5000;
+
+    private final CouchDbConnector connector;
+    private final LongSupplier clock;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running = false;
+    private volatile long currentAt = -1;
+    private Thread thread;
+    private String since;
+
+    public DatabaseChangesListener(CouchDbConnector connector) {
+        this(connector, System::currentTimeMillis);
+    }
+
+    public DatabaseChangesListener(CouchDbConnector connector, LongSupplier clock) {
+        this.connector = connector;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a listener for the ids of changed documents and starts following the feed, if not yet done.
+     */
+    public synchronized void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+        if (!running) {
+            running = true;
+            thread = new Thread(this::follow, "changes-" + connector.getDatabaseName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public void documentChanged(String id) {
+        if (id != null) {
+            listeners.forEach(listener -> listener.accept(id));
+        }
+    }
+
+    /**
+     * @return milliseconds since all changes were last known to be reported, {@link Long#MAX_VALUE} if never
+     */
+    public long getStalenessMillis() {
+        long at = currentAt;
+        return running && at >= 0 ? Math.max(0, clock.getAsLong() - at) : Long.MAX_VALUE;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void follow() {
+        while (running) {
+            ChangesFeed feed = null;
+            try {
+                if (since == null) {
+                    // only changes from now on matter, whatever was read before is read again
+                    since = connector.getDbInfo().getUpdateSeqAsString();
+                }
+                feed = connector.changesFeed(new ChangesCommand.Builder()
+                        .since(since)
+                        .heartbeat(HEARTBEAT_MILLIS)
+                        .build());
+                while (running && feed.isAlive()) {
+                    DocumentChange change = feed.next(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (change != null) {
+                        documentChanged(change.getId());
+                        since = change.getStringSequence();
+                    } else if (feed.isAlive()) {
+                        // nothing pending on a connected feed
+                        currentAt = clock.getAsLong();
+                    }
+                }
+                if (running) {
+                    log.warn("Changes feed of database " + connector.getDatabaseName() + " ended, reconnecting");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DocumentNotFoundException e) {
+                // the database was deleted, the caches will read from the database from now on
+                log.warn("Database " + connector.getDatabaseName() + " not found, no longer following its changes");
+                running = false;
+                since = null;
+                return;
+            } catch (DbAccessException e) {
+                log.warn("Could not follow changes of database " + connector.getDatabaseName() + ", retrying", e);
+                if (!sleep(RETRY_MILLIS)) {
+                    return;
+                }
+            } finally {
+                if (feed != null) {
+                    feed.cancel();
+                }
+            }
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
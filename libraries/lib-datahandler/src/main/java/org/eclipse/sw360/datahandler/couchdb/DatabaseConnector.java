@@ -10,6 +10,9 @@
  */
 package org.eclipse.sw360.datahandler.couchdb;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableSet;
 import org.eclipse.sw360.datahandler.thrift.ThriftUtils;
 import org.apache.log4j.Logger;
@@ -34,6 +37,8 @@ public class DatabaseConnector extends StdCouchDbConnector {
 
     private final String dbName;
     private final DatabaseInstance instance;
+    private final ObjectMapper documentMapper;
+    private volatile DatabaseChangesListener changesListener;
 
     private String adminRole = "_admin";
 
@@ -72,9 +77,19 @@ public class DatabaseConnector extends StdCouchDbConnector {
         super(dbName, instance, mapperFactory);
         this.instance = instance;
         this.dbName = dbName;
-        // Create the database if it does not exists yet
-        instance.createDatabase(dbName);
-        restrictAccessToAdmins();
+        this.documentMapper = mapperFactory.createObjectMapper();
+        createDatabaseIfNotExists();
+    }
+
+    /**
+     * Creates the database if it does not exist yet and restricts access to it, once per process
+     */
+    @Override
+    public void createDatabaseIfNotExists() {
+        DatabaseBootstrap.initDatabase(instance, dbName, () -> {
+            instance.createDatabase(dbName);
+            restrictAccessToAdmins();
+        });
     }
 
     public Optional<Status> restrictAccessToAdmins() {
@@ -115,7 +130,7 @@ public class DatabaseConnector extends StdCouchDbConnector {
      */
     public <T> boolean add(T document) {
         try {
-            super.create(document);
+            create(document);
             return true;
         } catch (UpdateConflictException e) {
             log.warn("Update conflict exception while adding object!", e);
@@ -176,6 +191,7 @@ public class DatabaseConnector extends StdCouchDbConnector {
                 } else {
                     super.update(document);
                 }
+                documentChanged(document);
             } catch (UpdateConflictException | IllegalArgumentException e) {
                 log.error("Document cannot be updated " + document, e);
             }
@@ -206,6 +222,18 @@ public class DatabaseConnector extends StdCouchDbConnector {
         return wrapper;
     }
 
+    /**
+     * Deserialize a document received as json, e.g. with a change of the database, into an object of class type.
+     */
+    public <T> T readDocument(JsonNode document, Class<T> type) {
+        try {
+            return documentMapper.treeToValue(document, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Document could not be converted to " + type.getName(), e);
+            return null;
+        }
+    }
+
     /**
      * Returns true if the database contains a document with the given ID.
      */
@@ -219,12 +247,62 @@ public class DatabaseConnector extends StdCouchDbConnector {
     public boolean deleteById(String id) {
         if (super.contains(id)) {
             String rev = super.getCurrentRevision(id);
-            super.delete(id, rev);
+            delete(id, rev);
             return true;
         }
         return false;
     }
 
+    @Override
+    public void create(Object document) {
+        super.create(document);
+        documentChanged(document);
+    }
+
+    @Override
+    public String delete(Object document) {
+        String revision = super.delete(document);
+        documentChanged(document);
+        return revision;
+    }
+
+    @Override
+    public String delete(String id, String revision) {
+        String newRevision = super.delete(id, revision);
+        if (changesListener != null) {
+            changesListener.documentChanged(id);
+        }
+        return newRevision;
+    }
+
+    @Override
+    public List<DocumentOperationResult> executeBulk(Collection<?> objects) {
+        List<DocumentOperationResult> results = super.executeBulk(objects);
+        objects.forEach(this::documentChanged);
+        return results;
+    }
+
+    /**
+     * Listener to the changes of this database, it is started with the first registered listener.
+     * Writes through this connector are reported to it right away.
+     */
+    public synchronized DatabaseChangesListener getChangesListener() {
+        if (changesListener == null) {
+            changesListener = new DatabaseChangesListener(this);
+        }
+        return changesListener;
+    }
+
+    private void documentChanged(Object document) {
+        if (changesListener != null && document != null) {
+            try {
+                changesListener.documentChanged(Documents.getId(document));
+            } catch (RuntimeException e) {
+                log.debug("No id to report a change of " + document.getClass().getName(), e);
+            }
+        }
+    }
+
     public String getDbName() {
         return dbName;
     }
@@ -22,13 +22,13 @@ import java.net.MalformedURLException;
 public class DatabaseInstance extends StdCouchDbInstance {
 
     /**
-     * Builds a CouchDB instance using ektorp
+     * Builds a CouchDB instance using ektorp, its requests are recorded in {@link DatabaseRequestStatistics}
      *
      * @param httpClient HttpClient with authentication of the CouchDB instance
      * @throws MalformedURLException
      */
     public DatabaseInstance(HttpClient httpClient) throws MalformedURLException {
-        super(httpClient);
+        super(InstrumentedHttpClient.wrap(httpClient));
         DatabaseInstanceTracker.track(this);
     }
 
@@ -39,6 +39,12 @@ public class DatabaseInstance extends StdCouchDbInstance {
         }
     }
 
+    @Override
+    public void deleteDatabase(String dbName) {
+        super.deleteDatabase(dbName);
+        DatabaseBootstrap.forget(this, dbName);
+    }
+
     public void destroy() {
         getConnection().shutdown();
     }
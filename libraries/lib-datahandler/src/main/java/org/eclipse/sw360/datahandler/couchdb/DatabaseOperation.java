@@ -0,0 +1,49 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+/**
+ * Kinds of requests sent to CouchDB, as recorded by {@link DatabaseRequestStatistics}
+ */
+public enum DatabaseOperation {
+    /**
+     * read of a single document
+     */
+    GET,
+    /**
+     * read of several documents by their ids
+     */
+    MULTI_GET,
+    /**
+     * query of a view of a design document
+     */
+    VIEW,
+    /**
+     * lucene search
+     */
+    SEARCH,
+    /**
+     * bulk write of documents
+     */
+    BULK,
+    /**
+     * write or delete of a single document
+     */
+    WRITE,
+    /**
+     * read or write of an attachment
+     */
+    ATTACHMENT,
+    /**
+     * anything else, e.g. changes feed, design documents or database administration
+     */
+    OTHER
+}
@@ -12,11 +12,17 @@ package org.eclipse.sw360.datahandler.couchdb;
 
 import org.ektorp.*;
 import org.ektorp.support.CouchDbRepositorySupport;
+import org.ektorp.support.DesignDocument;
+import org.ektorp.support.StdDesignDocumentFactory;
+import org.ektorp.util.Documents;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -28,14 +34,30 @@ import java.util.stream.Collectors;
 public class DatabaseRepository<T> extends CouchDbRepositorySupport<T> {
 
     private static final char HIGH_VALUE_UNICODE_CHARACTER = '\uFFF0';
+    private static final String DESIGN_DOCUMENT_PREFIX = "_design/";
 
     private final Class<T> type;
     private final DatabaseConnector connector;
+    private DocumentReadCache<T> readCache;
 
     protected DatabaseConnector getConnector() {
         return connector;
     }
 
+    /**
+     * Caches the documents read by id, for repositories of documents which are read much more often than
+     * they are written. The cache follows the changes of the database.
+     *
+     * @param copy creates an independent copy of a document
+     */
+    protected void enableReadCache(UnaryOperator<T> copy) {
+        readCache = new DocumentReadCache<>(connector.getChangesListener(), copy);
+    }
+
+    public Optional<DocumentReadCache<T>> getReadCache() {
+        return Optional.ofNullable(readCache);
+    }
+
     public static Set<String> getIds(ViewResult rows) {
         HashSet<String> ids = new HashSet<>();
 
@@ -68,6 +90,16 @@ public class DatabaseRepository<T> extends CouchDbRepositorySupport<T> {
         this.type = type;
     }
 
+    /**
+     * Writes the views declared by this repository to its design document, once per process and view definition
+     */
+    @Override
+    public void initStandardDesignDocument() {
+        DesignDocument generated = new StdDesignDocumentFactory().generateFrom(this);
+        generated.setId(DESIGN_DOCUMENT_PREFIX + type.getSimpleName());
+        DatabaseBootstrap.initDesignDocument(connector, generated);
+    }
+
     public Set<String> queryForIds(ViewQuery query) {
         ViewResult rows = connector.queryView(query.includeDocs(false));
         return getIds(rows);
@@ -145,6 +177,13 @@ public class DatabaseRepository<T> extends CouchDbRepositorySupport<T> {
 
     @Override
     public T get(String id) {
+        if (readCache != null) {
+            return readCache.get(id, this::getUncached);
+        }
+        return getUncached(id);
+    }
+
+    private T getUncached(String id) {
         try {
             return super.get(id);
         } catch (DocumentNotFoundException e) {
@@ -173,12 +212,50 @@ public class DatabaseRepository<T> extends CouchDbRepositorySupport<T> {
         }
     }
 
+    /**
+     * All documents, read page by page while iterating
+     */
+    public DocumentIterable<T> iterateAll() {
+        return iterateAll(DocumentIterable.DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * All documents, read page by page while iterating
+     *
+     * @param fields names of the fields to read, all fields if null
+     */
+    public DocumentIterable<T> iterateAll(int pageSize, Collection<String> fields) {
+        return iterate(() -> createQuery("all"), pageSize, fields);
+    }
+
+    /**
+     * Documents of a view, read page by page while iterating
+     *
+     * @param query  creates the query, key ranges and order are kept
+     * @param fields names of the fields to read, all fields if null
+     */
+    public DocumentIterable<T> iterate(Supplier<ViewQuery> query, int pageSize, Collection<String> fields) {
+        return new DocumentIterable<>(connector, type, query, pageSize, fields);
+    }
+
     public boolean remove(String id) {
         return connector.deleteById(id);
     }
 
     public List<T> get(Collection<String> ids) {
-        return connector.get(type, ids);
+        return get(ids, false);
+    }
+
+    /**
+     * Reads all documents with one request
+     *
+     * @param ignoreNotFound leave out the ids which are not found instead of failing
+     */
+    public List<T> get(Collection<String> ids, boolean ignoreNotFound) {
+        if (readCache != null) {
+            return readCache.getAll(ids, missing -> connector.get(type, missing, ignoreNotFound), Documents::getId);
+        }
+        return connector.get(type, ids, ignoreNotFound);
     }
 
 
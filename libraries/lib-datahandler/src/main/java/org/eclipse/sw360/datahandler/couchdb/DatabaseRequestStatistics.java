@@ -0,0 +1,141 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts and times the CouchDB requests sent by the current thread between {@link #start()} and {@link #close()},
+ * e.g. during one Thrift call or in a test:
+ *
+ * <pre>
+ * try (DatabaseRequestStatistics requests = DatabaseRequestStatistics.start()) {
+ *     repository.fillVendors(releases);
+ *     assertThat(requests.getCount(DatabaseOperation.GET), is(0L));
+ * }
+ * </pre>
+ *
+ * The requests are tagged with the database and, for views and searches, the design document and view name, e.g.
+ * {@code sw360db/Vendor/all}. Recordings can be nested, an outer recording also counts the requests of the inner ones.
+ * Requests sent while no recording was started on the thread are not counted.
+ */
+public class DatabaseRequestStatistics implements AutoCloseable {
+
+    private static final ThreadLocal<DatabaseRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final DatabaseRequestStatistics outer;
+    // guarded by this
+    private final Map<DatabaseOperation, Map<String, long[]>> requests = new EnumMap<>(DatabaseOperation.class);
+    private boolean closed = false;
+
+    private DatabaseRequestStatistics(DatabaseRequestStatistics outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Starts recording the requests of the current thread, until the returned statistics are closed
+     */
+    public static DatabaseRequestStatistics start() {
+        DatabaseRequestStatistics statistics = new DatabaseRequestStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(DatabaseOperation operation, String tag, long nanos) {
+        for (DatabaseRequestStatistics statistics = CURRENT.get(); statistics != null; statistics = statistics.outer) {
+            statistics.add(operation, tag, nanos);
+        }
+    }
+
+    private synchronized void add(DatabaseOperation operation, String tag, long nanos) {
+        long[] countAndNanos = requests
+                .computeIfAbsent(operation, key -> new TreeMap<>())
+                .computeIfAbsent(tag, key -> new long[2]);
+        countAndNanos[0]++;
+        countAndNanos[1] += nanos;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    public synchronized long getCount() {
+        return requests.values().stream()
+                .flatMap(tags -> tags.values().stream())
+                .mapToLong(countAndNanos -> countAndNanos[0])
+                .sum();
+    }
+
+    public synchronized long getCount(DatabaseOperation operation) {
+        return requests.getOrDefault(operation, new TreeMap<>()).values().stream()
+                .mapToLong(countAndNanos -> countAndNanos[0])
+                .sum();
+    }
+
+    public synchronized long getCount(DatabaseOperation operation, String tag) {
+        long[] countAndNanos = requests.getOrDefault(operation, new TreeMap<>()).get(tag);
+        return countAndNanos == null ? 0 : countAndNanos[0];
+    }
+
+    /**
+     * @return number of requests per tag
+     */
+    public synchronized Map<String, Long> getCounts(DatabaseOperation operation) {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.getOrDefault(operation, new TreeMap<>()).forEach((tag, countAndNanos) -> counts.put(tag, countAndNanos[0]));
+        return counts;
+    }
+
+    public synchronized long getMillis() {
+        long nanos = requests.values().stream()
+                .flatMap(tags -> tags.values().stream())
+                .mapToLong(countAndNanos -> countAndNanos[1])
+                .sum();
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return e.g. "3 requests in 12 ms: VIEW sw360db/Vendor/all 1x 4 ms, GET sw360db 2x 8 ms"
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder summary = new StringBuilder()
+                .append(getCount()).append(" requests in ").append(getMillis()).append(" ms");
+        String separator = ": ";
+        for (Map.Entry<DatabaseOperation, Map<String, long[]>> operation : requests.entrySet()) {
+            for (Map.Entry<String, long[]> tag : operation.getValue().entrySet()) {
+                summary.append(separator).append(operation.getKey()).append(' ').append(tag.getKey())
+                        .append(' ').append(tag.getValue()[0]).append("x ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(tag.getValue()[1])).append(" ms");
+                separator = ", ";
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.common.SummaryPaginator;
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.ektorp.DbAccessException;
+import org.ektorp.changes.ChangesCommand;
+import org.ektorp.changes.DocumentChange;
+import org.ektorp.util.Documents;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * In-memory copy of all documents of one type, kept current with the {@code _changes} feed of the database.
+ *
+ * The documents are loaded once. Before every read the changes since the last read are fetched and applied,
+ * so that a read sees all writes that happened before it, while only the changed documents are transferred.
+ * A change is only applied if its revision is not older than the cached one. If the changes cannot be read,
+ * the documents are loaded again.
+ *
+ * The cached documents are shared between all readers and must not be modified, callers are expected to
+ * make summaries of them. They are read in the given order, by default ordered by id like the {@code all} views.
+ */
+public class DocumentCache<T> {
+
+    private static final Logger log = Logger.getLogger(DocumentCache.class);
+
+    private static final String TYPE_FIELD = "type";
+
+    private final Class<T> type;
+    private final String documentType;
+    private final DatabaseConnector connector;
+    private final Supplier<List<T>> loader;
+    private final Comparator<? super T> order;
+
+    private final Map<String, T> documents = new TreeMap<>();
+    private final Map<String, Integer> revisions = new HashMap<>();
+    private String lastSequence = null;
+
+    /**
+     * @param documentType value of the {@code type} field of the cached documents
+     * @param loader       reads all documents of the type from the database
+     */
+    public DocumentCache(Class<T> type, String documentType, DatabaseConnector connector, Supplier<List<T>> loader) {
+        this(type, documentType, connector, loader, null);
+    }
+
+    /**
+     * @param order in which the documents are read, null to read them ordered by id
+     */
+    public DocumentCache(Class<T> type, String documentType, DatabaseConnector connector, Supplier<List<T>> loader,
+                         Comparator<? super T> order) {
+        this.type = type;
+        this.documentType = documentType;
+        this.connector = connector;
+        this.loader = loader;
+        this.order = order;
+    }
+
+    public List<T> getAll() {
+        return getAll(document -> true);
+    }
+
+    public synchronized List<T> getAll(Predicate<? super T> filter) {
+        refresh();
+        List<T> matching = documents.values().stream().filter(filter).collect(Collectors.toList());
+        if (order != null) {
+            matching.sort(order);
+        }
+        return matching;
+    }
+
+    public SummaryPaginator.Page<T> paginate(SummaryPaginator<T> paginator, PaginationData pagination) {
+        return paginator.paginate(getAll(), pagination);
+    }
+
+    /**
+     * Drops the cached documents, they are loaded again with the next read.
+     */
+    public synchronized void invalidate() {
+        documents.clear();
+        revisions.clear();
+        lastSequence = null;
+    }
+
+    private void refresh() {
+        if (lastSequence != null) {
+            try {
+                List<DocumentChange> changes = connector.changes(new ChangesCommand.Builder()
+                        .since(lastSequence)
+                        .includeDocs(true)
+                        .build());
+                changes.forEach(this::apply);
+                return;
+            } catch (DbAccessException e) {
+                log.warn("Could not read changes of database " + connector.getDbName() + ", reloading all documents", e);
+                invalidate();
+            }
+        }
+        load();
+    }
+
+    private void load() {
+        String sequence = connector.getDbInfo().getUpdateSeqAsString();
+        List<T> all = loader.get();
+        if (all == null) {
+            // the loader already logged the problem, try again with the next read
+            return;
+        }
+        for (T document : all) {
+            put(Documents.getId(document), Documents.getRevision(document), document);
+        }
+        lastSequence = sequence;
+    }
+
+    private void apply(DocumentChange change) {
+        lastSequence = change.getStringSequence();
+        if (change.isDeleted()) {
+            if (revisions.containsKey(change.getId()) && isNewer(change.getId(), change.getRevision())) {
+                documents.remove(change.getId());
+                revisions.put(change.getId(), generationOf(change.getRevision()));
+            }
+            return;
+        }
+
+        JsonNode node = change.getDocAsNode();
+        if (node == null || !node.has(TYPE_FIELD) || !documentType.equals(node.get(TYPE_FIELD).asText())) {
+            return;
+        }
+        T document = connector.readDocument(node, type);
+        if (document != null) {
+            put(change.getId(), change.getRevision(), document);
+        }
+    }
+
+    private void put(String id, String revision, T document) {
+        if (isNewer(id, revision)) {
+            documents.put(id, document);
+            revisions.put(id, generationOf(revision));
+        }
+    }
+
+    private boolean isNewer(String id, String revision) {
+        Integer cached = revisions.get(id);
+        return cached == null || generationOf(revision) >= cached;
+    }
+
+    private static int generationOf(String revision) {
+        if (isNullOrEmpty(revision)) {
+            return 0;
+        }
+        int dash = revision.indexOf('-');
+        try {
+            return Integer.parseInt(dash < 0 ? revision : revision.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import org.ektorp.ViewQuery;
+import org.ektorp.ViewResult;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Documents of a view or of {@code _all_docs}, read page by page while iterating, so that only one page is held
+ * in memory however large the database is.
+ *
+ * Each page continues after the key and id of the last row of the previous page instead of skipping over all rows
+ * before it, so reading a page costs the same at any position. Optionally only some fields of the documents are
+ * deserialized, which keeps the objects small if the caller holds on to them.
+ */
+public class DocumentIterable<T> implements Iterable<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private static final Set<String> METADATA_FIELDS = ImmutableSet.of("_id", "_rev", "type");
+
+    private final DatabaseConnector connector;
+    private final Class<T> type;
+    private final Supplier<ViewQuery> query;
+    private final int pageSize;
+    private final Set<String> fields;
+
+    /**
+     * @param query    creates the query of the view or of {@code _all_docs}, key ranges and order are kept,
+     *                 documents are included by the pages
+     * @param pageSize number of documents read with one request
+     * @param fields   names of the fields to deserialize, all fields if null
+     */
+    public DocumentIterable(DatabaseConnector connector, Class<T> type, Supplier<ViewQuery> query, int pageSize, Collection<String> fields) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.connector = connector;
+        this.type = type;
+        this.query = query;
+        this.pageSize = pageSize;
+        this.fields = fields == null ? null : ImmutableSet.<String>builder().addAll(METADATA_FIELDS).addAll(fields).build();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    private class PageIterator implements Iterator<T> {
+        private Iterator<ViewResult.Row> rows = Collections.emptyIterator();
+        private boolean lastPage = false;
+        private JsonNode lastKey;
+        private String lastId;
+        private T next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (rows.hasNext()) {
+                    next = read(rows.next());
+                } else if (lastPage) {
+                    return false;
+                } else {
+                    readPage();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T document = next;
+            next = null;
+            return document;
+        }
+
+        private void readPage() {
+            ViewQuery page = query.get().includeDocs(true);
+            List<ViewResult.Row> pageRows;
+            if (lastId == null) {
+                pageRows = connector.queryView(page.limit(pageSize)).getRows();
+            } else {
+                // starts with the last row of the previous page, unless it was deleted meanwhile
+                pageRows = connector.queryView(page.startKey(lastKey).startDocId(lastId).limit(pageSize + 1)).getRows();
+                if (!pageRows.isEmpty() && isLastRow(pageRows.get(0))) {
+                    pageRows = pageRows.subList(1, pageRows.size());
+                } else if (pageRows.size() > pageSize) {
+                    pageRows = pageRows.subList(0, pageSize);
+                }
+            }
+
+            lastPage = pageRows.size() < pageSize;
+            if (!pageRows.isEmpty()) {
+                ViewResult.Row last = pageRows.get(pageRows.size() - 1);
+                lastKey = last.getKeyAsNode();
+                lastId = last.getId();
+            }
+            rows = pageRows.iterator();
+        }
+
+        private boolean isLastRow(ViewResult.Row row) {
+            return lastId.equals(row.getId()) && Objects.equals(lastKey, row.getKeyAsNode());
+        }
+
+        private T read(ViewResult.Row row) {
+            JsonNode document = row.getDocAsNode();
+            if (document == null || !document.isObject()) {
+                // deleted meanwhile
+                return null;
+            }
+            if (fields != null) {
+                ((ObjectNode) document).retain(fields);
+            }
+            return connector.readDocument(document, type);
+        }
+    }
+}
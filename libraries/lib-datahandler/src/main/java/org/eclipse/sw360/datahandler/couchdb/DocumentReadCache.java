@@ -0,0 +1,175 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Size bounded read-through cache of documents by id, invalidated by the changes of the database.
+ *
+ * Documents are only cached while the {@link DatabaseChangesListener} is current, i.e. no more than the
+ * maximal staleness behind the database; otherwise reads go to the database. A document loaded while it
+ * was changed is not cached. Readers get copies of the cached documents, as they tend to modify them.
+ */
+public class DocumentReadCache<T> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    public static final long DEFAULT_MAXIMUM_STALENESS_MILLIS = 10000;
+
+    private final Cache<String, T> cache;
+    private final DatabaseChangesListener changes;
+    private final UnaryOperator<T> copy;
+    private final long maximumStalenessMillis;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+
+    public DocumentReadCache(DatabaseChangesListener changes, UnaryOperator<T> copy) {
+        this(changes, copy, DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_STALENESS_MILLIS);
+    }
+
+    public DocumentReadCache(DatabaseChangesListener changes, UnaryOperator<T> copy, int maximumSize, long maximumStalenessMillis) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.changes = changes;
+        this.copy = copy;
+        this.maximumStalenessMillis = maximumStalenessMillis;
+
+        changes.addListener(this::invalidate);
+    }
+
+    public T get(String id, Function<String, T> loader) {
+        if (id == null) {
+            return null;
+        }
+        if (!isCurrent()) {
+            bypasses.incrementAndGet();
+            return loader.apply(id);
+        }
+
+        T cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return copy.apply(cached);
+        }
+
+        long invalidationsBefore = invalidations.get();
+        T document = loader.apply(id);
+        if (document != null) {
+            cacheIfUnchanged(id, document, invalidationsBefore);
+        }
+        return document;
+    }
+
+    /**
+     * Gets the documents with the given ids, loading all those not cached with one call of the loader.
+     * Documents which are not found are left out.
+     */
+    public List<T> getAll(Collection<String> ids, Function<Collection<String>, List<T>> loader, Function<T, String> idOf) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        if (!isCurrent()) {
+            bypasses.incrementAndGet();
+            return loader.apply(ids);
+        }
+
+        Map<String, T> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            T cached = id == null ? null : cache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, copy.apply(cached));
+            } else {
+                found.put(id, null);
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long invalidationsBefore = invalidations.get();
+            for (T document : loader.apply(missing)) {
+                if (document != null) {
+                    String id = idOf.apply(document);
+                    found.put(id, document);
+                    cacheIfUnchanged(id, document, invalidationsBefore);
+                }
+            }
+        }
+
+        List<T> documents = new ArrayList<>(found.size());
+        for (T document : found.values()) {
+            if (document != null) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    public void invalidate(String id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void cacheIfUnchanged(String id, T document, long invalidationsBefore) {
+        // an invalidation during loading may be about the loaded document
+        if (id != null && invalidations.get() == invalidationsBefore && isCurrent()) {
+            cache.put(id, copy.apply(document));
+        }
+    }
+
+    private boolean isCurrent() {
+        return changes.getStalenessMillis() <= maximumStalenessMillis;
+    }
+
+    public double getHitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    public CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    /**
+     * @return number of reads which went to the database because the changes were not current
+     */
+    public long getBypassCount() {
+        return bypasses.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return milliseconds the cached documents may be behind the database
+     */
+    public long getStalenessMillis() {
+        return changes.getStalenessMillis();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+}
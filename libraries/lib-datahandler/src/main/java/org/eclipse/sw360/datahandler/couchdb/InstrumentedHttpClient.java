@@ -0,0 +1,199 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.base.Splitter;
+import org.ektorp.http.HttpClient;
+import org.ektorp.http.HttpResponse;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Client which records the requests of the decorated client in {@link DatabaseRequestStatistics}, it is put around
+ * the client of every {@link DatabaseInstance}. The kind of a request and its tag are taken from its uri.
+ */
+public class InstrumentedHttpClient implements HttpClient {
+
+    private static final Splitter PATH = Splitter.on('/').omitEmptyStrings();
+    private static final String DESIGN_PREFIX = "_design/";
+
+    private final HttpClient client;
+
+    private InstrumentedHttpClient(HttpClient client) {
+        this.client = client;
+    }
+
+    public static HttpClient wrap(HttpClient client) {
+        return client instanceof InstrumentedHttpClient ? client : new InstrumentedHttpClient(client);
+    }
+
+    public static HttpClient unwrap(HttpClient client) {
+        return client instanceof InstrumentedHttpClient ? ((InstrumentedHttpClient) client).client : client;
+    }
+
+    @Override
+    public HttpResponse get(String uri) {
+        return record("GET", uri, () -> client.get(uri));
+    }
+
+    public HttpResponse get(String uri, Map<String, String> headers) {
+        return record("GET", uri, () -> client.get(uri, headers));
+    }
+
+    @Override
+    public HttpResponse getUncached(String uri) {
+        return record("GET", uri, () -> client.getUncached(uri));
+    }
+
+    @Override
+    public HttpResponse head(String uri) {
+        return record("HEAD", uri, () -> client.head(uri));
+    }
+
+    @Override
+    public HttpResponse put(String uri) {
+        return record("PUT", uri, () -> client.put(uri));
+    }
+
+    @Override
+    public HttpResponse put(String uri, String content) {
+        return record("PUT", uri, () -> client.put(uri, content));
+    }
+
+    @Override
+    public HttpResponse put(String uri, InputStream data, String contentType, long contentLength) {
+        return record("PUT", uri, () -> client.put(uri, data, contentType, contentLength));
+    }
+
+    public HttpResponse put(String uri, InputStream data, String contentType, long contentLength, Map<String, String> headers) {
+        return record("PUT", uri, () -> client.put(uri, data, contentType, contentLength, headers));
+    }
+
+    @Override
+    public HttpResponse post(String uri, String content) {
+        return record("POST", uri, () -> client.post(uri, content));
+    }
+
+    public HttpResponse post(String uri, InputStream content) {
+        return record("POST", uri, () -> client.post(uri, content));
+    }
+
+    public HttpResponse postUncached(String uri, String content) {
+        return record("POST", uri, () -> client.postUncached(uri, content));
+    }
+
+    @Override
+    public HttpResponse delete(String uri) {
+        return record("DELETE", uri, () -> client.delete(uri));
+    }
+
+    public HttpResponse copy(String sourceUri, String destination) {
+        return record("COPY", sourceUri, () -> client.copy(sourceUri, destination));
+    }
+
+    @Override
+    public void shutdown() {
+        client.shutdown();
+    }
+
+    private static HttpResponse record(String method, String uri, Supplier<HttpResponse> request) {
+        if (!DatabaseRequestStatistics.isRecording()) {
+            return request.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return request.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            List<String> path = pathOf(uri);
+            DatabaseRequestStatistics.record(operationOf(method, path), tagOf(path), nanos);
+        }
+    }
+
+    static DatabaseOperation operationOf(String method, List<String> path) {
+        if (path.isEmpty()) {
+            return DatabaseOperation.OTHER;
+        }
+        if (path.contains("_fti")) {
+            return DatabaseOperation.SEARCH;
+        }
+        if (path.get(0).startsWith("_") || path.size() == 1) {
+            return DatabaseOperation.OTHER;
+        }
+        String second = path.get(1);
+        if ("_all_docs".equals(second)) {
+            return DatabaseOperation.MULTI_GET;
+        }
+        if ("_bulk_docs".equals(second)) {
+            return DatabaseOperation.BULK;
+        }
+        if ("_design".equals(second)) {
+            return path.size() >= 5 && "_view".equals(path.get(3)) ? DatabaseOperation.VIEW : DatabaseOperation.OTHER;
+        }
+        if (second.startsWith("_")) {
+            return DatabaseOperation.OTHER;
+        }
+        if (path.size() > 2) {
+            return DatabaseOperation.ATTACHMENT;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) ? DatabaseOperation.GET : DatabaseOperation.WRITE;
+    }
+
+    /**
+     * @return the database, followed by the design document and the view or search function if there are any
+     */
+    static String tagOf(List<String> path) {
+        if (path.isEmpty()) {
+            return "";
+        }
+        int design = path.indexOf("_design");
+        if (design < 0) {
+            return path.get(0);
+        }
+        String database = path.get("_fti".equals(path.get(0)) ? design - 1 : 0);
+        StringBuilder tag = new StringBuilder(database);
+        for (int i = design + 1; i < path.size(); i++) {
+            if (!"_view".equals(path.get(i))) {
+                tag.append('/').append(path.get(i));
+            }
+        }
+        return tag.toString();
+    }
+
+    static List<String> pathOf(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        List<String> segments = new ArrayList<>();
+        for (String segment : PATH.split(path)) {
+            String decoded;
+            try {
+                decoded = URLDecoder.decode(segment, StandardCharsets.UTF_8.name());
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+            // design documents may be addressed with an encoded slash
+            if (decoded.startsWith(DESIGN_PREFIX)) {
+                segments.add("_design");
+                segments.add(decoded.substring(DESIGN_PREFIX.length()));
+            } else {
+                segments.add(decoded);
+            }
+        }
+        return segments;
+    }
+}
@@ -18,6 +18,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.FluentIterable;
 import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseBootstrap;
 import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
 import org.eclipse.sw360.datahandler.permissions.ProjectPermissions;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
@@ -72,10 +73,13 @@ public class LuceneAwareDatabaseConnector extends LuceneAwareCouchDbConnector {
     }
 
     public boolean addView(LuceneSearchView function) {
-        // make sure that the indexer is up-to-date
-        IndexUploader uploader = new IndexUploader();
-        return uploader.updateSearchFunctionIfNecessary(this, function.searchView,
-                function.searchFunction, function.searchBody);
+        // make sure that the indexer is up-to-date, once per process and definition
+        return DatabaseBootstrap.initSearchFunction(connector.getInstance(), connector.getDbName(),
+                function.searchView + "/" + function.searchFunction, function.searchBody, () -> {
+                    IndexUploader uploader = new IndexUploader();
+                    return uploader.updateSearchFunctionIfNecessary(this, function.searchView,
+                            function.searchFunction, function.searchBody);
+                });
     }
 
     /**
@@ -19,6 +19,11 @@ import org.eclipse.sw360.datahandler.thrift.users.UserGroup;
 import org.eclipse.sw360.datahandler.thrift.vendors.Vendor;
 import org.eclipse.sw360.datahandler.thrift.vulnerabilities.Vulnerability;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Created by bodet on 16/02/15.
  *
@@ -72,6 +77,15 @@ public class PermissionUtils {
         }
     }
 
+    /**
+     * @return the groups whose users are at least in the given group
+     */
+    public static Set<UserGroup> getGroupsAtLeast(UserGroup group) {
+        return Arrays.stream(UserGroup.values())
+                .filter(userGroup -> isUserAtLeast(group, new User().setUserGroup(userGroup)))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(UserGroup.class)));
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> DocumentPermissions<T> makePermission(T document, User user) {
         if (document instanceof License) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.thrift;
+
+import com.google.common.io.ByteStreams;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP client transport like {@link org.apache.thrift.transport.THttpClient}, which compresses the messages as
+ * described in {@link ThriftCompression}.
+ *
+ * Responses are compressed by the server as soon as it is asked for. Requests are only compressed for servers which
+ * have announced in their last response that they accept compressed requests, so that older servers keep on working.
+ */
+public class CompressingHttpClient extends TTransport {
+
+    // servers which have announced that they accept compressed requests
+    private static final Set<String> COMPRESSING_SERVERS = ConcurrentHashMap.newKeySet();
+
+    private final URL url;
+    private final int compressionThreshold;
+    private final CompressionStatistics statistics;
+
+    private final ByteArrayOutputStream requestBuffer = new ByteArrayOutputStream();
+    private InputStream responseStream = null;
+
+    public CompressingHttpClient(String url, int compressionThreshold, CompressionStatistics statistics) throws TTransportException {
+        try {
+            this.url = new URL(url);
+        } catch (MalformedURLException e) {
+            throw new TTransportException(e);
+        }
+        this.compressionThreshold = compressionThreshold;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public void close() {
+        if (responseStream != null) {
+            try {
+                responseStream.close();
+            } catch (IOException ignored) {
+            }
+            responseStream = null;
+        }
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws TTransportException {
+        if (responseStream == null) {
+            throw new TTransportException("Response buffer is empty, no request.");
+        }
+        try {
+            int read = responseStream.read(buf, off, len);
+            if (read == -1) {
+                throw new TTransportException("No more data available.");
+            }
+            return read;
+        } catch (IOException e) {
+            throw new TTransportException(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        requestBuffer.write(buf, off, len);
+    }
+
+    @Override
+    public void flush() throws TTransportException {
+        byte[] request = requestBuffer.toByteArray();
+        requestBuffer.reset();
+
+        try {
+            boolean compressRequest = ThriftCompression.shouldCompress(request.length, compressionThreshold,
+                    COMPRESSING_SERVERS.contains(url.toString()));
+            byte[] requestBody = compressRequest ? ThriftCompression.compress(request) : request;
+            statistics.record(request.length, requestBody.length, compressRequest);
+
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/x-thrift");
+            connection.setRequestProperty("Accept", "application/x-thrift");
+            if (ThriftCompression.isEnabled(compressionThreshold)) {
+                connection.setRequestProperty(ThriftCompression.ACCEPT_ENCODING, ThriftCompression.GZIP);
+            }
+            if (compressRequest) {
+                connection.setRequestProperty(ThriftCompression.CONTENT_ENCODING, ThriftCompression.GZIP);
+            }
+            connection.setFixedLengthStreamingMode(requestBody.length);
+            connection.setDoOutput(true);
+            connection.connect();
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(requestBody);
+            }
+
+            int responseCode = connection.getResponseCode();
+            // a server which was replaced by one without compression, or which rejects compressed requests, is
+            // sent uncompressed requests again
+            if (ThriftCompression.acceptsCompression(connection.getHeaderField(ThriftCompression.ACCEPT_ENCODING))) {
+                COMPRESSING_SERVERS.add(url.toString());
+            } else {
+                COMPRESSING_SERVERS.remove(url.toString());
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new TTransportException("HTTP Response code: " + responseCode);
+            }
+
+            byte[] responseBody;
+            try (InputStream in = connection.getInputStream()) {
+                responseBody = ByteStreams.toByteArray(in);
+            }
+            boolean compressedResponse = ThriftCompression.isCompressed(connection.getContentEncoding());
+            byte[] response = compressedResponse ? ThriftCompression.decompress(responseBody) : responseBody;
+            statistics.record(response.length, responseBody.length, compressedResponse);
+
+            responseStream = new ByteArrayInputStream(response);
+        } catch (IOException e) {
+            throw new TTransportException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.thrift;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the Thrift messages which went over a compressing transport, in both directions, and their sizes before and
+ * after compression
+ */
+public class CompressionStatistics {
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong compressedMessages = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    public void record(int uncompressedSize, int transferredSize, boolean compressed) {
+        messages.incrementAndGet();
+        if (compressed) {
+            compressedMessages.incrementAndGet();
+        }
+        uncompressedBytes.addAndGet(uncompressedSize);
+        transferredBytes.addAndGet(transferredSize);
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getCompressedMessages() {
+        return compressedMessages.get();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public long getSavedBytes() {
+        return getUncompressedBytes() - getTransferredBytes();
+    }
+
+    @Override
+    public String toString() {
+        return getMessages() + " messages (" + getCompressedMessages() + " compressed), "
+                + getTransferredBytes() + " of " + getUncompressedBytes() + " bytes transferred";
+    }
+}
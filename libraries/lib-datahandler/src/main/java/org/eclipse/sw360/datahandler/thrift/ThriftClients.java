@@ -29,7 +29,6 @@ import org.eclipse.sw360.datahandler.thrift.vulnerabilities.VulnerabilityService
 import org.apache.log4j.Logger;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
-import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
 
 import java.util.Properties;
@@ -70,6 +69,8 @@ public class ThriftClients {
     // names of services that can be scheduled by the schedule service, i.e. that have an "update" method
     public static final String CVESEARCH_SERVICE = "cvesearchService";
 
+    private static final CompressionStatistics COMPRESSION_STATISTICS = new CompressionStatistics();
+
     static {
         Properties props = CommonUtils.loadProperties(ThriftClients.class, PROPERTIES_FILE_PATH);
 
@@ -79,14 +80,21 @@ public class ThriftClients {
     public ThriftClients() {
     }
 
+    /**
+     * Statistics of the messages sent and received by all clients
+     */
+    public static CompressionStatistics getCompressionStatistics() {
+        return COMPRESSION_STATISTICS;
+    }
+
     /**
      * Creates a Thrift Compact Protocol object linked to the given address
      */
     private static TProtocol makeProtocol(String url, String service) {
-        THttpClient thriftClient = null;
+        CompressingHttpClient thriftClient = null;
         final String destinationAddress = url + service;
         try {
-            thriftClient = new THttpClient(destinationAddress);
+            thriftClient = new CompressingHttpClient(destinationAddress, ThriftCompression.THRESHOLD, COMPRESSION_STATISTICS);
         } catch (TTransportException e) {
             log.error("cannot connect to backend on " + destinationAddress, e);
         }
@@ -0,0 +1,98 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.thrift;
+
+import com.google.common.base.Splitter;
+import com.google.common.io.ByteStreams;
+import org.eclipse.sw360.datahandler.common.CommonUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Strings.nullToEmpty;
+
+/**
+ * Compression of the Thrift messages sent over HTTP between the frontend and the backend services.
+ *
+ * Both sides announce with an {@code Accept-Encoding} header that they understand gzip. A message is only compressed
+ * for a peer which did so and only if it has at least {@link #THRESHOLD} bytes, so peers which do not know about
+ * compression keep on working with uncompressed messages.
+ */
+public class ThriftCompression {
+
+    public static final String PROPERTIES_FILE_PATH = "/sw360.properties";
+
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String GZIP = "gzip";
+
+    /**
+     * Messages with less bytes are sent uncompressed, a negative value turns compression off
+     */
+    public static final int THRESHOLD;
+
+    static {
+        Properties props = CommonUtils.loadProperties(ThriftCompression.class, PROPERTIES_FILE_PATH);
+
+        THRESHOLD = Integer.parseInt(props.getProperty("thrift.compression.threshold", "4096"));
+    }
+
+    private ThriftCompression() {
+        // Utility class with only static functions
+    }
+
+    public static boolean isEnabled(int threshold) {
+        return threshold >= 0;
+    }
+
+    public static boolean shouldCompress(int size, int threshold, boolean peerAcceptsCompression) {
+        return peerAcceptsCompression && isEnabled(threshold) && size >= threshold;
+    }
+
+    /**
+     * @param acceptEncoding value of an {@code Accept-Encoding} header, may be null
+     */
+    public static boolean acceptsCompression(String acceptEncoding) {
+        for (String encoding : Splitter.on(',').trimResults().omitEmptyStrings().split(nullToEmpty(acceptEncoding))) {
+            String coding = encoding.split(";", 2)[0].trim();
+            if (GZIP.equalsIgnoreCase(coding)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param contentEncoding value of a {@code Content-Encoding} header, may be null
+     */
+    public static boolean isCompressed(String contentEncoding) {
+        return GZIP.equalsIgnoreCase(nullToEmpty(contentEncoding).trim());
+    }
+
+    public static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(32, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    public static byte[] decompress(byte[] data) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return ByteStreams.toByteArray(gzip);
+        }
+    }
+}
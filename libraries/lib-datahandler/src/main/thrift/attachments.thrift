@@ -79,6 +79,12 @@ struct AttachmentContent {
     20: required string filename,
     21: optional string contentType,
     22: optional string partsCount,
+
+    // computed while the content is uploaded
+    30: optional string sha1,
+    31: optional string sha256,
+    // set if the content is stored in the shared blob for its sha1
+    32: optional string blobId,
 }
 
 /**
@@ -145,6 +151,11 @@ service AttachmentService {
      **/
     AttachmentContent getAttachmentContent(1:string id);
 
+    /**
+     * get validated attachmentContents by ids, ids which are not found are left out
+     **/
+    list<AttachmentContent> getAttachmentContents(1: set<string> ids);
+
     /**
      * Update attachmentContent in database, no permission check is necessary
      **/
@@ -168,6 +179,13 @@ service AttachmentService {
      **/
     RequestSummary vacuumAttachmentDB(1: User user, 2: set<string > usedIds);
 
+    /**
+     * if user is not admin, FAILURE is returned
+     * downloads the content of all remote attachments into the attachment db
+     * return RequestStatus together with the number of remote attachments and the number of successfully downloaded ones
+     **/
+    RequestSummary downloadRemoteAttachments(1: User user);
+
      /**
       * returns sha1 checksum of file associated with the attachmentContent specified by attachmentContentId
       **/
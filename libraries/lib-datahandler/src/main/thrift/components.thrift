@@ -21,10 +21,12 @@ namespace php sw360.thrift.components
 typedef sw360.RequestStatus RequestStatus
 typedef sw360.RequestSummary RequestSummary
 typedef sw360.AddDocumentRequestSummary AddDocumentRequestSummary
+typedef sw360.PaginationData PaginationData
 typedef sw360.DocumentState DocumentState
 typedef sw360.ReleaseRelationship ReleaseRelationship
 typedef sw360.MainlineState MainlineState
 typedef sw360.ProjectReleaseRelationship ProjectReleaseRelationship
+typedef sw360.Source Source
 typedef attachments.Attachment Attachment
 typedef attachments.FilledAttachment FilledAttachment
 typedef users.User User
@@ -321,6 +323,12 @@ struct ReleaseClearingStatusData {
     4: optional string mainlineStates, // comma separated list of mainline states for display; possibly abbreviated
 }
 
+struct ComponentSummaryPage {
+    1: required list<Component> components,
+    2: required i32 totalCount, // number of components visible to the user
+    3: required i32 filteredCount, // number of components matching the search text
+}
+
 service ComponentService {
 
     /**
@@ -333,6 +341,12 @@ service ComponentService {
      **/
     list<Component> getComponentSummary(1: User user);
 
+    /**
+     * one page of the short summaries of components visible to user, filtered and sorted
+     * as requested by `pagination`
+     **/
+    ComponentSummaryPage getComponentSummaryPage(1: User user, 2: PaginationData pagination);
+
     /**
      * summary of up to `limit` components reverse ordered by `createdOn`. Negative `limit` will result in
      * all components being returned
@@ -397,12 +411,31 @@ service ComponentService {
      **/
     Component getComponentByIdForEdit(1: string id, 2: User user);
 
+    /**
+     * get components from database filled with releases and permissions for user,
+     * as getComponentById does for each of them. Ids which are not found are left out
+     **/
+    list<Component> getComponentsByIds(1: set<string> ids, 2: User user);
+
     /**
      * update component in database if user has permissions
      * otherwise create moderation request
      **/
     RequestStatus updateComponent(1: Component component, 2: User user);
 
+    /**
+     * add components to database with user as creator, as addComponent does for each of them,
+     * return the summaries in the order of the components
+     **/
+    list<AddDocumentRequestSummary> addComponents(1: list<Component> components, 2: User user);
+
+    /**
+     * update components in database as updateComponent does for each of them, so a moderation
+     * request is created for those the user has no permissions for.
+     * Return the status of each component in the order of the components
+     **/
+    list<RequestStatus> updateComponentsIndividually(1: list<Component> components, 2: User user);
+
     /**
     * update the bulk of components in database if user is admin
     **/
@@ -446,6 +479,12 @@ service ComponentService {
        **/
     Release getReleaseByIdForEdit(1: string id, 2: User user);
 
+    /**
+      * get releases from database filled with vendor and permissions for user, as getReleaseById
+      * does for each of them. Ids which are not found are left out
+      **/
+    list<Release> getReleasesWithVendorsByIds(1: set<string> ids, 2: User user);
+
     /**
       * get short summary of all releases specified by ids
       **/
@@ -476,6 +515,11 @@ service ComponentService {
       **/
     list<Release> getReleasesFromVendorIds(1: set<string> ids);
 
+    /**
+      * get releases having one of the given values for the respective external id key
+      **/
+    list<Release> getReleasesByExternalIds(1: map<string, set<string>> externalIds);
+
     /**
      * update release in database if user has permissions
      * otherwise create moderation request
@@ -489,6 +533,19 @@ service ComponentService {
      **/
     RequestStatus updateReleaseFossology(1: Release release, 2: User user);
 
+    /**
+      * add releases to database with user as creator, as addRelease does for each of them,
+      * return the summaries in the order of the releases
+      **/
+    list<AddDocumentRequestSummary> addReleases(1: list<Release> releases, 2: User user);
+
+    /**
+     * update releases in database as updateRelease does for each of them, so a moderation
+     * request is created for those the user has no permissions for.
+     * Return the status of each release in the order of the releases
+     **/
+    list<RequestStatus> updateReleasesIndividually(1: list<Release> releases, 2: User user);
+
     /**
      * update the bulk of releases in database if user is admin
      **/
@@ -594,6 +651,12 @@ service ComponentService {
      **/
     set<string> getUsedAttachmentContentIds();
 
+    /**
+     * get the projects, components and releases which have an attachment with the given attachmentContentId,
+     * looked up by index instead of reading all of them
+     **/
+    set<Source> getAttachmentOwners(1: string attachmentContentId);
+
     /**
      * Method to ensure uniqueness of identifiers, used by database sanitation portlet,
      * return map of name to ids
@@ -46,15 +46,14 @@ service FossologyService {
     RequestStatus sendToFossology(1: string releaseId, 2:User user, 3: string clearingTeam );
 
      /**
-       * send unique source attachment of each release with id in releaseIds to Fossology or update existing upload,
+       * queue sending the unique source attachment of each release with id in releaseIds to Fossology or updating the
+       * existing upload, as in sendToFossology. The uploads run in the background and SUCCESS is returned once they are
+       * queued,
        *
        * clearingTeam is addressee in Fossology,
        *
        * release's fossology statuses are set to SENT and releases are updated if user has permissions, otherwise moderation requests
-       * are created
-       *
-       * FAILURE if source attachment is not present or not unique or if its ID is different from attachment in existing
-       * fossology upload for one of the releases
+       * are created, the statuses are read from the releases afterwards
        **/
     RequestStatus sendReleasesToFossology(1: list< string > releaseIds, 2:User user, 3: string clearingTeam );
 
@@ -66,6 +66,21 @@ struct LicenseInfoFile {
     2: required binary              generatedOutput,
 }
 
+/**
+ * reference to a generated license info file that is kept by the service and transferred in chunks
+ */
+struct PreparedLicenseInfoFile {
+    1: required string fileId,
+    2: required OutputFormatInfo outputFormatInfo,
+    3: required i64 size,
+}
+
+struct LicenseInfoFileChunk {
+    1: required i64 offset,
+    2: required binary data,
+    3: required bool lastChunk,
+}
+
 service LicenseInfoService {
 
     /**
@@ -79,6 +94,25 @@ service LicenseInfoService {
      */
     LicenseInfoFile getLicenseInfoFile(1: Project project, 2: User user, 3: string outputGeneratorClassName, 4: map<string, set<string>> releaseIdsToSelectedAttachmentIds, 5: map<string, set<LicenseNameWithText>> excludedLicensesPerAttachment);
 
+    /**
+     * same as getLicenseInfoFile, but the generated file is streamed to a temporary file on the service side
+     * instead of being returned as a whole. The content has to be fetched with getLicenseInfoFileChunk.
+     */
+    PreparedLicenseInfoFile prepareLicenseInfoFile(1: Project project, 2: User user, 3: string outputGeneratorClassName, 4: map<string, set<string>> releaseIdsToSelectedAttachmentIds, 5: map<string, set<LicenseNameWithText>> excludedLicensesPerAttachment);
+
+    /**
+     * returns at most maxLength bytes of a prepared license info file, starting at offset.
+     * Only the user who prepared the file can read it. Chunks can be read again until the file is discarded
+     * with discardLicenseInfoFile or has not been accessed for a while.
+     */
+    LicenseInfoFileChunk getLicenseInfoFileChunk(1: string fileId, 2: User user, 3: i64 offset, 4: i32 maxLength);
+
+    /**
+     * deletes a prepared license info file once its transfer has ended. Only the user who prepared the file
+     * can discard it, discarding a file which does not exist anymore does nothing.
+     */
+    void discardLicenseInfoFile(1: string fileId, 2: User user);
+
     /**
       * returns all available output types
       */
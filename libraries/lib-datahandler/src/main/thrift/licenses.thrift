@@ -147,6 +147,12 @@ service LicenseService {
      **/
     RequestStatus updateLicense(1: License license, 2: User user, 3: User requestingUser);
 
+    /**
+     * Update given licenses as updateLicense does for each of them,
+     * return the status of each license in the order of the licenses
+     **/
+    list<RequestStatus> updateLicenses(1: list<License> licenses, 2: User user, 3: User requestingUser);
+
      /**
       * update license in database if user has permissions, additions and deletions are the parts of the moderation request
       * that specify which properties to add to and which to delete from license
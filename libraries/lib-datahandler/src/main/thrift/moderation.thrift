@@ -29,6 +29,7 @@ typedef users.User User
 typedef licenses.License License
 typedef licenses.Todo Todo
 typedef components.ComponentType ComponentType
+typedef sw360.PaginationData PaginationData
 
 enum DocumentType {
     COMPONENT = 1,
@@ -74,6 +75,11 @@ struct ModerationRequest {
 
 }
 
+struct ModerationRequestPage {
+    1: required list<ModerationRequest> requests, // listing fields only, without the additions and deletions
+    2: required i32 totalCount, // number of requests in the selected states
+}
+
 service ModerationService {
 
     /**
@@ -187,15 +193,27 @@ service ModerationService {
     oneway void deleteRequestsOnDocument(1: string documentId);
 
     /**
-     * get list of moderation requests where user is one of the moderators
+     * get list of moderation requests where user is one of the moderators, with listing fields only
      **/
     list<ModerationRequest> getRequestsByModerator(1: User user);
 
     /**
-     * get list of moderation requests where user is requesting user
+     * get list of moderation requests where user is requesting user, with listing fields only
      **/
     list<ModerationRequest> getRequestsByRequestingUser(1: User user);
 
+    /**
+     * one page of the moderation requests in one of the states (all states if empty) where user is one of the
+     * moderators, sorted by timestamp. Only `displayStart`, `rowsPerPage` and `ascending` of `pagination` are used.
+     **/
+    ModerationRequestPage getRequestsByModeratorPage(1: User user, 2: set<ModerationState> states, 3: PaginationData pagination);
+
+    /**
+     * one page of the moderation requests in one of the states (all states if empty) where user is requesting user,
+     * sorted by timestamp. Only `displayStart`, `rowsPerPage` and `ascending` of `pagination` are used.
+     **/
+    ModerationRequestPage getRequestsByRequestingUserPage(1: User user, 2: set<ModerationState> states, 3: PaginationData pagination);
+
     /**
      * delete moderation request specified by id if user is requesting user of moderation request
      **/
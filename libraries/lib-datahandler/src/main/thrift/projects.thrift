@@ -32,6 +32,7 @@ typedef attachments.Attachment Attachment
 typedef components.ReleaseLink ReleaseLink
 typedef components.ReleaseClearingStatusData ReleaseClearingStatusData
 typedef sw360.AddDocumentRequestSummary AddDocumentRequestSummary
+typedef sw360.PaginationData PaginationData
 
 const string CLEARING_TEAM_UNKNOWN = "Unknown"
 
@@ -148,6 +149,12 @@ struct ProjectWithReleaseRelationTuple {
     2: required ProjectReleaseRelationship relation,
 }
 
+struct ProjectSummaryPage {
+    1: required list<Project> projects,
+    2: required i32 totalCount, // number of projects visible to the user
+    3: required i32 filteredCount, // number of projects matching the search text
+}
+
 service ProjectService {
 
     // Summary getters
@@ -161,6 +168,12 @@ service ProjectService {
      */
     list<Project> getAccessibleProjectsSummary(1: User user);
 
+    /**
+     * get one page of the project summaries which are visible to user, filtered and sorted
+     * as requested by `pagination`
+     */
+    ProjectSummaryPage getAccessibleProjectsSummaryPage(1: User user, 2: PaginationData pagination);
+
     /**
      * get all projects visible to user
      */
@@ -224,6 +237,18 @@ service ProjectService {
      */
     RequestStatus updateProject(1: Project project, 2: User user);
 
+    /**
+     * add projects as a user to the db, as addProject does for each of them, and get
+     * the summaries back in the order of the projects
+     */
+    list<AddDocumentRequestSummary> addProjects(1: list<Project> projects, 2: User user);
+
+    /**
+     * try to update projects as a user, as updateProject does for each of them, and get
+     * the status of each project back in the order of the projects
+     */
+    list<RequestStatus> updateProjects(1: list<Project> projects, 2: User user);
+
     /**
      * try to delete a project as a user, if user has no permission, a moderation request is created
      * (part of project CRUD support)
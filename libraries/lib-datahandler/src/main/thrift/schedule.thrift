@@ -22,6 +22,69 @@ typedef sw360.RequestStatusWithBoolean RequestStatusWithBoolean
 typedef sw360.RequestSummary RequestSummary
 typedef users.User User
 
+// background jobs, which can be started with startBackgroundJob and scheduled with scheduleService
+const string DUPLICATES_JOB = "duplicatesJob"
+const string ATTACHMENT_VACUUM_JOB = "attachmentVacuumJob"
+const string REMOTE_ATTACHMENTS_JOB = "remoteAttachmentsJob"
+const string SPDX_LICENSE_IMPORT_JOB = "spdxLicenseImportJob"
+
+// keys of the reports of the duplicates job
+const string DUPLICATE_COMPONENTS = "duplicateComponents"
+const string DUPLICATE_RELEASES = "duplicateReleases"
+const string DUPLICATE_RELEASE_SOURCES = "duplicateReleaseSources"
+const string DUPLICATE_PROJECTS = "duplicateProjects"
+
+enum ScheduleRunOutcome {
+    SUCCESS = 0,
+    FAILURE = 1,
+    // not started as the previous run was still running
+    SKIPPED = 2,
+    // not started as the scheduler was late by more than the misfire threshold
+    MISSED = 3,
+}
+
+enum BackgroundJobState {
+    RUNNING = 0,
+    FINISHED = 1,
+    FAILED = 2,
+    CANCELLED = 3,
+}
+
+struct BackgroundJob {
+    1: optional string id;
+    2: optional string revision;
+    3: optional string type = "backgroundJob";
+
+    4: required string jobName;
+    5: required BackgroundJobState state;
+    // email of the user who started the job, empty if started by the scheduler
+    6: optional string startedBy;
+    // milliseconds since the epoch
+    7: optional i64 startedOn;
+    8: optional i64 finishedOn;
+    // number of steps done and in total
+    9: optional i32 progress;
+    10: optional i32 total;
+    11: optional string currentStep;
+    12: optional RequestSummary summary;
+    13: optional map<string, map<string, list<string>>> reports;
+    // reason of a failure
+    14: optional string message;
+}
+
+struct ScheduleRun {
+    1: optional string id;
+    2: optional string revision;
+    3: optional string type = "scheduleRun";
+
+    4: required string serviceName;
+    // milliseconds since the epoch
+    5: required i64 startedOn;
+    6: optional i64 durationMillis;
+    7: required ScheduleRunOutcome outcome;
+    8: optional string message;
+}
+
 service ScheduleService {
     /*
      * a service with service name is scheduled
@@ -54,4 +117,41 @@ service ScheduleService {
     string getNextSync(1: string serviceName);
 
     i32 getInterval(1: string serviceName);
+
+    /*
+     * the latest runs of the service, newest first, at most limit
+     * user has to be admin, otherwise an empty list is returned
+     */
+    list<ScheduleRun> getScheduleRuns(1: string serviceName, 2: i32 limit, 3: User user);
+
+    /*
+     * the latest run of every service which has run
+     * user has to be admin, otherwise an empty list is returned
+     */
+    list<ScheduleRun> getLatestScheduleRuns(1: User user);
+
+    /*
+     * starts the background job with the given name off the request and returns it right away,
+     * returns the running job instead if the job is already running
+     * user has to be admin
+     */
+    BackgroundJob startBackgroundJob(1: string jobName, 2: User user);
+
+    /*
+     * the job with its current progress, or with its results if it is done
+     * user has to be admin
+     */
+    BackgroundJob getBackgroundJob(1: string jobId, 2: User user);
+
+    /*
+     * the latest jobs with the given name, running or done, newest first, at most limit
+     * user has to be admin
+     */
+    list<BackgroundJob> getBackgroundJobs(1: string jobName, 2: i32 limit, 3: User user);
+
+    /*
+     * cancels the running job, FAILURE if it is not running
+     * user has to be admin, otherwise FAILURE is returned
+     */
+    RequestStatus cancelBackgroundJob(1: string jobId, 2: User user);
 }
@@ -121,6 +121,19 @@ struct CustomProperties {
     5: map<string, set<string>> propertyToValues;
 }
 
+/**
+ * Selects one page of a summary list. Rows are filtered by `searchText` (case insensitive, in any
+ * of the sortable columns), sorted by `sortColumn` and then `rowsPerPage` rows are returned
+ * starting with row `displayStart`. A negative `rowsPerPage` selects all remaining rows.
+ */
+struct PaginationData {
+  1: optional i32 displayStart = 0;
+  2: optional i32 rowsPerPage = -1;
+  3: optional string sortColumn;
+  4: optional bool ascending = true;
+  5: optional string searchText;
+}
+
 struct RequestStatusWithBoolean {
   1: required RequestStatus requestStatus;
   2: optional bool answerPositive;
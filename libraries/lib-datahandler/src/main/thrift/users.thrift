@@ -65,6 +65,11 @@ service UserService {
      **/
     User getByEmail(1:string email);
 
+    /**
+     * returns SW360-users with ids equal to the emails, emails which are not found are left out
+     **/
+    list<User> getUsersByEmails(1: set<string> emails);
+
     /**
      * get list of all SW360-users in database with name equal to parameter name
      **/
@@ -80,11 +85,21 @@ service UserService {
      **/
     RequestStatus addUser(1: User user);
 
+    /**
+     * add SW360-users to database with one request, return the status of each user in the order of the users
+     **/
+    list<RequestStatus> addUsers(1: list<User> users);
+
     /**
      * update SW360-user in database
      **/
     RequestStatus updateUser(1: User user);
 
+    /**
+     * update SW360-users in database with one request, return the status of each user in the order of the users
+     **/
+    list<RequestStatus> updateUsers(1: list<User> users);
+
     /**
      * delete user from database, only possible if adminUser has permissions
      **/
@@ -95,4 +110,9 @@ service UserService {
      **/
     string getDepartmentByEmail(1:string email);
 
+    /**
+     * returns emails of the SW360-users which are at least in userGroup, only those of the department if it is set
+     **/
+    set<string> getUserEmailsAtLeast(1: UserGroup userGroup, 2: string department);
+
 }
@@ -16,6 +16,7 @@ namespace java org.eclipse.sw360.datahandler.thrift.vendors
 namespace php sw360.thrift.vendors
 
 typedef sw360.RequestStatus RequestStatus
+typedef sw360.AddDocumentRequestSummary AddDocumentRequestSummary
 typedef users.User User
 typedef users.RequestedAction RequestedAction
 
@@ -37,6 +38,11 @@ service VendorService {
      **/
     Vendor getByID(1: string id);
 
+    /**
+     * return vendors specified by ids, ids which are not found are left out
+     **/
+    list<Vendor> getVendorsByIds(1: set<string> ids);
+
     /**
      * return list of all vendors in database
      **/
@@ -62,6 +68,11 @@ service VendorService {
      **/
     string addVendor(1: Vendor vendor);
 
+    /**
+     * write vendors to database with one request, return the summaries with the ids in the order of the vendors
+     **/
+    list<AddDocumentRequestSummary> addVendors(1: list<Vendor> vendors);
+
     /**
      * vendor specified by id is deleted from database if user has sufficient permissions, otherwise FAILURE is returned
      **/
@@ -71,4 +82,10 @@ service VendorService {
      * vendor specified by id is updated in database if user has sufficient permissions, otherwise FAILURE is returned
      **/
     RequestStatus updateVendor(1: Vendor vendor, 2: User user);
+
+    /**
+     * vendors are updated in database with one request, those the user has no sufficient permissions for are not,
+     * return the status of each vendor in the order of the vendors
+     **/
+    list<RequestStatus> updateVendors(1: list<Vendor> vendors, 2: User user);
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.common;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ByteRangeTest {
+
+    @Test
+    public void testMissingOrInvalidHeadersAreIgnored() throws Exception {
+        assertThat(ByteRange.parse(null, 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("", 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("items=0-10", 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("bytes=10-5", 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("bytes=-", 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("bytes=0-10,20-30", 100), is(Optional.empty()));
+        assertThat(ByteRange.parse("bytes=99999999999999999999-", 100), is(Optional.empty()));
+    }
+
+    @Test
+    public void testClosedRange() throws Exception {
+        ByteRange range = ByteRange.parse("bytes=10-19", 100).get();
+
+        assertThat(range.isSatisfiable(), is(true));
+        assertThat(range.getStart(), is(10L));
+        assertThat(range.getEnd(), is(19L));
+        assertThat(range.getLength(), is(10L));
+        assertThat(range.getContentRange(), is("bytes 10-19/100"));
+    }
+
+    @Test
+    public void testRangeIsCutAtTheEndOfTheContent() throws Exception {
+        ByteRange range = ByteRange.parse("bytes=90-1000", 100).get();
+
+        assertThat(range.getEnd(), is(99L));
+        assertThat(range.getLength(), is(10L));
+    }
+
+    @Test
+    public void testOpenRange() throws Exception {
+        ByteRange range = ByteRange.parse("bytes=42-", 100).get();
+
+        assertThat(range.getContentRange(), is("bytes 42-99/100"));
+    }
+
+    @Test
+    public void testSuffixRange() throws Exception {
+        assertThat(ByteRange.parse("bytes=-10", 100).get().getContentRange(), is("bytes 90-99/100"));
+        assertThat(ByteRange.parse("bytes=-1000", 100).get().getContentRange(), is("bytes 0-99/100"));
+    }
+
+    @Test
+    public void testRangeAfterTheEndIsNotSatisfiable() throws Exception {
+        ByteRange range = ByteRange.parse("bytes=100-", 100).get();
+
+        assertThat(range.isSatisfiable(), is(false));
+        assertThat(range.getLength(), is(0L));
+        assertThat(range.getContentRange(), is("bytes */100"));
+        assertThat(ByteRange.parse("bytes=-0", 100).get().isSatisfiable(), is(false));
+        assertThat(ByteRange.parse("bytes=-5", 0).get().isSatisfiable(), is(false));
+    }
+}
@@ -11,13 +11,12 @@
 package org.eclipse.sw360.datahandler.common;
 
 import org.apache.log4j.Logger;
+import org.eclipse.sw360.datahandler.thrift.RequestStatus;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.ektorp.DocumentOperationResult;
 import org.junit.Test;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static org.eclipse.sw360.datahandler.common.CommonUtils.*;
 import static org.hamcrest.core.Is.is;
@@ -244,4 +243,14 @@ public class CommonUtilsTest {
         assertThat(getIntOrDefault("25z", 6), is(6));
         assertThat(getIntOrDefault( null, 42), is(42));
     }
+
+    @Test
+    public void testGetRequestStatusesKeepsTheOrderOfTheIds() throws Exception {
+        List<DocumentOperationResult> failures = Collections.singletonList(DocumentOperationResult.newInstance("b", "conflict", "Document update conflict."));
+
+        assertThat(getRequestStatuses(Arrays.asList("a", null, "b", "c"), failures),
+                is(Arrays.asList(RequestStatus.SUCCESS, RequestStatus.FAILURE, RequestStatus.FAILURE, RequestStatus.SUCCESS)));
+        assertThat(getRequestStatuses(Arrays.asList("a", "c"), Collections.emptyList()),
+                is(Arrays.asList(RequestStatus.SUCCESS, RequestStatus.SUCCESS)));
+    }
 }
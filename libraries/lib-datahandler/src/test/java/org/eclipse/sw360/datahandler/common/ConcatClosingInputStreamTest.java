@@ -13,14 +13,15 @@ package org.eclipse.sw360.datahandler.common;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -295,4 +296,76 @@ public class ConcatClosingInputStreamTest {
         fail("expected exception");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBulkReadContinuesWithTheNextStream() throws Exception {
+        List<InputStream> inputStreams = ImmutableList.of(
+                new ByteArrayInputStream(new byte[]{1, 2}),
+                new ByteArrayInputStream(new byte[0]),
+                new ByteArrayInputStream(new byte[]{3}));
+
+        ConcatClosingInputStream concatClosingInputStream = new ConcatClosingInputStream(inputStreams.iterator());
+        byte[] buffer = new byte[10];
+
+        assertThat(concatClosingInputStream.read(buffer, 0, 10), is(2));
+        assertThat(concatClosingInputStream.read(buffer, 2, 8), is(1));
+        assertThat(concatClosingInputStream.read(buffer, 3, 7), is(-1));
+        assertThat(Arrays.copyOf(buffer, 3), is(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testEveryRangeAcrossChunkBoundaries() throws Exception {
+        List<byte[]> chunks = Arrays.asList(bytes(0, 3), bytes(3, 0), bytes(3, 5), bytes(8, 1), bytes(9, 4));
+        List<Long> chunkLengths = new ArrayList<>();
+        for (byte[] chunk : chunks) {
+            chunkLengths.add((long) chunk.length);
+        }
+        int total = 13;
+
+        for (int offset = 0; offset <= total; offset++) {
+            for (int length = 0; offset + length <= total + 2; length++) {
+                Set<Integer> opened = new TreeSet<>();
+                InputStream range = ConcatClosingInputStream.ofRange(chunkLengths, chunk -> {
+                    opened.add(chunk);
+                    return new ByteArrayInputStream(chunks.get(chunk));
+                }, offset, length);
+
+                int expectedLength = Math.min(length, total - offset);
+                assertThat("offset " + offset + " length " + length, toByteArray(range), is(bytes(offset, expectedLength)));
+                range.close();
+                for (int chunk : opened) {
+                    long chunkStart = chunkLengths.subList(0, chunk).stream().mapToLong(Long::longValue).sum();
+                    long chunkEnd = chunkStart + chunkLengths.get(chunk);
+                    // only chunks overlapping the range, or the one where an empty range starts, are opened
+                    assertThat("chunk " + chunk + " for offset " + offset + " length " + length,
+                            chunkEnd > offset && chunkStart <= Math.max(offset, offset + expectedLength - 1), is(true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRangeSkipsChunksWithoutOpeningThem() throws Exception {
+        List<Long> chunkLengths = Arrays.asList(1000L, 1000L, 1000L, 1000L);
+        Set<Integer> opened = new TreeSet<>();
+
+        InputStream range = ConcatClosingInputStream.ofRange(chunkLengths, chunk -> {
+            opened.add(chunk);
+            return new ByteArrayInputStream(new byte[1000]);
+        }, 1990, 20);
+
+        assertThat(toByteArray(range).length, is(20));
+        assertThat(opened, contains(1, 2));
+    }
+
+    private static byte[] bytes(int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (start + i);
+        }
+        return bytes;
+    }
+
+    private static byte[] toByteArray(InputStream stream) throws IOException {
+        return ByteStreams.toByteArray(stream);
+    }
+}
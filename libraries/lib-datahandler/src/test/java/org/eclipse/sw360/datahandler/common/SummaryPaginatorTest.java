@@ -0,0 +1,106 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.common;
+
+import org.eclipse.sw360.datahandler.thrift.PaginationData;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SummaryPaginatorTest {
+
+    private SummaryPaginator<Project> paginator;
+    private List<Project> projects;
+
+    @Before
+    public void setUp() throws Exception {
+        paginator = SummaryPaginator.forProjects();
+        projects = new ArrayList<>();
+        projects.add(new Project().setId("P1").setName("delta").setDescription("first").setState(ProjectState.ACTIVE));
+        projects.add(new Project().setId("P2").setName("Alpha").setDescription("second").setState(ProjectState.PHASE_OUT));
+        projects.add(new Project().setId("P3").setName("charlie").setProjectResponsible("someone@sw360.org"));
+        projects.add(new Project().setId("P5").setName("bravo"));
+        projects.add(new Project().setId("P4").setName("bravo"));
+    }
+
+    @Test
+    public void testWithoutPaginationAllRowsAreReturnedInDefaultOrder() throws Exception {
+        SummaryPaginator.Page<Project> page = paginator.paginate(projects, null);
+
+        assertThat(ids(page), contains("P2", "P4", "P5", "P3", "P1"));
+        assertThat(page.getTotalCount(), is(5));
+        assertThat(page.getFilteredCount(), is(5));
+    }
+
+    @Test
+    public void testPagesPartitionTheSortedRows() throws Exception {
+        List<String> allPages = new ArrayList<>();
+        for (int start = 0; start < projects.size(); start += 2) {
+            PaginationData pagination = new PaginationData().setDisplayStart(start).setRowsPerPage(2).setSortColumn("name");
+            SummaryPaginator.Page<Project> page = paginator.paginate(projects, pagination);
+
+            assertThat(page.getRows().size(), lessThanOrEqualTo(2));
+            allPages.addAll(ids(page));
+        }
+
+        assertThat(allPages, contains("P2", "P4", "P5", "P3", "P1"));
+    }
+
+    @Test
+    public void testDescendingOrder() throws Exception {
+        PaginationData pagination = new PaginationData().setSortColumn("name").setAscending(false);
+
+        assertThat(ids(paginator.paginate(projects, pagination)), contains("P1", "P3", "P5", "P4", "P2"));
+    }
+
+    @Test
+    public void testUnknownSortColumnFallsBackToFirstColumn() throws Exception {
+        PaginationData pagination = new PaginationData().setSortColumn("businessUnit");
+
+        assertThat(ids(paginator.paginate(projects, pagination)), contains("P2", "P4", "P5", "P3", "P1"));
+    }
+
+    @Test
+    public void testSearchTextIsLookedForInAllColumnsIgnoringCase() throws Exception {
+        assertThat(ids(paginator.paginate(projects, new PaginationData().setSearchText("SECOND"))), contains("P2"));
+        assertThat(ids(paginator.paginate(projects, new PaginationData().setSearchText("sw360.org"))), contains("P3"));
+        assertThat(ids(paginator.paginate(projects, new PaginationData().setSearchText("phase"))), contains("P2"));
+
+        SummaryPaginator.Page<Project> page = paginator.paginate(projects, new PaginationData().setSearchText(" a ").setRowsPerPage(1));
+        assertThat(page.getTotalCount(), is(5));
+        assertThat(page.getFilteredCount(), is(5));
+        assertThat(ids(page), contains("P2"));
+    }
+
+    @Test
+    public void testPagesOutsideTheRowsAreClamped() throws Exception {
+        SummaryPaginator.Page<Project> afterTheEnd = paginator.paginate(projects, new PaginationData().setDisplayStart(10).setRowsPerPage(10));
+        SummaryPaginator.Page<Project> beforeTheStart = paginator.paginate(projects, new PaginationData().setDisplayStart(-3).setRowsPerPage(1));
+        SummaryPaginator.Page<Project> hugePage = paginator.paginate(projects, new PaginationData().setDisplayStart(4).setRowsPerPage(Integer.MAX_VALUE));
+
+        assertThat(afterTheEnd.getRows(), is(empty()));
+        assertThat(afterTheEnd.getFilteredCount(), is(5));
+        assertThat(ids(beforeTheStart), contains("P2"));
+        assertThat(ids(hugePage), contains("P1"));
+    }
+
+    private static List<String> ids(SummaryPaginator.Page<Project> page) {
+        return page.getRows().stream().map(Project::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.ektorp.CouchDbInstance;
+import org.ektorp.DocumentNotFoundException;
+import org.ektorp.impl.StdCouchDbInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
+import static org.eclipse.sw360.datahandler.couchdb.DatabaseTestProperties.COUCH_DB_DATABASE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+public class AttachmentBlobStoreTest {
+    private static final int CONCURRENT_UPLOADS = 8;
+    private static final String CONTENT = "the same source archive uploaded again and again";
+
+    private DatabaseConnector connector;
+    private AttachmentStreamConnector attachmentStreamConnector;
+    private AttachmentBlobStore blobStore;
+
+    @Before
+    public void setUp() throws Exception {
+        CouchDbInstance dbInstance = new StdCouchDbInstance(DatabaseTestProperties.getConfiguredHttpClient());
+        if (dbInstance.checkIfDbExists(COUCH_DB_DATABASE)) {
+            dbInstance.deleteDatabase(COUCH_DB_DATABASE);
+        }
+        dbInstance.createDatabase(COUCH_DB_DATABASE);
+
+        connector = new DatabaseConnector(DatabaseTestProperties.getConfiguredHttpClient(), COUCH_DB_DATABASE);
+        attachmentStreamConnector = new AttachmentStreamConnector(connector, durationOf(5, TimeUnit.SECONDS));
+        blobStore = new AttachmentBlobStore(connector);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        CouchDbInstance dbInstance = new StdCouchDbInstance(DatabaseTestProperties.getConfiguredHttpClient());
+        if (dbInstance.checkIfDbExists(COUCH_DB_DATABASE)) {
+            dbInstance.deleteDatabase(COUCH_DB_DATABASE);
+        }
+    }
+
+    @Test
+    public void testConcurrentIdenticalUploadsShareOneBlob() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+            ids.add(createAttachmentContent("upload" + i, "file" + i + ".tar.gz", 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> uploads = new ArrayList<>();
+            for (String id : ids) {
+                uploads.add(executor.submit(() -> {
+                    start.await();
+                    attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, id), 1, stream(CONTENT));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> upload : uploads) {
+                upload.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<AttachmentBlob> blobs = allBlobs();
+        assertThat(blobs, hasSize(1));
+        AttachmentBlob blob = blobs.get(0);
+        assertThat(blob.getId(), is(AttachmentBlobStore.getBlobId(sha1Hex(CONTENT))));
+        assertThat(blob.getReferences(), containsInAnyOrder(ids.toArray()));
+
+        for (String id : ids) {
+            AttachmentContent attachmentContent = connector.get(AttachmentContent.class, id);
+            assertThat(attachmentContent.getBlobId(), is(blob.getId()));
+            assertThat(attachmentContent.getSha1(), is(sha1Hex(CONTENT)));
+            assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(attachmentContent)), is(CONTENT));
+            assertOwnPartRemoved(attachmentContent);
+        }
+    }
+
+    @Test
+    public void testMultipartUploadIsMergedIntoBlob() throws Exception {
+        String first = createAttachmentContent("first", "archive.zip", 1);
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, first), 1, stream(CONTENT));
+
+        String second = createAttachmentContent("second", "archive-copy.zip", 3);
+        AttachmentContent secondContent = connector.get(AttachmentContent.class, second);
+        attachmentStreamConnector.uploadAttachmentPart(secondContent, 1, stream(CONTENT.substring(0, 10)));
+        attachmentStreamConnector.uploadAttachmentPart(secondContent, 2, stream(CONTENT.substring(10, 20)));
+        attachmentStreamConnector.uploadAttachmentPart(secondContent, 3, stream(CONTENT.substring(20)));
+
+        assertThat(allBlobs(), hasSize(1));
+        AttachmentContent merged = connector.get(AttachmentContent.class, second);
+        assertThat(merged.getBlobId(), is(AttachmentBlobStore.getBlobId(sha1Hex(CONTENT))));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(merged)), is(CONTENT));
+        assertOwnPartRemoved(merged);
+    }
+
+    @Test
+    public void testUploadOfStoredContentOnlyRefersToBlob() throws Exception {
+        String first = createAttachmentContent("first", "archive.zip", 1);
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, first), 1, stream(CONTENT));
+
+        String second = createAttachmentContent("second", "archive-copy.zip", 1);
+        try (DatabaseRequestStatistics requests = DatabaseRequestStatistics.start()) {
+            attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, second), 1, stream(CONTENT));
+
+            assertThat(requests.getCount(DatabaseOperation.ATTACHMENT), is(0L));
+        }
+
+        AttachmentContent referring = connector.get(AttachmentContent.class, second);
+        assertThat(referring.getBlobId(), is(AttachmentBlobStore.getBlobId(sha1Hex(CONTENT))));
+        assertThat(referring.getSha1(), is(sha1Hex(CONTENT)));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(referring)), is(CONTENT));
+        assertThat(allBlobs().get(0).getReferences(), containsInAnyOrder(first, second));
+    }
+
+    @Test
+    public void testFirstUploadIsOnlyWrittenToBlob() throws Exception {
+        String id = createAttachmentContent("first", "archive.zip", 1);
+        try (DatabaseRequestStatistics requests = DatabaseRequestStatistics.start()) {
+            attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, id), 1, stream(CONTENT));
+
+            assertThat(requests.getCount(DatabaseOperation.ATTACHMENT), is(1L));
+        }
+
+        AttachmentContent stored = connector.get(AttachmentContent.class, id);
+        assertThat(stored.getBlobId(), is(AttachmentBlobStore.getBlobId(sha1Hex(CONTENT))));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(stored)), is(CONTENT));
+        assertOwnPartRemoved(stored);
+    }
+
+    @Test(expected = SW360Exception.class)
+    public void testPartsOfMergedAttachmentCannotBeRead() throws Exception {
+        String id = createAttachmentContent("merged", "archive.zip", 2);
+        AttachmentContent attachmentContent = connector.get(AttachmentContent.class, id);
+        attachmentStreamConnector.uploadAttachmentPart(attachmentContent, 1, stream(CONTENT.substring(0, 10)));
+        attachmentStreamConnector.uploadAttachmentPart(attachmentContent, 2, stream(CONTENT.substring(10)));
+
+        attachmentStreamConnector.getAttachmentPartStream(connector.get(AttachmentContent.class, id), 1);
+    }
+
+    @Test
+    public void testDifferentContentsGetDifferentBlobs() throws Exception {
+        String first = createAttachmentContent("first", "a.txt", 1);
+        String second = createAttachmentContent("second", "a.txt", 1);
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, first), 1, stream("content a"));
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, second), 1, stream("content b"));
+
+        assertThat(allBlobs(), hasSize(2));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(connector.get(AttachmentContent.class, first))), is("content a"));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(connector.get(AttachmentContent.class, second))), is("content b"));
+    }
+
+    @Test
+    public void testOnlyUnreferencedBlobsAreRemoved() throws Exception {
+        String first = createAttachmentContent("first", "a.txt", 1);
+        String second = createAttachmentContent("second", "b.txt", 1);
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, first), 1, stream(CONTENT));
+        attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, second), 1, stream(CONTENT));
+
+        connector.deleteById(first);
+        assertThat(blobStore.removeUnreferencedBlobs(), is(0));
+        List<AttachmentBlob> blobs = allBlobs();
+        assertThat(blobs, hasSize(1));
+        assertThat(blobs.get(0).getReferences(), contains(second));
+        assertThat(read(attachmentStreamConnector.unsafeGetAttachmentStream(connector.get(AttachmentContent.class, second))), is(CONTENT));
+
+        connector.deleteById(second);
+        assertThat(blobStore.removeUnreferencedBlobs(), is(1));
+        assertThat(allBlobs(), is(empty()));
+    }
+
+    @Test
+    public void testUnreferencedBlobsAreRemovedPageByPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String id = createAttachmentContent("content" + i, "file" + i + ".txt", 1);
+            attachmentStreamConnector.uploadAttachmentPart(connector.get(AttachmentContent.class, id), 1, stream("content " + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            connector.deleteById("content" + i);
+        }
+
+        AtomicInteger pages = new AtomicInteger();
+        assertThat(blobStore.removeUnreferencedBlobs(2, blobs -> pages.incrementAndGet()), is(3));
+
+        assertThat(pages.get(), is(3));
+        assertThat(allBlobs(), hasSize(2));
+    }
+
+    private List<AttachmentBlob> allBlobs() {
+        return Lists.newArrayList(blobStore.iterateAllBlobs(2));
+    }
+
+    private String createAttachmentContent(String id, String filename, int partsCount) {
+        connector.add(new AttachmentContent()
+                .setId(id)
+                .setFilename(filename)
+                .setContentType("application/octet-stream")
+                .setOnlyRemote(false)
+                .setPartsCount(Integer.toString(partsCount)));
+        return id;
+    }
+
+    private void assertOwnPartRemoved(AttachmentContent attachmentContent) {
+        try {
+            connector.getAttachment(attachmentContent.getId(), attachmentContent.getFilename() + "_part1").close();
+            fail("part 1 of " + attachmentContent.getId() + " should have been removed");
+        } catch (DocumentNotFoundException expected) {
+            // the bytes are only kept in the blob
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream stream) throws Exception {
+        try (InputStream in = stream) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
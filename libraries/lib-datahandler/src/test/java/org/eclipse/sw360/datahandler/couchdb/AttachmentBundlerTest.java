@@ -0,0 +1,220 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.sw360.datahandler.thrift.SW360Exception;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+public class AttachmentBundlerTest {
+    private static final int OPEN_LATENCY_MILLIS = 50;
+
+    private ExecutorService executor;
+    private LocalAttachmentStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        store = new LocalAttachmentStore();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testEntriesAreWrittenInStableOrder() throws Exception {
+        List<AttachmentContent> attachments = Arrays.asList(
+                store.add("c3", "c.txt", "content c"),
+                store.add("a2", "a.tar.gz", "second a"),
+                store.add("b1", "b.txt", "content b"),
+                store.add("a1", "a.tar.gz", "first a"));
+        AttachmentBundler bundler = new AttachmentBundler(executor, 2, 4);
+
+        Map<String, String> forward = readZip(bundler.bundle(attachments, store::open));
+        Collections.reverse(attachments);
+        Map<String, String> backward = readZip(bundler.bundle(new HashSet<>(attachments), store::open));
+
+        assertThat(forward.keySet(), contains("a.tar.gz", "a.tar (1).gz", "b.txt", "c.txt"));
+        assertThat(forward.values(), contains("first a", "second a", "content b", "content c"));
+        assertThat(backward, is(forward));
+        assertThat(store.openStreams.get(), is(0));
+    }
+
+    @Test
+    public void testLargeAttachmentsAreCopiedCompletely() throws Exception {
+        String large = new String(new char[3 * AttachmentBundler.BUFFER_SIZE + 17]).replace('\0', 'x');
+        List<AttachmentContent> attachments = Arrays.asList(
+                store.add("l1", "large1.bin", large),
+                store.add("l2", "large2.bin", large + "y"));
+
+        Map<String, String> entries = readZip(new AttachmentBundler(executor, 2, 1000).bundle(attachments, store::open));
+
+        assertThat(entries.get("large1.bin"), is(large));
+        assertThat(entries.get("large2.bin"), is(large + "y"));
+    }
+
+    @Test
+    public void testNextAttachmentsAreOpenedConcurrently() throws Exception {
+        List<AttachmentContent> attachments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            attachments.add(store.add("id" + i, String.format("file%02d.txt", i), "content " + i));
+        }
+
+        long start = System.nanoTime();
+        Map<String, String> entries = readZip(new AttachmentBundler(executor, 4, 1024).bundle(attachments, store::open));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(entries.size(), is(20));
+        assertThat(entries.get("file19.txt"), is("content 19"));
+        assertThat(store.maxConcurrentOpens.get(), greaterThan(1));
+        assertThat(elapsedMillis, lessThan((long) attachments.size() * OPEN_LATENCY_MILLIS));
+    }
+
+    @Test
+    public void testAttachmentsWhichCannotBeOpenedAreWrittenEmpty() throws Exception {
+        List<AttachmentContent> attachments = Arrays.asList(
+                store.add("ok", "ok.txt", "content"),
+                new AttachmentContent().setId("forbidden").setFilename("forbidden.txt"));
+
+        Map<String, String> entries = readZip(new AttachmentBundler(executor, 2, 1024).bundle(attachments, store::open));
+
+        assertThat(entries.get("ok.txt"), is("content"));
+        assertThat(entries.get("forbidden.txt"), is(""));
+    }
+
+    @Test
+    public void testFailingAttachmentFailsTheBundleStream() throws Exception {
+        AttachmentContent broken = new AttachmentContent().setId("broken").setFilename("broken.txt");
+        store.streams.put("broken", () -> new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        try (InputStream bundle = new AttachmentBundler(executor, 2, 0).bundle(Collections.singleton(broken), store::open)) {
+            IOUtils.toByteArray(bundle);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // the consumer must not mistake a broken bundle for a complete one
+        }
+    }
+
+    @Test
+    public void testClosingTheStreamCancelsTheBundle() throws Exception {
+        List<AttachmentContent> attachments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AttachmentContent attachment = new AttachmentContent().setId("endless" + i).setFilename("endless" + i + ".bin");
+            store.streams.put(attachment.getId(), EndlessInputStream::new);
+            attachments.add(attachment);
+        }
+
+        InputStream bundle = new AttachmentBundler(executor, 3, 1024).bundle(attachments, store::open);
+        byte[] buffer = new byte[1024];
+        for (int i = 0; i < 100; i++) {
+            assertThat(bundle.read(buffer), greaterThan(0));
+        }
+        bundle.close();
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+        assertThat(store.openStreams.get(), is(0));
+        assertThat(store.totalOpens.get(), lessThanOrEqualTo(5));
+    }
+
+    private static Map<String, String> readZip(InputStream bundle) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(bundle)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toString(zip, StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Attachments held in memory. Opening an attachment takes some time, like
+     * a request to the database would, and open streams are counted.
+     */
+    private static class LocalAttachmentStore {
+        final Map<String, Callable<InputStream>> streams = new ConcurrentHashMap<>();
+        final AtomicInteger openStreams = new AtomicInteger();
+        final AtomicInteger totalOpens = new AtomicInteger();
+        final AtomicInteger maxConcurrentOpens = new AtomicInteger();
+        private final AtomicInteger concurrentOpens = new AtomicInteger();
+
+        AttachmentContent add(String id, String filename, String content) {
+            streams.put(id, () -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+            return new AttachmentContent().setId(id).setFilename(filename);
+        }
+
+        InputStream open(AttachmentContent attachment) throws SW360Exception {
+            Callable<InputStream> stream = streams.get(attachment.getId());
+            if (stream == null) {
+                throw new SW360Exception("not allowed to download " + attachment.getId());
+            }
+            maxConcurrentOpens.accumulateAndGet(concurrentOpens.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(OPEN_LATENCY_MILLIS);
+                InputStream opened = stream.call();
+                totalOpens.incrementAndGet();
+                openStreams.incrementAndGet();
+                return new FilterInputStream(opened) {
+                    private boolean closed = false;
+
+                    @Override
+                    public void close() throws IOException {
+                        if (!closed) {
+                            closed = true;
+                            openStreams.decrementAndGet();
+                        }
+                        super.close();
+                    }
+                };
+            } catch (Exception e) {
+                throw new SW360Exception(e.getMessage());
+            } finally {
+                concurrentOpens.decrementAndGet();
+            }
+        }
+    }
+
+    private static class EndlessInputStream extends InputStream {
+        @Override
+        public int read() {
+            return 'x';
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Arrays.fill(b, off, off + len, (byte) 'x');
+            return len;
+        }
+    }
+}
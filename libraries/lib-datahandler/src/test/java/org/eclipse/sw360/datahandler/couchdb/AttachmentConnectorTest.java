@@ -10,20 +10,29 @@
  */
 package org.eclipse.sw360.datahandler.couchdb;
 
+import com.google.common.collect.ImmutableSet;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.attachments.CheckStatus;
+import org.ektorp.AttachmentInputStream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
 import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -97,5 +106,41 @@ public class AttachmentConnectorTest {
         verify(connector).deleteIds(expectedIdsToDelete, AttachmentContent.class);
     }
 
+    @Test
+    public void testSha1IsReadFromAttachmentContent() throws Exception {
+        AttachmentContent content = new AttachmentContent().setId("a1cid").setFilename("fil").setSha1("sha1");
+        when(connector.get(AttachmentContent.class, "a1cid")).thenReturn(content);
+
+        assertThat(attachmentConnector.getSha1FromAttachmentContentId("a1cid"), is("sha1"));
+        verify(connector, never()).getAttachment(anyString(), anyString());
+    }
+
+    @Test
+    public void testSha1IsComputedAndStoredForOldAttachmentContent() throws Exception {
+        AttachmentContent content = new AttachmentContent().setId("a1cid").setFilename("fil");
+        when(connector.get(AttachmentContent.class, "a1cid")).thenReturn(content);
+        when(connector.getAttachment("a1cid", "fil")).thenReturn(new AttachmentInputStream("fil",
+                new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)), "application/octet-stream"));
+
+        assertThat(attachmentConnector.getSha1FromAttachmentContentId("a1cid"), is(sha1Hex("content")));
+        assertThat(content.getSha256(), is(sha256Hex("content")));
+        verify(connector).update(content);
+    }
 
+    @Test
+    public void testSetSha1ForAttachmentsFetchesContentsAtOnce() throws Exception {
+        Attachment a1 = new Attachment("a1cid", "a1");
+        Attachment a2 = new Attachment("a2cid", "a2");
+        Attachment a3 = new Attachment("a3cid", "a3").setSha1("existing");
+        when(connector.get(AttachmentContent.class, ImmutableSet.of("a1cid", "a2cid"), true)).thenReturn(Arrays.asList(
+                new AttachmentContent().setId("a1cid").setFilename("a1").setSha1("sha1-1"),
+                new AttachmentContent().setId("a2cid").setFilename("a2").setSha1("sha1-2")));
+
+        attachmentConnector.setSha1ForAttachments(ImmutableSet.of(a1, a2, a3));
+
+        assertThat(a1.getSha1(), is("sha1-1"));
+        assertThat(a2.getSha1(), is("sha1-2"));
+        assertThat(a3.getSha1(), is("existing"));
+        verify(connector, never()).getAttachment(anyString(), anyString());
+    }
 }
@@ -11,16 +11,21 @@
 
 package org.eclipse.sw360.datahandler.couchdb;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 import org.eclipse.sw360.datahandler.common.Duration;
+import org.eclipse.sw360.datahandler.test.RemoteFileStub;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Random;
 import java.util.concurrent.*;
 
 import static org.eclipse.sw360.datahandler.TestUtils.*;
@@ -40,10 +45,22 @@ import static org.mockito.Mockito.when;
 public class AttachmentContentDownloaderTest {
     private final Duration downloadTimeout = durationOf(2, TimeUnit.SECONDS);
     private AttachmentContentDownloader attachmentContentDownloader;
+    private RemoteFileStub remoteFiles;
+    private byte[] content;
 
     @Before
     public void setUp() throws Exception {
         attachmentContentDownloader = new AttachmentContentDownloader();
+
+        content = new byte[200 * 1024 + 3];
+        new Random(42).nextBytes(content);
+        remoteFiles = new RemoteFileStub();
+        remoteFiles.addFile("/file.bin", content);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        remoteFiles.close();
     }
 
     @Test
@@ -100,4 +117,41 @@ public class AttachmentContentDownloaderTest {
             executor.awaitTermination(1, TimeUnit.MINUTES);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompleteDownloadIsNotResumed() throws Exception {
+        assertThat(downloadStubFile(), is(content));
+        assertThat(remoteFiles.getRangeRequests(), is(0));
+    }
+
+    @Test
+    public void testBrokenDownloadIsResumedWithRangeRequest() throws Exception {
+        remoteFiles.breakNextResponseAfter("/file.bin", 70000);
+
+        assertThat(downloadStubFile(), is(content));
+        assertThat(remoteFiles.getRequests(), is(2));
+        assertThat(remoteFiles.getRangeRequests(), is(1));
+    }
+
+    @Test
+    public void testBrokenDownloadFailsIfServerCannotResume() throws Exception {
+        remoteFiles.setRangesSupported(false);
+        remoteFiles.breakNextResponseAfter("/file.bin", 70000);
+
+        try {
+            downloadStubFile();
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // a truncated download must never look complete
+        }
+    }
+
+    private byte[] downloadStubFile() throws IOException {
+        AttachmentContent attachmentContent = mock(AttachmentContent.class);
+        when(attachmentContent.getRemoteUrl()).thenReturn(remoteFiles.getUrl("localhost", "/file.bin"));
+
+        try (InputStream download = attachmentContentDownloader.download(attachmentContent, downloadTimeout)) {
+            return ByteStreams.toByteArray(download);
+        }
+    }
+}
@@ -23,6 +23,9 @@ public class AttachmentContentWrapperTest extends DocumentWrapperTest<Attachment
         source.setContentType("v");
         source.setPartsCount("1");
         source.setRemoteUrl("uskt"); //TODO this is not required !
+        source.setSha1("da39a3ee5e6b4b0d3255bfef95601890afd80709");
+        source.setSha256("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+        source.setBlobId("blob-da39a3ee5e6b4b0d3255bfef95601890afd80709");
 
         AttachmentContentWrapper attachmentContentWrapper = new AttachmentContentWrapper();
         attachmentContentWrapper.updateNonMetadata(source);
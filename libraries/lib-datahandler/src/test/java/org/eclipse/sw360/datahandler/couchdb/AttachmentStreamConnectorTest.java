@@ -11,6 +11,7 @@
 package org.eclipse.sw360.datahandler.couchdb;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.sw360.datahandler.common.Duration;
 import org.eclipse.sw360.datahandler.thrift.Visibility;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
@@ -18,6 +19,7 @@ import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.ektorp.AttachmentInputStream;
+import org.ektorp.DbAccessException;
 import org.ektorp.DocumentNotFoundException;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,11 +28,15 @@ import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
 import static org.eclipse.sw360.datahandler.common.Duration.durationOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
@@ -192,4 +198,132 @@ public class AttachmentStreamConnectorTest {
         verify(part1).close();
     }
 
+    @Test
+    public void testUploadAttachmentComputesDigests() throws Exception {
+        AttachmentContent attachment = new AttachmentContent().setId("id").setFilename("fil");
+        List<byte[]> uploaded = collectUploads();
+
+        attachmentStreamConnector.uploadAttachment(attachment, new ByteArrayInputStream(bytes("some content")));
+
+        assertThat(uploaded.size(), is(1));
+        assertThat(attachment.getSha1(), is(sha1Hex("some content")));
+        assertThat(attachment.getSha256(), is(sha256Hex("some content")));
+    }
+
+    @Test
+    public void testUploadAttachmentPartsComputesDigestsOfWholeContent() throws Exception {
+        AttachmentContent attachment = new AttachmentContent().setId("id").setFilename("fil").setPartsCount("3");
+        AttachmentContent stored = new AttachmentContent().setId("id").setRevision("4").setFilename("fil").setPartsCount("3");
+        when(connector.get(AttachmentContent.class, "id")).thenReturn(stored);
+        List<byte[]> uploaded = collectUploads();
+
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 1, new ByteArrayInputStream(bytes("first ")));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 2, new ByteArrayInputStream(bytes("second ")));
+        verify(connector, never()).update(any());
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 3, new ByteArrayInputStream(bytes("third")));
+
+        assertThat(uploaded.size(), is(3));
+        verify(connector).update(stored);
+        assertThat(stored.getSha1(), is(sha1Hex("first second third")));
+        assertThat(stored.getSha256(), is(sha256Hex("first second third")));
+    }
+
+    @Test
+    public void testUploadAttachmentPartsOutOfOrderDoesNotStoreDigests() throws Exception {
+        AttachmentContent attachment = new AttachmentContent().setId("id").setFilename("fil").setPartsCount("3");
+        collectUploads();
+
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 1, new ByteArrayInputStream(bytes("first ")));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 3, new ByteArrayInputStream(bytes("third")));
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 2, new ByteArrayInputStream(bytes("second ")));
+
+        verify(connector, never()).update(any());
+    }
+
+    @Test
+    public void testRetriedPartIsNotDigestedTwice() throws Exception {
+        AttachmentContent attachment = new AttachmentContent().setId("id").setFilename("fil").setPartsCount("2");
+        AttachmentContent stored = new AttachmentContent().setId("id").setRevision("3").setFilename("fil").setPartsCount("2");
+        when(connector.get(AttachmentContent.class, "id")).thenReturn(stored);
+        when(connector.getCurrentRevision("id")).thenReturn("1");
+        when(connector.createAttachment(eq("id"), eq("1"), any(AttachmentInputStream.class)))
+                .thenAnswer(invocation -> consume(invocation.getArguments()[2]))
+                .thenThrow(new DbAccessException("connection reset"))
+                .thenAnswer(invocation -> consume(invocation.getArguments()[2]));
+
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 1, new ByteArrayInputStream(bytes("first ")));
+        try {
+            attachmentStreamConnector.uploadAttachmentPart(attachment, 2, new ByteArrayInputStream(bytes("sec")));
+            fail("expected Exception not thrown");
+        } catch (DbAccessException ignored) {
+
+        }
+        attachmentStreamConnector.uploadAttachmentPart(attachment, 2, new ByteArrayInputStream(bytes("second")));
+
+        verify(connector).update(stored);
+        assertThat(stored.getSha1(), is(sha1Hex("first second")));
+    }
+
+    @Test
+    public void testRangeStreamOnlyReadsOverlappingParts() throws Exception {
+        AttachmentContent attachment = new AttachmentContent().setId("id").setFilename("f").setPartsCount("3");
+        mockStoredParts("abcd", "efgh", "ijkl");
+
+        assertThat(readRange(attachment, 2, 4), is("cdef"));
+        verify(connector).getAttachment("id", "f_part1");
+        verify(connector).getAttachment("id", "f_part2");
+        verify(connector, never()).getAttachment("id", "f_part3");
+
+        assertThat(readRange(attachment, 5, 3), is("fgh"));
+        verify(connector, times(1)).getAttachment("id", "f_part1");
+        verify(connector, never()).getAttachment("id", "f_part3");
+
+        assertThat(readRange(attachment, 3, 100), is("defghijkl"));
+        assertThat(attachmentStreamConnector.getAttachmentLength(attachment), is(12L));
+    }
+
+    private void mockStoredParts(String... parts) {
+        AttachmentContentWrapper stored = mock(AttachmentContentWrapper.class);
+        Map<String, org.ektorp.Attachment> stubs = new HashMap<>();
+        for (int i = 0; i < parts.length; i++) {
+            String name = "f_part" + (i + 1);
+            byte[] content = bytes(parts[i]);
+            org.ektorp.Attachment stub = mock(org.ektorp.Attachment.class);
+            when(stub.getContentLength()).thenReturn((long) content.length);
+            stubs.put(name, stub);
+            when(connector.getAttachment("id", name)).thenAnswer(invocation ->
+                    new AttachmentInputStream(name, new ByteArrayInputStream(content), "application/octet-stream"));
+        }
+        when(stored.getAttachments()).thenReturn(stubs);
+        when(connector.get(AttachmentContentWrapper.class, "id")).thenReturn(stored);
+    }
+
+    private String readRange(AttachmentContent attachment, long offset, long length) throws Exception {
+        Project context = new Project()
+                .setVisbility(Visibility.ME_AND_MODERATORS)
+                .setCreatedBy(dummyUser.getEmail())
+                .setAttachments(Collections.singleton(new Attachment().setAttachmentContentId(attachment.getId())));
+        try (InputStream range = attachmentStreamConnector.getAttachmentRangeStream(attachment, dummyUser, context, offset, length)) {
+            return new String(IOUtils.toByteArray(range), StandardCharsets.UTF_8);
+        }
+    }
+
+    private List<byte[]> collectUploads() {
+        List<byte[]> uploaded = new ArrayList<>();
+        when(connector.getCurrentRevision("id")).thenReturn("1");
+        when(connector.createAttachment(eq("id"), eq("1"), any(AttachmentInputStream.class))).thenAnswer(invocation -> {
+            uploaded.add(IOUtils.toByteArray((InputStream) invocation.getArguments()[2]));
+            return "2";
+        });
+        return uploaded;
+    }
+
+    private static String consume(Object attachmentInputStream) throws IOException {
+        IOUtils.toByteArray((InputStream) attachmentInputStream);
+        return "2";
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.testthrift.TestObject;
+import org.ektorp.support.DesignDocument;
+import org.ektorp.support.View;
+import org.ektorp.support.Views;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.GET_DOCUMENT;
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.PUT_DOCUMENT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DatabaseBootstrapTest {
+
+    private static final String DATABASE = "bootstraptest";
+
+    private InMemoryCouchDb couchDb;
+    private MapperFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        couchDb = new InMemoryCouchDb();
+        factory = new MapperFactory(ImmutableList.<Class<?>>of(TestObject.class), Collections.<Class<?>>emptyList(), Maps.newHashMap());
+    }
+
+    @Test
+    public void testSecondConnectorAndRepositoryAreFree() throws Exception {
+        new FirstRepository(new DatabaseConnector(couchDb, DATABASE, factory));
+        assertThat(couchDb.getRequestCount(), greaterThan(0L));
+        couchDb.resetRequestCounts();
+
+        new FirstRepository(new DatabaseConnector(couchDb, DATABASE, factory));
+
+        assertThat(couchDb.getRequestCount(), is(0L));
+    }
+
+    @Test
+    public void testChangedViewsAreWritten() throws Exception {
+        DatabaseConnector connector = new DatabaseConnector(couchDb, DATABASE, factory);
+        new FirstRepository(connector);
+        couchDb.resetRequestCounts();
+
+        new ChangedRepository(connector);
+
+        assertThat(couchDb.getRequestCount(PUT_DOCUMENT), is(1L));
+        DesignDocument designDocument = connector.get(DesignDocument.class, "_design/TestObject");
+        assertThat(designDocument.get("byName").getMap(), containsString("doc.text"));
+        assertThat(designDocument.get("all"), is(notNullValue()));
+    }
+
+    @Test
+    public void testUnchangedViewsOfAnotherRepositoryAreNotWritten() throws Exception {
+        DatabaseConnector connector = new DatabaseConnector(couchDb, DATABASE, factory);
+        new FirstRepository(connector);
+        couchDb.resetRequestCounts();
+
+        new SubsetRepository(connector);
+
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(1L));
+        assertThat(couchDb.getRequestCount(PUT_DOCUMENT), is(0L));
+    }
+
+    @Test
+    public void testEveryServerIsBootstrapped() throws Exception {
+        new FirstRepository(new DatabaseConnector(couchDb, DATABASE, factory));
+        InMemoryCouchDb otherCouchDb = new InMemoryCouchDb();
+
+        new FirstRepository(new DatabaseConnector(otherCouchDb, DATABASE, factory));
+
+        assertThat(otherCouchDb.getDatabaseNames(), contains(DATABASE));
+        assertThat(otherCouchDb.getRequestCount(PUT_DOCUMENT), is(1L));
+    }
+
+    @Test
+    public void testDeletedDatabasesAreBootstrappedAgain() throws Exception {
+        DatabaseConnector connector = new DatabaseConnector(couchDb, DATABASE, factory);
+        new FirstRepository(connector);
+        connector.getInstance().deleteDatabase(DATABASE);
+
+        new FirstRepository(new DatabaseConnector(couchDb, DATABASE, factory));
+
+        assertThat(couchDb.getDatabaseNames(), contains(DATABASE));
+        assertThat(new DatabaseConnector(couchDb, DATABASE, factory).contains("_design/TestObject"), is(true));
+    }
+
+    @Views({
+            @View(name = "all", map = "function(doc) { emit(null, doc._id) }"),
+            @View(name = "byName", map = "function(doc) { emit(doc.name, doc._id) }")
+    })
+    private static class FirstRepository extends DatabaseRepository<TestObject> {
+        FirstRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+    }
+
+    @View(name = "byName", map = "function(doc) { emit(doc.text, doc._id) }")
+    private static class ChangedRepository extends DatabaseRepository<TestObject> {
+        ChangedRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+    }
+
+    @View(name = "all", map = "function(doc) { emit(null, doc._id) }")
+    private static class SubsetRepository extends DatabaseRepository<TestObject> {
+        SubsetRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.testthrift.TestObject;
+import org.ektorp.support.View;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.eclipse.sw360.datahandler.couchdb.InstrumentedHttpClient.operationOf;
+import static org.eclipse.sw360.datahandler.couchdb.InstrumentedHttpClient.pathOf;
+import static org.eclipse.sw360.datahandler.couchdb.InstrumentedHttpClient.tagOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DatabaseRequestStatisticsTest {
+
+    private static final String DATABASE = "requeststest";
+
+    private DatabaseConnector connector;
+    private TestObjectRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        MapperFactory factory = new MapperFactory(ImmutableList.<Class<?>>of(TestObject.class), Collections.<Class<?>>emptyList(), Maps.newHashMap());
+        connector = new DatabaseConnector(new InMemoryCouchDb(), DATABASE, factory);
+        repository = new TestObjectRepository(connector);
+        for (int i = 0; i < 3; i++) {
+            connector.add(new TestObject().setId("id" + i).setName("name " + i));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assertThat(DatabaseRequestStatistics.isRecording(), is(false));
+    }
+
+    @Test
+    public void testRequestsAreCountedByOperationAndTag() throws Exception {
+        try (DatabaseRequestStatistics requests = DatabaseRequestStatistics.start()) {
+            connector.get(TestObject.class, "id0");
+            connector.get(TestObject.class, "id1");
+            connector.get(TestObject.class, Arrays.asList("id0", "id1", "id2"));
+            repository.getAll();
+            connector.executeBulk(Collections.singletonList(new TestObject().setId("id3").setName("name 3")));
+            connector.deleteById("id3");
+
+            assertThat(requests.getCount(DatabaseOperation.GET, DATABASE), is(2L));
+            assertThat(requests.getCount(DatabaseOperation.MULTI_GET, DATABASE), is(1L));
+            assertThat(requests.getCounts(DatabaseOperation.VIEW), hasEntry(DATABASE + "/TestObject/all", 1L));
+            assertThat(requests.getCount(DatabaseOperation.BULK), is(1L));
+            assertThat(requests.getCount(DatabaseOperation.WRITE), is(greaterThanOrEqualTo(1L)));
+            assertThat(requests.getCount(DatabaseOperation.SEARCH), is(0L));
+            assertThat(requests.toString(), containsString("VIEW " + DATABASE + "/TestObject/all 1x"));
+        }
+    }
+
+    @Test
+    public void testNestedRecordingsAreAlsoCountedByTheOuterOne() throws Exception {
+        try (DatabaseRequestStatistics outer = DatabaseRequestStatistics.start()) {
+            connector.get(TestObject.class, "id0");
+            try (DatabaseRequestStatistics inner = DatabaseRequestStatistics.start()) {
+                connector.get(TestObject.class, "id1");
+                assertThat(inner.getCount(), is(1L));
+            }
+            connector.get(TestObject.class, "id2");
+
+            assertThat(outer.getCount(DatabaseOperation.GET), is(3L));
+        }
+    }
+
+    @Test
+    public void testRequestsOutsideOfTheRecordingAreNotCounted() throws Exception {
+        DatabaseRequestStatistics requests = DatabaseRequestStatistics.start();
+        Thread other = new Thread(() -> connector.get(TestObject.class, "id0"));
+        other.start();
+        other.join();
+        requests.close();
+        connector.get(TestObject.class, "id1");
+
+        assertThat(requests.getCount(), is(0L));
+    }
+
+    @Test
+    public void testOperationsAndTagsAreTakenFromTheUri() throws Exception {
+        assertThat(operationOf("GET", pathOf("/sw360db/1234?revs_info=true")), is(DatabaseOperation.GET));
+        assertThat(operationOf("PUT", pathOf("/sw360db/1234")), is(DatabaseOperation.WRITE));
+        assertThat(operationOf("GET", pathOf("/sw360db/1234/file.txt")), is(DatabaseOperation.ATTACHMENT));
+        assertThat(operationOf("POST", pathOf("/sw360db/_all_docs?include_docs=true")), is(DatabaseOperation.MULTI_GET));
+        assertThat(operationOf("GET", pathOf("/sw360db/_changes?feed=continuous")), is(DatabaseOperation.OTHER));
+        assertThat(operationOf("GET", pathOf("/sw360db/_design%2FVendor")), is(DatabaseOperation.OTHER));
+        assertThat(operationOf("GET", pathOf("/")), is(DatabaseOperation.OTHER));
+
+        assertThat(operationOf("GET", pathOf("/sw360db/_design/Vendor/_view/all")), is(DatabaseOperation.VIEW));
+        assertThat(tagOf(pathOf("/sw360db/_design/Vendor/_view/all?include_docs=true")), is("sw360db/Vendor/all"));
+        assertThat(operationOf("GET", pathOf("/sw360db/_design%2FVendor/_view/all")), is(DatabaseOperation.VIEW));
+        assertThat(tagOf(pathOf("/sw360db/_design%2FVendor/_view/all")), is("sw360db/Vendor/all"));
+
+        assertThat(operationOf("GET", pathOf("/_fti/local/sw360db/_design/lucene/vendors?q=siemens")), is(DatabaseOperation.SEARCH));
+        assertThat(tagOf(pathOf("/_fti/local/sw360db/_design/lucene/vendors?q=siemens")), is("sw360db/lucene/vendors"));
+    }
+
+    @View(name = "all", map = "function(doc) { if (doc.name) emit(doc.name, null) }")
+    private static class TestObjectRepository extends DatabaseRepository<TestObject> {
+
+        TestObjectRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+    }
+}
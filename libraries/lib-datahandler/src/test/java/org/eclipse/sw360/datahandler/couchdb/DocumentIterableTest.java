@@ -0,0 +1,211 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.eclipse.sw360.datahandler.test.InMemoryCouchDb;
+import org.eclipse.sw360.testthrift.TestObject;
+import org.ektorp.ViewQuery;
+import org.ektorp.http.HttpClient;
+import org.ektorp.http.HttpResponse;
+import org.ektorp.support.View;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.VIEW;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DocumentIterableTest {
+
+    private static final String DATABASE = "iterabletest";
+
+    private InMemoryCouchDb couchDb;
+    private MapperFactory factory;
+    private DatabaseConnector connector;
+    private TestObjectRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        couchDb = new InMemoryCouchDb();
+        factory = new MapperFactory(ImmutableList.<Class<?>>of(TestObject.class), Collections.<Class<?>>emptyList(), Maps.newHashMap());
+        connector = new DatabaseConnector(couchDb, DATABASE, factory);
+        repository = new TestObjectRepository(connector);
+        for (int i = 0; i < 10; i++) {
+            // only two distinct keys, the pages have to continue within a key
+            connector.add(new TestObject().setId(String.format("id%02d", i)).setName(i % 2 == 0 ? "even" : "odd").setText("text " + i));
+        }
+        couchDb.resetRequestCounts();
+    }
+
+    @Test
+    public void testAllDocumentsAreIteratedOnceInPages() throws Exception {
+        List<String> ids = ids(repository.iterateAll(3, null));
+
+        assertThat(ids, contains("id00", "id02", "id04", "id06", "id08", "id01", "id03", "id05", "id07", "id09"));
+        assertThat(couchDb.getRequestCount(VIEW), is(4L));
+    }
+
+    @Test
+    public void testPageSizeDividingTheDocumentsNeedsNoDuplicates() throws Exception {
+        assertThat(ids(repository.iterateAll(5, null)), hasSize(10));
+        assertThat(ids(repository.iterateAll(10, null)), hasSize(10));
+        assertThat(ids(repository.iterateAll(100, null)), hasSize(10));
+    }
+
+    @Test
+    public void testKeyRangesAreKept() throws Exception {
+        DocumentIterable<TestObject> odd = repository.iterate(() -> repository.createQuery("all").startKey("odd").endKey("odd"), 2, null);
+
+        assertThat(ids(odd), contains("id01", "id03", "id05", "id07", "id09"));
+    }
+
+    @Test
+    public void testDocumentsDeletedWhileIteratingAreLeftOut() throws Exception {
+        Iterator<TestObject> iterator = repository.iterateAll(2, null).iterator();
+        List<String> ids = new ArrayList<>();
+        ids.add(iterator.next().getId());
+        ids.add(iterator.next().getId());
+
+        // the last document of the page and the next one
+        connector.deleteById("id02");
+        connector.deleteById("id04");
+        iterator.forEachRemaining(object -> ids.add(object.getId()));
+
+        assertThat(ids, contains("id00", "id02", "id06", "id08", "id01", "id03", "id05", "id07", "id09"));
+    }
+
+    @Test
+    public void testOnlyProjectedFieldsAreRead() throws Exception {
+        TestObject first = repository.iterateAll(5, Collections.singleton("name")).iterator().next();
+
+        assertThat(first.getId(), is("id00"));
+        assertThat(first.getName(), is("even"));
+        assertThat(first.isSetText(), is(false));
+    }
+
+    @Test
+    public void testMillionDocumentsAreStreamed() throws Exception {
+        // the heap of the tests is limited by the build, it would not hold the documents all at once
+        int total = 1000000;
+        SyntheticAllDocs allDocs = new SyntheticAllDocs(total);
+        DatabaseConnector synthetic = new DatabaseConnector(allDocs.client, "synthetic", factory);
+
+        DocumentIterable<TestObject> documents = new DocumentIterable<>(synthetic, TestObject.class,
+                () -> new ViewQuery().allDocs(), 5000, null);
+        long count = 0;
+        long outOfOrder = 0;
+        String previous = "";
+        for (TestObject document : documents) {
+            if (document.getId().compareTo(previous) <= 0) {
+                outOfOrder++;
+            }
+            previous = document.getId();
+            count++;
+        }
+
+        assertThat(count, is((long) total));
+        assertThat(outOfOrder, is(0L));
+        assertThat(allDocs.pages.get(), is(total / 5000 + 1));
+    }
+
+    private static List<String> ids(Iterable<TestObject> objects) {
+        List<String> ids = new ArrayList<>();
+        objects.forEach(object -> ids.add(object.getId()));
+        return ids;
+    }
+
+    @View(name = "all", map = "function(doc) { if (doc.name) emit(doc.name, null) }")
+    private static class TestObjectRepository extends DatabaseRepository<TestObject> {
+
+        TestObjectRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+
+        @Override
+        public ViewQuery createQuery(String viewName) {
+            return super.createQuery(viewName);
+        }
+    }
+
+    /**
+     * Answers {@code _all_docs} queries with generated documents, without holding them.
+     */
+    private static class SyntheticAllDocs {
+        private final HttpClient client = mock(HttpClient.class);
+        private final AtomicInteger pages = new AtomicInteger();
+        private final int total;
+
+        SyntheticAllDocs(int total) {
+            this.total = total;
+            HttpResponse ok = json("{\"ok\":true}");
+            when(client.head(anyString())).thenAnswer(invocation -> json(""));
+            when(client.put(anyString())).thenAnswer(invocation -> ok);
+            when(client.put(anyString(), anyString())).thenAnswer(invocation -> json("{\"ok\":true}"));
+            when(client.get(anyString())).thenAnswer(invocation -> get((String) invocation.getArguments()[0]));
+            when(client.getUncached(anyString())).thenAnswer(invocation -> get((String) invocation.getArguments()[0]));
+        }
+
+        private HttpResponse get(String uri) throws Exception {
+            if (!uri.contains("_all_docs")) {
+                return json("{}");
+            }
+            pages.incrementAndGet();
+            Map<String, String> parameters = new HashMap<>();
+            for (String parameter : uri.substring(uri.indexOf('?') + 1).split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                parameters.put(nameAndValue[0], URLDecoder.decode(nameAndValue[1], "UTF-8"));
+            }
+            int start = parameters.containsKey("startkey") ? indexOf(parameters.get("startkey").replace("\"", "")) : 0;
+            int end = Math.min(total, start + Integer.parseInt(parameters.get("limit")));
+
+            StringBuilder page = new StringBuilder("{\"total_rows\":").append(total).append(",\"offset\":").append(start).append(",\"rows\":[");
+            for (int i = start; i < end; i++) {
+                String id = idOf(i);
+                page.append(i > start ? "," : "")
+                        .append("{\"id\":\"").append(id).append("\",\"key\":\"").append(id).append("\",\"value\":{\"rev\":\"1-0\"},")
+                        .append("\"doc\":{\"_id\":\"").append(id).append("\",\"_rev\":\"1-0\",\"name\":\"synthetic document ").append(i)
+                        .append("\",\"text\":\"some text which makes the document reasonably large to read\"}}");
+            }
+            return json(page.append("]}").toString());
+        }
+
+        private static String idOf(int index) {
+            return String.format("doc%07d", index);
+        }
+
+        private static int indexOf(String id) {
+            return Integer.parseInt(id.substring("doc".length()));
+        }
+
+        private static HttpResponse json(String body) {
+            byte[] content = body.getBytes(StandardCharsets.UTF_8);
+            HttpResponse response = mock(HttpResponse.class);
+            when(response.isSuccessful()).thenReturn(true);
+            when(response.getCode()).thenReturn(200);
+            when(response.getContentType()).thenReturn("application/json");
+            when(response.getContentLength()).thenReturn((long) content.length);
+            when(response.getContent()).thenReturn(new ByteArrayInputStream(content));
+            return response;
+        }
+    }
+}
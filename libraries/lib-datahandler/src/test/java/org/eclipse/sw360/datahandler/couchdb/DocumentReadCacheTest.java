@@ -0,0 +1,205 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.couchdb;
+
+import org.eclipse.sw360.testthrift.TestObject;
+import org.ektorp.CouchDbConnector;
+import org.ektorp.DbInfo;
+import org.ektorp.changes.ChangesCommand;
+import org.ektorp.changes.ChangesFeed;
+import org.ektorp.changes.DocumentChange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DocumentReadCacheTest {
+
+    private static final long MAXIMUM_STALENESS = 1000;
+
+    private final Map<String, TestObject> database = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong(100000);
+
+    private StubChangesFeed feed;
+    private DatabaseChangesListener changes;
+    private DocumentReadCache<TestObject> cache;
+
+    @Before
+    public void setUp() throws Exception {
+        database.put("a", new TestObject().setId("a").setName("first"));
+        database.put("b", new TestObject().setId("b").setName("second"));
+        database.put("c", new TestObject().setId("c").setName("third"));
+
+        DbInfo dbInfo = mock(DbInfo.class);
+        when(dbInfo.getUpdateSeqAsString()).thenReturn("0");
+        feed = new StubChangesFeed();
+        CouchDbConnector connector = mock(CouchDbConnector.class);
+        when(connector.getDatabaseName()).thenReturn("cachetest");
+        when(connector.getDbInfo()).thenReturn(dbInfo);
+        when(connector.changesFeed(any(ChangesCommand.class))).thenReturn(feed);
+
+        changes = new DatabaseChangesListener(connector, now::get);
+        cache = new DocumentReadCache<>(changes, TestObject::deepCopy, 2, MAXIMUM_STALENESS);
+        awaitCurrent();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        changes.close();
+    }
+
+    @Test
+    public void testDocumentsAreReadOnce() throws Exception {
+        assertThat(cache.get("a", this::load).getName(), is("first"));
+        assertThat(cache.get("a", this::load).getName(), is("first"));
+
+        assertThat(loads.get(), is(1));
+        assertThat(cache.getHitRatio(), is(0.5));
+    }
+
+    @Test
+    public void testReadersGetCopies() throws Exception {
+        cache.get("a", this::load).setName("modified by reader");
+
+        assertThat(cache.get("a", this::load).getName(), is("first"));
+    }
+
+    @Test
+    public void testChangesFromTheFeedInvalidate() throws Exception {
+        cache.get("a", this::load);
+        database.get("a").setName("changed elsewhere");
+
+        feed.push("a", "1");
+        awaitInvalidations(1);
+
+        assertThat(cache.get("a", this::load).getName(), is("changed elsewhere"));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void testLocalChangesInvalidateImmediately() throws Exception {
+        cache.get("a", this::load);
+        database.get("a").setName("changed here");
+
+        changes.documentChanged("a");
+
+        assertThat(cache.get("a", this::load).getName(), is("changed here"));
+    }
+
+    @Test
+    public void testNothingIsCachedWhileTheChangesAreStale() throws Exception {
+        now.addAndGet(MAXIMUM_STALENESS + 1);
+
+        cache.get("a", this::load);
+        cache.get("a", this::load);
+
+        assertThat(loads.get(), is(2));
+        assertThat(cache.getBypassCount(), is(2L));
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.getStalenessMillis(), greaterThan(MAXIMUM_STALENESS));
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+
+        assertThat(cache.size(), is(2L));
+    }
+
+    @Test
+    public void testOnlyMissingDocumentsAreLoadedInBulk() throws Exception {
+        List<Collection<String>> bulkLoads = new ArrayList<>();
+        Function<Collection<String>, List<TestObject>> loader = ids -> {
+            bulkLoads.add(new ArrayList<>(ids));
+            return ids.stream().map(database::get).filter(Objects::nonNull).map(TestObject::deepCopy).collect(Collectors.toList());
+        };
+        cache.get("a", this::load);
+
+        List<TestObject> documents = cache.getAll(Arrays.asList("a", "b", "missing", "a"), loader, TestObject::getId);
+
+        assertThat(documents.stream().map(TestObject::getId).collect(Collectors.toList()), contains("a", "b"));
+        assertThat(bulkLoads, contains(contains("b", "missing")));
+    }
+
+    private TestObject load(String id) {
+        loads.incrementAndGet();
+        TestObject document = database.get(id);
+        return document == null ? null : document.deepCopy();
+    }
+
+    private void awaitCurrent() throws InterruptedException {
+        for (int i = 0; i < 500 && changes.getStalenessMillis() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(changes.getStalenessMillis(), is(0L));
+    }
+
+    private void awaitInvalidations(long count) throws InterruptedException {
+        for (int i = 0; i < 500 && cache.getInvalidationCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getInvalidationCount(), is(count));
+    }
+
+    private static class StubChangesFeed implements ChangesFeed {
+        private final BlockingQueue<DocumentChange> pending = new LinkedBlockingQueue<>();
+        private volatile boolean alive = true;
+
+        void push(String id, String sequence) {
+            DocumentChange change = mock(DocumentChange.class);
+            when(change.getId()).thenReturn(id);
+            when(change.getStringSequence()).thenReturn(sequence);
+            pending.add(change);
+        }
+
+        @Override
+        public DocumentChange poll() throws InterruptedException {
+            return pending.poll();
+        }
+
+        @Override
+        public DocumentChange next() throws InterruptedException {
+            return pending.take();
+        }
+
+        @Override
+        public DocumentChange next(long timeout, TimeUnit unit) throws InterruptedException {
+            return pending.poll(10, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void cancel() {
+            alive = false;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+import org.eclipse.sw360.datahandler.test.InMemoryDatabase.CouchDbError;
+import org.ektorp.http.HttpClient;
+import org.ektorp.http.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.eclipse.sw360.datahandler.test.InMemoryDatabase.JSON;
+
+/**
+ * CouchDB in memory, for tests which should not need a running CouchDB.
+ *
+ * It answers the HTTP requests of Ektorp like CouchDB 1.6 does, so the {@link org.eclipse.sw360.datahandler.couchdb.DatabaseConnector}
+ * and the handlers are tested unchanged by passing {@link #asSupplier()} instead of the real http client.
+ * Supported are databases, documents, bulk requests, attachments, {@code _all_docs}, views with JavaScript map
+ * functions and the built-in {@code _count} and {@code _sum} reductions, and the normal and continuous changes feed.
+ *
+ * The requests are counted per operation, so tests can assert how many round trips an operation takes.
+ * Shutting the client down keeps the databases, as the tests shut the clients down between their steps.
+ */
+public class InMemoryCouchDb implements HttpClient {
+
+    public enum Operation {
+        DATABASE,
+        GET_DOCUMENT,
+        HEAD_DOCUMENT,
+        PUT_DOCUMENT,
+        DELETE_DOCUMENT,
+        BULK_DOCS,
+        ALL_DOCS,
+        VIEW,
+        CHANGES,
+        GET_ATTACHMENT,
+        PUT_ATTACHMENT,
+        DELETE_ATTACHMENT
+    }
+
+    private static final String JSON_TYPE = "application/json";
+
+    private final Map<String, InMemoryDatabase> databases = new TreeMap<>();
+    private final Map<Operation, AtomicLong> requestCounts = new EnumMap<>(Operation.class);
+    private final MapFunctions mapFunctions = new MapFunctions();
+
+    public InMemoryCouchDb() {
+        for (Operation operation : Operation.values()) {
+            requestCounts.put(operation, new AtomicLong());
+        }
+    }
+
+    public Supplier<HttpClient> asSupplier() {
+        return () -> this;
+    }
+
+    public long getRequestCount(Operation operation) {
+        return requestCounts.get(operation).get();
+    }
+
+    public long getRequestCount() {
+        return requestCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public void resetRequestCounts() {
+        requestCounts.values().forEach(count -> count.set(0));
+    }
+
+    public synchronized Set<String> getDatabaseNames() {
+        return new TreeSet<>(databases.keySet());
+    }
+
+    @Override
+    public HttpResponse get(String uri) {
+        return request("GET", uri, null, null);
+    }
+
+    public HttpResponse get(String uri, Map<String, String> headers) {
+        return get(uri);
+    }
+
+    @Override
+    public HttpResponse getUncached(String uri) {
+        return get(uri);
+    }
+
+    @Override
+    public HttpResponse head(String uri) {
+        return request("HEAD", uri, null, null);
+    }
+
+    @Override
+    public HttpResponse put(String uri) {
+        return request("PUT", uri, null, null);
+    }
+
+    @Override
+    public HttpResponse put(String uri, String content) {
+        return request("PUT", uri, bytesOf(content), JSON_TYPE);
+    }
+
+    @Override
+    public HttpResponse put(String uri, InputStream data, String contentType, long contentLength) {
+        return request("PUT", uri, readFully(data), contentType);
+    }
+
+    public HttpResponse put(String uri, InputStream data, String contentType, long contentLength, Map<String, String> headers) {
+        return put(uri, data, contentType, contentLength);
+    }
+
+    @Override
+    public HttpResponse post(String uri, String content) {
+        return request("POST", uri, bytesOf(content), JSON_TYPE);
+    }
+
+    public HttpResponse post(String uri, InputStream content) {
+        return request("POST", uri, readFully(content), JSON_TYPE);
+    }
+
+    public HttpResponse postUncached(String uri, String content) {
+        return post(uri, content);
+    }
+
+    @Override
+    public HttpResponse delete(String uri) {
+        return request("DELETE", uri, null, null);
+    }
+
+    public HttpResponse copy(String sourceUri, String destination) {
+        return error(sourceUri, new CouchDbError(400, "bad_request", "COPY is not supported"));
+    }
+
+    @Override
+    public void shutdown() {
+        // the databases outlive the connections
+    }
+
+    private HttpResponse request(String method, String uri, byte[] body, String contentType) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        Map<String, String> parameters = query < 0 ? Collections.emptyMap() : parametersOf(uri.substring(query + 1));
+        List<String> segments = segmentsOf(path);
+        try {
+            return route(method, uri, segments, parameters, body, contentType);
+        } catch (CouchDbError e) {
+            return error(uri, e);
+        }
+    }
+
+    private HttpResponse route(String method, String uri, List<String> segments, Map<String, String> parameters, byte[] body, String contentType) {
+        if (segments.isEmpty()) {
+            count(Operation.DATABASE);
+            return json(uri, 200, JSON.createObjectNode().put("couchdb", "Welcome").put("version", "1.6.1"));
+        }
+        String databaseName = segments.get(0);
+        if ("_all_dbs".equals(databaseName)) {
+            count(Operation.DATABASE);
+            ArrayNode names = JSON.createArrayNode();
+            getDatabaseNames().forEach(names::add);
+            return json(uri, 200, names);
+        }
+        if (segments.size() == 1) {
+            count("POST".equals(method) ? Operation.PUT_DOCUMENT : Operation.DATABASE);
+            return database(method, uri, databaseName, body);
+        }
+
+        InMemoryDatabase database = existingDatabase(databaseName);
+        String first = segments.get(1);
+        List<String> rest = segments.subList(2, segments.size());
+        switch (first) {
+            case "_all_docs":
+                count(Operation.ALL_DOCS);
+                return json(uri, 200, inLock(() -> database.allDocs(parameters, keysOf(body))));
+            case "_bulk_docs":
+                count(Operation.BULK_DOCS);
+                return json(uri, 201, inLock(() -> database.bulk(parse(body))));
+            case "_changes":
+                count(Operation.CHANGES);
+                return changes(uri, database, parameters);
+            case "_security":
+                count(Operation.DATABASE);
+                if ("PUT".equals(method)) {
+                    inLock(() -> {
+                        database.setSecurity((ObjectNode) parse(body));
+                        return null;
+                    });
+                    return json(uri, 200, JSON.createObjectNode().put("ok", true));
+                }
+                return json(uri, 200, inLock(database::getSecurity));
+            case "_ensure_full_commit":
+            case "_compact":
+            case "_view_cleanup":
+                count(Operation.DATABASE);
+                return json(uri, 201, JSON.createObjectNode().put("ok", true));
+            default:
+        }
+
+        String documentId = first;
+        if ("_design".equals(first) && !rest.isEmpty()) {
+            documentId = "_design/" + rest.get(0);
+            rest = rest.subList(1, rest.size());
+        }
+        if (documentId.startsWith("_design/") && rest.size() == 2 && "_view".equals(rest.get(0))) {
+            count(Operation.VIEW);
+            String designName = documentId.substring("_design/".length());
+            String viewName = rest.get(1);
+            return json(uri, 200, inLock(() -> database.view(designName, viewName, parameters, keysOf(body))));
+        }
+        if (rest.isEmpty()) {
+            return document(method, uri, database, documentId, parameters, body);
+        }
+        return attachment(method, uri, database, documentId, String.join("/", rest), parameters, body, contentType);
+    }
+
+    private HttpResponse database(String method, String uri, String name, byte[] body) {
+        switch (method) {
+            case "HEAD":
+                existingDatabase(name);
+                return json(uri, 200, null);
+            case "GET":
+                InMemoryDatabase database = existingDatabase(name);
+                return json(uri, 200, inLock(database::info));
+            case "PUT":
+                synchronized (this) {
+                    if (databases.containsKey(name)) {
+                        throw new CouchDbError(412, "file_exists", "The database could not be created, the file already exists.");
+                    }
+                    databases.put(name, new InMemoryDatabase(name, mapFunctions));
+                }
+                return json(uri, 201, JSON.createObjectNode().put("ok", true));
+            case "DELETE":
+                InMemoryDatabase deleted;
+                synchronized (this) {
+                    deleted = databases.remove(name);
+                }
+                if (deleted == null) {
+                    throw new CouchDbError(404, "not_found", "missing");
+                }
+                deleted.close();
+                return json(uri, 200, JSON.createObjectNode().put("ok", true));
+            case "POST":
+                JsonNode document = parse(body);
+                String id = document.hasNonNull("_id") ? document.get("_id").asText() : InMemoryDatabase.newId();
+                InMemoryDatabase target = existingDatabase(name);
+                return json(uri, 201, inLock(() -> target.put(id, (ObjectNode) document, null)));
+            default:
+                throw new CouchDbError(405, "method_not_allowed", "Only DELETE,GET,HEAD,POST,PUT allowed");
+        }
+    }
+
+    private HttpResponse document(String method, String uri, InMemoryDatabase database, String id, Map<String, String> parameters, byte[] body) {
+        switch (method) {
+            case "GET":
+                count(Operation.GET_DOCUMENT);
+                return json(uri, 200, inLock(() -> database.get(id)));
+            case "HEAD":
+                count(Operation.HEAD_DOCUMENT);
+                String revision = inLock(() -> database.revision(id));
+                return new Response(uri, 200, JSON_TYPE, new byte[0], null, revision);
+            case "PUT":
+                count(Operation.PUT_DOCUMENT);
+                return json(uri, 201, inLock(() -> database.put(id, (ObjectNode) parse(body), parameters.get("rev"))));
+            case "DELETE":
+                count(Operation.DELETE_DOCUMENT);
+                return json(uri, 200, inLock(() -> database.delete(id, parameters.get("rev"))));
+            default:
+                throw new CouchDbError(405, "method_not_allowed", "Only DELETE,GET,HEAD,PUT allowed");
+        }
+    }
+
+    private HttpResponse attachment(String method, String uri, InMemoryDatabase database, String id, String name,
+                                    Map<String, String> parameters, byte[] body, String contentType) {
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                count(Operation.GET_ATTACHMENT);
+                InMemoryDatabase.Attachment attachment = inLock(() -> database.getAttachment(id, name));
+                byte[] content = "HEAD".equals(method) ? new byte[0] : attachment.data;
+                return new Response(uri, 200, attachment.contentType, content, null, null);
+            case "PUT":
+                count(Operation.PUT_ATTACHMENT);
+                String type = isNullOrEmpty(contentType) ? "application/octet-stream" : contentType;
+                byte[] data = body == null ? new byte[0] : body;
+                return json(uri, 201, inLock(() -> database.putAttachment(id, name, parameters.get("rev"), type, data)));
+            case "DELETE":
+                count(Operation.DELETE_ATTACHMENT);
+                return json(uri, 200, inLock(() -> database.deleteAttachment(id, name, parameters.get("rev"))));
+            default:
+                throw new CouchDbError(405, "method_not_allowed", "Only DELETE,GET,HEAD,PUT allowed");
+        }
+    }
+
+    private HttpResponse changes(String uri, InMemoryDatabase database, Map<String, String> parameters) {
+        boolean includeDocs = "true".equals(parameters.get("include_docs"));
+        String since = parameters.get("since");
+        if ("continuous".equals(parameters.get("feed"))) {
+            long heartbeat = parameters.containsKey("heartbeat") ? Long.parseLong(parameters.get("heartbeat")) : 0;
+            InputStream stream = inLock(() -> database.follow(since, includeDocs, heartbeat));
+            return new Response(uri, 200, JSON_TYPE, null, stream, null);
+        }
+        return json(uri, 200, inLock(() -> database.changes(since, includeDocs)));
+    }
+
+    private synchronized InMemoryDatabase existingDatabase(String name) {
+        InMemoryDatabase database = databases.get(name);
+        if (database == null) {
+            throw new CouchDbError(404, "not_found", "no_db_file");
+        }
+        return database;
+    }
+
+    private synchronized <T> T inLock(Supplier<T> action) {
+        return action.get();
+    }
+
+    private void count(Operation operation) {
+        requestCounts.get(operation).incrementAndGet();
+    }
+
+    private static List<JsonNode> keysOf(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        List<JsonNode> keys = new ArrayList<>();
+        parse(body).path("keys").forEach(keys::add);
+        return keys;
+    }
+
+    private static JsonNode parse(byte[] body) {
+        try {
+            JsonNode node = body == null ? null : JSON.readTree(body);
+            if (node == null || !node.isObject()) {
+                throw new CouchDbError(400, "bad_request", "Request body must be a JSON object");
+            }
+            return node;
+        } catch (IOException e) {
+            throw new CouchDbError(400, "bad_request", "invalid UTF-8 JSON");
+        }
+    }
+
+    private static List<String> segmentsOf(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(decode(segment));
+            }
+        }
+        // design documents may be addressed with an encoded slash
+        if (segments.size() > 1 && segments.get(1).startsWith("_design/")) {
+            String designName = segments.get(1).substring("_design/".length());
+            segments.set(1, "_design");
+            segments.add(2, designName);
+        }
+        return segments;
+    }
+
+    private static Map<String, String> parametersOf(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : query.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int equals = parameter.indexOf('=');
+            if (equals < 0) {
+                parameters.put(decode(parameter), "");
+            } else {
+                parameters.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] bytesOf(String content) {
+        return content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readFully(InputStream data) {
+        if (data == null) {
+            return null;
+        }
+        try (InputStream input = data) {
+            return ByteStreams.toByteArray(input);
+        } catch (IOException e) {
+            throw new CouchDbError(400, "bad_request", "Could not read request body");
+        }
+    }
+
+    private static HttpResponse json(String uri, int code, JsonNode body) {
+        byte[] content = body == null ? new byte[0] : bytesOf(body.toString());
+        return new Response(uri, code, JSON_TYPE, content, null, null);
+    }
+
+    private static HttpResponse error(String uri, CouchDbError error) {
+        return json(uri, error.code, JSON.createObjectNode().put("error", error.error).put("reason", error.reason));
+    }
+
+    private static class Response implements HttpResponse {
+        private final String requestUri;
+        private final int code;
+        private final String contentType;
+        private final long contentLength;
+        private final InputStream content;
+        private final String etag;
+
+        Response(String requestUri, int code, String contentType, byte[] body, InputStream stream, String etag) {
+            this.requestUri = requestUri;
+            this.code = code;
+            this.contentType = contentType;
+            this.contentLength = body == null ? -1 : body.length;
+            this.content = body == null ? stream : new ByteArrayInputStream(body);
+            this.etag = etag;
+        }
+
+        @Override
+        public boolean isSuccessful() {
+            return code < 300;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return requestUri;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return content;
+        }
+
+        @Override
+        public String getETag() {
+            return etag;
+        }
+
+        public String getHeader(String name) {
+            if ("ETag".equalsIgnoreCase(name)) {
+                return etag == null ? null : "\"" + etag + "\"";
+            }
+            if ("Content-Type".equalsIgnoreCase(name)) {
+                return contentType;
+            }
+            return null;
+        }
+
+        @Override
+        public void releaseConnection() {
+            abort();
+        }
+
+        @Override
+        public void abort() {
+            try {
+                content.close();
+            } catch (IOException e) {
+                // nothing to release
+            }
+        }
+    }
+}
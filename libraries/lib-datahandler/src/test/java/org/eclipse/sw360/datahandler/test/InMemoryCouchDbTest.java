@@ -0,0 +1,192 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseConnector;
+import org.eclipse.sw360.datahandler.couchdb.DatabaseRepository;
+import org.eclipse.sw360.datahandler.couchdb.MapperFactory;
+import org.eclipse.sw360.testthrift.TestObject;
+import org.ektorp.AttachmentInputStream;
+import org.ektorp.CouchDbConnector;
+import org.ektorp.UpdateConflictException;
+import org.ektorp.ViewQuery;
+import org.ektorp.impl.StdCouchDbConnector;
+import org.ektorp.impl.StdCouchDbInstance;
+import org.ektorp.support.View;
+import org.ektorp.support.Views;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.eclipse.sw360.datahandler.test.InMemoryCouchDb.Operation.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+public class InMemoryCouchDbTest {
+
+    private static final String DATABASE = "inmemorytest";
+
+    private InMemoryCouchDb couchDb;
+    private MapperFactory factory;
+    private DatabaseConnector connector;
+    private TestObjectRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        couchDb = new InMemoryCouchDb();
+        factory = new MapperFactory(ImmutableList.<Class<?>>of(TestObject.class), Collections.<Class<?>>emptyList(), Maps.newHashMap());
+        connector = new DatabaseConnector(couchDb, DATABASE, factory);
+        repository = new TestObjectRepository(connector);
+
+        for (String name : Arrays.asList("beta", "Alpha", "alpha", "gamma", "alphabet")) {
+            connector.add(new TestObject().setName(name).setText("text of " + name));
+        }
+        couchDb.resetRequestCounts();
+    }
+
+    @Test
+    public void testDocumentsAreWrittenAndReadAgain() throws Exception {
+        TestObject object = new TestObject().setId("known").setName("delta");
+        connector.add(object);
+        object.setText("changed");
+        connector.update(object);
+
+        TestObject read = connector.get(TestObject.class, "known");
+
+        assertThat(read, is(object));
+        assertThat(read.getRevision(), startsWith("2-"));
+        assertThat(couchDb.getRequestCount(PUT_DOCUMENT), is(2L));
+        assertThat(couchDb.getRequestCount(GET_DOCUMENT), is(1L));
+    }
+
+    @Test
+    public void testOutdatedRevisionsConflict() throws Exception {
+        TestObject object = new TestObject().setId("known").setName("delta");
+        connector.add(object);
+        TestObject outdated = object.deepCopy();
+        connector.update(object.setText("first"));
+
+        // DatabaseConnector only logs conflicts, the plain connector passes them on
+        CouchDbConnector plainConnector = new StdCouchDbConnector(DATABASE, new StdCouchDbInstance(couchDb), factory);
+        try {
+            plainConnector.update(outdated.setText("second"));
+            fail("update with an outdated revision must conflict");
+        } catch (UpdateConflictException expected) {
+            // expected
+        }
+        connector.update(outdated.setText("third"));
+
+        assertThat(connector.get(TestObject.class, "known").getText(), is("first"));
+    }
+
+    @Test
+    public void testDeletedDocumentsAreGone() throws Exception {
+        TestObject object = repository.queryByPrefix("byName", "gamma").get(0);
+
+        assertThat(connector.deleteById(object.getId()), is(true));
+
+        assertThat(connector.contains(object.getId()), is(false));
+        assertThat(connector.get(TestObject.class, object.getId()), is(nullValue()));
+        assertThat(names(repository.getAll()), not(hasItem("gamma")));
+    }
+
+    @Test
+    public void testViewsAreOrderedAndQueriedByPrefix() throws Exception {
+        assertThat(names(repository.queryView(repository.createQuery("byName").includeDocs(true))),
+                contains("alpha", "Alpha", "alphabet", "beta", "gamma"));
+        assertThat(names(repository.queryByPrefix("byName", "alpha")), contains("alpha", "Alpha", "alphabet"));
+        assertThat(names(repository.queryView(repository.createQuery("byName").includeDocs(true).descending(true).limit(2))),
+                contains("gamma", "beta"));
+        assertThat(couchDb.getRequestCount(VIEW), is(3L));
+    }
+
+    @Test
+    public void testReducedViewsCount() throws Exception {
+        ViewQuery count = repository.createQuery("countByInitial").group(true);
+
+        List<String> counts = connector.queryView(count).getRows().stream()
+                .map(row -> row.getKey() + "=" + row.getValueAsInt())
+                .collect(Collectors.toList());
+
+        assertThat(counts, contains("a=3", "b=1", "g=1"));
+    }
+
+    @Test
+    public void testBulkReadsTakeOneRequest() throws Exception {
+        List<String> ids = repository.getAll().stream().map(TestObject::getId).collect(Collectors.toList());
+        couchDb.resetRequestCounts();
+
+        List<TestObject> objects = repository.get(ids);
+
+        assertThat(objects, hasSize(5));
+        assertThat(couchDb.getRequestCount(), is(1L));
+        assertThat(couchDb.getRequestCount(ALL_DOCS), is(1L));
+    }
+
+    @Test
+    public void testAttachmentsAreStoredWithTheirDocument() throws Exception {
+        TestObject object = new TestObject().setId("withAttachment").setName("epsilon");
+        connector.add(object);
+        byte[] content = "attached".getBytes(StandardCharsets.UTF_8);
+
+        connector.createAttachment("withAttachment", object.getRevision(),
+                new AttachmentInputStream("file.txt", new ByteArrayInputStream(content), "text/plain", content.length));
+
+        try (AttachmentInputStream attachment = connector.getAttachment("withAttachment", "file.txt")) {
+            assertThat(attachment.getContentType(), is("text/plain"));
+            assertThat(new String(ByteStreams.toByteArray(attachment), StandardCharsets.UTF_8), is("attached"));
+        }
+        assertThat(couchDb.getRequestCount(PUT_ATTACHMENT), is(1L));
+        assertThat(couchDb.getRequestCount(GET_ATTACHMENT), is(1L));
+    }
+
+    @Test
+    public void testDatabasesOutliveTheClient() throws Exception {
+        couchDb.shutdown();
+
+        DatabaseConnector reconnected = new DatabaseConnector(couchDb, DATABASE);
+
+        assertThat(reconnected.getDbInfo().getDocCount(), is(6L));
+        assertThat(couchDb.getDatabaseNames(), contains(DATABASE));
+    }
+
+    private static List<String> names(List<TestObject> objects) {
+        return objects.stream().map(TestObject::getName).collect(Collectors.toList());
+    }
+
+    @Views({
+            @View(name = "all", map = "function(doc) { if (doc.name) emit(null, doc._id) }"),
+            @View(name = "byName", map = "function(doc) { emit(doc.name, doc._id) }"),
+            @View(name = "countByInitial", map = "function(doc) { emit(doc.name.charAt(0).toLowerCase(), null) }", reduce = "_count")
+    })
+    private static class TestObjectRepository extends DatabaseRepository<TestObject> {
+
+        TestObjectRepository(DatabaseConnector connector) {
+            super(TestObject.class, connector);
+            initStandardDesignDocument();
+        }
+
+        @Override
+        public ViewQuery createQuery(String viewName) {
+            return super.createQuery(viewName);
+        }
+    }
+}
@@ -0,0 +1,761 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Documents, attachments, views and changes of one database of {@link InMemoryCouchDb}.
+ * Callers synchronize, except for reading the continuous changes.
+ */
+class InMemoryDatabase {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String DESIGN_PREFIX = "_design/";
+    private static final Comparator<JsonNode> RAW_COLLATION = Comparator.comparing(JsonNode::asText);
+
+    private final String name;
+    private final MapFunctions mapFunctions;
+    private final TreeMap<String, Document> documents = new TreeMap<>();
+    private final Map<String, ViewIndex> indexes = new HashMap<>();
+    private final List<ChangesStream> followers = new CopyOnWriteArrayList<>();
+    private ObjectNode security = JSON.createObjectNode();
+    private long updateSequence = 0;
+
+    InMemoryDatabase(String name, MapFunctions mapFunctions) {
+        this.name = name;
+        this.mapFunctions = mapFunctions;
+    }
+
+    ObjectNode info() {
+        long deleted = documents.values().stream().filter(document -> document.deleted).count();
+        ObjectNode info = JSON.createObjectNode();
+        info.put("db_name", name);
+        info.put("doc_count", documents.size() - deleted);
+        info.put("doc_del_count", deleted);
+        info.put("update_seq", updateSequence);
+        info.put("purge_seq", 0);
+        info.put("compact_running", false);
+        info.put("disk_size", 0);
+        info.put("data_size", 0);
+        info.put("instance_start_time", "0");
+        info.put("disk_format_version", 6);
+        info.put("committed_update_seq", updateSequence);
+        return info;
+    }
+
+    ObjectNode getSecurity() {
+        return security.deepCopy();
+    }
+
+    void setSecurity(ObjectNode security) {
+        this.security = security.deepCopy();
+    }
+
+    ObjectNode get(String id) {
+        return toJson(existing(id));
+    }
+
+    String revision(String id) {
+        return existing(id).revision;
+    }
+
+    ObjectNode put(String id, ObjectNode input, String revisionParameter) {
+        String revision = input.hasNonNull("_rev") ? input.get("_rev").asText() : revisionParameter;
+        Document current = documents.get(id);
+        checkRevision(current, revision);
+
+        int generation = current == null ? 1 : current.generation + 1;
+        boolean deleted = input.path("_deleted").asBoolean(false);
+        Map<String, Attachment> attachments = deleted ? new LinkedHashMap<>()
+                : attachmentsOf(current, input.get("_attachments"), generation);
+        ObjectNode body = JSON.createObjectNode();
+        input.fields().forEachRemaining(field -> {
+            if (!field.getKey().startsWith("_") && !deleted) {
+                body.set(field.getKey(), field.getValue());
+            }
+        });
+        return written(write(id, generation, body, attachments, deleted));
+    }
+
+    ObjectNode delete(String id, String revision) {
+        Document current = existing(id);
+        checkRevision(current, revision);
+        return written(write(id, current.generation + 1, JSON.createObjectNode(), new LinkedHashMap<>(), true));
+    }
+
+    ArrayNode bulk(JsonNode request) {
+        ArrayNode results = JSON.createArrayNode();
+        for (JsonNode document : request.path("docs")) {
+            String id = document.hasNonNull("_id") ? document.get("_id").asText() : newId();
+            ObjectNode result = results.addObject();
+            result.put("id", id);
+            try {
+                result.put("rev", put(id, (ObjectNode) document, null).get("rev").asText());
+            } catch (CouchDbError e) {
+                result.put("error", e.error);
+                result.put("reason", e.reason);
+            }
+        }
+        return results;
+    }
+
+    Attachment getAttachment(String id, String attachmentName) {
+        Attachment attachment = existing(id).attachments.get(attachmentName);
+        if (attachment == null) {
+            throw new CouchDbError(404, "not_found", "Document is missing attachment");
+        }
+        return attachment;
+    }
+
+    ObjectNode putAttachment(String id, String attachmentName, String revision, String contentType, byte[] data) {
+        Document current = documents.get(id);
+        checkRevision(current, revision);
+        int generation = current == null ? 1 : current.generation + 1;
+        boolean exists = current != null && !current.deleted;
+        Map<String, Attachment> attachments = exists ? new LinkedHashMap<>(current.attachments) : new LinkedHashMap<>();
+        attachments.put(attachmentName, new Attachment(contentType, data, generation));
+        ObjectNode body = exists ? current.body : JSON.createObjectNode();
+        return written(write(id, generation, body, attachments, false));
+    }
+
+    ObjectNode deleteAttachment(String id, String attachmentName, String revision) {
+        Document current = existing(id);
+        checkRevision(current, revision);
+        if (!current.attachments.containsKey(attachmentName)) {
+            throw new CouchDbError(404, "not_found", "Document is missing attachment");
+        }
+        Map<String, Attachment> attachments = new LinkedHashMap<>(current.attachments);
+        attachments.remove(attachmentName);
+        return written(write(id, current.generation + 1, current.body, attachments, false));
+    }
+
+    ObjectNode allDocs(Map<String, String> parameters, List<JsonNode> keys) {
+        QueryParameters query = new QueryParameters(parameters, keys);
+        if (query.keys != null) {
+            ArrayNode rows = JSON.createArrayNode();
+            for (JsonNode key : query.keys) {
+                Document document = documents.get(key.asText());
+                if (document == null) {
+                    rows.addObject().put("key", key.asText()).put("error", "not_found");
+                    continue;
+                }
+                ObjectNode row = rows.addObject();
+                row.put("id", document.id);
+                row.put("key", document.id);
+                ObjectNode value = row.putObject("value");
+                value.put("rev", document.revision);
+                if (document.deleted) {
+                    value.put("deleted", true);
+                    if (query.includeDocs) {
+                        row.putNull("doc");
+                    }
+                } else if (query.includeDocs) {
+                    row.set("doc", toJson(document));
+                }
+            }
+            long totalRows = documents.values().stream().filter(document -> !document.deleted).count();
+            return result((int) totalRows, 0, limit(rows, query));
+        }
+
+        List<Row> index = documents.values().stream()
+                .filter(document -> !document.deleted)
+                .map(document -> new Row(new TextNode(document.id), JSON.createObjectNode().put("rev", document.revision), document.id))
+                .collect(Collectors.toList());
+        return query(index, query, RAW_COLLATION);
+    }
+
+    ObjectNode view(String designName, String viewName, Map<String, String> parameters, List<JsonNode> keys) {
+        Document design = documents.get(DESIGN_PREFIX + designName);
+        if (design == null || design.deleted) {
+            throw new CouchDbError(404, "not_found", "missing");
+        }
+        JsonNode view = design.body.path("views").path(viewName);
+        if (!view.has("map")) {
+            throw new CouchDbError(404, "not_found", "missing_named_view");
+        }
+
+        QueryParameters query = new QueryParameters(parameters, keys);
+        List<Row> index = index(design, viewName, view.get("map").asText());
+        boolean reduce = query.reduce != null ? query.reduce : view.has("reduce");
+        if (!reduce) {
+            return query(index, query, ViewCollation.INSTANCE);
+        }
+        if (!view.has("reduce")) {
+            throw new CouchDbError(400, "query_parse_error", "Reduce is invalid for map-only views.");
+        }
+        if (query.includeDocs) {
+            throw new CouchDbError(400, "query_parse_error", "`include_docs` is invalid for reduce");
+        }
+        return reduce(select(index, query, ViewCollation.INSTANCE), view.get("reduce").asText().trim(), query);
+    }
+
+    ObjectNode changes(String since, boolean includeDocs) {
+        ObjectNode changes = JSON.createObjectNode();
+        ArrayNode results = changes.putArray("results");
+        changesSince(sequenceOf(since)).forEach(document -> results.add(change(document, includeDocs)));
+        changes.put("last_seq", updateSequence);
+        return changes;
+    }
+
+    /**
+     * @return the stream of changes since the given sequence, one JSON object per line, which stays open
+     * and delivers the following changes as they happen, with empty lines as heartbeat
+     */
+    InputStream follow(String since, boolean includeDocs, long heartbeatMillis) {
+        ChangesStream stream = new ChangesStream(includeDocs, heartbeatMillis);
+        changesSince(sequenceOf(since)).forEach(document -> stream.offer(change(document, includeDocs)));
+        followers.add(stream);
+        return stream;
+    }
+
+    /**
+     * Ends the continuous changes, as the database is gone.
+     */
+    void close() {
+        followers.forEach(ChangesStream::close);
+    }
+
+    private Document existing(String id) {
+        Document document = documents.get(id);
+        if (document == null) {
+            throw new CouchDbError(404, "not_found", "missing");
+        }
+        if (document.deleted) {
+            throw new CouchDbError(404, "not_found", "deleted");
+        }
+        return document;
+    }
+
+    private static void checkRevision(Document current, String revision) {
+        boolean matches;
+        if (current == null) {
+            matches = isNullOrEmpty(revision);
+        } else if (current.deleted) {
+            matches = isNullOrEmpty(revision) || revision.equals(current.revision);
+        } else {
+            matches = current.revision.equals(revision);
+        }
+        if (!matches) {
+            throw new CouchDbError(409, "conflict", "Document update conflict.");
+        }
+    }
+
+    private static Map<String, Attachment> attachmentsOf(Document current, JsonNode stubs, int generation) {
+        Map<String, Attachment> attachments = new LinkedHashMap<>();
+        if (stubs == null || !stubs.isObject()) {
+            return attachments;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = stubs.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode stub = field.getValue();
+            if (stub.has("data")) {
+                byte[] data = Base64.getDecoder().decode(stub.get("data").asText());
+                attachments.put(field.getKey(), new Attachment(stub.path("content_type").asText("application/octet-stream"), data, generation));
+            } else {
+                Attachment existing = current == null || current.deleted ? null : current.attachments.get(field.getKey());
+                if (existing == null) {
+                    throw new CouchDbError(412, "missing_stub", "Invalid attachment stub for " + field.getKey());
+                }
+                attachments.put(field.getKey(), existing);
+            }
+        }
+        return attachments;
+    }
+
+    private Document write(String id, int generation, ObjectNode body, Map<String, Attachment> attachments, boolean deleted) {
+        Document document = new Document(id, generation, body, attachments, deleted, ++updateSequence);
+        documents.put(id, document);
+        for (ChangesStream follower : followers) {
+            follower.offer(change(document, follower.includeDocs));
+        }
+        return document;
+    }
+
+    private static ObjectNode written(Document document) {
+        ObjectNode result = JSON.createObjectNode();
+        result.put("ok", true);
+        result.put("id", document.id);
+        result.put("rev", document.revision);
+        return result;
+    }
+
+    private ObjectNode toJson(Document document) {
+        ObjectNode json = JSON.createObjectNode();
+        json.put("_id", document.id);
+        json.put("_rev", document.revision);
+        if (document.deleted) {
+            json.put("_deleted", true);
+            return json;
+        }
+        json.setAll(document.body.deepCopy());
+        if (!document.attachments.isEmpty()) {
+            ObjectNode stubs = json.putObject("_attachments");
+            document.attachments.forEach((attachmentName, attachment) -> stubs.putObject(attachmentName)
+                    .put("content_type", attachment.contentType)
+                    .put("revpos", attachment.revpos)
+                    .put("digest", attachment.digest)
+                    .put("length", attachment.data.length)
+                    .put("stub", true));
+        }
+        return json;
+    }
+
+    private List<Document> changesSince(long since) {
+        return documents.values().stream()
+                .filter(document -> document.sequence > since)
+                .sorted(Comparator.comparingLong(document -> document.sequence))
+                .collect(Collectors.toList());
+    }
+
+    private long sequenceOf(String since) {
+        if (isNullOrEmpty(since)) {
+            return 0;
+        }
+        if ("now".equals(since)) {
+            return updateSequence;
+        }
+        try {
+            return Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new CouchDbError(400, "bad_request", "Invalid since: " + since);
+        }
+    }
+
+    private ObjectNode change(Document document, boolean includeDocs) {
+        ObjectNode change = JSON.createObjectNode();
+        change.put("seq", document.sequence);
+        change.put("id", document.id);
+        change.putArray("changes").addObject().put("rev", document.revision);
+        if (document.deleted) {
+            change.put("deleted", true);
+        }
+        if (includeDocs) {
+            change.set("doc", toJson(document));
+        }
+        return change;
+    }
+
+    private List<Row> index(Document design, String viewName, String map) {
+        String indexName = design.id + "/" + viewName;
+        ViewIndex index = indexes.get(indexName);
+        if (index == null || index.sequence != updateSequence || !index.map.equals(map)) {
+            List<Row> rows = new ArrayList<>();
+            for (Document document : documents.values()) {
+                if (!document.deleted && !document.id.startsWith(DESIGN_PREFIX)) {
+                    rows.addAll(emitted(document, map));
+                }
+            }
+            rows.sort((a, b) -> {
+                int byKey = ViewCollation.INSTANCE.compare(a.key, b.key);
+                return byKey != 0 ? byKey : a.id.compareTo(b.id);
+            });
+            index = new ViewIndex(map, updateSequence, rows);
+            indexes.put(indexName, index);
+        }
+        return index.rows;
+    }
+
+    private List<Row> emitted(Document document, String map) {
+        String emitted = mapFunctions.map(map, toJson(document).toString());
+        if (emitted == null) {
+            return Collections.emptyList();
+        }
+        try {
+            List<Row> rows = new ArrayList<>();
+            for (JsonNode pair : JSON.readTree(emitted)) {
+                rows.add(new Row(pair.get(0), pair.get(1), document.id));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable rows emitted for " + document.id, e);
+        }
+    }
+
+    private ObjectNode query(List<Row> index, QueryParameters query, Comparator<JsonNode> collation) {
+        List<Row> selected = select(index, query, collation);
+        int offset = query.keys != null || selected.isEmpty() ? 0
+                : ordered(index, query).indexOf(selected.get(0)) + Math.min(query.skip, selected.size());
+
+        ArrayNode rows = JSON.createArrayNode();
+        for (Row row : selected) {
+            ObjectNode json = rows.addObject();
+            json.put("id", row.id);
+            json.set("key", row.key);
+            json.set("value", row.value);
+            if (query.includeDocs) {
+                String id = row.value != null && row.value.hasNonNull("_id") ? row.value.get("_id").asText() : row.id;
+                Document document = documents.get(id);
+                json.set("doc", document == null || document.deleted ? null : toJson(document));
+            }
+        }
+        return result(index.size(), offset, limit(rows, query));
+    }
+
+    private static List<Row> ordered(List<Row> index, QueryParameters query) {
+        if (!query.descending) {
+            return index;
+        }
+        List<Row> reversed = new ArrayList<>(index);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private static List<Row> select(List<Row> index, QueryParameters query, Comparator<JsonNode> collation) {
+        if (query.keys != null) {
+            List<Row> selected = new ArrayList<>();
+            for (JsonNode key : query.keys) {
+                for (Row row : ordered(index, query)) {
+                    if (collation.compare(row.key, key) == 0) {
+                        selected.add(row);
+                    }
+                }
+            }
+            return selected;
+        }
+
+        int direction = query.descending ? -1 : 1;
+        return ordered(index, query).stream()
+                .filter(row -> query.startKey == null || direction * compare(row, query.startKey, query.startDocId, collation) >= 0)
+                .filter(row -> {
+                    if (query.endKey == null) {
+                        return true;
+                    }
+                    int toEnd = direction * compare(row, query.endKey, query.endDocId, collation);
+                    return query.inclusiveEnd ? toEnd <= 0 : toEnd < 0;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static int compare(Row row, JsonNode key, String docId, Comparator<JsonNode> collation) {
+        int byKey = collation.compare(row.key, key);
+        return byKey != 0 || docId == null ? byKey : row.id.compareTo(docId);
+    }
+
+    private static ObjectNode reduce(List<Row> rows, String function, QueryParameters query) {
+        if (!"_count".equals(function) && !"_sum".equals(function)) {
+            throw new CouchDbError(400, "query_parse_error", "Only the built-in reduce functions _count and _sum are supported");
+        }
+        int groupLevel = query.groupLevel != null ? query.groupLevel : query.group ? Integer.MAX_VALUE : 0;
+
+        ArrayNode reduced = JSON.createArrayNode();
+        JsonNode groupKey = null;
+        double value = 0;
+        boolean started = false;
+        for (Row row : rows) {
+            JsonNode key = groupKeyOf(row.key, groupLevel);
+            if (started && ViewCollation.INSTANCE.compare(key, groupKey) != 0) {
+                addReduced(reduced, groupKey, value, function);
+                value = 0;
+            }
+            groupKey = key;
+            started = true;
+            value += "_count".equals(function) ? 1 : row.value.asDouble();
+        }
+        if (started) {
+            addReduced(reduced, groupKey, value, function);
+        }
+
+        ObjectNode result = JSON.createObjectNode();
+        result.set("rows", limit(reduced, query));
+        return result;
+    }
+
+    private static JsonNode groupKeyOf(JsonNode key, int groupLevel) {
+        if (groupLevel == 0) {
+            return JsonNodeFactory.instance.nullNode();
+        }
+        if (key == null || !key.isArray() || key.size() <= groupLevel) {
+            return key;
+        }
+        ArrayNode prefix = JSON.createArrayNode();
+        for (int i = 0; i < groupLevel; i++) {
+            prefix.add(key.get(i));
+        }
+        return prefix;
+    }
+
+    private static void addReduced(ArrayNode reduced, JsonNode key, double value, String function) {
+        ObjectNode row = reduced.addObject();
+        row.set("key", key);
+        if ("_count".equals(function) || value == Math.rint(value)) {
+            row.put("value", (long) value);
+        } else {
+            row.put("value", value);
+        }
+    }
+
+    private static ArrayNode limit(ArrayNode rows, QueryParameters query) {
+        ArrayNode limited = JSON.createArrayNode();
+        for (int i = query.skip; i < rows.size() && limited.size() < query.limit; i++) {
+            limited.add(rows.get(i));
+        }
+        return limited;
+    }
+
+    private static ObjectNode result(int totalRows, int offset, ArrayNode rows) {
+        ObjectNode result = JSON.createObjectNode();
+        result.put("total_rows", totalRows);
+        result.put("offset", offset);
+        result.set("rows", rows);
+        return result;
+    }
+
+    static String newId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class CouchDbError extends RuntimeException {
+        final int code;
+        final String error;
+        final String reason;
+
+        CouchDbError(int code, String error, String reason) {
+            super(code + " " + error + ": " + reason);
+            this.code = code;
+            this.error = error;
+            this.reason = reason;
+        }
+    }
+
+    static class Attachment {
+        final String contentType;
+        final byte[] data;
+        final int revpos;
+        final String digest;
+
+        Attachment(String contentType, byte[] data, int revpos) {
+            this.contentType = contentType;
+            this.data = data;
+            this.revpos = revpos;
+            this.digest = "md5-" + md5(data);
+        }
+    }
+
+    private static class Document {
+        final String id;
+        final int generation;
+        final String revision;
+        final ObjectNode body;
+        final Map<String, Attachment> attachments;
+        final boolean deleted;
+        final long sequence;
+
+        Document(String id, int generation, ObjectNode body, Map<String, Attachment> attachments, boolean deleted, long sequence) {
+            this.id = id;
+            this.generation = generation;
+            this.body = body;
+            this.attachments = attachments;
+            this.deleted = deleted;
+            this.sequence = sequence;
+            String content = id + generation + deleted + body + attachments.keySet();
+            this.revision = generation + "-" + hex(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String hex(byte[] data) {
+            try {
+                StringBuilder hex = new StringBuilder();
+                for (byte b : MessageDigest.getInstance("MD5").digest(data)) {
+                    hex.append(String.format("%02x", b));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Row {
+        final JsonNode key;
+        final JsonNode value;
+        final String id;
+
+        Row(JsonNode key, JsonNode value, String id) {
+            this.key = key;
+            this.value = value;
+            this.id = id;
+        }
+    }
+
+    private static class ViewIndex {
+        final String map;
+        final long sequence;
+        final List<Row> rows;
+
+        ViewIndex(String map, long sequence, List<Row> rows) {
+            this.map = map;
+            this.sequence = sequence;
+            this.rows = rows;
+        }
+    }
+
+    private static class QueryParameters {
+        final List<JsonNode> keys;
+        final JsonNode startKey;
+        final JsonNode endKey;
+        final String startDocId;
+        final String endDocId;
+        final boolean inclusiveEnd;
+        final boolean descending;
+        final boolean includeDocs;
+        final Boolean reduce;
+        final boolean group;
+        final Integer groupLevel;
+        final int skip;
+        final int limit;
+
+        QueryParameters(Map<String, String> parameters, List<JsonNode> keys) {
+            JsonNode key = json(parameters.get("key"));
+            JsonNode keysParameter = json(parameters.get("keys"));
+            this.keys = keys != null ? keys : keysParameter != null ? toList(keysParameter) : null;
+            this.startKey = key != null ? key : json(first(parameters, "startkey", "start_key"));
+            this.endKey = key != null ? key : json(first(parameters, "endkey", "end_key"));
+            this.startDocId = first(parameters, "startkey_docid", "start_key_doc_id");
+            this.endDocId = first(parameters, "endkey_docid", "end_key_doc_id");
+            this.inclusiveEnd = !"false".equals(parameters.get("inclusive_end"));
+            this.descending = "true".equals(parameters.get("descending"));
+            this.includeDocs = "true".equals(parameters.get("include_docs"));
+            this.reduce = parameters.containsKey("reduce") ? "true".equals(parameters.get("reduce")) : null;
+            this.group = "true".equals(parameters.get("group"));
+            this.groupLevel = parameters.containsKey("group_level") ? Integer.valueOf(parameters.get("group_level")) : null;
+            this.skip = parameters.containsKey("skip") ? Integer.parseInt(parameters.get("skip")) : 0;
+            this.limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : Integer.MAX_VALUE;
+        }
+
+        private static String first(Map<String, String> parameters, String name, String alias) {
+            return parameters.containsKey(name) ? parameters.get(name) : parameters.get(alias);
+        }
+
+        private static List<JsonNode> toList(JsonNode array) {
+            List<JsonNode> list = new ArrayList<>();
+            array.forEach(list::add);
+            return list;
+        }
+
+        private static JsonNode json(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return JSON.readTree(value);
+            } catch (IOException e) {
+                throw new CouchDbError(400, "bad_request", "Invalid JSON: " + value);
+            }
+        }
+    }
+
+    /**
+     * Continuous changes as read by Ektorp: never blocks once a line is partially read, so that a reader
+     * gets every line as soon as it is available.
+     */
+    private class ChangesStream extends InputStream {
+        private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        private final boolean includeDocs;
+        private final long heartbeatMillis;
+        private volatile boolean closed = false;
+        private byte[] line = new byte[0];
+        private int position = 0;
+
+        ChangesStream(boolean includeDocs, long heartbeatMillis) {
+            this.includeDocs = includeDocs;
+            this.heartbeatMillis = heartbeatMillis > 0 ? heartbeatMillis : TimeUnit.MINUTES.toMillis(1);
+        }
+
+        void offer(JsonNode change) {
+            lines.offer(change.toString());
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!awaitLine()) {
+                return -1;
+            }
+            return line[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!awaitLine()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return line.length - position;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            followers.remove(this);
+            lines.offer("");
+        }
+
+        private boolean awaitLine() throws IOException {
+            while (position >= line.length) {
+                if (closed) {
+                    return false;
+                }
+                String next;
+                try {
+                    next = lines.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                if (closed) {
+                    return false;
+                }
+                line = ((next == null ? "" : next) + "\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.test;
+
+import org.apache.log4j.Logger;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the JavaScript map functions of CouchDB views with the script engine of the JDK.
+ * A document for which the map function fails emits nothing, as in CouchDB.
+ */
+class MapFunctions {
+
+    private static final Logger log = Logger.getLogger(MapFunctions.class);
+
+    private static final String RUNTIME = "var __emitted = [];\n"
+            + "function emit(key, value) {\n"
+            + "  __emitted.push([key === undefined ? null : key, value === undefined ? null : value]);\n"
+            + "}\n"
+            + "function log(message) {}\n"
+            + "function __map(fn, json) {\n"
+            + "  __emitted = [];\n"
+            + "  fn(JSON.parse(json));\n"
+            + "  return JSON.stringify(__emitted);\n"
+            + "}\n";
+
+    private final Map<String, Object> compiled = new HashMap<>();
+    private ScriptEngine engine;
+
+    /**
+     * @return the emitted rows as JSON array of [key, value] pairs, null if the function failed
+     */
+    synchronized String map(String source, String documentJson) {
+        Invocable invocable = (Invocable) engine();
+        try {
+            return (String) invocable.invokeFunction("__map", compile(source), documentJson);
+        } catch (ScriptException | NoSuchMethodException | RuntimeException e) {
+            log.debug("Map function failed for document " + documentJson, e);
+            return null;
+        }
+    }
+
+    private Object compile(String source) throws ScriptException {
+        Object function = compiled.get(source);
+        if (function == null) {
+            function = engine().eval("(" + source + ")");
+            compiled.put(source, function);
+        }
+        return function;
+    }
+
+    private ScriptEngine engine() {
+        if (engine == null) {
+            ScriptEngine created = new ScriptEngineManager().getEngineByName("nashorn");
+            if (created == null) {
+                throw new IllegalStateException("No JavaScript engine available to evaluate views");
+            }
+            try {
+                created.eval(RUNTIME);
+            } catch (ScriptException e) {
+                throw new IllegalStateException(e);
+            }
+            engine = created;
+        }
+        return engine;
+    }
+}
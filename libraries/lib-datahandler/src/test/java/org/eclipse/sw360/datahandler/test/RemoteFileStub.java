@@ -0,0 +1,159 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.sw360.datahandler.test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal http server serving files from memory, for tests of remote downloads.
+ *
+ * Every response closes its connection. Responses can be broken off after a
+ * number of bytes, range requests are answered unless disabled, and the
+ * number of concurrent requests per requested host name is tracked.
+ */
+public class RemoteFileStub implements Closeable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, Integer> breakNextResponseAfter = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> concurrentRequestsByHost = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxConcurrentRequestsByHost = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private volatile boolean rangesSupported = true;
+    private volatile int latencyMillis = 0;
+
+    public RemoteFileStub() throws IOException {
+        serverSocket = new ServerSocket(0);
+        executor.submit(this::accept);
+    }
+
+    public String getUrl(String host, String path) {
+        return "http://" + host + ":" + serverSocket.getLocalPort() + path;
+    }
+
+    public void addFile(String path, byte[] content) {
+        files.put(path, content);
+    }
+
+    public void breakNextResponseAfter(String path, int bytes) {
+        breakNextResponseAfter.put(path, bytes);
+    }
+
+    public void setRangesSupported(boolean rangesSupported) {
+        this.rangesSupported = rangesSupported;
+    }
+
+    public void setLatencyMillis(int latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getRangeRequests() {
+        return rangeRequests.get();
+    }
+
+    public int getMaxConcurrentRequests(String host) {
+        return maxConcurrentRequestsByHost.getOrDefault(host, 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.submit(() -> handle(socket));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket closing = socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            String path = in.readLine().split(" ")[1];
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+            String host = headers.getOrDefault("host", "").replaceFirst(":\\d+$", "");
+
+            requests.incrementAndGet();
+            int concurrent = concurrentRequestsByHost.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+            maxConcurrentRequestsByHost.merge(host, concurrent, Math::max);
+            try {
+                Thread.sleep(latencyMillis);
+                respond(socket.getOutputStream(), path, headers.get("range"));
+            } finally {
+                concurrentRequestsByHost.get(host).decrementAndGet();
+            }
+        } catch (SocketException e) {
+            // the client went away
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            // nothing to answer
+        }
+    }
+
+    private void respond(OutputStream out, String path, String range) throws IOException {
+        byte[] content = files.get(path);
+        if (content == null) {
+            out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+
+        int start = 0;
+        StringBuilder head = new StringBuilder();
+        if (range != null && rangesSupported) {
+            rangeRequests.incrementAndGet();
+            start = Integer.parseInt(range.replaceFirst("bytes=(\\d+)-.*", "$1"));
+            head.append("HTTP/1.1 206 Partial Content\r\n")
+                    .append("Content-Range: bytes ").append(start).append('-').append(content.length - 1).append('/').append(content.length).append("\r\n");
+        } else {
+            head.append("HTTP/1.1 200 OK\r\n");
+        }
+        head.append("Content-Length: ").append(content.length - start).append("\r\n")
+                .append("Content-Type: application/octet-stream\r\n")
+                .append("ETag: \"").append(Integer.toHexString(path.hashCode())).append("\"\r\n")
+                .append("Connection: close\r\n\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        int end = content.length;
+        Integer breakAfter = breakNextResponseAfter.remove(path);
+        if (breakAfter != null) {
+            end = Math.min(end, start + breakAfter);
+        }
+        out.write(content, start, end - start);
+        out.flush();
+    }
+}
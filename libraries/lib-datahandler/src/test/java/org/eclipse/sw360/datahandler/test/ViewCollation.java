@@ -0,0 +1,115 @@
+/*
+ * Copyright Siemens AG, 2018. Part of the SW360 Portal Project.
+ *
+ * SPDX-License-Identifier: EPL-1.0
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.sw360.datahandler.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Order of view keys as in CouchDB: null, false, true, numbers, strings, arrays, objects.
+ *
+ * Strings are compared ignoring case first and lower case before upper case, which approximates the ICU
+ * collation of CouchDB closely enough for the keys used by the repositories, including the high unicode
+ * character appended for prefix queries.
+ */
+class ViewCollation implements Comparator<JsonNode> {
+
+    static final ViewCollation INSTANCE = new ViewCollation();
+
+    private ViewCollation() {
+    }
+
+    @Override
+    public int compare(JsonNode a, JsonNode b) {
+        int byType = Integer.compare(rank(a), rank(b));
+        if (byType != 0) {
+            return byType;
+        }
+        switch (rank(a)) {
+            case 3:
+                return Double.compare(a.asDouble(), b.asDouble());
+            case 4:
+                return compareStrings(a.asText(), b.asText());
+            case 5:
+                return compareArrays(a, b);
+            case 6:
+                return compareObjects(a, b);
+            default:
+                return 0;
+        }
+    }
+
+    private static int rank(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return 0;
+        }
+        if (node.isBoolean()) {
+            return node.asBoolean() ? 2 : 1;
+        }
+        if (node.isNumber()) {
+            return 3;
+        }
+        if (node.isTextual()) {
+            return 4;
+        }
+        if (node.isArray()) {
+            return 5;
+        }
+        return 6;
+    }
+
+    private static int compareStrings(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            int folded = Character.compare(Character.toLowerCase(a.charAt(i)), Character.toLowerCase(b.charAt(i)));
+            if (folded != 0) {
+                return folded;
+            }
+        }
+        if (a.length() != b.length()) {
+            return Integer.compare(a.length(), b.length());
+        }
+        // same letters, lower case first
+        return b.compareTo(a);
+    }
+
+    private int compareArrays(JsonNode a, JsonNode b) {
+        int length = Math.min(a.size(), b.size());
+        for (int i = 0; i < length; i++) {
+            int element = compare(a.get(i), b.get(i));
+            if (element != 0) {
+                return element;
+            }
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private int compareObjects(JsonNode a, JsonNode b) {
+        Iterator<Map.Entry<String, JsonNode>> first = a.fields();
+        Iterator<Map.Entry<String, JsonNode>> second = b.fields();
+        while (first.hasNext() && second.hasNext()) {
+            Map.Entry<String, JsonNode> x = first.next();
+            Map.Entry<String, JsonNode> y = second.next();
+            int name = compareStrings(x.getKey(), y.getKey());
+            if (name != 0) {
+                return name;
+            }
+            int value = compare(x.getValue(), y.getValue());
+            if (value != 0) {
+                return value;
+            }
+        }
+        return Boolean.compare(first.hasNext(), second.hasNext());
+    }
+}
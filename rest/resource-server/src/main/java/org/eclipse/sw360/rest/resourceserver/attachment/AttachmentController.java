@@ -15,7 +15,9 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.thrift.TException;
+import org.eclipse.sw360.datahandler.common.ByteRange;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.rest.resourceserver.core.HalResource;
@@ -28,14 +30,26 @@ import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceProcessor;
 import org.springframework.hateoas.UriTemplate;
 import org.springframework.hateoas.mvc.ControllerLinkBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Strings.nullToEmpty;
 import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 
 @BasePathAwareController
@@ -43,6 +57,7 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class AttachmentController implements ResourceProcessor<RepositoryLinksResource> {
     public static final String ATTACHMENTS_URL = "/attachments";
+    private static final String RFC5987_ATTR_CHARS = "!#$&+-.^_`|~";
 
     @NonNull
     private final Sw360AttachmentService attachmentService;
@@ -81,6 +96,73 @@ public class AttachmentController implements ResourceProcessor<RepositoryLinksRe
         return new ResponseEntity<>(attachmentResource, HttpStatus.OK);
     }
 
+    @RequestMapping(value = ATTACHMENTS_URL + "/{id}/download", method = RequestMethod.GET)
+    public void downloadAttachment(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            OAuth2Authentication oAuth2Authentication,
+            HttpServletResponse response) throws TException, IOException {
+
+        User sw360User = restControllerHelper.getSw360UserFromAuthentication(oAuth2Authentication);
+        Object owner = attachmentService.getAttachmentOwnerForUser(id, sw360User);
+        if (owner == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        AttachmentContent attachmentContent = attachmentService.getAttachmentContent(id);
+
+        response.setContentType(isNullOrEmpty(attachmentContent.getContentType())
+                ? MediaType.APPLICATION_OCTET_STREAM_VALUE
+                : attachmentContent.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachmentContent.getFilename()));
+
+        if (attachmentContent.isOnlyRemote()) {
+            // the length is only known after the first download stored the attachment
+            try (InputStream attachmentStream = attachmentService.getAttachmentStream(attachmentContent, sw360User, owner)) {
+                StreamUtils.copy(attachmentStream, response.getOutputStream());
+            }
+            return;
+        }
+
+        long totalLength = attachmentService.getAttachmentLength(attachmentContent);
+        Optional<ByteRange> range = ByteRange.parse(rangeHeader, totalLength);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, ByteRange.ACCEPT_RANGES_VALUE);
+        if (range.isPresent()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.get().getContentRange());
+            if (!range.get().isSatisfiable()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        }
+
+        long offset = range.map(ByteRange::getStart).orElse(0L);
+        long length = range.map(ByteRange::getLength).orElse(totalLength);
+        response.setContentLengthLong(length);
+        try (InputStream attachmentStream = attachmentService.getAttachmentRangeStream(attachmentContent, sw360User, owner, offset, length)) {
+            StreamUtils.copy(attachmentStream, response.getOutputStream());
+        }
+    }
+
+    /**
+     * The quoted filename only keeps printable ASCII characters for clients which do not know RFC 6266, the others
+     * read the whole name from the RFC 5987 encoded filename*.
+     */
+    private static String contentDisposition(String filename) {
+        String name = nullToEmpty(filename);
+        String asciiName = name.replaceAll("[^\\x20-\\x7e]|[\"\\\\]", "_");
+        StringBuilder encodedName = new StringBuilder();
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if (c < 0x80 && (Character.isLetterOrDigit(c) || RFC5987_ATTR_CHARS.indexOf(c) >= 0)) {
+                encodedName.append(c);
+            } else {
+                encodedName.append(String.format("%%%02X", b & 0xff));
+            }
+        }
+        return "attachment; filename=\"" + asciiName + "\"; filename*=UTF-8''" + encodedName;
+    }
+
     private HalResource<Attachment> createHalAttachment(
             Attachment sw360Attachment,
             Release sw360Release,
@@ -18,24 +18,40 @@ import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.transport.THttpClient;
 import org.apache.thrift.transport.TTransportException;
+import org.eclipse.sw360.datahandler.common.Duration;
+import org.eclipse.sw360.datahandler.couchdb.AttachmentStreamConnector;
+import org.eclipse.sw360.datahandler.thrift.Source;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentService;
 import org.eclipse.sw360.datahandler.thrift.components.ComponentService;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.projects.ProjectService;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.sw360.datahandler.common.CommonUtils.nullToEmptySet;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class Sw360AttachmentService {
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.durationOf(30, TimeUnit.SECONDS);
+
     @Value("${sw360.thrift-server-url:http://localhost:8080}")
     private String thriftServerUrl;
 
+    private AttachmentStreamConnector attachmentStreamConnector;
+
     public AttachmentInfo getAttachmentBySha1ForUser(String sha1, User sw360User) throws TException {
         ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
         List<Release> releases = sw360ComponentClient.getReleaseSummary(sw360User);
@@ -53,24 +69,84 @@ public class Sw360AttachmentService {
     }
 
     public AttachmentInfo getAttachmentByIdForUser(String id, User sw360User) throws TException {
-        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
-        List<Release> releases = sw360ComponentClient.getReleaseSummary(sw360User);
-        for (Release release : releases) {
-            final Set<Attachment> attachments = release.getAttachments();
-            if (attachments != null && attachments.size() > 0) {
-                for (Attachment attachment : attachments) {
-                    if (id.equals(attachment.getAttachmentContentId())) {
-                        return new AttachmentInfo(attachment, release);
-                    }
+        Object owner = getAttachmentOwnerForUser(id, sw360User);
+        if (owner instanceof Release) {
+            Release release = (Release) owner;
+            for (Attachment attachment : nullToEmptySet(release.getAttachments())) {
+                if (id.equals(attachment.getAttachmentContentId())) {
+                    return new AttachmentInfo(attachment, release);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Finds the project, component or release the attachment content belongs to by the index of
+     * attachment owners and reads only that document for the user.
+     *
+     * @return null if no document has an attachment with the given content id
+     */
+    public Object getAttachmentOwnerForUser(String attachmentContentId, User sw360User) throws TException {
+        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
+        Optional<Source> owner = sw360ComponentClient.getAttachmentOwners(attachmentContentId).stream().findFirst();
+        if (!owner.isPresent()) {
+            return null;
+        }
+        switch (owner.get().getSetField()) {
+            case PROJECT_ID:
+                return getThriftProjectClient().getProjectById(owner.get().getProjectId(), sw360User);
+            case COMPONENT_ID:
+                return sw360ComponentClient.getComponentById(owner.get().getComponentId(), sw360User);
+            default:
+                return sw360ComponentClient.getReleaseById(owner.get().getReleaseId(), sw360User);
+        }
+    }
+
+    public AttachmentContent getAttachmentContent(String id) throws TException {
+        return getThriftAttachmentClient().getAttachmentContent(id);
+    }
+
+    public long getAttachmentLength(AttachmentContent attachmentContent) throws TException {
+        return getAttachmentStreamConnector().getAttachmentLength(attachmentContent);
+    }
+
+    public <T> InputStream getAttachmentStream(AttachmentContent attachmentContent, User sw360User, T owner) throws TException {
+        return getAttachmentStreamConnector().getAttachmentStream(attachmentContent, sw360User, owner);
+    }
+
+    public <T> InputStream getAttachmentRangeStream(AttachmentContent attachmentContent, User sw360User, T owner,
+                                                    long offset, long length) throws TException {
+        return getAttachmentStreamConnector().getAttachmentRangeStream(attachmentContent, sw360User, owner, offset, length);
+    }
+
+    private synchronized AttachmentStreamConnector getAttachmentStreamConnector() throws TException {
+        if (attachmentStreamConnector == null) {
+            try {
+                attachmentStreamConnector = new AttachmentStreamConnector(DOWNLOAD_TIMEOUT);
+            } catch (MalformedURLException e) {
+                log.error("Invalid database address received...", e);
+                throw new TException(e);
+            }
+        }
+        return attachmentStreamConnector;
+    }
+
+    private AttachmentService.Iface getThriftAttachmentClient() throws TTransportException {
+        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/attachments/thrift");
+        TProtocol protocol = new TCompactProtocol(thriftClient);
+        return new AttachmentService.Client(protocol);
+    }
+
     private ComponentService.Iface getThriftComponentClient() throws TTransportException {
         THttpClient thriftClient = new THttpClient(thriftServerUrl + "/components/thrift");
         TProtocol protocol = new TCompactProtocol(thriftClient);
         return new ComponentService.Client(protocol);
     }
+
+    private ProjectService.Iface getThriftProjectClient() throws TTransportException {
+        THttpClient thriftClient = new THttpClient(thriftServerUrl + "/projects/thrift");
+        TProtocol protocol = new TCompactProtocol(thriftClient);
+        return new ProjectService.Client(protocol);
+    }
 }
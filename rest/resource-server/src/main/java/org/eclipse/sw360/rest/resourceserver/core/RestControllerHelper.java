@@ -77,8 +77,7 @@ public class RestControllerHelper {
             Set<String> releases,
             Sw360ReleaseService sw360ReleaseService,
             User user) throws TException {
-        for (String releaseId : releases) {
-            final Release release = sw360ReleaseService.getReleaseForUserById(releaseId, user);
+        for (Release release : sw360ReleaseService.getReleasesForUserByIds(releases, user)) {
             addEmbeddedRelease(halResource, release);
         }
     }
@@ -195,8 +195,7 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
         final Set<String> releaseIds = projectService.getReleaseIds(id, sw360User, transitive);
 
         final List<Resource<Release>> releaseResources = new ArrayList<>();
-        for (final String releaseId : releaseIds) {
-            final Release sw360Release = releaseService.getReleaseForUserById(releaseId, sw360User);
+        for (final Release sw360Release : releaseService.getReleasesForUserByIds(releaseIds, sw360User)) {
             final Release minimalFilledRelease = new Release();
             minimalFilledRelease.setId(sw360Release.getId());
             minimalFilledRelease.setEccInformation(sw360Release.getEccInformation());
@@ -232,8 +231,7 @@ public class ProjectController implements ResourceProcessor<RepositoryLinksResou
         final Set<String> allLicenseIds = new HashSet<>();
 
         final Set<String> releaseIdToUsage = project.getReleaseIdToUsage().keySet();
-        for (final String releaseId : releaseIdToUsage) {
-            final Release release = releaseService.getReleaseForUserById(releaseId, sw360User);
+        for (final Release release : releaseService.getReleasesForUserByIds(releaseIdToUsage, sw360User)) {
             final Set<String> licenseIds = release.getMainLicenseIds();
             allLicenseIds.addAll(licenseIds);
         }
@@ -32,6 +32,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -50,6 +51,11 @@ public class Sw360ReleaseService {
         return sw360ComponentClient.getReleaseById(releaseId, sw360User);
     }
 
+    public List<Release> getReleasesForUserByIds(Set<String> releaseIds, User sw360User) throws TException {
+        ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
+        return sw360ComponentClient.getReleasesWithVendorsByIds(releaseIds, sw360User);
+    }
+
     public Release createRelease(Release release, User sw360User) throws TException {
         ComponentService.Iface sw360ComponentClient = getThriftComponentClient();
         AddDocumentRequestSummary documentRequestSummary = sw360ComponentClient.addRelease(release, sw360User);
@@ -11,10 +11,12 @@ package org.eclipse.sw360.rest.resourceserver.restdocs;
 
 import org.apache.thrift.TException;
 import org.eclipse.sw360.datahandler.thrift.attachments.Attachment;
+import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentContent;
 import org.eclipse.sw360.datahandler.thrift.attachments.AttachmentType;
 import org.eclipse.sw360.datahandler.thrift.attachments.CheckStatus;
 import org.eclipse.sw360.datahandler.thrift.components.ClearingState;
 import org.eclipse.sw360.datahandler.thrift.components.Release;
+import org.eclipse.sw360.datahandler.thrift.projects.Project;
 import org.eclipse.sw360.datahandler.thrift.users.User;
 import org.eclipse.sw360.rest.resourceserver.TestHelper;
 import org.eclipse.sw360.rest.resourceserver.attachment.AttachmentInfo;
@@ -26,9 +28,12 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -37,11 +42,17 @@ import java.util.List;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.springframework.restdocs.headers.HeaderDocumentation.headerWithName;
+import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
+import static org.springframework.restdocs.headers.HeaderDocumentation.responseHeaders;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkWithRel;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.links;
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
 import static org.springframework.restdocs.payload.PayloadDocumentation.responseFields;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -61,6 +72,8 @@ public class AttachmentSpecTest extends TestRestDocsSpecBase {
 
     private Attachment attachment;
 
+    private static final String ATTACHMENT_TEXT = "Some text content of an attachment which is downloaded in parts.";
+
     @Before
     public void before() throws TException {
         List<Attachment> attachmentList = new ArrayList<>();
@@ -97,6 +110,17 @@ public class AttachmentSpecTest extends TestRestDocsSpecBase {
         AttachmentInfo attachmentInfo = new AttachmentInfo(attachment, release);
 
         given(this.attachmentServiceMock.getAttachmentByIdForUser(eq(attachment.getAttachmentContentId()), anyObject())).willReturn(attachmentInfo);
+        given(this.attachmentServiceMock.getAttachmentOwnerForUser(eq(attachment.getAttachmentContentId()), anyObject())).willReturn(release);
+
+        AttachmentContent attachmentContent = new AttachmentContent()
+                .setId(attachment.getAttachmentContentId())
+                .setFilename("readme.txt")
+                .setContentType("text/plain")
+                .setOnlyRemote(false);
+        given(this.attachmentServiceMock.getAttachmentContent(attachment.getAttachmentContentId())).willReturn(attachmentContent);
+        given(this.attachmentServiceMock.getAttachmentLength(attachmentContent)).willReturn((long) ATTACHMENT_TEXT.length());
+        given(this.attachmentServiceMock.getAttachmentRangeStream(eq(attachmentContent), anyObject(), anyObject(), eq(5L), eq(4L)))
+                .willAnswer(invocation -> new ByteArrayInputStream(ATTACHMENT_TEXT.substring(5, 9).getBytes(StandardCharsets.UTF_8)));
 
         User user = new User();
         user.setId("admin@sw360.org");
@@ -135,4 +159,83 @@ public class AttachmentSpecTest extends TestRestDocsSpecBase {
                                 fieldWithPath("_links").description("<<resources-index-links,Links>> to other resources")
                         )));
     }
+
+    @Test
+    public void should_document_get_attachment_range() throws Exception {
+        String accessToken = TestHelper.getAccessToken(mockMvc, testUserId, testUserPassword);
+        mockMvc.perform(get("/api/attachments/" + attachment.getAttachmentContentId() + "/download")
+                .header("Authorization", "Bearer " + accessToken)
+                .header(HttpHeaders.RANGE, "bytes=5-8"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-8/" + ATTACHMENT_TEXT.length()))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(ATTACHMENT_TEXT.substring(5, 9)))
+                .andDo(this.documentationHandler.document(
+                        requestHeaders(
+                                headerWithName(HttpHeaders.RANGE).description("Optional single byte range of the attachment content to get")
+                        ),
+                        responseHeaders(
+                                headerWithName(HttpHeaders.ACCEPT_RANGES).description("Byte ranges of the attachment can be requested"),
+                                headerWithName(HttpHeaders.CONTENT_RANGE).description("The range of the content returned and the length of the whole content")
+                        )));
+    }
+
+    @Test
+    public void should_reject_unsatisfiable_attachment_range() throws Exception {
+        String accessToken = TestHelper.getAccessToken(mockMvc, testUserId, testUserPassword);
+        mockMvc.perform(get("/api/attachments/" + attachment.getAttachmentContentId() + "/download")
+                .header("Authorization", "Bearer " + accessToken)
+                .header(HttpHeaders.RANGE, "bytes=1000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + ATTACHMENT_TEXT.length()));
+    }
+
+    @Test
+    public void should_escape_the_filename_of_a_download() throws Exception {
+        AttachmentContent attachmentContent = new AttachmentContent()
+                .setId(attachment.getAttachmentContentId())
+                .setFilename("the \"final\" r\u00e9sum\u00e9;\\\r\n.txt")
+                .setContentType("text/plain")
+                .setOnlyRemote(true);
+        given(this.attachmentServiceMock.getAttachmentContent(attachment.getAttachmentContentId())).willReturn(attachmentContent);
+        given(this.attachmentServiceMock.getAttachmentStream(eq(attachmentContent), anyObject(), anyObject()))
+                .willAnswer(invocation -> new ByteArrayInputStream(ATTACHMENT_TEXT.getBytes(StandardCharsets.UTF_8)));
+
+        String accessToken = TestHelper.getAccessToken(mockMvc, testUserId, testUserPassword);
+        mockMvc.perform(get("/api/attachments/" + attachment.getAttachmentContentId() + "/download")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"the _final_ r_sum_;___.txt\"; filename*=UTF-8''the%20%22final%22%20r%C3%A9sum%C3%A9%3B%5C%0D%0A.txt"))
+                .andExpect(content().string(ATTACHMENT_TEXT));
+    }
+
+    @Test
+    public void should_download_attachment_of_project() throws Exception {
+        Project project = new Project().setId("376576").setName("Emerald Web");
+        AttachmentContent attachmentContent = new AttachmentContent()
+                .setId("1231231255")
+                .setFilename("clearing-report.docx")
+                .setOnlyRemote(false);
+        given(this.attachmentServiceMock.getAttachmentOwnerForUser(eq(attachmentContent.getId()), anyObject())).willReturn(project);
+        given(this.attachmentServiceMock.getAttachmentContent(attachmentContent.getId())).willReturn(attachmentContent);
+        given(this.attachmentServiceMock.getAttachmentLength(attachmentContent)).willReturn((long) ATTACHMENT_TEXT.length());
+        given(this.attachmentServiceMock.getAttachmentRangeStream(eq(attachmentContent), anyObject(), eq(project), eq(0L), eq((long) ATTACHMENT_TEXT.length())))
+                .willAnswer(invocation -> new ByteArrayInputStream(ATTACHMENT_TEXT.getBytes(StandardCharsets.UTF_8)));
+
+        String accessToken = TestHelper.getAccessToken(mockMvc, testUserId, testUserPassword);
+        mockMvc.perform(get("/api/attachments/" + attachmentContent.getId() + "/download")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string(ATTACHMENT_TEXT));
+        verify(this.attachmentServiceMock).getAttachmentOwnerForUser(eq(attachmentContent.getId()), anyObject());
+    }
+
+    @Test
+    public void should_not_find_attachment_without_owner() throws Exception {
+        String accessToken = TestHelper.getAccessToken(mockMvc, testUserId, testUserPassword);
+        mockMvc.perform(get("/api/attachments/unknown/download")
+                .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -140,6 +140,7 @@ public class ProjectSpecTest extends TestRestDocsSpecBase {
         release.setExternalIds(Collections.singletonMap("mainline-id-component", "1432"));
 
         given(this.releaseServiceMock.getReleaseForUserById(eq(release.getId()), anyObject())).willReturn(release);
+        given(this.releaseServiceMock.getReleasesForUserByIds(anyObject(), anyObject())).willReturn(Collections.singletonList(release));
 
         User user = new User();
         user.setId("admin@sw360.org");